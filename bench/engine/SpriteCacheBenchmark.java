@@ -0,0 +1,133 @@
+package engine;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.logging.Level;
+
+import entity.EnemyShip;
+import entity.EnemyShipFormation;
+import screen.Screen;
+
+/**
+ * Measures the time to draw a full 8x7 level 7 formation, drawing each sprite
+ * pixel by pixel as before against the rasterized sprite cache.
+ * 
+ */
+public final class SpriteCacheBenchmark {
+
+	/** Screen width. */
+	private static final int WIDTH = 448;
+	/** Screen height. */
+	private static final int HEIGHT = 520;
+	/** Frames drawn before measuring. */
+	private static final int WARMUP_FRAMES = 2000;
+	/** Frames measured. */
+	private static final int FRAMES = 5000;
+
+	/** Sprites loaded the same way as DrawManager does. */
+	private static SpriteMask[] sprites;
+
+	/**
+	 * Constructor, not called.
+	 */
+	private SpriteCacheBenchmark() {
+
+	}
+
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args
+	 *            Ignored.
+	 * @throws IOException
+	 *             If the sprites can't be loaded.
+	 */
+	public static void main(final String[] args) throws IOException {
+		Core.getLogger().setLevel(Level.WARNING);
+		loadSprites();
+
+		Screen screen = new Screen(WIDTH, HEIGHT, 60);
+		EnemyShipFormation formation = new EnemyShipFormation(
+				new GameSettings(8, 7, 2, 3300, 1), 7);
+		formation.attach(screen);
+
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		Graphics graphics = image.getGraphics();
+
+		for (int i = 0; i < WARMUP_FRAMES; i++)
+			drawPerPixel(graphics, formation);
+		long start = System.nanoTime();
+		for (int i = 0; i < FRAMES; i++)
+			drawPerPixel(graphics, formation);
+		double perPixel = (System.nanoTime() - start) / 1000.0 / FRAMES;
+
+		Core.getAssetLoader().await(AssetLoader.Asset.Sprites);
+		DrawManager drawManager = Core.getDrawManager();
+		for (int i = 0; i < WARMUP_FRAMES; i++)
+			drawCached(drawManager, screen, formation);
+		start = System.nanoTime();
+		for (int i = 0; i < FRAMES; i++)
+			drawCached(drawManager, screen, formation);
+		double cached = (System.nanoTime() - start) / 1000.0 / FRAMES;
+
+		System.out.println(String.format("per-pixel drawRect: %8.1f us/frame",
+				perPixel));
+		System.out.println(String.format("sprite cache:       %8.1f us/frame",
+				cached));
+		System.out.println(String.format("speedup:            %8.1fx",
+				perPixel / cached));
+	}
+
+	/**
+	 * Loads the sprites as DrawManager does.
+	 * 
+	 * @throws IOException
+	 *             If the sprites can't be loaded.
+	 */
+	private static void loadSprites() throws IOException {
+		sprites = Core.getFileManager().loadSprites();
+	}
+
+	/**
+	 * Draws the formation one drawRect per lit pixel, as drawEntity used to.
+	 * 
+	 * @param graphics
+	 *            Graphics to draw on.
+	 * @param formation
+	 *            Formation to draw.
+	 */
+	private static void drawPerPixel(final Graphics graphics,
+			final EnemyShipFormation formation) {
+		graphics.setColor(Color.BLACK);
+		graphics.fillRect(0, 0, WIDTH, HEIGHT);
+		for (EnemyShip enemyShip : formation) {
+			SpriteMask image = sprites[enemyShip.getSpriteType().ordinal()];
+			graphics.setColor(enemyShip.getColor());
+			for (int i = 0; i < image.getWidth(); i++)
+				for (int j = 0; j < image.getHeight(); j++)
+					if (image.isSet(i, j))
+						graphics.drawRect(enemyShip.getPositionX() + i * 2,
+								enemyShip.getPositionY() + j * 2, 1, 1);
+		}
+	}
+
+	/**
+	 * Draws the formation through the DrawManager sprite cache.
+	 * 
+	 * @param drawManager
+	 *            Draw manager, drawing offscreen.
+	 * @param screen
+	 *            Screen to draw in.
+	 * @param formation
+	 *            Formation to draw.
+	 */
+	private static void drawCached(final DrawManager drawManager,
+			final Screen screen, final EnemyShipFormation formation) {
+		drawManager.initDrawing(screen);
+		formation.draw(0);
+		drawManager.completeDrawing(screen);
+	}
+}
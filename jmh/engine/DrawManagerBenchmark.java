@@ -0,0 +1,64 @@
+package engine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import entity.EnemyShip;
+import entity.EnemyShipFormation;
+import screen.Screen;
+
+/**
+ * Measures drawing entities into the offscreen buffer used without a frame.
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class DrawManagerBenchmark {
+
+	/** Draw manager, drawing offscreen. */
+	private DrawManager drawManager;
+	/** Full level 7 formation, 8x7 ships. */
+	private EnemyShipFormation formation;
+
+	/**
+	 * Loads the sprites and prepares the offscreen buffer.
+	 */
+	@Setup
+	public void setUp() {
+		Core.getLogger().setLevel(Level.WARNING);
+		Core.startHeadless();
+
+		Screen screen = new Screen(448, 520, 60);
+		this.formation = new EnemyShipFormation(
+				new GameSettings(8, 7, 2, 3300, 1), 7);
+		this.formation.attach(screen);
+		Core.getAssetLoader().await(AssetLoader.Asset.Sprites);
+		this.drawManager = Core.getDrawManager();
+		this.drawManager.initDrawing(screen);
+	}
+
+	/**
+	 * Draws every ship of the formation.
+	 */
+	@Benchmark
+	public void drawEntity() {
+		for (EnemyShip enemyShip : this.formation)
+			this.drawManager.drawEntity(enemyShip, enemyShip.getPositionX(),
+					enemyShip.getPositionY());
+	}
+}
@@ -0,0 +1,66 @@
+package engine;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loading the resources read at start up.
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class FileManagerBenchmark {
+
+	/** File manager measured. */
+	private FileManager fileManager;
+
+	/**
+	 * Prepares the file manager.
+	 */
+	@Setup
+	public void setUp() {
+		Core.getLogger().setLevel(Level.WARNING);
+		this.fileManager = Core.getFileManager();
+	}
+
+	/**
+	 * Reads every sprite from the assets archive.
+	 * 
+	 * @return Sprites read.
+	 * @throws IOException
+	 *             If the sprites can't be loaded.
+	 */
+	@Benchmark
+	public SpriteMask[] loadSprite() throws IOException {
+		return this.fileManager.loadSprites();
+	}
+
+	/**
+	 * Reads the high scores, the default ones if none were saved.
+	 * 
+	 * @return High scores read.
+	 * @throws IOException
+	 *             If the scores can't be loaded.
+	 */
+	@Benchmark
+	public List<Score> loadHighScores() throws IOException {
+		return this.fileManager.loadHighScores();
+	}
+}
@@ -0,0 +1,78 @@
+package engine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the ticks per second of the stress scenarios, with and without
+ * drawing the frames.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class StressBenchmark {
+
+	/** Ticks played before measuring, past the countdown of the level. */
+	private static final int WARMUP_TICKS = 420;
+
+	/** Scenario played. */
+	@Param({ "BASELINE", "WIDE", "MEGA_FORMATION", "BULLET_STORM",
+			"MEGA_STORM" })
+	private String scenario;
+
+	/** Scenario being played. */
+	private StressScenario.Run run;
+
+	/**
+	 * Starts the scenario and plays until the player can move.
+	 */
+	@Setup
+	public void setUp() {
+		Core.getLogger().setLevel(Level.WARNING);
+		this.run = StressScenario.valueOf(this.scenario).start();
+		for (int i = 0; i < WARMUP_TICKS; i++)
+			this.run.tick();
+	}
+
+	/**
+	 * Stops driving the input.
+	 */
+	@TearDown
+	public void tearDown() {
+		this.run.stop();
+	}
+
+	/**
+	 * Plays a tick.
+	 */
+	@Benchmark
+	public void tick() {
+		this.run.tick();
+	}
+
+	/**
+	 * Plays a tick and draws its frame.
+	 */
+	@Benchmark
+	public void frame() {
+		this.run.tick();
+		this.run.draw();
+	}
+}
@@ -0,0 +1,99 @@
+package entity;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import engine.Core;
+
+/**
+ * Measures adding, removing and hit testing bullets, at several bullet
+ * counts.
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class BulletSystemBenchmark {
+
+	/** Screen width. */
+	private static final int WIDTH = 448;
+	/** Screen height. */
+	private static final int HEIGHT = 520;
+	/** Seed of the bullet positions, the same on every run. */
+	private static final long SEED = 42;
+
+	/** Bullets added and checked. */
+	@Param({ "16", "256", "1024" })
+	private int bulletCount;
+
+	/** Bullets scattered over the screen. */
+	private BulletSystem bullets;
+	/** Empty bullets, filled and emptied by each operation. */
+	private BulletSystem emptyBullets;
+	/** Player ship the bullets are checked against. */
+	private Ship ship;
+
+	/**
+	 * Scatters the bullets over the screen, with the ship at its bottom.
+	 */
+	@Setup
+	public void setUp() {
+		Core.getLogger().setLevel(Level.WARNING);
+		Core.startHeadless();
+
+		this.ship = new Ship(WIDTH / 2, HEIGHT - 30);
+		this.bullets = new BulletSystem();
+		this.emptyBullets = new BulletSystem();
+		Random random = new Random(SEED);
+		for (int i = 0; i < this.bulletCount; i++)
+			this.bullets.spawn(random.nextInt(WIDTH), random.nextInt(HEIGHT),
+					4, BulletSystem.OWNER_ENEMY);
+	}
+
+	/**
+	 * Sweeps every bullet against the ship, as the bullet pass of the game
+	 * screen does.
+	 * 
+	 * @return Bullets reaching the ship.
+	 */
+	@Benchmark
+	public int sweepCollision() {
+		int hits = 0;
+		for (int i = 0; i < this.bullets.size(); i++)
+			if (this.bullets.sweepCollision(i, this.ship)
+					!= BulletSystem.NO_IMPACT)
+				hits++;
+		return hits;
+	}
+
+	/**
+	 * Adds the bullets and removes them from the front, the worst order for
+	 * swap removal.
+	 * 
+	 * @return Bullets left, zero.
+	 */
+	@Benchmark
+	public int spawnRemove() {
+		for (int i = 0; i < this.bulletCount; i++)
+			this.emptyBullets.spawn(i, i, -6, BulletSystem.OWNER_PLAYER);
+		while (this.emptyBullets.size() > 0)
+			this.emptyBullets.remove(0);
+		return this.emptyBullets.size();
+	}
+}
@@ -0,0 +1,99 @@
+package entity;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import engine.Core;
+import engine.GameSettings;
+import engine.VirtualClock;
+import screen.Screen;
+
+/**
+ * Measures the formation's work in a tick, one tick of game time per
+ * operation.
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class EnemyShipFormationBenchmark {
+
+	/** Length of a tick. */
+	private static final long TICK_NANOS = 1000000000L / 60;
+
+	/** Formation size, columns x rows. */
+	@Param({ "5x4", "8x7" })
+	private String formation;
+
+	/** Clock moved forward one tick per operation. */
+	private VirtualClock clock;
+	/** Formation measured. */
+	private EnemyShipFormation enemyShipFormation;
+	/** Bullets shot by the formation. */
+	private BulletSystem bullets;
+
+	/**
+	 * Creates a full formation on a headless screen.
+	 */
+	@Setup
+	public void setUp() {
+		Core.getLogger().setLevel(Level.WARNING);
+		this.clock = Core.startHeadless();
+
+		String[] size = this.formation.split("x");
+		this.enemyShipFormation = new EnemyShipFormation(new GameSettings(
+				Integer.parseInt(size[0]), Integer.parseInt(size[1]), 60,
+				2000, 1), 1);
+		this.enemyShipFormation.attach(new Screen(448, 520, 60));
+		// The first update creates the shooting cooldown.
+		this.enemyShipFormation.update();
+		this.bullets = new BulletSystem();
+	}
+
+	/**
+	 * Moves the formation.
+	 */
+	@Benchmark
+	public void update() {
+		this.clock.advance(TICK_NANOS);
+		this.enemyShipFormation.update();
+	}
+
+	/**
+	 * Lets the formation shoot when its cooldown is over.
+	 */
+	@Benchmark
+	public void shoot() {
+		this.clock.advance(TICK_NANOS);
+		this.enemyShipFormation.shoot(this.bullets);
+		this.bullets.clear();
+	}
+
+	/**
+	 * Walks every ship of the formation.
+	 * 
+	 * @return Sum of the positions, so the walk isn't optimized away.
+	 */
+	@Benchmark
+	public int iterator() {
+		int sum = 0;
+		for (EnemyShip enemyShip : this.enemyShipFormation)
+			sum += enemyShip.getPositionX();
+		return sum;
+	}
+}
@@ -0,0 +1,127 @@
+package screen;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import engine.Core;
+import engine.GameSettings;
+import engine.GameState;
+import entity.BulletSystem;
+
+/**
+ * Measures the bullet pass of a game screen tick, at several bullet and
+ * formation sizes.
+ * 
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class GameScreenBenchmark {
+
+	/** Screen width. */
+	private static final int WIDTH = 448;
+	/** Screen height. */
+	private static final int HEIGHT = 520;
+	/** Speed of the bullets shot by the player. */
+	private static final int BULLET_SPEED = -6;
+	/** Ticks a bullet shot from the bottom takes to leave the screen. */
+	private static final int WAVE_TICKS = 80;
+	/** Initial position of the formation in the Y axis. */
+	private static final int FORMATION_Y = 100;
+	/** Distance between the rows of the formation. */
+	private static final int FORMATION_ROW_HEIGHT = 40;
+	/** Seed of the bullet positions, the same on every run. */
+	private static final long SEED = 42;
+
+	/** Bullets on screen. */
+	@Param({ "16", "256", "1024" })
+	private int bulletCount;
+	/** Formation size, columns x rows. */
+	@Param({ "5x4", "8x7" })
+	private String formation;
+
+	/** Screen measured. */
+	private GameScreen screen;
+	/** Bullets of the screen. */
+	private BulletSystem bullets;
+	/** Position of each bullet of the wave in the X axis. */
+	private int[] positionsX;
+	/** Position of each bullet of the wave in the Y axis. */
+	private int[] positionsY;
+
+	/**
+	 * Creates a level and places a wave of bullets between the formation and
+	 * the player.
+	 */
+	@Setup
+	public void setUp() {
+		Core.getLogger().setLevel(Level.WARNING);
+		Core.startHeadless();
+
+		String[] size = this.formation.split("x");
+		GameSettings gameSettings = new GameSettings(
+				Integer.parseInt(size[0]), Integer.parseInt(size[1]), 60,
+				2000, 1);
+		this.screen = new GameScreen(new GameState(1, 0, 3, 0, 0, false),
+				gameSettings, false, WIDTH, HEIGHT, 60);
+		this.screen.initialize();
+		this.bullets = this.screen.getBullets();
+
+		// Below the last row, the formation starts at 100 with rows 40 apart.
+		int top = FORMATION_Y + Integer.parseInt(size[1])
+				* FORMATION_ROW_HEIGHT;
+		int range = HEIGHT - 60 - BulletSystem.HEIGHT - top;
+
+		Random random = new Random(SEED);
+		this.positionsX = new int[this.bulletCount];
+		this.positionsY = new int[this.bulletCount];
+		for (int i = 0; i < this.bulletCount; i++) {
+			this.positionsX[i] = random.nextInt(WIDTH);
+			this.positionsY[i] = top + random.nextInt(range);
+		}
+	}
+
+	/**
+	 * Gives the ships of the level back to their pool.
+	 */
+	@TearDown
+	public void tearDown() {
+		this.screen.releaseShips();
+	}
+
+	/**
+	 * Shoots the wave, each bullet moving away from the ships it could hit
+	 * so every invocation sees the same level, and runs the bullet pass
+	 * until all of them left the screen. Reported per tick.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(WAVE_TICKS)
+	public void updateBullets() {
+		this.bullets.clear();
+		for (int i = 0; i < this.bulletCount; i++)
+			this.bullets.spawn(this.positionsX[i], this.positionsY[i],
+					i % 2 == 0 ? -BULLET_SPEED : BULLET_SPEED,
+					i % 2 == 0 ? BulletSystem.OWNER_PLAYER
+							: BulletSystem.OWNER_ENEMY);
+		for (int tick = 0; tick < WAVE_TICKS; tick++)
+			this.screen.updateBullets();
+	}
+}
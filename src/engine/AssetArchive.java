@@ -0,0 +1,134 @@
+package engine;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the assets archive written by AssetPacker: a table of contents
+ * naming every entry, then the entries. Sprites are stored as their size and
+ * rows of bits, fonts as their file. The whole archive is read at once and
+ * entries are decoded when asked for by name.
+ *
+ */
+public final class AssetArchive {
+
+	/** Identifies assets archives, "INVA". */
+	static final int MAGIC = 0x494E5641;
+	/** Version of the archive format. */
+	static final int VERSION = 1;
+
+	/** Kinds of entries. */
+	public static enum EntryType {
+		/** Sprite, size and rows of bits. */
+		Sprite,
+		/** Font file. */
+		Font;
+	};
+
+	/** Archive bytes. */
+	private ByteBuffer buffer;
+	/** Type of each entry, by name. */
+	private Map<String, EntryType> types;
+	/** Offset of each entry, by name. */
+	private Map<String, Integer> offsets;
+	/** Length of each entry, by name. */
+	private Map<String, Integer> lengths;
+
+	/**
+	 * Constructor, reads the table of contents of an archive.
+	 *
+	 * @param buffer
+	 *            Archive bytes.
+	 * @throws IOException
+	 *             In case of a corrupt archive.
+	 */
+	public AssetArchive(final ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		this.types = new HashMap<String, EntryType>();
+		this.offsets = new HashMap<String, Integer>();
+		this.lengths = new HashMap<String, Integer>();
+
+		try {
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+				throw new IOException("Corrupt assets archive");
+			ByteBuffer contents = buffer.duplicate();
+			contents.position(8);
+			int count = contents.getInt();
+			for (int i = 0; i < count; i++) {
+				EntryType type = EntryType.values()[contents.get()];
+				byte[] name = new byte[contents.getShort()];
+				contents.get(name);
+				String key = new String(name, StandardCharsets.UTF_8);
+				int offset = contents.getInt();
+				int length = contents.getInt();
+				if (offset < 0 || length < 0
+						|| offset + length > buffer.limit())
+					throw new IOException("Corrupt assets archive entry "
+							+ key);
+				this.types.put(key, type);
+				this.offsets.put(key, offset);
+				this.lengths.put(key, length);
+			}
+		} catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+			throw new IOException("Truncated assets archive", e);
+		}
+	}
+
+	/**
+	 * Checks if the archive has an entry.
+	 *
+	 * @param type
+	 *            Kind of the entry.
+	 * @param name
+	 *            Name of the entry.
+	 * @return True if an entry of that kind has the name.
+	 */
+	public boolean contains(final EntryType type, final String name) {
+		return this.types.get(name) == type;
+	}
+
+	/**
+	 * Decodes a sprite.
+	 *
+	 * @param name
+	 *            Name of the sprite.
+	 * @return Sprite, a packed row each. Null if there is none.
+	 */
+	public SpriteMask getSprite(final String name) {
+		if (!contains(EntryType.Sprite, name))
+			return null;
+		int offset = this.offsets.get(name);
+		int width = this.buffer.getShort(offset);
+		int height = this.buffer.getShort(offset + 2);
+		int rowBytes = (width + 7) / 8;
+		long[] rows = new long[height];
+		for (int j = 0; j < height; j++) {
+			int row = offset + 4 + j * rowBytes;
+			for (int i = 0; i < width; i++)
+				if ((this.buffer.get(row + i / 8) & 0x80 >>> (i % 8)) != 0)
+					rows[j] |= 1L << i;
+		}
+		return new SpriteMask(width, rows);
+	}
+
+	/**
+	 * Copies the bytes of an entry.
+	 *
+	 * @param name
+	 *            Name of the entry.
+	 * @return Bytes of the entry, null if there is none.
+	 */
+	public byte[] getBytes(final String name) {
+		if (!this.types.containsKey(name))
+			return null;
+		byte[] bytes = new byte[this.lengths.get(name)];
+		ByteBuffer entry = this.buffer.duplicate();
+		entry.position(this.offsets.get(name));
+		entry.get(bytes);
+		return bytes;
+	}
+}
@@ -0,0 +1,212 @@
+package engine;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Loads the resources of the game in parallel on a few background threads
+ * while the first screens are shown. Each screen waits only for the assets
+ * it draws or plays, the title screen shows the progress of the rest.
+ *
+ */
+public final class AssetLoader {
+
+	/** Groups of assets a screen can wait for. */
+	public static enum Asset {
+		/** Fonts, every size derived. */
+		Fonts,
+		/** Sprites, decoded from the assets archive. */
+		Sprites,
+		/** Sound effects, decoded to samples, and the audio output. */
+		Sounds,
+		/** Headers of the music tracks. */
+		Music;
+	};
+
+	/** Threads loading the assets. */
+	private static final int THREADS = 3;
+
+	/** Singleton instance of the class. */
+	private static AssetLoader instance;
+
+	/** Application logger. */
+	private Logger logger;
+	/** Threads loading the assets, null until started. */
+	private ExecutorService executor;
+	/** Completion of each group of assets. */
+	private Map<Asset, CompletableFuture<Void>> assets;
+	/** Number of loading tasks, 0 until all are submitted. */
+	private volatile int tasks;
+	/** Number of loading tasks finished. */
+	private AtomicInteger finishedTasks;
+	/** Time loading started, in nanoseconds. */
+	private long startTime;
+	/** Checks if the first frame was drawn. */
+	private boolean frameDrawn;
+
+	/**
+	 * Private constructor.
+	 */
+	private AssetLoader() {
+		this.logger = Core.getLogger();
+		this.assets = new EnumMap<Asset, CompletableFuture<Void>>(
+				Asset.class);
+		this.finishedTasks = new AtomicInteger();
+	}
+
+	/**
+	 * Returns shared instance of AssetLoader.
+	 *
+	 * @return Shared instance of AssetLoader.
+	 */
+	protected static synchronized AssetLoader getInstance() {
+		if (instance == null)
+			instance = new AssetLoader();
+		return instance;
+	}
+
+	/**
+	 * Starts loading every asset, if not started yet. Running headless, no
+	 * sound or music is loaded.
+	 *
+	 * @param musicPaths
+	 *            Paths of the music tracks to read the headers of.
+	 */
+	public synchronized void start(final String... musicPaths) {
+		if (this.executor != null)
+			return;
+		this.startTime = System.nanoTime();
+		this.executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+			Thread thread = new Thread(runnable, "Asset loader");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		int submitted = 2;
+		this.assets.put(Asset.Fonts, submit(() -> DrawManager.loadFonts()));
+		this.assets.put(Asset.Sprites,
+				submit(() -> DrawManager.loadSprites()));
+
+		List<CompletableFuture<Void>> sounds =
+				new ArrayList<CompletableFuture<Void>>();
+		List<CompletableFuture<Void>> music =
+				new ArrayList<CompletableFuture<Void>>();
+		if (!Core.isHeadless()) {
+			sounds.add(submit(() -> Core.getSoundMixer()));
+			for (SoundMixer.SoundType soundType : SoundMixer.SoundType
+					.values())
+				sounds.add(submit(() -> Core.getSoundMixer()
+						.loadSound(soundType)));
+			for (String path : musicPaths)
+				music.add(submit(() -> Core.getBGM().preload(path)));
+			submitted += sounds.size() + music.size();
+		}
+		this.assets.put(Asset.Sounds, CompletableFuture.allOf(
+				sounds.toArray(new CompletableFuture<?>[0])));
+		this.assets.put(Asset.Music, CompletableFuture.allOf(
+				music.toArray(new CompletableFuture<?>[0])));
+
+		CompletableFuture.allOf(this.assets.values().toArray(
+				new CompletableFuture<?>[0])).thenRun(() -> {
+					this.logger.info("Assets loaded in " + TimeUnit.NANOSECONDS
+							.toMillis(System.nanoTime() - this.startTime)
+							+ " ms.");
+					this.executor.shutdown();
+				});
+		this.tasks = submitted;
+	}
+
+	/**
+	 * Waits until some assets are loaded, starting to load them if needed.
+	 * Assets that failed to load are logged and not waited for again.
+	 *
+	 * @param required
+	 *            Assets needed.
+	 */
+	public void await(final Asset... required) {
+		start();
+		long waitStart = System.nanoTime();
+		for (Asset asset : required)
+			this.assets.get(asset).join();
+		long waited = System.nanoTime() - waitStart;
+		if (waited > TimeUnit.MILLISECONDS.toNanos(1))
+			this.logger.fine("Waited " + TimeUnit.NANOSECONDS.toMillis(waited)
+					+ " ms for assets.");
+	}
+
+	/**
+	 * Getter for the part of the assets loaded.
+	 *
+	 * @return Progress, from 0 to 1.
+	 */
+	public float getProgress() {
+		if (this.tasks == 0)
+			return 0f;
+		return (float) this.finishedTasks.get() / this.tasks;
+	}
+
+	/**
+	 * Checks if every asset is loaded.
+	 *
+	 * @return True when nothing is left to load.
+	 */
+	public boolean isLoaded() {
+		return this.tasks > 0 && this.finishedTasks.get() == this.tasks;
+	}
+
+	/**
+	 * Logs the time to the first frame shown, once.
+	 */
+	public void frameDrawn() {
+		if (this.frameDrawn)
+			return;
+		this.frameDrawn = true;
+		long sinceLaunch = System.currentTimeMillis()
+				- ManagementFactory.getRuntimeMXBean().getStartTime();
+		this.logger.info("First frame " + sinceLaunch + " ms after launch, "
+				+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime()
+						- this.startTime) + " ms after loading started.");
+	}
+
+	/**
+	 * Loads in the background, counting the task finished for the progress.
+	 * Errors are logged, the asset is left missing.
+	 *
+	 * @param task
+	 *            Loading task.
+	 * @return Completion of the task.
+	 */
+	private CompletableFuture<Void> submit(final LoadingTask task) {
+		return CompletableFuture.runAsync(() -> {
+			try {
+				task.load();
+			} catch (Exception e) {
+				this.logger.warning("Asset loading failed: " + e);
+			} finally {
+				this.finishedTasks.incrementAndGet();
+			}
+		}, this.executor);
+	}
+
+	/**
+	 * Task loading an asset.
+	 */
+	private interface LoadingTask {
+		/**
+		 * Loads the asset.
+		 *
+		 * @throws Exception
+		 *             In case of loading problems.
+		 */
+		void load() throws Exception;
+	}
+}
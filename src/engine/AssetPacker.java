@@ -0,0 +1,193 @@
+package engine;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs the sprites and the font into the assets archive read by
+ * AssetArchive. Run at build time by the packAssets task, and by FileManager
+ * when the game runs without a packed archive.
+ *
+ */
+public final class AssetPacker {
+
+	/** Resource with the sprites, named, as text. */
+	public static final String SPRITES_RESOURCE = "sprites";
+	/** Resource with the font. */
+	public static final String FONT_RESOURCE = "BlackOpsOne-Regular.ttf";
+
+	/**
+	 * Constructor, not called.
+	 */
+	private AssetPacker() {
+
+	}
+
+	/**
+	 * Packs the resources on the classpath into an archive file.
+	 *
+	 * @param args
+	 *            Path of the archive to write.
+	 * @throws IOException
+	 *             In case of loading or saving problems.
+	 */
+	public static void main(final String[] args) throws IOException {
+		File file = new File(args[0]);
+		if (file.getParentFile() != null)
+			file.getParentFile().mkdirs();
+		byte[] archive = pack();
+		try (OutputStream outputStream = new FileOutputStream(file)) {
+			outputStream.write(archive);
+		}
+	}
+
+	/**
+	 * Packs the resources on the classpath.
+	 *
+	 * @return Archive bytes.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 */
+	public static byte[] pack() throws IOException {
+		List<String> names = new ArrayList<String>();
+		List<AssetArchive.EntryType> types = new ArrayList<AssetArchive.EntryType>();
+		List<byte[]> entries = new ArrayList<byte[]>();
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+				openResource(SPRITES_RESOURCE), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+				String[] header = line.split("\\s+");
+				if (header.length != 3)
+					throw new IOException("Bad sprite header: " + line);
+				names.add(header[0]);
+				types.add(AssetArchive.EntryType.Sprite);
+				entries.add(packSprite(reader, header[0],
+						Integer.parseInt(header[1]),
+						Integer.parseInt(header[2])));
+			}
+		}
+
+		try (InputStream inputStream = openResource(FONT_RESOURCE)) {
+			names.add(FONT_RESOURCE);
+			types.add(AssetArchive.EntryType.Font);
+			entries.add(inputStream.readAllBytes());
+		}
+
+		return write(names, types, entries);
+	}
+
+	/**
+	 * Packs the rows of a sprite into bits, the first pixel of each row in
+	 * the highest bit.
+	 *
+	 * @param reader
+	 *            Reader at the first row of the sprite.
+	 * @param name
+	 *            Name of the sprite.
+	 * @param width
+	 *            Pixels per row.
+	 * @param height
+	 *            Number of rows.
+	 * @return Sprite entry.
+	 * @throws IOException
+	 *             In case of loading problems or a malformed sprite.
+	 */
+	private static byte[] packSprite(final BufferedReader reader,
+			final String name, final int width, final int height)
+			throws IOException {
+		int rowBytes = (width + 7) / 8;
+		byte[] entry = new byte[4 + rowBytes * height];
+		entry[0] = (byte) (width >> 8);
+		entry[1] = (byte) width;
+		entry[2] = (byte) (height >> 8);
+		entry[3] = (byte) height;
+		for (int j = 0; j < height; j++) {
+			String row = reader.readLine();
+			if (row == null || row.trim().length() != width)
+				throw new IOException("Bad row " + j + " of sprite " + name);
+			row = row.trim();
+			for (int i = 0; i < width; i++)
+				if (row.charAt(i) == '1')
+					entry[4 + j * rowBytes + i / 8] |= 0x80 >>> (i % 8);
+				else if (row.charAt(i) != '0')
+					throw new IOException("Bad pixel in sprite " + name);
+		}
+		return entry;
+	}
+
+	/**
+	 * Writes the table of contents followed by the entries.
+	 *
+	 * @param names
+	 *            Names of the entries.
+	 * @param types
+	 *            Kinds of the entries.
+	 * @param entries
+	 *            Bytes of the entries.
+	 * @return Archive bytes.
+	 * @throws IOException
+	 *             In case of duplicated names.
+	 */
+	private static byte[] write(final List<String> names,
+			final List<AssetArchive.EntryType> types,
+			final List<byte[]> entries) throws IOException {
+		int contentsSize = 12;
+		for (String name : names) {
+			if (names.indexOf(name) != names.lastIndexOf(name))
+				throw new IOException("Duplicated asset " + name);
+			contentsSize += 1 + 2 + name.getBytes(StandardCharsets.UTF_8).length
+					+ 8;
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(bytes);
+		output.writeInt(AssetArchive.MAGIC);
+		output.writeInt(AssetArchive.VERSION);
+		output.writeInt(names.size());
+		int offset = contentsSize;
+		for (int i = 0; i < names.size(); i++) {
+			byte[] name = names.get(i).getBytes(StandardCharsets.UTF_8);
+			output.writeByte(types.get(i).ordinal());
+			output.writeShort(name.length);
+			output.write(name);
+			output.writeInt(offset);
+			output.writeInt(entries.get(i).length);
+			offset += entries.get(i).length;
+		}
+		for (byte[] entry : entries)
+			output.write(entry);
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Opens a resource on the classpath.
+	 *
+	 * @param name
+	 *            Name of the resource.
+	 * @return Stream of the resource.
+	 * @throws IOException
+	 *             In case it's missing.
+	 */
+	private static InputStream openResource(final String name)
+			throws IOException {
+		InputStream inputStream = AssetPacker.class.getClassLoader()
+				.getResourceAsStream(name);
+		if (inputStream == null)
+			throw new IOException("Missing resource " + name);
+		return inputStream;
+	}
+}
@@ -1,49 +1,134 @@
 package engine;
 
-import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.DataLine;
 import java.io.File;
+import java.io.IOException;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Plays the background music, streamed from disk through the sound mixer.
+ * The music streams are opened once per process; starting a track only
+ * changes what they read.
+ */
+public final class BGM {
+
+	/** Frames per millisecond of the mixer format. */
+	private static final float FRAMES_PER_MILLISECOND = SoundMixer.FORMAT
+			.getFrameRate() / 1000f;
+
+	/** Singleton instance of the class. */
+	private static BGM instance;
+
+	/** Streams the tracks are played on, null without audio output. */
+	private MusicStream[] musicStreams;
+	/** Stream playing the current track. */
+	private int current;
+
+	/**
+	 * Private constructor, takes the music streams of the sound mixer.
+	 */
+	private BGM() {
+		this.musicStreams = Core.getSoundMixer().getMusicStreams();
+		this.current = 0;
+	}
+
+	/**
+	 * Returns shared instance of BGM.
+	 *
+	 * @return Shared instance of BGM.
+	 */
+	protected static synchronized BGM getInstance() {
+		if (instance == null)
+			instance = new BGM();
+		return instance;
+	}
+
+	/**
+	 * Reads the header of a track, so the audio file readers are found
+	 * before it is first played.
+	 *
+	 * @param path
+	 *            Path of the track file.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 * @throws UnsupportedAudioFileException
+	 *             In case of a format that can't be read.
+	 */
+	public void preload(final String path) throws IOException,
+			UnsupportedAudioFileException {
+		AudioFileFormat format = AudioSystem.getAudioFileFormat(
+				new File(path));
+		Core.getLogger().fine("Music " + path + " is " + format
+				.getFrameLength() + " frames of " + format.getFormat() + ".");
+	}
+
+	/**
+	 * Plays a track in a loop from its beginning, unless it is already
+	 * playing.
+	 *
+	 * @param path
+	 *            Path of the track file.
+	 */
+	public void play(final String path) {
+		if (this.musicStreams == null)
+			return;
+
+		MusicStream musicStream = this.musicStreams[this.current];
+		if (musicStream.isPlaying() && path.equals(musicStream.getPath()))
+			return;
+		for (MusicStream other : this.musicStreams)
+			if (other != musicStream)
+				other.stop();
+		musicStream.start(path, 0);
+	}
+
+	/**
+	 * Fades the current track out while another one fades in.
+	 *
+	 * @param path
+	 *            Path of the new track file.
+	 * @param milliseconds
+	 *            Length of the crossfade.
+	 */
+	public void crossfade(final String path, final int milliseconds) {
+		if (this.musicStreams == null)
+			return;
+
+		int frames = (int) (milliseconds * FRAMES_PER_MILLISECOND);
+		this.musicStreams[this.current].fadeOut(frames);
+		this.current = (this.current + 1) % this.musicStreams.length;
+		this.musicStreams[this.current].start(path, frames);
+	}
+
+	/**
+	 * Sets the section of the current track repeated once its end is
+	 * reached, for tracks with an intro.
+	 *
+	 * @param startMilliseconds
+	 *            Time to go back to.
+	 * @param endMilliseconds
+	 *            Time to loop at, 0 for the end of the track.
+	 */
+	public void setLoopPoints(final int startMilliseconds,
+			final int endMilliseconds) {
+		if (this.musicStreams == null)
+			return;
+
+		this.musicStreams[this.current].setLoopPoints(
+				(long) (startMilliseconds * FRAMES_PER_MILLISECOND),
+				(long) (endMilliseconds * FRAMES_PER_MILLISECOND));
+	}
+
+	/**
+	 * Stops the music.
+	 */
+	public void stop() {
+		if (this.musicStreams == null)
+			return;
 
-public class BGM {
-    private static String BGM_FILE_PATH;
-
-    static File bgm;
-    static AudioInputStream stream;
-    static AudioFormat format;
-    static DataLine.Info info;
-    static Clip bgmClip; // bgmClip 변수 추가
-
-
-    // 디폴트 생성자 추가
-    public BGM(String BGM_FILE_PATH) {
-        try {
-            bgm = new File(BGM_FILE_PATH); // 클래스 변수 할당은 정적 초기화 블록에서 수행
-            stream = AudioSystem.getAudioInputStream(bgm);
-            format = stream.getFormat();
-            info = new DataLine.Info(Clip.class, format);
-            bgmClip = (Clip) AudioSystem.getLine(info);
-            bgmClip.open(stream);
-
-        } catch (Exception e) {
-            System.out.println("err : " + e);
-        }
-    }
-
-    public void bgm_play() {
-        // BGM을 재생합니다.
-        if (bgmClip != null && !bgmClip.isRunning()) {
-            bgmClip.start();
-            bgmClip.loop(Clip.LOOP_CONTINUOUSLY);
-        }
-    }
-
-    public void bgm_stop() {
-        // BGM 재생을 중지합니다.
-        if (bgmClip != null && bgmClip.isRunning()) {
-            bgmClip.stop();
-        }
-    }
+		for (MusicStream musicStream : this.musicStreams)
+			musicStream.stop();
+	}
 }
@@ -0,0 +1,15 @@
+package engine;
+
+/**
+ * Source of time for the game timers.
+ * 
+ */
+public interface Clock {
+
+	/**
+	 * Returns the current time.
+	 * 
+	 * @return Current time, in milliseconds.
+	 */
+	long currentTimeMillis();
+}
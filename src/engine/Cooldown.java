@@ -1,5 +1,9 @@
 package engine;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Imposes a cooldown period between two actions.
  * 
@@ -16,15 +20,22 @@ public class Cooldown {
 	private int duration;
 	/** Beginning time. */
 	private long time;
+	/** Clock the cooldown is measured with. */
+	private Clock clock;
+	/** Random generator the durations are drawn from, null without variance. */
+	private GameRandom random;
 
 	/**
 	 * Constructor, established the time until the action can be performed
 	 * again.
 	 * 
+	 * @param clock
+	 *            Clock to measure the cooldown with.
 	 * @param milliseconds
 	 *            Time until cooldown period is finished.
 	 */
-	protected Cooldown(final int milliseconds) {
+	protected Cooldown(final Clock clock, final int milliseconds) {
+		this.clock = clock;
 		this.milliseconds = milliseconds;
 		this.variance = 0;
 		this.duration = milliseconds;
@@ -35,14 +46,21 @@ public class Cooldown {
 	 * Constructor, established the time until the action can be performed
 	 * again, with a variation of +/- variance.
 	 * 
+	 * @param clock
+	 *            Clock to measure the cooldown with.
 	 * @param milliseconds
 	 *            Time until cooldown period is finished.
 	 * @param variance
 	 *            Variance in the cooldown period.
+	 * @param random
+	 *            Random generator the durations are drawn from.
 	 */
-	protected Cooldown(final int milliseconds, final int variance) {
+	protected Cooldown(final Clock clock, final int milliseconds,
+			final int variance, final GameRandom random) {
+		this.clock = clock;
 		this.milliseconds = milliseconds;
 		this.variance = variance;
+		this.random = random;
 		this.time = 0;
 	}
 
@@ -53,7 +71,7 @@ public class Cooldown {
 	 */
 	public final boolean checkFinished() {
 		if ((this.time == 0)
-				|| this.time + this.duration < System.currentTimeMillis())
+				|| this.time + this.duration < this.clock.currentTimeMillis())
 			return true;
 		return false;
 	}
@@ -62,10 +80,36 @@ public class Cooldown {
 	 * Restarts the cooldown.
 	 */
 	public final void reset() {
-		this.time = System.currentTimeMillis();
+		this.time = this.clock.currentTimeMillis();
 		if (this.variance != 0)
 			this.duration = (this.milliseconds - this.variance)
-					+ (int) (Math.random()
+					+ (int) (this.random.nextDouble()
 							* (this.milliseconds + this.variance));
 	}
+
+	/**
+	 * Writes the state of the cooldown, to restore it later.
+	 * 
+	 * @param output
+	 *            Output to write to.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	public final void writeState(final DataOutput output) throws IOException {
+		output.writeLong(this.time);
+		output.writeInt(this.duration);
+	}
+
+	/**
+	 * Restores a state written by writeState().
+	 * 
+	 * @param input
+	 *            Input to read from.
+	 * @throws IOException
+	 *             In case of reading problems.
+	 */
+	public final void readState(final DataInput input) throws IOException {
+		this.time = input.readLong();
+		this.duration = input.readInt();
+	}
 }
@@ -2,7 +2,10 @@ package engine;
 
 import screen.*;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.*;
 
@@ -14,6 +17,14 @@ import java.util.logging.*;
  */
 public final class Core {
 	private static final String BGM_FILE_PATH = "sound_BackGroundMusic/neon-gaming-128925.wav";
+	/**
+	 * File the log is written to.
+	 */
+	private static final String LOG_FILE = "log";
+	/**
+	 * Directory replays are saved to when recording.
+	 */
+	private static final String REPLAY_DIRECTORY = "replays";
 	/**
 	 * Width of current screen.
 	 */
@@ -26,6 +37,11 @@ public final class Core {
 	 * Max fps of current screen.
 	 */
 	private static final int FPS = 60;
+	/**
+	 * Default time a frame can take before the last frames are written to
+	 * disk, in milliseconds.
+	 */
+	private static final int FRAME_BUDGET = 33;
 
 	/**
 	 * Max lives.
@@ -98,14 +114,32 @@ public final class Core {
 	 */
 	private static final Logger LOGGER = Logger.getLogger(Core.class
 			.getSimpleName());
+
+	/**
+	 * Clock every cooldown is measured with.
+	 */
+	private static Clock clock = System::currentTimeMillis;
+	/**
+	 * Clock advanced by the screens on every tick, null if cooldowns are
+	 * measured in real time.
+	 */
+	private static VirtualClock virtualClock;
+	/**
+	 * Checks if the game runs headless, as fast as possible.
+	 */
+	private static boolean headless;
+	/**
+	 * Seed the random generators were last seeded with.
+	 */
+	private static long seed = System.nanoTime();
 	/**
-	 * Logger handler for printing to disk.
+	 * Random generator of each subsystem, by stream ordinal.
 	 */
-	private static Handler fileHandler;
+	private static GameRandom[] randoms = createRandoms(seed);
 	/**
-	 * Logger handler for printing to console.
+	 * Directory each level played is recorded to, null to not record.
 	 */
-	private static ConsoleHandler consoleHandler;
+	private static File replayDirectory;
 
 	private static Boolean boxOpen = false;
 	private static Boolean isInitMenuScreen = true;
@@ -113,23 +147,30 @@ public final class Core {
 	/**
 	 * Test implementation.
 	 *
-	 * @param args Program args, ignored.
+	 * @param args Program args, --record to save a replay of every level,
+	 *             --frame-budget followed by the milliseconds a frame can
+	 *             take before the last frames are written to disk.
 	 */
 	public static void main(final String[] args) {
+		// Cooldowns follow the simulation ticks, so games can be replayed.
+		startTickClock();
+		if (Arrays.asList(args).contains("--record"))
+			replayDirectory = new File(REPLAY_DIRECTORY);
+
 		try {
-			BGM bgm = new BGM(BGM_FILE_PATH);
 			LOGGER.setUseParentHandlers(false);
 
-			fileHandler = new FileHandler("log");
-			fileHandler.setFormatter(new MinimalFormatter());
-
-			consoleHandler = new ConsoleHandler();
-			consoleHandler.setFormatter(new MinimalFormatter());
-
-			LOGGER.addHandler(fileHandler);
-			LOGGER.addHandler(consoleHandler);
+			// Written to the file and the console by a background thread.
+			getGameLogger().start(new File(LOG_FILE));
+			LOGGER.addHandler(getGameLogger().createHandler());
 			LOGGER.setLevel(Level.ALL);
 
+			// Fonts, sprites, sounds and music load in the background, each
+			// screen waits for the ones it needs.
+			getAssetLoader().start(BGM_FILE_PATH);
+			// High scores are read once and kept in memory.
+			getHighScoreStore();
+
 		} catch (Exception e) {
 			// TODO handle exception
 			e.printStackTrace();
@@ -137,6 +178,18 @@ public final class Core {
 
 		frame = new Frame(WIDTH, HEIGHT);
 		DrawManager.getInstance().setFrame(frame);
+		int budgetIndex = Arrays.asList(args).indexOf("--frame-budget");
+		int frameBudget = FRAME_BUDGET;
+		if (budgetIndex >= 0 && budgetIndex + 1 < args.length) {
+			try {
+				frameBudget = Integer.parseInt(args[budgetIndex + 1]);
+			} catch (NumberFormatException e) {
+				LOGGER.warning("Invalid frame budget "
+						+ args[budgetIndex + 1] + ", using " + FRAME_BUDGET
+						+ " ms.");
+			}
+		}
+		getFlightRecorder().start(frameBudget);
 		int width = frame.getWidth();
 		int height = frame.getHeight();
 		int stage;
@@ -166,24 +219,10 @@ public final class Core {
 						LOGGER.info("Go Main");
 						break;
 					} else {
-						gameSettings = new ArrayList<GameSettings>();
 						if (difficulty == 3)
 							gameState.setHardCore();
 						LOGGER.info("Difficulty : " + difficulty);
-						SETTINGS_LEVEL_1.setDifficulty(difficulty);
-						SETTINGS_LEVEL_2.setDifficulty(difficulty);
-						SETTINGS_LEVEL_3.setDifficulty(difficulty);
-						SETTINGS_LEVEL_4.setDifficulty(difficulty);
-						SETTINGS_LEVEL_5.setDifficulty(difficulty);
-						SETTINGS_LEVEL_6.setDifficulty(difficulty);
-						SETTINGS_LEVEL_7.setDifficulty(difficulty);
-						gameSettings.add(SETTINGS_LEVEL_1);
-						gameSettings.add(SETTINGS_LEVEL_2);
-						gameSettings.add(SETTINGS_LEVEL_3);
-						gameSettings.add(SETTINGS_LEVEL_4);
-						gameSettings.add(SETTINGS_LEVEL_5);
-						gameSettings.add(SETTINGS_LEVEL_6);
-						gameSettings.add(SETTINGS_LEVEL_7);
+						gameSettings = getGameSettings(difficulty);
 
 					}
 
@@ -199,8 +238,7 @@ public final class Core {
 					gameState.setLevel(stage);
 
 
-					BGM bgm = new BGM(BGM_FILE_PATH);
-					bgm.bgm_play(); //게임 대기 -> 시작으로 넘어가면서 bgm 시작
+					getBGM().play(BGM_FILE_PATH); //게임 대기 -> 시작으로 넘어가면서 bgm 시작
 
 					// Game & score.
 					do {
@@ -209,13 +247,23 @@ public final class Core {
 								% EXTRA_LIFE_FRECUENCY == 0 && !gameState.getHardCore()
 								&& gameState.getLivesRemaining() < MAX_LIVES;
 
+						Replay replay = null;
+						if (replayDirectory != null) {
+							seedRandoms(System.nanoTime());
+							replay = new Replay(gameState, difficulty,
+									bonusLife, width, height);
+						}
 						currentScreen = new GameScreen(gameState,
 								gameSettings.get(gameState.getLevel() - 1),
 								bonusLife, width, height, FPS);
+						if (replay != null)
+							((GameScreen) currentScreen).setReplay(replay);
 						LOGGER.info("Starting " + WIDTH + "x" + HEIGHT
 								+ " game screen at " + FPS + " fps.");
 						returnCode = frame.setScreen(currentScreen);
 						LOGGER.info("Closing game screen.");
+						if (replay != null)
+							saveReplay(replay, gameState.getLevel());
 
 						gameState = ((GameScreen) currentScreen).getGameState();
 
@@ -262,7 +310,7 @@ public final class Core {
 						isInitMenuScreen = true;
 					} while (gameState.getLivesRemaining() > 0
 							&& gameState.getLevel() <= NUM_LEVELS);
-					bgm.bgm_stop();
+					getBGM().stop();
 
 
 					if (returnCode == 1) { //Quit during the game
@@ -298,24 +346,10 @@ public final class Core {
 						LOGGER.info("Go Main");
 						break;
 					} else {
-						gameSettings = new ArrayList<GameSettings>();
 						if (difficulty == 3)
 							gameState.setHardCore();
 						LOGGER.info("Difficulty : " + difficulty);
-						SETTINGS_LEVEL_1.setDifficulty(difficulty);
-						SETTINGS_LEVEL_2.setDifficulty(difficulty);
-						SETTINGS_LEVEL_3.setDifficulty(difficulty);
-						SETTINGS_LEVEL_4.setDifficulty(difficulty);
-						SETTINGS_LEVEL_5.setDifficulty(difficulty);
-						SETTINGS_LEVEL_6.setDifficulty(difficulty);
-						SETTINGS_LEVEL_7.setDifficulty(difficulty);
-						gameSettings.add(SETTINGS_LEVEL_1);
-						gameSettings.add(SETTINGS_LEVEL_2);
-						gameSettings.add(SETTINGS_LEVEL_3);
-						gameSettings.add(SETTINGS_LEVEL_4);
-						gameSettings.add(SETTINGS_LEVEL_5);
-						gameSettings.add(SETTINGS_LEVEL_6);
-						gameSettings.add(SETTINGS_LEVEL_7);
+						gameSettings = getGameSettings(difficulty);
 					}
 					LOGGER.info("select Level"); // Stage(Level) Selection
 					currentScreen = new StageSelectScreen(width, height, FPS, gameSettings.toArray().length, 1);
@@ -327,9 +361,7 @@ public final class Core {
 					}
 					LOGGER.info("Closing Level screen.");
 					gameState.setLevel(stage);
-					bgm = new BGM(BGM_FILE_PATH);
-					bgm.bgm_play();
-					//new BGM.play_bgm();
+					getBGM().play(BGM_FILE_PATH);
 					// Game & score.
 					do {
 						// One extra live every few levels.
@@ -380,15 +412,33 @@ public final class Core {
 		} while (returnCode != 0);
 
 		if(returnCode ==0){ //게임이 종료(목숨을 다 소진함)했을 때 bgm 끄기
-			BGM bgm = new BGM(BGM_FILE_PATH);
-			bgm.bgm_stop();
+			getBGM().stop();
 		}
 
-		fileHandler.flush();
-		fileHandler.close();
+		getSoundMixer().close();
+		getHighScoreStore().close();
+		getGameLogger().close();
 		System.exit(0);
 	}
 
+	/**
+	 * Saves the replay of a level to the replay directory.
+	 *
+	 * @param replay Replay recorded.
+	 * @param level  Level played.
+	 */
+	private static void saveReplay(final Replay replay, final int level) {
+		File file = new File(replayDirectory, "level" + level + "_"
+				+ System.currentTimeMillis() + ".replay");
+		try {
+			replayDirectory.mkdirs();
+			getFileManager().saveReplay(replay, file);
+			LOGGER.info("Replay saved to " + file);
+		} catch (IOException e) {
+			LOGGER.warning("Replay could not be saved: " + e);
+		}
+	}
+
 	/**
 	 * Constructor, not called.
 	 */
@@ -405,6 +455,15 @@ public final class Core {
 		return LOGGER;
 	}
 
+	/**
+	 * Controls access to the asynchronous logger, for the game loop.
+	 *
+	 * @return Application asynchronous logger.
+	 */
+	public static GameLogger getGameLogger() {
+		return GameLogger.getInstance();
+	}
+
 	/**
 	 * Controls access to the drawing manager.
 	 *
@@ -432,6 +491,149 @@ public final class Core {
 		return FileManager.getInstance();
 	}
 
+	/**
+	 * Controls access to the sound mixer.
+	 *
+	 * @return Application sound mixer.
+	 */
+	public static SoundMixer getSoundMixer() {
+		return SoundMixer.getInstance();
+	}
+
+	/**
+	 * Controls access to the background music player.
+	 *
+	 * @return Application background music player.
+	 */
+	public static BGM getBGM() {
+		return BGM.getInstance();
+	}
+
+	/**
+	 * Controls access to the asset loader.
+	 *
+	 * @return Application asset loader.
+	 */
+	public static AssetLoader getAssetLoader() {
+		return AssetLoader.getInstance();
+	}
+
+	/**
+	 * Controls access to the high score store.
+	 *
+	 * @return Application high score store.
+	 */
+	public static HighScoreStore getHighScoreStore() {
+		return HighScoreStore.getInstance();
+	}
+
+	/**
+	 * Controls access to the frame phase profiler.
+	 *
+	 * @return Application profiler.
+	 */
+	public static Profiler getProfiler() {
+		return Profiler.getInstance();
+	}
+
+	/**
+	 * Controls access to the flight recorder.
+	 *
+	 * @return Application flight recorder.
+	 */
+	public static FlightRecorder getFlightRecorder() {
+		return FlightRecorder.getInstance();
+	}
+
+	/**
+	 * Sets the settings of every level to a difficulty.
+	 *
+	 * @param difficulty Difficulty of the game.
+	 * @return Settings of each level, in order.
+	 */
+	public static List<GameSettings> getGameSettings(final int difficulty) {
+		List<GameSettings> settings = new ArrayList<GameSettings>();
+		SETTINGS_LEVEL_1.setDifficulty(difficulty);
+		SETTINGS_LEVEL_2.setDifficulty(difficulty);
+		SETTINGS_LEVEL_3.setDifficulty(difficulty);
+		SETTINGS_LEVEL_4.setDifficulty(difficulty);
+		SETTINGS_LEVEL_5.setDifficulty(difficulty);
+		SETTINGS_LEVEL_6.setDifficulty(difficulty);
+		SETTINGS_LEVEL_7.setDifficulty(difficulty);
+		settings.add(SETTINGS_LEVEL_1);
+		settings.add(SETTINGS_LEVEL_2);
+		settings.add(SETTINGS_LEVEL_3);
+		settings.add(SETTINGS_LEVEL_4);
+		settings.add(SETTINGS_LEVEL_5);
+		settings.add(SETTINGS_LEVEL_6);
+		settings.add(SETTINGS_LEVEL_7);
+		return settings;
+	}
+
+	/**
+	 * Sets the settings of the boss level to a difficulty. The boss level is
+	 * not part of the game yet.
+	 *
+	 * @param difficulty Difficulty of the game.
+	 * @return Settings of the boss level.
+	 */
+	public static GameSettings getBossSettings(final int difficulty) {
+		SETTINGS_LEVEL_8.setDifficulty(difficulty);
+		return SETTINGS_LEVEL_8;
+	}
+
+	/**
+	 * Switches to headless mode: time only moves when the screens tick, as
+	 * fast as the CPU allows, nothing is drawn and no sound is played.
+	 *
+	 * @return Virtual clock driving the game from now on.
+	 */
+	public static VirtualClock startHeadless() {
+		headless = true;
+		SoundEffect.setEnabled(false);
+		return startTickClock();
+	}
+
+	/**
+	 * Measures cooldowns in simulation ticks instead of real time: the
+	 * screens move the clock forward one tick at a time, so a game played
+	 * again with the same inputs takes the same course.
+	 *
+	 * @return Virtual clock driving the game from now on.
+	 */
+	public static VirtualClock startTickClock() {
+		virtualClock = new VirtualClock();
+		clock = virtualClock;
+		return virtualClock;
+	}
+
+	/**
+	 * Checks if the game runs headless.
+	 *
+	 * @return True when running without a display on a virtual clock.
+	 */
+	public static boolean isHeadless() {
+		return headless;
+	}
+
+	/**
+	 * Controls access to the virtual clock moved by the screen ticks.
+	 *
+	 * @return Virtual clock, or null if the game runs in real time.
+	 */
+	public static VirtualClock getVirtualClock() {
+		return virtualClock;
+	}
+
+	/**
+	 * Controls access to the game clock.
+	 *
+	 * @return Clock cooldowns are measured with.
+	 */
+	public static Clock getClock() {
+		return clock;
+	}
+
 	/**
 	 * Controls creation of new cooldowns.
 	 *
@@ -439,7 +641,7 @@ public final class Core {
 	 * @return A new cooldown.
 	 */
 	public static Cooldown getCooldown(final int milliseconds) {
-		return new Cooldown(milliseconds);
+		return new Cooldown(clock, milliseconds);
 	}
 
 	/**
@@ -451,6 +653,67 @@ public final class Core {
 	 */
 	public static Cooldown getVariableCooldown(final int milliseconds,
 			final int variance) {
-		return new Cooldown(milliseconds, variance);
+		return getVariableCooldown(milliseconds, variance,
+				GameRandom.Stream.Cooldowns);
+	}
+
+	/**
+	 * Controls creation of new cooldowns with variance drawn from a given
+	 * random stream.
+	 *
+	 * @param milliseconds Duration of the cooldown.
+	 * @param variance     Variation in the cooldown duration.
+	 * @param stream       Random stream the durations are drawn from.
+	 * @return A new cooldown with variance.
+	 */
+	public static Cooldown getVariableCooldown(final int milliseconds,
+			final int variance, final GameRandom.Stream stream) {
+		return new Cooldown(clock, milliseconds, variance, getRandom(stream));
+	}
+
+	/**
+	 * Controls access to the random generator of a subsystem.
+	 *
+	 * @param stream Subsystem drawing the numbers.
+	 * @return Random generator of the subsystem.
+	 */
+	public static GameRandom getRandom(final GameRandom.Stream stream) {
+		return randoms[stream.ordinal()];
+	}
+
+	/**
+	 * Seeds every random stream, so the same seed gives the same numbers.
+	 *
+	 * @param newSeed Seed of the game.
+	 */
+	public static void seedRandoms(final long newSeed) {
+		seed = newSeed;
+		GameRandom seeder = new GameRandom(newSeed);
+		for (GameRandom random : randoms)
+			random.setState(seeder.nextLong());
+	}
+
+	/**
+	 * Getter for the seed the random streams were last seeded with.
+	 *
+	 * @return Seed of the game.
+	 */
+	public static long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Creates one random generator per stream.
+	 *
+	 * @param newSeed Seed of the generators.
+	 * @return Random generators, by stream ordinal.
+	 */
+	private static GameRandom[] createRandoms(final long newSeed) {
+		GameRandom[] streams = new GameRandom[GameRandom.Stream.values()
+				.length];
+		GameRandom seeder = new GameRandom(newSeed);
+		for (int i = 0; i < streams.length; i++)
+			streams[i] = new GameRandom(seeder.nextLong());
+		return streams;
 	} // commit test
 }
\ No newline at end of file
@@ -2,16 +2,19 @@ package engine;
 
 import java.awt.*;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferStrategy;
 import java.awt.image.BufferedImage; // monster animation on a loading box
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalTime; // blinkingColor(String color)
-import java.util.LinkedHashMap;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
 import screen.Screen;
+import entity.BulletSystem;
 import entity.Entity;
 import entity.Ship;
 
@@ -33,11 +36,9 @@ public final class DrawManager {
 	private static FileManager fileManager;
 	/** Application logger. */
 	private static Logger logger;
-	/** Graphics context. */
-	private static Graphics graphics;
 	/** Buffer Graphics. */
 	private static Graphics backBufferGraphics;
-	/** Buffer image. */
+	/** Offscreen buffer image, used when there is no frame to draw on. */
 	private static BufferedImage backBuffer;
 	/** Normal sized font. */
 	private static Font fontRegular;
@@ -47,9 +48,22 @@ public final class DrawManager {
 	private static Font fontBig;
 	/** Big sized font properties. */
 	private static FontMetrics fontBigMetrics;
-
-	/** Sprite types mapped to their images. */
-	private static Map<SpriteType, boolean[][]> spriteMap;
+	/** Small sized font, for the profiler overlay. */
+	private static Font fontSmall;
+
+	/** Side of the square each sprite pixel is drawn as. */
+	private static final int SPRITE_SCALE = 2;
+
+	/** Sprites, indexed by sprite type ordinal, set once loaded. */
+	private static volatile SpriteMask[] sprites;
+	/** Sprites at screen scale, for pixel accurate hit tests. */
+	private static SpriteMask[] hitMasks;
+	/** Sprites already rasterized, by sprite type and color. */
+	private static Map<SpriteType, Map<Color, BufferedImage>> spriteCache;
+	/** Random generator of the blinking colors, apart from the game's. */
+	private static GameRandom effectsRandom;
+	/** Ships drawn as the remaining lives, one taken per draw. */
+	private static ObjectPool<Ship> hudShips;
 
 	public int timercount = 0;
 
@@ -95,42 +109,48 @@ public final class DrawManager {
 	private DrawManager() {
 		fileManager = Core.getFileManager();
 		logger = Core.getLogger();
-		logger.info("Started loading resources.");
-
-		try {
-			spriteMap = new LinkedHashMap<SpriteType, boolean[][]>();
-
-			spriteMap.put(SpriteType.Ship, new boolean[13][8]);
-			spriteMap.put(SpriteType.ShipDestroyed, new boolean[13][8]);
-			spriteMap.put(SpriteType.Bullet, new boolean[3][5]);
-			spriteMap.put(SpriteType.EnemyBullet, new boolean[3][5]);
-			spriteMap.put(SpriteType.EnemyShipA1, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipA2, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipB1, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipB2, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipC1, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipC2, new boolean[12][8]);
-			spriteMap.put(SpriteType.EnemyShipSpecial, new boolean[16][7]);
-			spriteMap.put(SpriteType.Explosion, new boolean[13][7]);
-			spriteMap.put(SpriteType.BulletLine, new boolean[1][160]);
-
-
-			fileManager.loadSprite(spriteMap);
-			logger.info("Finished loading the sprites.");
-
-			//temporary graphic. Will be changed
-			spriteMap.put(SpriteType.Boss,spriteMap.get(SpriteType.EnemyShipA1));
-
-			// Font loading.
-			fontRegular = fileManager.loadFont(14f);
-			fontBig = fileManager.loadFont(24f);
-			logger.info("Finished loading the fonts.");
-
-		} catch (IOException e) {
-			logger.warning("Loading failed.");
-		} catch (FontFormatException e) {
-			logger.warning("Font formating failed.");
-		}
+		effectsRandom = Core.getRandom(GameRandom.Stream.Effects);
+		spriteCache = new EnumMap<SpriteType, Map<Color, BufferedImage>>(
+				SpriteType.class);
+		hudShips = new ObjectPool<Ship>("HUD ships", 1,
+				() -> new Ship(0, 0), null);
+		hudShips.prewarm(1);
+	}
+
+	/**
+	 * Loads the sprites, on an asset loader thread.
+	 *
+	 * @throws IOException
+	 *                     In case of loading problems.
+	 */
+	static void loadSprites() throws IOException {
+		SpriteMask[] loaded = Core.getFileManager().loadSprites();
+
+		//temporary graphic. Will be changed
+		loaded[SpriteType.Boss.ordinal()] =
+				loaded[SpriteType.EnemyShipA1.ordinal()];
+		SpriteMask[] scaled = new SpriteMask[loaded.length];
+		for (int i = 0; i < loaded.length; i++)
+			if (loaded[i] != null)
+				scaled[i] = loaded[i].scale(SPRITE_SCALE);
+		hitMasks = scaled;
+		sprites = loaded;
+		Core.getLogger().info("Finished loading the sprites.");
+	}
+
+	/**
+	 * Loads the fonts, on an asset loader thread.
+	 *
+	 * @throws IOException
+	 *                             In case of loading problems.
+	 * @throws FontFormatException
+	 *                             In case of incorrect font format.
+	 */
+	static void loadFonts() throws IOException, FontFormatException {
+		fontRegular = Core.getFileManager().loadFont(14f);
+		fontBig = Core.getFileManager().loadFont(24f);
+		fontSmall = Core.getFileManager().loadFont(10f);
+		Core.getLogger().info("Finished loading the fonts.");
 	}
 
 	/**
@@ -162,11 +182,20 @@ public final class DrawManager {
 	 *               Screen to draw in.
 	 */
 	public void initDrawing(final Screen screen) {
-		backBuffer = new BufferedImage(screen.getWidth(), screen.getHeight(),
-				BufferedImage.TYPE_INT_RGB);
-
-		graphics = frame.getGraphics();
-		backBufferGraphics = backBuffer.getGraphics();
+		if (frame == null) {
+			// No frame to show on, draw offscreen only.
+			if (backBuffer == null
+					|| backBuffer.getWidth() != screen.getWidth()
+					|| backBuffer.getHeight() != screen.getHeight()) {
+				backBuffer = new BufferedImage(screen.getWidth(),
+						screen.getHeight(), BufferedImage.TYPE_INT_RGB);
+				backBufferGraphics = backBuffer.getGraphics();
+			}
+		} else {
+			// Draws straight on the back page of the frame's buffers.
+			backBufferGraphics = frame.getCanvasBufferStrategy()
+					.getDrawGraphics();
+		}
 
 		backBufferGraphics.setColor(Color.BLACK);
 		backBufferGraphics
@@ -180,14 +209,30 @@ public final class DrawManager {
 	}
 
 	/**
-	 * Draws the completed drawing on screen.
+	 * Draws the completed drawing on screen, flipping the back page to the
+	 * front. Callers draw the frame again while this returns false, as in
+	 * the usual BufferStrategy loop: a page restored while drawing is drawn
+	 * again before it is shown, and a page lost after being shown is drawn
+	 * and shown again.
 	 *
 	 * @param screen
 	 *               Screen to draw on.
+	 * @return True if the frame reached the display, false if it has to be
+	 *         drawn again.
 	 */
-	public void completeDrawing(final Screen screen) {
-		graphics.drawImage(backBuffer, frame.getInsets().left,
-				frame.getInsets().top, frame);
+	public boolean completeDrawing(final Screen screen) {
+		if (frame == null)
+			return true;
+		BufferStrategy bufferStrategy = frame.getCanvasBufferStrategy();
+		backBufferGraphics.dispose();
+		if (bufferStrategy.contentsRestored())
+			return false;
+		bufferStrategy.show();
+		Toolkit.getDefaultToolkit().sync();
+		if (bufferStrategy.contentsLost())
+			return false;
+		Core.getAssetLoader().frameDrawn();
+		return true;
 	}
 
 	/**
@@ -202,14 +247,104 @@ public final class DrawManager {
 	 */
 	public void drawEntity(final Entity entity, final int positionX,
 			final int positionY) {
-		boolean[][] image = spriteMap.get(entity.getSpriteType());
-
-		backBufferGraphics.setColor(entity.getColor());
-		for (int i = 0; i < image.length; i++)
-			for (int j = 0; j < image[i].length; j++)
-				if (image[i][j])
-					backBufferGraphics.drawRect(positionX + i * 2, positionY
-							+ j * 2, 1, 1);
+		backBufferGraphics.drawImage(
+				getSpriteImage(entity.getSpriteType(), entity.getColor()),
+				positionX, positionY, null);
+	}
+
+	/**
+	 * Draws every bullet, interpolated between the last two ticks.
+	 *
+	 * @param bullets
+	 *                   Bullets to draw.
+	 * @param alpha
+	 *                   Fraction of a tick elapsed since the last one.
+	 */
+	public void drawBullets(final BulletSystem bullets, final float alpha) {
+		for (int i = 0; i < bullets.size(); i++)
+			backBufferGraphics.drawImage(
+					getSpriteImage(bullets.getSpriteType(i), Color.WHITE),
+					bullets.getPositionX(i),
+					bullets.getInterpolatedPositionY(i, alpha), null);
+	}
+
+	/**
+	 * Returns the image of a sprite in a given color, rasterizing it at
+	 * twice its size the first time it is requested.
+	 *
+	 * @param spriteType
+	 *                   Sprite to draw.
+	 * @param color
+	 *                   Color of the lit pixels.
+	 * @return Image of the sprite, transparent where no pixel is lit.
+	 */
+	private BufferedImage getSpriteImage(final SpriteType spriteType,
+			final Color color) {
+		Map<Color, BufferedImage> images = spriteCache.get(spriteType);
+		if (images == null) {
+			images = new HashMap<Color, BufferedImage>();
+			spriteCache.put(spriteType, images);
+		}
+
+		BufferedImage spriteImage = images.get(color);
+		if (spriteImage == null) {
+			SpriteMask sprite = sprites[spriteType.ordinal()];
+			spriteImage = createTransparentImage(
+					sprite.getWidth() * SPRITE_SCALE,
+					sprite.getHeight() * SPRITE_SCALE);
+			Graphics spriteGraphics = spriteImage.getGraphics();
+			spriteGraphics.setColor(color);
+			for (int j = 0; j < sprite.getHeight(); j++)
+				for (long row = sprite.getRow(j); row != 0; row &= row - 1)
+					spriteGraphics.fillRect(
+							Long.numberOfTrailingZeros(row) * SPRITE_SCALE,
+							j * SPRITE_SCALE, SPRITE_SCALE, SPRITE_SCALE);
+			spriteGraphics.dispose();
+			images.put(color, spriteImage);
+		}
+		return spriteImage;
+	}
+
+	/**
+	 * Returns a sprite at the scale it is drawn on screen, to hit test
+	 * entities pixel by pixel.
+	 *
+	 * @param spriteType
+	 *                   Sprite wanted.
+	 * @return Sprite at screen scale, null if the sprites are not loaded
+	 *         yet or it has none.
+	 */
+	public SpriteMask getHitMask(final SpriteType spriteType) {
+		SpriteMask[] masks = hitMasks;
+		return masks == null ? null : masks[spriteType.ordinal()];
+	}
+
+	/**
+	 * Creates an empty image that can be drawn fast on the screen.
+	 *
+	 * @param width
+	 *               Image width.
+	 * @param height
+	 *               Image height.
+	 * @return Fully transparent image.
+	 */
+	private static BufferedImage createTransparentImage(final int width,
+			final int height) {
+		if (GraphicsEnvironment.isHeadless())
+			return new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_ARGB);
+		return GraphicsEnvironment.getLocalGraphicsEnvironment()
+				.getDefaultScreenDevice().getDefaultConfiguration()
+				.createCompatibleImage(width, height,
+						Transparency.TRANSLUCENT);
+	}
+
+	/**
+	 * Forgets every rasterized sprite, so they are drawn again with the
+	 * current sprites and colors. Called when skins change.
+	 */
+	public void clearSpriteCache() {
+		spriteCache.clear();
 	}
 
 	/**
@@ -226,14 +361,15 @@ public final class DrawManager {
 	 */
 	public void drawEntity(final SpriteType SpriteType, final int positionX,
 			final int positionY, final double width, final double height) {
-		boolean[][] image = spriteMap.get(SpriteType);
+		SpriteMask sprite = sprites[SpriteType.ordinal()];
 		Graphics2D g2 = (Graphics2D) backBufferGraphics;
 		g2.setColor(Color.white);
 
-		for (int i = 0; i < image.length; i++)
-			for (int j = 0; j < image[i].length; j++)
-				if (image[i][j])
-					g2.fill(new Rectangle2D.Double(positionX + i * width, positionY + j * height, width, height));
+		for (int j = 0; j < sprite.getHeight(); j++)
+			for (long row = sprite.getRow(j); row != 0; row &= row - 1)
+				g2.fill(new Rectangle2D.Double(positionX
+						+ Long.numberOfTrailingZeros(row) * width,
+						positionY + j * height, width, height));
 	}
 
 	/**
@@ -363,9 +499,10 @@ public final class DrawManager {
 		backBufferGraphics.setFont(fontRegular);
 		backBufferGraphics.setColor(Color.WHITE);
 		backBufferGraphics.drawString(Integer.toString(lives), 20, 25);
-		Ship dummyShip = new Ship(0, 0);
+		Ship hudShip = hudShips.acquire();
 		for (int i = 0; i < lives; i++)
-			drawEntity(dummyShip, 40 + 35 * i, 10);
+			drawEntity(hudShip, 40 + 35 * i, 10);
+		hudShips.release(hudShip);
 	}
 
 	public void drawLivesbar(final Screen screen, final int lives) {
@@ -424,23 +561,23 @@ public final class DrawManager {
 
 	private Color blinkingColor(String color) {
 		if (color == "HIGH_SCORES") {
-			int R = (int) (Math.pow(Math.random() * (15 - 0), 2));
-			int G = (int) (Math.random() * (255 - 0));
+			int R = (int) (Math.pow(effectsRandom.nextDouble() * (15 - 0), 2));
+			int G = (int) (effectsRandom.nextDouble() * (255 - 0));
 			int B = (int) 3.3 * LocalTime.now().getSecond();
 			Color title = new Color(R, G, B);
 			return title;
 		}
 		if (color == "GREEN") {
-			Color green = new Color(0, (int) (Math.random() * (255 - 155) + 155), 0);
+			Color green = new Color(0, (int) (effectsRandom.nextDouble() * (255 - 155) + 155), 0);
 			return green;
 		}
 		if (color == "WHITE") {
-			int RGB = (int) (Math.random() * (255 - 155) + 155);
+			int RGB = (int) (effectsRandom.nextDouble() * (255 - 155) + 155);
 			Color white = new Color(RGB, RGB, RGB);
 			return white;
 		}
 		if (color == "GRAY") {
-			int RGB = (int) (Math.random() * (160 - 100) + 100);
+			int RGB = (int) (effectsRandom.nextDouble() * (160 - 100) + 100);
 			Color gray = new Color(RGB, RGB, RGB);
 			return gray;
 		}
@@ -752,14 +889,7 @@ public final class DrawManager {
 
 		int height = isNewRecord ? 4 : 2;
 
-		if (difficulty == 0)
-			difficultyString = difficultyString + "EASY";
-		else if (difficulty == 1)
-			difficultyString = difficultyString + "NORMAL";
-		else if (difficulty == 2)
-			difficultyString = difficultyString + "HARD";
-		else if (difficulty == 3)
-			difficultyString = difficultyString + "HARDCORE";
+		difficultyString = difficultyString + getDifficultyName(difficulty);
 
 		backBufferGraphics.setColor(slowlyChangingColors("GRAY"));
 		drawCenteredRegularString(screen, scoreString, screen.getHeight()
@@ -870,14 +1000,108 @@ public final class DrawManager {
 	}
 
 	/**
-	 * Draws high score screen title and instructions.
+	 * Draws the profiler overlay: percentiles of every frame phase over the
+	 * last samples, entity counts, garbage collections and object pools.
+	 *
+	 * @param screen
+	 *               Screen to draw on.
+	 * @param profiler
+	 *               Profiler with the samples.
+	 */
+	public void drawProfiler(final Screen screen, final Profiler profiler) {
+		Profiler.Phase[] phases = Profiler.Phase.values();
+		int lineHeight = 12;
+		int top = 45;
+		backBufferGraphics.setColor(new Color(0, 0, 0, 180));
+		List<ObjectPool<?>> pools = ObjectPool.getPools();
+		backBufferGraphics.fillRect(5, top, 255,
+				lineHeight * (phases.length + pools.size() + 3) + 6);
+
+		backBufferGraphics.setFont(fontSmall);
+		backBufferGraphics.setColor(Color.GREEN);
+		int y = top + lineHeight;
+		drawProfilerRow("Phase (us)", "p50", "p99", "max", y);
+		backBufferGraphics.setColor(Color.WHITE);
+		for (Profiler.Phase phase : phases) {
+			y += lineHeight;
+			drawProfilerRow(phase.toString(),
+					String.format("%.1f", profiler.getPercentile(phase, 0.5) / 1000.0),
+					String.format("%.1f", profiler.getPercentile(phase, 0.99) / 1000.0),
+					String.format("%.1f", profiler.getMax(phase) / 1000.0), y);
+		}
+		y += lineHeight;
+		backBufferGraphics.drawString("Enemies " + profiler.getEnemyCount()
+				+ "  Bullets " + profiler.getBulletCount() + "/"
+				+ profiler.getBulletCapacity(), 10, y);
+		y += lineHeight;
+		backBufferGraphics.drawString("GC " + profiler.getGcCount() + " ("
+				+ profiler.getGcTime() + " ms)", 10, y);
+		for (ObjectPool<?> pool : pools) {
+			y += lineHeight;
+			backBufferGraphics.drawString(pool.getName() + " "
+					+ pool.getInUse() + "/" + pool.getHighWater() + "  hits "
+					+ pool.getHits() + "  misses " + pool.getMisses(), 10, y);
+		}
+	}
+
+	/**
+	 * Draws a row of the profiler overlay, the values aligned right.
+	 *
+	 * @param name
+	 *               Name of the row.
+	 * @param p50
+	 *               Median.
+	 * @param p99
+	 *               99th percentile.
+	 * @param max
+	 *               Maximum.
+	 * @param positionY
+	 *               Baseline of the row.
+	 */
+	private void drawProfilerRow(final String name, final String p50,
+			final String p99, final String max, final int positionY) {
+		FontMetrics metrics = backBufferGraphics.getFontMetrics(fontSmall);
+		backBufferGraphics.drawString(name, 10, positionY);
+		backBufferGraphics.drawString(p50,
+				165 - metrics.stringWidth(p50), positionY);
+		backBufferGraphics.drawString(p99,
+				210 - metrics.stringWidth(p99), positionY);
+		backBufferGraphics.drawString(max,
+				255 - metrics.stringWidth(max), positionY);
+	}
+
+	/**
+	 * Gets the name of a difficulty.
+	 *
+	 * @param difficulty
+	 *               Difficulty of the game.
+	 * @return Name of the difficulty, empty if unknown.
+	 */
+	private String getDifficultyName(final int difficulty) {
+		if (difficulty == 0)
+			return "EASY";
+		else if (difficulty == 1)
+			return "NORMAL";
+		else if (difficulty == 2)
+			return "HARD";
+		else if (difficulty == 3)
+			return "HARDCORE";
+		return "";
+	}
+
+	/**
+	 * Draws high score screen title, instructions and the difficulty of the
+	 * table shown.
 	 *
 	 * @param screen
 	 *               Screen to draw on.
+	 * @param difficulty
+	 *               Difficulty of the table shown.
 	 */
-	public void drawHighScoreMenu(final Screen screen) {
+	public void drawHighScoreMenu(final Screen screen, final int difficulty) {
 		String highScoreString = "High Scores";
 		String instructionsString = "Press SPACE to return";
+		String difficultyString = "< " + getDifficultyName(difficulty) + " >";
 
 		backBufferGraphics.setColor(blinkingColor("HIGH_SCORES"));
 		drawCenteredBigString(screen, highScoreString, screen.getHeight() / 8);
@@ -885,29 +1109,52 @@ public final class DrawManager {
 		backBufferGraphics.setColor(blinkingColor("GRAY"));
 		drawCenteredRegularString(screen, instructionsString,
 				screen.getHeight() / 5);
+
+		backBufferGraphics.setColor(blinkingColor("WHITE"));
+		drawCenteredRegularString(screen, difficultyString,
+				screen.getHeight() / 4);
 	}
 
 	/**
-	 * Draws high scores.
+	 * Draws a page of high scores.
 	 *
 	 * @param screen
 	 *                   Screen to draw on.
 	 * @param highScores
-	 *                   List of high scores.
+	 *                   List of high scores, null while being read.
+	 * @param firstRank
+	 *                   Rank of the first score, from 0.
+	 * @param total
+	 *                   Number of scores of all pages.
 	 */
 	public void drawHighScores(final Screen screen,
-			final List<Score> highScores) {
+			final List<Score> highScores, final int firstRank,
+			final int total) {
 		backBufferGraphics.setColor(blinkingColor("WHITE"));
+		if (highScores == null) {
+			drawCenteredRegularString(screen, "Loading...", screen.getHeight()
+					/ 4 + fontRegularMetrics.getHeight() * 2);
+			return;
+		}
+
 		int i = 0;
 		String scoreString = "";
 
 		for (Score score : highScores) {
-			scoreString = String.format("%s        %04d", score.getName(),
-					score.getScore());
+			scoreString = String.format("%d. %s        %04d", firstRank + i
+					+ 1, score.getName(), score.getScore());
 			drawCenteredRegularString(screen, scoreString, screen.getHeight()
 					/ 4 + fontRegularMetrics.getHeight() * (i + 1) * 2);
 			i++;
 		}
+
+		if (total > highScores.size()) {
+			backBufferGraphics.setColor(blinkingColor("GRAY"));
+			drawCenteredRegularString(screen, String.format(
+					"UP/DOWN  %d-%d of %d", firstRank + 1, firstRank + i,
+					total), screen.getHeight() / 4
+					+ fontRegularMetrics.getHeight() * 16);
+		}
 	}
 
 	/**
@@ -1094,9 +1341,11 @@ public final class DrawManager {
 	 * @param startY
 	 * @param endX
 	 * @param endY
+	 * @param progress
+	 *                 Part of the bar filled, from 0 to 1.
 	 * @param g2
 	 */
-	public void loadingProgress(int startX, int startY, int endX, int endY, Graphics2D g2) {
+	public void loadingProgress(int startX, int startY, int endX, int endY, float progress, Graphics2D g2) {
 		Color endColor = Color.green;
 		Color startColor = Color.yellow;
 
@@ -1105,7 +1354,7 @@ public final class DrawManager {
 		g2.fill(new Rectangle(startX, startY, endX - startX, endY - startY));
 
 		g2.setColor(Color.black);
-		g2.fillRect(startX, startY, endX - startX, endY - startY - timercount);
+		g2.fillRect(startX, startY, endX - startX, Math.round((endY - startY) * (1 - progress)));
 	}
 
 	/**
@@ -1119,6 +1368,21 @@ public final class DrawManager {
 	 */
 
 	public void drawLoading(int x, int y, Screen screen) {
+		int dx = screen.getWidth() / 65;
+		int barHeight = screen.getWidth() / 4 - 3 * dx;
+		drawLoading(x, y, screen, Math.min(1f, timercount / (float) barHeight));
+	}
+
+	/**
+	 * Creates a loading box, its bar filled to the part loaded.
+	 *
+	 * @param x
+	 * @param y
+	 * @param screen
+	 * @param progress
+	 *                 Part loaded, from 0 to 1.
+	 */
+	public void drawLoading(int x, int y, Screen screen, float progress) {
 		int width = screen.getWidth() / 2, height = width / 2;
 		Graphics2D g2 = (Graphics2D) backBufferGraphics;
 
@@ -1139,7 +1403,7 @@ public final class DrawManager {
 		/* Loading progress bar */
 		int startX = out_x + dx + dx / 2, startY = y + dx + dx / 2,
 				endX = startX + out_width - 2 * dx - dx, endY = startY + height - 2 * dx - dx;
-		loadingProgress(startX, startY, endX, endY, g2);
+		loadingProgress(startX, startY, endX, endY, progress, g2);
 
 		/* Animation box */
 		g2.setColor(Color.black);
@@ -1174,6 +1438,9 @@ public final class DrawManager {
 	 * @param y
 	 */
 	public int animateLoading(int x, int y){
+			// Drawn while loading, before the sprites are ready.
+			if (sprites == null)
+				return 0;
 			int y1 = y+7, x1 = x;
 			if ( (30 <timercount && timercount<50) || (110 <timercount && timercount<130) ) y1 -=5;
 			else if (70<timercount && timercount <90) x1+=5;
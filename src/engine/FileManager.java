@@ -2,8 +2,13 @@ package engine;
 
 import java.awt.Font;
 import java.awt.FontFormatException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -14,13 +19,18 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.URLDecoder;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.logging.Logger;
 
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
 import engine.DrawManager.SpriteType;
 
 /**
@@ -37,6 +47,12 @@ public final class FileManager {
 	private static Logger logger;
 	/** Max number of high scores. */
 	private static final int MAX_SCORES = 7;
+	/** Resource with the packed assets. */
+	private static final String ASSETS_RESOURCE = "assets";
+	/** Packed sprites and font. */
+	private static AssetArchive assets;
+	/** Font every size is derived from. */
+	private static Font font;
 
 	/**
 	 * private constructor.
@@ -50,52 +66,70 @@ public final class FileManager {
 	 * 
 	 * @return Shared instance of FileManager.
 	 */
-	protected static FileManager getInstance() {
+	protected static synchronized FileManager getInstance() {
 		if (instance == null)
 			instance = new FileManager();
 		return instance;
 	}
 
 	/**
-	 * Loads sprites from disk.
+	 * Returns the assets archive, read whole on first use. Packed at build
+	 * time, or from the resources if the game runs without it.
 	 * 
-	 * @param spriteMap
-	 *                  Mapping of sprite type and empty boolean matrix that will
-	 *                  contain the image.
+	 * @return Assets archive.
 	 * @throws IOException
 	 *                     In case of loading problems.
 	 */
-	public void loadSprite(final Map<SpriteType, boolean[][]> spriteMap)
-			throws IOException {
-		InputStream inputStream = null;
-
-		try {
-			inputStream = DrawManager.class.getClassLoader()
-					.getResourceAsStream("graphics");
-			char c;
-
-			// Sprite loading.
-			for (Map.Entry<SpriteType, boolean[][]> sprite : spriteMap
-					.entrySet()) {
-				for (int i = 0; i < sprite.getValue().length; i++)
-					for (int j = 0; j < sprite.getValue()[i].length; j++) {
-						do
-							c = (char) inputStream.read();
-						while (c != '0' && c != '1');
-
-						if (c == '1')
-							sprite.getValue()[i][j] = true;
-						else
-							sprite.getValue()[i][j] = false;
-					}
-				logger.fine("Sprite " + sprite.getKey() + " loaded.");
+	private synchronized AssetArchive getAssets() throws IOException {
+		if (assets == null) {
+			byte[] bytes;
+			InputStream inputStream = FileManager.class.getClassLoader()
+					.getResourceAsStream(ASSETS_RESOURCE);
+			if (inputStream != null) {
+				try {
+					bytes = inputStream.readAllBytes();
+				} finally {
+					inputStream.close();
+				}
+			} else {
+				logger.info("No packed assets, packing the resources.");
+				bytes = AssetPacker.pack();
 			}
-			if (inputStream != null)
-				inputStream.close();
-		} finally {
-			if (inputStream != null)
-				inputStream.close();
+			assets = new AssetArchive(ByteBuffer.wrap(bytes));
 		}
+		return assets;
+	}
+
+	/**
+	 * Loads a sprite by name.
+	 * 
+	 * @param name
+	 *                  Name of the sprite.
+	 * @return Sprite, a packed row each. Null if there is none.
+	 * @throws IOException
+	 *                     In case of loading problems.
+	 */
+	public SpriteMask loadSprite(final String name) throws IOException {
+		SpriteMask sprite = getAssets().getSprite(name);
+		if (sprite != null)
+			logger.fine("Sprite " + name + " loaded.");
+		return sprite;
+	}
+
+	/**
+	 * Loads the sprite of every sprite type, found by name.
+	 * 
+	 * @return Sprites indexed by sprite type ordinal, null for the types
+	 *         without one.
+	 * @throws IOException
+	 *                     In case of loading problems.
+	 */
+	public SpriteMask[] loadSprites() throws IOException {
+		SpriteType[] spriteTypes = SpriteType.values();
+		SpriteMask[] sprites = new SpriteMask[spriteTypes.length];
+		for (SpriteType spriteType : spriteTypes)
+			sprites[spriteType.ordinal()] = loadSprite(spriteType.name());
+		return sprites;
 	}
 
 	/**
@@ -109,23 +143,67 @@ public final class FileManager {
 	 * @throws FontFormatException
 	 *                             In case of incorrect font format.
 	 */
-	public Font loadFont(final float size) throws IOException,
+	public synchronized Font loadFont(final float size) throws IOException,
 			FontFormatException {
-		InputStream inputStream = null;
-		Font font;
+		// Font loading, parsed once and derived for every size.
+		if (font == null) {
+			byte[] bytes = getAssets().getBytes(AssetPacker.FONT_RESOURCE);
+			if (bytes == null)
+				throw new IOException("Font missing from the assets.");
+			font = Font.createFont(Font.TRUETYPE_FONT,
+					new ByteArrayInputStream(bytes));
+		}
+		return font.deriveFont(size);
+	}
+
+	/**
+	 * Loads a sound from disk, decoding it to 16 bit signed samples.
+	 * 
+	 * @param path
+	 *               Path of the sound file.
+	 * @param format
+	 *               Format to convert the sound to, 16 bit signed little
+	 *               endian.
+	 * @return Interleaved samples of the sound.
+	 * @throws IOException
+	 *                     In case of loading problems.
+	 * @throws UnsupportedAudioFileException
+	 *                     In case of a format that can't be converted.
+	 */
+	public short[] loadSound(final String path, final AudioFormat format)
+			throws IOException, UnsupportedAudioFileException {
+		AudioInputStream inputStream = null;
+		byte[] bytes;
 
 		try {
-			// Font loading.
-			inputStream = FileManager.class.getClassLoader()
-					.getResourceAsStream("BlackOpsOne-Regular.ttf");
-			font = Font.createFont(Font.TRUETYPE_FONT, inputStream).deriveFont(
-					size);
+			inputStream = AudioSystem.getAudioInputStream(
+					format, AudioSystem.getAudioInputStream(new File(path)));
+			bytes = inputStream.readAllBytes();
 		} finally {
 			if (inputStream != null)
 				inputStream.close();
 		}
 
-		return font;
+		short[] samples = new short[bytes.length / 2];
+		for (int i = 0; i < samples.length; i++)
+			samples[i] = (short) ((bytes[2 * i] & 0xFF)
+					| bytes[2 * i + 1] << 8);
+		logger.fine("Sound " + path + " loaded.");
+		return samples;
+	}
+
+	/**
+	 * Returns the directory user files are kept in, the one of the game jar.
+	 * 
+	 * @return Data directory.
+	 * @throws IOException
+	 *                     In case the location can't be decoded.
+	 */
+	public File getDataDirectory() throws IOException {
+		String jarPath = FileManager.class.getProtectionDomain()
+				.getCodeSource().getLocation().getPath();
+		jarPath = URLDecoder.decode(jarPath, "UTF-8");
+		return new File(jarPath).getParentFile();
 	}
 
 	/**
@@ -136,7 +214,7 @@ public final class FileManager {
 	 * @throws IOException
 	 *                     In case of loading problems.
 	 */
-	private List<Score> loadDefaultHighScores() throws IOException {
+	List<Score> loadDefaultHighScores() throws IOException {
 		List<Score> highScores = new ArrayList<Score>();
 		InputStream inputStream = null;
 		BufferedReader reader = null;
@@ -179,15 +257,7 @@ public final class FileManager {
 		BufferedReader bufferedReader = null;
 
 		try {
-			String jarPath = FileManager.class.getProtectionDomain()
-					.getCodeSource().getLocation().getPath();
-			jarPath = URLDecoder.decode(jarPath, "UTF-8");
-
-			String scoresPath = new File(jarPath).getParent();
-			scoresPath += File.separator;
-			scoresPath += "scores";
-
-			File scoresFile = new File(scoresPath);
+			File scoresFile = new File(getDataDirectory(), "scores");
 			inputStream = new FileInputStream(scoresFile);
 			bufferedReader = new BufferedReader(new InputStreamReader(
 					inputStream, Charset.forName("UTF-8")));
@@ -232,15 +302,7 @@ public final class FileManager {
 		BufferedWriter bufferedWriter = null;
 
 		try {
-			String jarPath = FileManager.class.getProtectionDomain()
-					.getCodeSource().getLocation().getPath();
-			jarPath = URLDecoder.decode(jarPath, "UTF-8");
-
-			String scoresPath = new File(jarPath).getParent();
-			scoresPath += File.separator;
-			scoresPath += "scores";
-
-			File scoresFile = new File(scoresPath);
+			File scoresFile = new File(getDataDirectory(), "scores");
 
 			if (!scoresFile.exists())
 				scoresFile.createNewFile();
@@ -268,4 +330,51 @@ public final class FileManager {
 				bufferedWriter.close();
 		}
 	}
+
+	/**
+	 * Saves a replay to disk.
+	 * 
+	 * @param replay
+	 *                   Replay to save.
+	 * @param file
+	 *                   File to save it to.
+	 * @throws IOException
+	 *                     In case of saving problems.
+	 */
+	public void saveReplay(final Replay replay, final File file)
+			throws IOException {
+		DataOutputStream outputStream = null;
+
+		try {
+			outputStream = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(file)));
+			replay.write(outputStream);
+		} finally {
+			if (outputStream != null)
+				outputStream.close();
+		}
+	}
+
+	/**
+	 * Loads a replay from disk.
+	 * 
+	 * @param file
+	 *                   File to load.
+	 * @return Replay loaded.
+	 * @throws IOException
+	 *                     In case of loading problems.
+	 */
+	public Replay loadReplay(final File file) throws IOException {
+		DataInputStream inputStream = null;
+
+		try {
+			inputStream = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(file)));
+			logger.info("Loading replay " + file);
+			return Replay.read(inputStream);
+		} finally {
+			if (inputStream != null)
+				inputStream.close();
+		}
+	}
 }
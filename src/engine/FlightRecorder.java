@@ -0,0 +1,457 @@
+package engine;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the phase timings and entity counts of the last frames, and the
+ * last gameplay events, in rings allocated up front. When a frame takes
+ * longer than the budget, the rings are copied to a snapshot a watchdog
+ * thread writes to disk. The watchdog also notices when the game loop stops
+ * running, and writes the rings along with the stack of every thread.
+ *
+ */
+public final class FlightRecorder {
+
+	/** Frames kept, five seconds at 60 frames per second. */
+	private static final int FRAMES = 300;
+	/** Events kept. */
+	private static final int EVENTS = 256;
+	/** Default frame budget, two frames at 60 frames per second. */
+	private static final long DEFAULT_BUDGET_NANOS = 33000000L;
+	/** Default time without frames after which the game loop is stalled. */
+	private static final long DEFAULT_STALL_MILLIS = 250;
+	/** Time between the watchdog checks. */
+	private static final long WATCHDOG_PERIOD_MILLIS = 50;
+	/** Minimum time between two hitch reports, so a slow patch gives one. */
+	private static final long MIN_REPORT_INTERVAL_NANOS = 5000000000L;
+	/** Default directory the reports are written to. */
+	private static final String REPORT_DIRECTORY = "hitches";
+
+	/** Snapshot free to be filled. */
+	private static final int SNAPSHOT_FREE = 0;
+	/** Snapshot being filled or written. */
+	private static final int SNAPSHOT_BUSY = 1;
+	/** Snapshot filled by the game loop, waiting for the watchdog. */
+	private static final int SNAPSHOT_READY = 2;
+
+	/** Gameplay events recorded. */
+	public static enum Event {
+		/** A level started, value is the level. */
+		LevelStarted,
+		/** A player's ship was hit, value is the lives remaining. */
+		PlayerHit,
+		/** An enemy ship was destroyed, value is its points. */
+		EnemyDestroyed,
+		/** The special ship appeared. */
+		SpecialShipAppeared,
+		/** The special ship escaped. */
+		SpecialShipEscaped,
+		/** The level ended, value is the score. */
+		LevelFinished
+	};
+
+	/** Singleton instance of the class. */
+	private static FlightRecorder instance;
+
+	/** Application logger. */
+	private Logger logger;
+	/** Frame phase profiler the timings are read from. */
+	private Profiler profiler;
+	/** Phases of a frame. */
+	private Profiler.Phase[] phases;
+	/** Frame time over which the frames are written to disk. */
+	private long budgetNanos;
+	/** Time without frames after which the game loop is stalled. */
+	private long stallNanos;
+	/** Directory the reports are written to. */
+	private File reportDirectory;
+
+	/** Rings being recorded to. */
+	private Rings live;
+	/** Copy of the rings being written to disk. */
+	private Rings snapshot;
+	/** State of the snapshot, shared by the game loop and the watchdog. */
+	private AtomicInteger snapshotState;
+	/** Why the snapshot was taken. */
+	private String snapshotReason;
+	/** Time the last report was asked for. */
+	private long lastReportTime;
+
+	/** Time the last frame ended, read by the watchdog. */
+	private volatile long lastFrameTime;
+	/** Number of frames recorded, read by the watchdog. */
+	private volatile long frameCount;
+	/**
+	 * Writes to the live rings started and finished, odd while one is in
+	 * progress. The watchdog reads it around its copies to detect tears.
+	 */
+	private volatile long writes;
+	/** Thread checking the game loop, null if not started. */
+	private Thread watchdog;
+
+	/**
+	 * Frames and events, each in a ring of parallel arrays.
+	 */
+	private static final class Rings {
+		/** Ticks run when each frame ended. */
+		private long[] frameTicks;
+		/** Total time of each frame. */
+		private long[] frameNanos;
+		/** Time of each phase of each frame, frame by frame. */
+		private long[] phaseNanos;
+		/** Enemy ships alive in each frame. */
+		private int[] enemyCounts;
+		/** Bullets flying in each frame. */
+		private int[] bulletCounts;
+		/** Number of frames ever recorded. */
+		private long frames;
+		/** Time each event happened. */
+		private long[] eventTimes;
+		/** Frame each event happened in. */
+		private long[] eventFrames;
+		/** Type of each event, as the ordinal. */
+		private int[] eventTypes;
+		/** Value of each event. */
+		private int[] eventValues;
+		/** Number of events ever recorded. */
+		private long events;
+		/** Time the last frame ended. */
+		private long endTime;
+
+		/**
+		 * Constructor, allocates every ring.
+		 *
+		 * @param phaseCount
+		 *            Number of phases of a frame.
+		 */
+		Rings(final int phaseCount) {
+			this.frameTicks = new long[FRAMES];
+			this.frameNanos = new long[FRAMES];
+			this.phaseNanos = new long[FRAMES * phaseCount];
+			this.enemyCounts = new int[FRAMES];
+			this.bulletCounts = new int[FRAMES];
+			this.eventTimes = new long[EVENTS];
+			this.eventFrames = new long[EVENTS];
+			this.eventTypes = new int[EVENTS];
+			this.eventValues = new int[EVENTS];
+		}
+
+		/**
+		 * Copies other rings over these, without allocating.
+		 *
+		 * @param other
+		 *            Rings to copy.
+		 */
+		void copyFrom(final Rings other) {
+			System.arraycopy(other.frameTicks, 0, this.frameTicks, 0, FRAMES);
+			System.arraycopy(other.frameNanos, 0, this.frameNanos, 0, FRAMES);
+			System.arraycopy(other.phaseNanos, 0, this.phaseNanos, 0,
+					this.phaseNanos.length);
+			System.arraycopy(other.enemyCounts, 0, this.enemyCounts, 0, FRAMES);
+			System.arraycopy(other.bulletCounts, 0, this.bulletCounts, 0,
+					FRAMES);
+			System.arraycopy(other.eventTimes, 0, this.eventTimes, 0, EVENTS);
+			System.arraycopy(other.eventFrames, 0, this.eventFrames, 0, EVENTS);
+			System.arraycopy(other.eventTypes, 0, this.eventTypes, 0, EVENTS);
+			System.arraycopy(other.eventValues, 0, this.eventValues, 0, EVENTS);
+			this.frames = other.frames;
+			this.events = other.events;
+			this.endTime = other.endTime;
+		}
+	}
+
+	/**
+	 * Constructor, allocates the rings and their snapshot.
+	 */
+	private FlightRecorder() {
+		this.logger = Core.getLogger();
+		this.profiler = Core.getProfiler();
+		this.phases = Profiler.Phase.values();
+		this.budgetNanos = DEFAULT_BUDGET_NANOS;
+		this.stallNanos = DEFAULT_STALL_MILLIS * 1000000L;
+		this.reportDirectory = new File(REPORT_DIRECTORY);
+		this.live = new Rings(this.phases.length);
+		this.snapshot = new Rings(this.phases.length);
+		this.snapshotState = new AtomicInteger(SNAPSHOT_FREE);
+		this.lastReportTime = System.nanoTime() - MIN_REPORT_INTERVAL_NANOS;
+	}
+
+	/**
+	 * Returns shared instance of FlightRecorder.
+	 *
+	 * @return Shared instance of FlightRecorder.
+	 */
+	protected static FlightRecorder getInstance() {
+		if (instance == null)
+			instance = new FlightRecorder();
+		return instance;
+	}
+
+	/**
+	 * Starts recording frames, with the profiler on, and starts the
+	 * watchdog.
+	 *
+	 * @param budgetMillis
+	 *            Frame time over which the frames are written to disk.
+	 */
+	public void start(final long budgetMillis) {
+		start(budgetMillis, DEFAULT_STALL_MILLIS, new File(REPORT_DIRECTORY));
+	}
+
+	/**
+	 * Starts recording frames, with the profiler on, and starts the
+	 * watchdog.
+	 *
+	 * @param budgetMillis
+	 *            Frame time over which the frames are written to disk.
+	 * @param stallMillis
+	 *            Time without frames after which the game loop is stalled.
+	 * @param directory
+	 *            Directory the reports are written to.
+	 */
+	public void start(final long budgetMillis, final long stallMillis,
+			final File directory) {
+		this.budgetNanos = budgetMillis * 1000000L;
+		this.stallNanos = stallMillis * 1000000L;
+		this.reportDirectory = directory;
+		this.profiler.setEnabled(true);
+		this.lastFrameTime = System.nanoTime();
+		this.lastReportTime = this.lastFrameTime - MIN_REPORT_INTERVAL_NANOS;
+		if (this.watchdog != null)
+			return;
+		this.watchdog = new Thread(this::watch, "Watchdog");
+		this.watchdog.setDaemon(true);
+		this.watchdog.start();
+		this.logger.info("Flight recorder started, frame budget of "
+				+ budgetMillis + " ms.");
+	}
+
+	/**
+	 * Stops the watchdog and waits for it to finish the report it is
+	 * writing, if any. Frames are no longer recorded.
+	 */
+	public void stop() {
+		if (this.watchdog == null)
+			return;
+		this.watchdog.interrupt();
+		try {
+			this.watchdog.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.watchdog = null;
+		this.profiler.setEnabled(false);
+		this.snapshotState.set(SNAPSHOT_FREE);
+	}
+
+	/**
+	 * Checks if frames are being recorded.
+	 *
+	 * @return True once started.
+	 */
+	public boolean isStarted() {
+		return this.watchdog != null;
+	}
+
+	/**
+	 * Records a frame of the game loop: the time of each phase in it, as
+	 * measured by the profiler, and the entities on screen. Asks for a
+	 * report if it went over budget. Only called from the game loop.
+	 *
+	 * @param ticks
+	 *            Ticks run by the screen.
+	 * @param frameNanos
+	 *            Time since the previous frame ended.
+	 */
+	public void endFrame(final long ticks, final long frameNanos) {
+		Rings rings = this.live;
+		this.writes++;
+		int index = (int) (rings.frames % FRAMES);
+		rings.frameTicks[index] = ticks;
+		rings.frameNanos[index] = frameNanos;
+		int phaseIndex = index * this.phases.length;
+		for (Profiler.Phase phase : this.phases)
+			rings.phaseNanos[phaseIndex++] = this.profiler
+					.getFrameNanos(phase);
+		rings.enemyCounts[index] = this.profiler.getEnemyCount();
+		rings.bulletCounts[index] = this.profiler.getBulletCount();
+		this.profiler.clearFrame();
+
+		long now = System.nanoTime();
+		rings.endTime = now;
+		rings.frames++;
+		this.writes++;
+		this.frameCount = rings.frames;
+		this.lastFrameTime = now;
+
+		if (frameNanos > this.budgetNanos
+				&& now - this.lastReportTime >= MIN_REPORT_INTERVAL_NANOS
+				&& this.snapshotState.compareAndSet(SNAPSHOT_FREE,
+						SNAPSHOT_BUSY)) {
+			this.lastReportTime = now;
+			this.snapshot.copyFrom(rings);
+			this.snapshotReason = "HITCH";
+			this.snapshotState.set(SNAPSHOT_READY);
+		}
+	}
+
+	/**
+	 * Records a gameplay event. Only called from the game loop.
+	 *
+	 * @param event
+	 *            Event happened.
+	 * @param value
+	 *            Value of the event.
+	 */
+	public void recordEvent(final Event event, final int value) {
+		Rings rings = this.live;
+		this.writes++;
+		int index = (int) (rings.events % EVENTS);
+		rings.eventTimes[index] = System.nanoTime();
+		rings.eventFrames[index] = rings.frames;
+		rings.eventTypes[index] = event.ordinal();
+		rings.eventValues[index] = value;
+		rings.events++;
+		this.writes++;
+	}
+
+	/**
+	 * Body of the watchdog: writes the snapshots taken by the game loop, and
+	 * takes one with every thread stack when the loop stalls.
+	 */
+	private void watch() {
+		long stalledFrame = -1;
+		while (true) {
+			try {
+				Thread.sleep(WATCHDOG_PERIOD_MILLIS);
+			} catch (InterruptedException e) {
+				return;
+			}
+
+			if (this.snapshotState.get() == SNAPSHOT_READY) {
+				writeReport(this.snapshotReason, null);
+				this.snapshotState.set(SNAPSHOT_FREE);
+			}
+
+			long frame = this.frameCount;
+			long stalledNanos = System.nanoTime() - this.lastFrameTime;
+			if (stalledNanos >= this.stallNanos && frame != stalledFrame
+					&& this.snapshotState.compareAndSet(SNAPSHOT_FREE,
+							SNAPSHOT_BUSY)) {
+				// The game loop may resume while the rings are copied, the
+				// copy is only kept if no write started or ended meanwhile.
+				long writesBefore = this.writes;
+				this.snapshot.copyFrom(this.live);
+				VarHandle.acquireFence();
+				if ((writesBefore & 1) == 0 && writesBefore == this.writes) {
+					stalledFrame = frame;
+					writeReport("STALL of " + stalledNanos / 1000000 + " ms",
+							Thread.getAllStackTraces());
+				}
+				this.snapshotState.set(SNAPSHOT_FREE);
+			}
+		}
+	}
+
+	/**
+	 * Writes the snapshot to a new file of the report directory.
+	 *
+	 * @param reason
+	 *            Why the snapshot was taken.
+	 * @param stacks
+	 *            Stack of every thread, null to leave them out.
+	 */
+	private void writeReport(final String reason,
+			final Map<Thread, StackTraceElement[]> stacks) {
+		File directory = this.reportDirectory;
+		File file = new File(directory, (stacks == null ? "hitch_" : "stall_")
+				+ System.currentTimeMillis() + ".txt");
+		// Written under another name and renamed, so a report is only seen
+		// once complete.
+		File partial = new File(directory, file.getName() + ".part");
+		try {
+			directory.mkdirs();
+			Writer writer = new BufferedWriter(new FileWriter(partial));
+			try {
+				writeReport(writer, reason, stacks);
+			} finally {
+				writer.close();
+			}
+			Files.move(partial.toPath(), file.toPath(),
+					StandardCopyOption.ATOMIC_MOVE);
+			this.logger.warning(reason + ", flight record written to "
+					+ file);
+		} catch (IOException e) {
+			this.logger.warning("Flight record could not be written: " + e);
+		}
+	}
+
+	/**
+	 * Writes the snapshot as text: the frames, oldest first, the events and
+	 * the thread stacks.
+	 *
+	 * @param writer
+	 *            Writer to write to.
+	 * @param reason
+	 *            Why the snapshot was taken.
+	 * @param stacks
+	 *            Stack of every thread, null to leave them out.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	private void writeReport(final Writer writer, final String reason,
+			final Map<Thread, StackTraceElement[]> stacks) throws IOException {
+		Rings rings = this.snapshot;
+		writer.write(reason + ", budget " + this.budgetNanos / 1000000
+				+ " ms\n\n");
+
+		writer.write(String.format("%8s %8s %9s", "frame", "tick", "ms"));
+		for (Profiler.Phase phase : this.phases)
+			writer.write(String.format(" %15s", phase + " us"));
+		writer.write(String.format(" %7s %7s%n", "enemies", "bullets"));
+		long first = Math.max(0, rings.frames - FRAMES);
+		for (long frame = first; frame < rings.frames; frame++) {
+			int index = (int) (frame % FRAMES);
+			writer.write(String.format("%8d %8d %9.2f%s", frame,
+					rings.frameTicks[index], rings.frameNanos[index] / 1e6,
+					rings.frameNanos[index] > this.budgetNanos ? "*" : " "));
+			for (int phase = 0; phase < this.phases.length; phase++)
+				writer.write(String.format("%15.1f ", rings.phaseNanos[index
+						* this.phases.length + phase] / 1e3));
+			writer.write(String.format("%7d %7d%n", rings.enemyCounts[index],
+					rings.bulletCounts[index]));
+		}
+
+		writer.write("\nEvents, ms before the last frame ended\n");
+		Event[] events = Event.values();
+		for (long event = Math.max(0, rings.events - EVENTS);
+				event < rings.events; event++) {
+			int index = (int) (event % EVENTS);
+			writer.write(String.format("%10.2f frame %8d %-20s %d%n",
+					(rings.endTime - rings.eventTimes[index]) / 1e6,
+					rings.eventFrames[index],
+					events[rings.eventTypes[index]], rings.eventValues[index]));
+		}
+
+		if (stacks == null)
+			return;
+		writer.write("\nThreads\n");
+		for (Map.Entry<Thread, StackTraceElement[]> stack : stacks.entrySet()) {
+			Thread thread = stack.getKey();
+			writer.write(String.format("%n\"%s\"%s %s%n", thread.getName(),
+					thread.isDaemon() ? " daemon" : "", thread.getState()));
+			for (StackTraceElement element : stack.getValue())
+				writer.write("\tat " + element + "\n");
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package engine;
 
+import java.awt.Canvas;
 import java.awt.Insets;
+import java.awt.image.BufferStrategy;
 
 import javax.swing.JFrame;
 
@@ -15,12 +17,19 @@ import screen.Screen;
 @SuppressWarnings("serial")
 public class Frame extends JFrame {
 
+	/** Number of buffers flipped, one shown while the other is drawn. */
+	private static final int BUFFERS = 2;
+
 	/** Frame width. */
 	private int width;
 	/** Frame height. */
 	private int height;
 	/** Screen currently shown. */
 	private Screen currentScreen;
+	/** Canvas the screens are drawn on. */
+	private Canvas canvas;
+	/** Page flipping buffers of the canvas. */
+	private BufferStrategy bufferStrategy;
 
 	/**
 	 * Initializes the new frame.
@@ -35,6 +44,12 @@ public class Frame extends JFrame {
 		setResizable(false);
 		setDefaultCloseOperation(EXIT_ON_CLOSE);
 
+		// Drawn actively from the game thread, never repainted by Swing.
+		setIgnoreRepaint(true);
+		this.canvas = new Canvas();
+		this.canvas.setIgnoreRepaint(true);
+		add(this.canvas);
+
 		setLocationRelativeTo(null);
 		setVisible(true);
 
@@ -44,6 +59,11 @@ public class Frame extends JFrame {
 		setTitle("Invaders");
 
 		addKeyListener(Core.getInputManager());
+		this.canvas.addKeyListener(Core.getInputManager());
+
+		this.canvas.createBufferStrategy(BUFFERS);
+		this.bufferStrategy = this.canvas.getBufferStrategy();
+		this.canvas.requestFocus();
 	}
 
 	/**
@@ -59,6 +79,15 @@ public class Frame extends JFrame {
 		return currentScreen.run();
 	}
 
+	/**
+	 * Getter for the buffers the screens are drawn on.
+	 * 
+	 * @return Buffer strategy of the drawing canvas.
+	 */
+	public final BufferStrategy getCanvasBufferStrategy() {
+		return this.bufferStrategy;
+	}
+
 	/**
 	 * Getter for frame width.
 	 * 
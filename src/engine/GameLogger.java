@@ -0,0 +1,752 @@
+package engine;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Logs without making the calling thread wait. Messages are patterns with
+ * {} placeholders whose arguments are kept apart, in a ring allocated up
+ * front, until a background writer formats them and writes them to the log
+ * file in batches. Levels are those of the application logger, checked
+ * before anything is stored, so disabled messages cost a comparison. The log
+ * file is rotated when it grows too big, older files being compressed in the
+ * background.
+ *
+ * Until started, messages go through the application logger as before.
+ *
+ */
+public final class GameLogger {
+
+	/** Messages the ring holds, a power of two. */
+	private static final int CAPACITY = 4096;
+	/** Maximum arguments of a message. */
+	private static final int MAX_ARGUMENTS = 3;
+	/** Time the writer waits for messages when there are none. */
+	private static final long IDLE_NANOS = 10000000L;
+	/** Time close() waits for the writer to finish. */
+	private static final long CLOSE_TIMEOUT_MILLIS = 2000;
+	/** Default batch size written at once. */
+	private static final int DEFAULT_FLUSH_CHARS = 8192;
+	/** Default time a message waits in a batch. */
+	private static final long DEFAULT_FLUSH_MILLIS = 1000;
+	/** Default size a log file is rotated at. */
+	private static final long DEFAULT_MAX_FILE_CHARS = 1 << 20;
+	/** Default number of compressed log files kept. */
+	private static final int DEFAULT_MAX_ARCHIVES = 5;
+	/** Format for the date. */
+	private static final DateFormat FORMAT = new SimpleDateFormat("h:mm:ss");
+	/** System line separator. */
+	private static final String LINE_SEPARATOR = System
+			.getProperty("line.separator");
+
+	/** Singleton instance of the class. */
+	private static GameLogger instance;
+
+	/** Application logger, holding the level. */
+	private Logger logger;
+
+	/** Level of each message. */
+	private Level[] levels;
+	/** Pattern of each message. */
+	private String[] patterns;
+	/** Time each message was logged. */
+	private long[] times;
+	/** Number of arguments of each message. */
+	private int[] argumentCounts;
+	/** Number arguments, MAX_ARGUMENTS per message. */
+	private long[] numbers;
+	/** Object argument of each message, null if its arguments are numbers. */
+	private Object[] objects;
+	/** Sequence of the message in each slot, once it can be read. */
+	private AtomicLongArray published;
+	/** Number of messages slots were taken for. */
+	private AtomicLong claimed;
+	/** Number of messages written, freeing their slots. */
+	private volatile long consumed;
+	/** Messages lost because the ring was full. */
+	private AtomicLong dropped;
+
+	/** Checks if the writer runs. */
+	private volatile boolean started;
+	/** Checks if the writer has to write everything and stop. */
+	private volatile boolean closing;
+	/** Thread formatting and writing the messages. */
+	private Thread writer;
+	/** Thread compressing the rotated files. */
+	private ExecutorService compressor;
+	/** Hook closing the log when the game exits. */
+	private Thread shutdownHook;
+
+	/** Batch size written at once. */
+	private int flushChars;
+	/** Time a message waits in a batch before it is written. */
+	private long flushMillis;
+	/** Level of the messages written right away. */
+	private Level flushLevel;
+	/** Size a log file is rotated at. */
+	private long maxFileChars;
+	/** Number of compressed log files kept. */
+	private int maxArchives;
+
+	/** Log file. */
+	private File file;
+	/** Output of the log file. */
+	private Writer output;
+	/** Characters written to the log file. */
+	private long fileChars;
+	/** Time the last rotated file is named after. */
+	private long lastRotation;
+	/** Formatted messages not written yet. */
+	private StringBuilder batch;
+	/** Formatted messages not printed on the console yet. */
+	private StringBuilder consoleBatch;
+	/** Time the oldest message of the batch was formatted. */
+	private long batchTime;
+	/** Date of the message being formatted. */
+	private Date date;
+
+	/**
+	 * Constructor, allocates the ring.
+	 */
+	private GameLogger() {
+		this.logger = Core.getLogger();
+		this.levels = new Level[CAPACITY];
+		this.patterns = new String[CAPACITY];
+		this.times = new long[CAPACITY];
+		this.argumentCounts = new int[CAPACITY];
+		this.numbers = new long[CAPACITY * MAX_ARGUMENTS];
+		this.objects = new Object[CAPACITY];
+		this.published = new AtomicLongArray(CAPACITY);
+		for (int i = 0; i < CAPACITY; i++)
+			this.published.set(i, -1);
+		this.claimed = new AtomicLong();
+		this.dropped = new AtomicLong();
+
+		this.flushChars = DEFAULT_FLUSH_CHARS;
+		this.flushMillis = DEFAULT_FLUSH_MILLIS;
+		this.flushLevel = Level.WARNING;
+		this.maxFileChars = DEFAULT_MAX_FILE_CHARS;
+		this.maxArchives = DEFAULT_MAX_ARCHIVES;
+		this.batch = new StringBuilder(DEFAULT_FLUSH_CHARS * 2);
+		this.consoleBatch = new StringBuilder(DEFAULT_FLUSH_CHARS * 2);
+		this.date = new Date();
+	}
+
+	/**
+	 * Returns shared instance of GameLogger.
+	 *
+	 * @return Shared instance of GameLogger.
+	 */
+	protected static GameLogger getInstance() {
+		if (instance == null)
+			instance = new GameLogger();
+		return instance;
+	}
+
+	/**
+	 * Sets when batches are written. Takes effect on start().
+	 *
+	 * @param flushChars
+	 *            Size of the batch written at once.
+	 * @param flushMillis
+	 *            Time a message waits in a batch at most.
+	 * @param flushLevel
+	 *            Level of the messages written right away.
+	 */
+	public void setFlushPolicy(final int flushChars, final long flushMillis,
+			final Level flushLevel) {
+		this.flushChars = flushChars;
+		this.flushMillis = flushMillis;
+		this.flushLevel = flushLevel;
+	}
+
+	/**
+	 * Sets when log files are rotated. Takes effect on start().
+	 *
+	 * @param maxFileChars
+	 *            Size a log file is rotated at.
+	 * @param maxArchives
+	 *            Number of compressed log files kept.
+	 */
+	public void setRotation(final long maxFileChars, final int maxArchives) {
+		this.maxFileChars = maxFileChars;
+		this.maxArchives = maxArchives;
+	}
+
+	/**
+	 * Starts writing messages to a log file, overwriting it, from a
+	 * background thread.
+	 *
+	 * @param logFile
+	 *            Log file.
+	 * @throws IOException
+	 *             If the file can't be opened.
+	 */
+	public synchronized void start(final File logFile) throws IOException {
+		if (this.started)
+			return;
+		this.file = logFile;
+		openFile();
+		this.closing = false;
+		this.compressor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Log compressor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.writer = new Thread(this::write, "Log writer");
+		this.writer.setDaemon(true);
+		this.started = true;
+		this.writer.start();
+		this.shutdownHook = new Thread(this::close, "Log shutdown");
+		Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+	}
+
+	/**
+	 * Writes every message logged so far and stops the writer. Messages
+	 * logged afterwards go through the application logger.
+	 */
+	public synchronized void close() {
+		if (!this.started)
+			return;
+		this.closing = true;
+		LockSupport.unpark(this.writer);
+		try {
+			this.writer.join(CLOSE_TIMEOUT_MILLIS);
+			this.compressor.shutdown();
+			this.compressor.awaitTermination(CLOSE_TIMEOUT_MILLIS,
+					TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.started = false;
+		if (Thread.currentThread() != this.shutdownHook) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+			} catch (IllegalStateException e) {
+				// Already shutting down.
+			}
+		}
+	}
+
+	/**
+	 * Creates a handler passing the records of the application logger to
+	 * the writer, so they are written in order with the other messages.
+	 *
+	 * @return Handler to add to the application logger.
+	 */
+	public Handler createHandler() {
+		return new Handler() {
+			/** Formats the records parameters, as the file handler did. */
+			private SimpleFormatter formatter = new SimpleFormatter();
+
+			@Override
+			public void publish(final LogRecord logRecord) {
+				if (GameLogger.this.started)
+					enqueue(logRecord.getLevel(), "{}", 1, 0, 0, 0,
+							this.formatter.formatMessage(logRecord));
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	/**
+	 * Checks if messages of a level are logged.
+	 *
+	 * @param level
+	 *            Level of the message.
+	 * @return True if the application logger takes the level.
+	 */
+	public boolean isLoggable(final Level level) {
+		return this.logger.isLoggable(level);
+	}
+
+	/**
+	 * Logs a message.
+	 *
+	 * @param level
+	 *            Level of the message.
+	 * @param message
+	 *            Message.
+	 */
+	public void log(final Level level, final String message) {
+		if (isLoggable(level))
+			enqueue(level, message, 0, 0, 0, 0, null);
+	}
+
+	/**
+	 * Logs a message with a number argument.
+	 *
+	 * @param level
+	 *            Level of the message.
+	 * @param pattern
+	 *            Message, {} standing for the argument.
+	 * @param argument
+	 *            Argument.
+	 */
+	public void log(final Level level, final String pattern,
+			final long argument) {
+		if (isLoggable(level))
+			enqueue(level, pattern, 1, argument, 0, 0, null);
+	}
+
+	/**
+	 * Logs a message with two number arguments.
+	 *
+	 * @param level
+	 *            Level of the message.
+	 * @param pattern
+	 *            Message, each {} standing for the next argument.
+	 * @param argument1
+	 *            First argument.
+	 * @param argument2
+	 *            Second argument.
+	 */
+	public void log(final Level level, final String pattern,
+			final long argument1, final long argument2) {
+		if (isLoggable(level))
+			enqueue(level, pattern, 2, argument1, argument2, 0, null);
+	}
+
+	/**
+	 * Logs a message with three number arguments.
+	 *
+	 * @param level
+	 *            Level of the message.
+	 * @param pattern
+	 *            Message, each {} standing for the next argument.
+	 * @param argument1
+	 *            First argument.
+	 * @param argument2
+	 *            Second argument.
+	 * @param argument3
+	 *            Third argument.
+	 */
+	public void log(final Level level, final String pattern,
+			final long argument1, final long argument2, final long argument3) {
+		if (isLoggable(level))
+			enqueue(level, pattern, 3, argument1, argument2, argument3, null);
+	}
+
+	/**
+	 * Logs a message with an object argument, turned to text by the writer,
+	 * so it must not change afterwards.
+	 *
+	 * @param level
+	 *            Level of the message.
+	 * @param pattern
+	 *            Message, {} standing for the argument.
+	 * @param argument
+	 *            Immutable argument, as a string.
+	 */
+	public void log(final Level level, final String pattern,
+			final Object argument) {
+		if (isLoggable(level))
+			enqueue(level, pattern, 1, 0, 0, 0, argument);
+	}
+
+	/**
+	 * Logs a fine message.
+	 *
+	 * @param message
+	 *            Message.
+	 */
+	public void fine(final String message) {
+		log(Level.FINE, message);
+	}
+
+	/**
+	 * Logs an info message.
+	 *
+	 * @param message
+	 *            Message.
+	 */
+	public void info(final String message) {
+		log(Level.INFO, message);
+	}
+
+	/**
+	 * Logs an info message with a number argument.
+	 *
+	 * @param pattern
+	 *            Message, {} standing for the argument.
+	 * @param argument
+	 *            Argument.
+	 */
+	public void info(final String pattern, final long argument) {
+		log(Level.INFO, pattern, argument);
+	}
+
+	/**
+	 * Logs an info message with two number arguments.
+	 *
+	 * @param pattern
+	 *            Message, each {} standing for the next argument.
+	 * @param argument1
+	 *            First argument.
+	 * @param argument2
+	 *            Second argument.
+	 */
+	public void info(final String pattern, final long argument1,
+			final long argument2) {
+		log(Level.INFO, pattern, argument1, argument2);
+	}
+
+	/**
+	 * Logs an info message with an immutable object argument.
+	 *
+	 * @param pattern
+	 *            Message, {} standing for the argument.
+	 * @param argument
+	 *            Immutable argument, as a string.
+	 */
+	public void info(final String pattern, final Object argument) {
+		log(Level.INFO, pattern, argument);
+	}
+
+	/**
+	 * Logs a warning message.
+	 *
+	 * @param message
+	 *            Message.
+	 */
+	public void warning(final String message) {
+		log(Level.WARNING, message);
+	}
+
+	/**
+	 * Logs a warning message with an immutable object argument.
+	 *
+	 * @param pattern
+	 *            Message, {} standing for the argument.
+	 * @param argument
+	 *            Immutable argument, as a string.
+	 */
+	public void warning(final String pattern, final Object argument) {
+		log(Level.WARNING, pattern, argument);
+	}
+
+	/**
+	 * Stores a message in the next free slot of the ring, or drops it if
+	 * the ring is full. Before start(), logs it right away instead, as
+	 * logged by the caller.
+	 *
+	 * @param level
+	 *            Level of the message.
+	 * @param pattern
+	 *            Message, each {} standing for the next argument.
+	 * @param argumentCount
+	 *            Number of arguments.
+	 * @param argument1
+	 *            First number argument.
+	 * @param argument2
+	 *            Second number argument.
+	 * @param argument3
+	 *            Third number argument.
+	 * @param object
+	 *            Object argument, replacing the numbers if not null.
+	 */
+	private void enqueue(final Level level, final String pattern,
+			final int argumentCount, final long argument1,
+			final long argument2, final long argument3, final Object object) {
+		if (!this.started) {
+			StringBuilder message = new StringBuilder();
+			appendMessage(message, pattern, argumentCount, argument1,
+					argument2, argument3, object);
+			LogRecord logRecord = new LogRecord(level, message.toString());
+			logRecord.setLoggerName(this.logger.getName());
+			// Named after the caller, not after this method.
+			StackWalker.getInstance().walk(frames -> frames.filter(
+					frame -> !frame.getClassName().equals(GameLogger.class
+							.getName()))
+					.findFirst()).ifPresent(frame -> {
+						logRecord.setSourceClassName(frame.getClassName());
+						logRecord.setSourceMethodName(frame.getMethodName());
+					});
+			this.logger.log(logRecord);
+			return;
+		}
+
+		long sequence;
+		do {
+			sequence = this.claimed.get();
+			if (sequence - this.consumed >= CAPACITY) {
+				this.dropped.incrementAndGet();
+				return;
+			}
+		} while (!this.claimed.compareAndSet(sequence, sequence + 1));
+
+		int slot = (int) sequence & (CAPACITY - 1);
+		this.levels[slot] = level;
+		this.patterns[slot] = pattern;
+		this.times[slot] = System.currentTimeMillis();
+		this.argumentCounts[slot] = argumentCount;
+		this.numbers[slot * MAX_ARGUMENTS] = argument1;
+		this.numbers[slot * MAX_ARGUMENTS + 1] = argument2;
+		this.numbers[slot * MAX_ARGUMENTS + 2] = argument3;
+		this.objects[slot] = object;
+		this.published.lazySet(slot, sequence);
+
+		if (level.intValue() >= this.flushLevel.intValue())
+			LockSupport.unpark(this.writer);
+	}
+
+	/**
+	 * Body of the writer: formats the messages as they are published and
+	 * writes them in batches.
+	 */
+	private void write() {
+		this.batchTime = System.currentTimeMillis();
+		while (true) {
+			boolean closing = this.closing;
+			int formatted = 0;
+			boolean urgent = false;
+			long next = this.consumed;
+			while (this.published.get((int) next & (CAPACITY - 1)) == next) {
+				int slot = (int) next & (CAPACITY - 1);
+				if (this.batch.length() == 0)
+					this.batchTime = System.currentTimeMillis();
+				urgent |= this.levels[slot].intValue() >= this.flushLevel
+						.intValue();
+				formatRecord(slot);
+				this.objects[slot] = null;
+				next++;
+				this.consumed = next;
+				formatted++;
+			}
+
+			long dropped = this.dropped.getAndSet(0);
+			if (dropped > 0)
+				formatLine(Level.WARNING, System.currentTimeMillis(), dropped
+						+ " log messages dropped, the log couldn't keep up.");
+
+			if (this.batch.length() > 0 && (urgent || closing
+					|| this.batch.length() >= this.flushChars
+					|| System.currentTimeMillis() - this.batchTime
+							>= this.flushMillis))
+				flushBatch();
+
+			if (closing && formatted == 0) {
+				closeFile();
+				return;
+			}
+			if (formatted == 0)
+				LockSupport.parkNanos(this, IDLE_NANOS);
+		}
+	}
+
+	/**
+	 * Formats a message of the ring to the batch.
+	 *
+	 * @param slot
+	 *            Slot of the message.
+	 */
+	private void formatRecord(final int slot) {
+		int start = this.batch.length();
+		appendHeader(this.batch, this.levels[slot], this.times[slot]);
+		appendMessage(this.batch, this.patterns[slot],
+				this.argumentCounts[slot], this.numbers[slot * MAX_ARGUMENTS],
+				this.numbers[slot * MAX_ARGUMENTS + 1],
+				this.numbers[slot * MAX_ARGUMENTS + 2], this.objects[slot]);
+		this.batch.append(' ').append(LINE_SEPARATOR);
+		if (this.levels[slot].intValue() >= Level.INFO.intValue())
+			this.consoleBatch.append(this.batch, start, this.batch.length());
+	}
+
+	/**
+	 * Formats a message of the writer to the batch.
+	 *
+	 * @param level
+	 *            Level of the message.
+	 * @param time
+	 *            Time of the message.
+	 * @param message
+	 *            Message.
+	 */
+	private void formatLine(final Level level, final long time,
+			final String message) {
+		int start = this.batch.length();
+		appendHeader(this.batch, level, time);
+		this.batch.append(message).append(' ').append(LINE_SEPARATOR);
+		this.consoleBatch.append(this.batch, start, this.batch.length());
+	}
+
+	/**
+	 * Appends the level and time of a message, as MinimalFormatter does.
+	 *
+	 * @param builder
+	 *            Builder to append to.
+	 * @param level
+	 *            Level of the message.
+	 * @param time
+	 *            Time of the message.
+	 */
+	private void appendHeader(final StringBuilder builder, final Level level,
+			final long time) {
+		this.date.setTime(time);
+		builder.append('[').append(level).append('|')
+				.append(FORMAT.format(this.date)).append("]: ");
+	}
+
+	/**
+	 * Appends a message, each {} of the pattern replaced by the next
+	 * argument. Extra placeholders are left as they are.
+	 *
+	 * @param builder
+	 *            Builder to append to.
+	 * @param pattern
+	 *            Message, each {} standing for the next argument.
+	 * @param argumentCount
+	 *            Number of arguments.
+	 * @param argument1
+	 *            First number argument.
+	 * @param argument2
+	 *            Second number argument.
+	 * @param argument3
+	 *            Third number argument.
+	 * @param object
+	 *            Object argument, replacing the numbers if not null.
+	 */
+	private static void appendMessage(final StringBuilder builder,
+			final String pattern, final int argumentCount,
+			final long argument1, final long argument2, final long argument3,
+			final Object object) {
+		int position = 0;
+		for (int argument = 0; argument < argumentCount; argument++) {
+			int placeholder = pattern.indexOf("{}", position);
+			if (placeholder < 0)
+				break;
+			builder.append(pattern, position, placeholder);
+			if (object != null)
+				builder.append(object);
+			else
+				builder.append(argument == 0 ? argument1
+						: argument == 1 ? argument2 : argument3);
+			position = placeholder + 2;
+		}
+		builder.append(pattern, position, pattern.length());
+	}
+
+	/**
+	 * Writes the batch to the log file and the console, rotating the file
+	 * if it grew too big.
+	 */
+	private void flushBatch() {
+		try {
+			this.output.append(this.batch);
+			this.output.flush();
+			this.fileChars += this.batch.length();
+			if (this.fileChars >= this.maxFileChars)
+				rotate();
+		} catch (IOException e) {
+			System.err.println("Log couldn't be written: " + e);
+		}
+		System.err.print(this.consoleBatch);
+		this.batch.setLength(0);
+		this.consoleBatch.setLength(0);
+	}
+
+	/**
+	 * Opens the log file, overwriting it.
+	 *
+	 * @throws IOException
+	 *             If the file can't be opened.
+	 */
+	private void openFile() throws IOException {
+		this.output = new OutputStreamWriter(new FileOutputStream(this.file),
+				StandardCharsets.UTF_8);
+		this.fileChars = 0;
+	}
+
+	/**
+	 * Closes the log file.
+	 */
+	private void closeFile() {
+		try {
+			this.output.close();
+		} catch (IOException e) {
+			System.err.println("Log couldn't be closed: " + e);
+		}
+	}
+
+	/**
+	 * Moves the log file aside and starts a new one. The old file is
+	 * compressed in the background.
+	 *
+	 * @throws IOException
+	 *             If the new file can't be opened.
+	 */
+	private void rotate() throws IOException {
+		closeFile();
+		// Named after the time, one millisecond apart at least.
+		this.lastRotation = Math.max(System.currentTimeMillis(),
+				this.lastRotation + 1);
+		File rotated = new File(this.file.getPath() + "." + this.lastRotation);
+		if (this.file.renameTo(rotated))
+			this.compressor.execute(() -> compress(rotated));
+		openFile();
+	}
+
+	/**
+	 * Compresses a rotated log file and deletes the oldest compressed
+	 * files over the limit.
+	 *
+	 * @param rotated
+	 *            Rotated log file.
+	 */
+	private void compress(final File rotated) {
+		File compressed = new File(rotated.getPath() + ".gz");
+		try (InputStream input = new FileInputStream(rotated);
+				OutputStream output = new GZIPOutputStream(
+						new FileOutputStream(compressed))) {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = input.read(buffer)) > 0)
+				output.write(buffer, 0, read);
+		} catch (IOException e) {
+			System.err.println("Log couldn't be compressed: " + e);
+			return;
+		}
+		rotated.delete();
+
+		String prefix = this.file.getName() + ".";
+		File[] archives = this.file.getAbsoluteFile().getParentFile()
+				.listFiles((directory, name) -> name.startsWith(prefix)
+						&& name.endsWith(".gz"));
+		if (archives == null || archives.length <= this.maxArchives)
+			return;
+		// Same length names, the oldest sort first.
+		Arrays.sort(archives);
+		for (int i = 0; i < archives.length - this.maxArchives; i++)
+			archives[i].delete();
+	}
+}
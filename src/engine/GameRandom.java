@@ -0,0 +1,91 @@
+package engine;
+
+/**
+ * Seeded random generator whose whole state is a single number, so it can be
+ * saved and restored along with the game. Every subsystem draws from its own
+ * stream, so adding a draw in one doesn't change what the others get.
+ *
+ */
+public final class GameRandom {
+
+	/** Increment of the generator state, the golden ratio in 64 bits. */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	/** Scale from 53 random bits to a double in [0, 1). */
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+	/** Subsystems drawing random numbers, each from its own stream. */
+	public static enum Stream {
+		/** Cooldown durations with variance, as the enemy shooting rate. */
+		Cooldowns,
+		/** Columns of the formation picked to shoot. */
+		Shooters,
+		/** Time between special ship appearances. */
+		BonusShip,
+		/** Blinking colors and other effects only drawn. */
+		Effects
+	};
+
+	/** Current state of the generator. */
+	private long state;
+
+	/**
+	 * Constructor, seeds the generator.
+	 *
+	 * @param seed
+	 *            Initial state.
+	 */
+	public GameRandom(final long seed) {
+		this.state = seed;
+	}
+
+	/**
+	 * Returns the next 64 random bits, SplitMix64.
+	 *
+	 * @return Random long.
+	 */
+	public long nextLong() {
+		long z = (this.state += GOLDEN_GAMMA);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Returns a random number between 0 and a bound.
+	 *
+	 * @param bound
+	 *            Upper bound, exclusive, positive.
+	 * @return Random int in [0, bound).
+	 */
+	public int nextInt(final int bound) {
+		return (int) (((nextLong() >>> 33) * bound) >>> 31);
+	}
+
+	/**
+	 * Returns a random number between 0 and 1, as Math.random() does.
+	 *
+	 * @return Random double in [0, 1).
+	 */
+	public double nextDouble() {
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+
+	/**
+	 * Getter for the generator state.
+	 *
+	 * @return State, restoring it repeats the same numbers.
+	 */
+	public long getState() {
+		return this.state;
+	}
+
+	/**
+	 * Setter for the generator state.
+	 *
+	 * @param state
+	 *            State returned by getState().
+	 */
+	public void setState(final long state) {
+		this.state = state;
+	}
+}
@@ -1,5 +1,7 @@
 package engine;
 
+import entity.BulletSystem;
+
 /**
  * Implements an object that stores a single game's difficulty settings.
  * 
@@ -19,6 +21,8 @@ public class GameSettings {
 	/** Difficulty of Game */
 	private double difficulty;
 	private boolean isBossStage;
+	/** Most bullets on screen at once. */
+	private int bulletCapacity = BulletSystem.DEFAULT_CAPACITY;
 
 	/**
 	 * Constructor.
@@ -117,4 +121,19 @@ public class GameSettings {
 	 * @return True if the stage is boss stage
 	 */
 	public final boolean checkIsBoss() {return this.isBossStage; }
-}
\ No newline at end of file
+
+	/**
+	 * @return the most bullets on screen at once
+	 */
+	public final int getBulletCapacity() { return this.bulletCapacity; }
+
+	/**
+	 * Set the most bullets on screen at once, raised by stress scenarios.
+	 *
+	 * @param bulletCapacity
+	 *            Most bullets on screen at once.
+	 */
+	public final void setBulletCapacity(final int bulletCapacity) {
+		this.bulletCapacity = bulletCapacity;
+	}
+}
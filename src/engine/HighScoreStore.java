@@ -0,0 +1,501 @@
+package engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the high scores of each difficulty, the best of each table in
+ * memory. Every score posted is appended to a journal, each record with its
+ * own checksum and synced to disk, so a power cut loses at most the record
+ * being written. Every few records the tables are compacted to a sorted
+ * snapshot, written to a temporary file and moved over the old one in one
+ * step. Disk writes run on a thread of their own.
+ *
+ */
+public final class HighScoreStore {
+
+	/** Number of difficulties, one table each. */
+	public static final int DIFFICULTIES = 4;
+	/** Scores kept per table. */
+	public static final int MAX_SCORES = 7;
+	/** Difficulty the scores from before the tables existed go to. */
+	private static final int LEGACY_DIFFICULTY = 1;
+
+	/** Name of the snapshot file. */
+	private static final String SNAPSHOT_FILE = "scores.snapshot";
+	/** Name of the journal file. */
+	private static final String JOURNAL_FILE = "scores.journal";
+	/** Name of the archive files, by difficulty. */
+	private static final String ARCHIVE_FILE = "scores.%d.archive";
+	/** Name of the scores file from before the tables existed. */
+	private static final String LEGACY_FILE = "scores";
+	/** Identifies snapshot files, "HSCR". */
+	private static final int MAGIC = 0x48534352;
+	/** Version of the snapshot format. */
+	private static final int VERSION = 1;
+	/** Journal records after which the tables are compacted. */
+	private static final int COMPACT_RECORDS = 32;
+	/** Time close() waits for the pending writes. */
+	private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+	/** Singleton instance of the class. */
+	private static HighScoreStore instance;
+
+	/** Application logger. */
+	private Logger logger;
+	/** Snapshot of the tables. */
+	private File snapshotFile;
+	/** Journal of the scores posted since the snapshot. */
+	private File journalFile;
+	/** Best scores of each difficulty, sorted. */
+	private List<List<Score>> tables;
+	/** Every score posted, by difficulty. */
+	private File[] archiveFiles;
+	/** Sequence number of the last score in each archive. */
+	private long[] archiveSequences;
+	/**
+	 * Scores journaled but not archived yet, by difficulty. Locked while
+	 * changed, and while an archive is merged, so readers see each score in
+	 * the archive or here.
+	 */
+	private List<List<Score>> pending;
+	/** Sequence number of the next score posted. */
+	private long nextSequence;
+	/** Sequence number of the last score journaled. */
+	private long lastJournaled;
+	/** Records in the journal. */
+	private int journalRecords;
+	/** Thread writing to disk. */
+	private ExecutorService writer;
+
+	/**
+	 * Constructor, loads the tables of a directory: the snapshot, then the
+	 * journal records after it. The scores file from before the tables is
+	 * imported the first time.
+	 *
+	 * @param directory
+	 *            Directory of the store files.
+	 */
+	public HighScoreStore(final File directory) {
+		this.logger = Core.getLogger();
+		this.snapshotFile = new File(directory, SNAPSHOT_FILE);
+		this.journalFile = new File(directory, JOURNAL_FILE);
+		this.tables = new ArrayList<List<Score>>();
+		this.pending = new ArrayList<List<Score>>();
+		this.archiveFiles = new File[DIFFICULTIES];
+		this.archiveSequences = new long[DIFFICULTIES];
+		for (int i = 0; i < DIFFICULTIES; i++) {
+			this.tables.add(new ArrayList<Score>());
+			this.pending.add(new ArrayList<Score>());
+			this.archiveFiles[i] = new File(directory,
+					String.format(ARCHIVE_FILE, i));
+		}
+		this.lastJournaled = -1;
+		this.writer = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "High score store");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try {
+			if (!this.snapshotFile.exists() && !this.journalFile.exists())
+				importLegacy(new File(directory, LEGACY_FILE));
+			else {
+				for (int i = 0; i < DIFFICULTIES; i++)
+					this.archiveSequences[i] = ScoreArchive.readSequence(
+							this.archiveFiles[i]);
+				long snapshotSequence = readSnapshot();
+				readJournal(snapshotSequence);
+			}
+		} catch (IOException e) {
+			this.logger.warning("Couldn't load high scores: " + e);
+		}
+		this.lastJournaled = this.nextSequence - 1;
+	}
+
+	/**
+	 * Returns shared instance of HighScoreStore, stored next to the game.
+	 *
+	 * @return Shared instance of HighScoreStore.
+	 */
+	protected static HighScoreStore getInstance() {
+		if (instance == null) {
+			File directory;
+			try {
+				directory = Core.getFileManager().getDataDirectory();
+			} catch (IOException e) {
+				directory = new File(".");
+			}
+			instance = new HighScoreStore(directory);
+		}
+		return instance;
+	}
+
+	/**
+	 * Getter for the best scores of a difficulty, from memory.
+	 *
+	 * @param difficulty
+	 *            Difficulty of the games.
+	 * @return Sorted copy of the table.
+	 */
+	public synchronized List<Score> getHighScores(final int difficulty) {
+		return new ArrayList<Score>(this.tables.get(difficulty));
+	}
+
+	/**
+	 * Opens the archive of every score of a difficulty. It holds the scores
+	 * up to the last compaction.
+	 *
+	 * @param difficulty
+	 *            Difficulty of the games.
+	 * @return Archive, empty if it can't be read.
+	 */
+	public ScoreArchive openArchive(final int difficulty) {
+		try {
+			return ScoreArchive.open(this.archiveFiles[difficulty]);
+		} catch (IOException e) {
+			this.logger.warning("Couldn't open score archive: " + e);
+			return ScoreArchive.empty();
+		}
+	}
+
+	/**
+	 * Opens every score of a difficulty for paging: the archive, up to the
+	 * last compaction, and the scores journaled since.
+	 *
+	 * @param difficulty
+	 *            Difficulty of the games.
+	 * @param pageSize
+	 *            Scores per page.
+	 * @return Pager over the scores.
+	 */
+	public ScorePager openPager(final int difficulty, final int pageSize) {
+		synchronized (this.pending) {
+			List<Score> unarchived = new ArrayList<Score>(
+					this.pending.get(difficulty));
+			Collections.sort(unarchived);
+			return new ScorePager(openArchive(difficulty), unarchived,
+					pageSize);
+		}
+	}
+
+	/**
+	 * Checks if a score would enter the table of a difficulty.
+	 *
+	 * @param difficulty
+	 *            Difficulty of the game.
+	 * @param score
+	 *            Points scored.
+	 * @return True if the table isn't full or the score beats its last.
+	 */
+	public synchronized boolean isHighScore(final int difficulty,
+			final int score) {
+		List<Score> table = this.tables.get(difficulty);
+		return table.size() < MAX_SCORES
+				|| table.get(table.size() - 1).getScore() < score;
+	}
+
+	/**
+	 * Posts a score. The table in memory changes right away, the journal
+	 * is written in the background.
+	 *
+	 * @param difficulty
+	 *            Difficulty of the game.
+	 * @param score
+	 *            Score to post.
+	 */
+	public void submit(final int difficulty, final Score score) {
+		long sequence;
+		synchronized (this) {
+			insert(difficulty, score);
+			sequence = this.nextSequence++;
+		}
+		this.writer.execute(() -> {
+			try {
+				append(sequence, difficulty, score);
+				synchronized (this.pending) {
+					this.pending.get(difficulty).add(score);
+				}
+				this.lastJournaled = sequence;
+				if (this.journalRecords >= COMPACT_RECORDS)
+					compact();
+			} catch (IOException e) {
+				this.logger.warning("Couldn't save high score: " + e);
+			}
+		});
+	}
+
+	/**
+	 * Waits for the scores posted to be written.
+	 */
+	public void close() {
+		this.writer.shutdown();
+		try {
+			this.writer.awaitTermination(CLOSE_TIMEOUT_MILLIS,
+					TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Adds a score to a table, keeping it sorted and within size.
+	 *
+	 * @param difficulty
+	 *            Difficulty of the table.
+	 * @param score
+	 *            Score to add.
+	 */
+	private void insert(final int difficulty, final Score score) {
+		List<Score> table = this.tables.get(difficulty);
+		int index = 0;
+		// After the equal scores, the first posted stays ahead.
+		while (index < table.size() && table.get(index).compareTo(score) <= 0)
+			index++;
+		if (index < MAX_SCORES) {
+			table.add(index, score);
+			if (table.size() > MAX_SCORES)
+				table.remove(table.size() - 1);
+		}
+	}
+
+	/**
+	 * Fills the tables the first time: the default scores in each, the
+	 * scores file from before the tables, if any, in its own.
+	 *
+	 * @param legacyFile
+	 *            Scores file from before the tables.
+	 * @throws IOException
+	 *             In case of loading or saving problems.
+	 */
+	private void importLegacy(final File legacyFile) throws IOException {
+		FileManager fileManager = Core.getFileManager();
+		List<Score> defaults = fileManager.loadDefaultHighScores();
+		for (int difficulty = 0; difficulty < DIFFICULTIES; difficulty++)
+			for (Score score : defaults)
+				insert(difficulty, score);
+		if (legacyFile.exists()) {
+			this.logger.info("Importing user high scores.");
+			this.tables.get(LEGACY_DIFFICULTY).clear();
+			for (Score score : fileManager.loadHighScores())
+				insert(LEGACY_DIFFICULTY, score);
+		}
+		for (int difficulty = 0; difficulty < DIFFICULTIES; difficulty++)
+			this.pending.get(difficulty).addAll(this.tables.get(difficulty));
+		compact();
+	}
+
+	/**
+	 * Reads the snapshot into the tables.
+	 *
+	 * @return Sequence number of the last score in it, -1 if there is none.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 */
+	private long readSnapshot() throws IOException {
+		if (!this.snapshotFile.exists())
+			return -1;
+		byte[] bytes = Files.readAllBytes(this.snapshotFile.toPath());
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, Math.max(0, bytes.length - Long.BYTES));
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(
+				bytes));
+		if (bytes.length < Long.BYTES || ByteBuffer.wrap(bytes,
+				bytes.length - Long.BYTES, Long.BYTES).getLong()
+				!= crc.getValue() || input.readInt() != MAGIC
+				|| input.readInt() != VERSION)
+			throw new IOException("Corrupt high score snapshot");
+
+		long sequence = input.readLong();
+		int tableCount = input.readInt();
+		for (int difficulty = 0; difficulty < tableCount; difficulty++) {
+			int count = input.readInt();
+			for (int i = 0; i < count; i++) {
+				Score score = new Score(input.readUTF(), input.readInt());
+				if (difficulty < DIFFICULTIES)
+					insert(difficulty, score);
+			}
+		}
+		this.nextSequence = sequence + 1;
+		return sequence;
+	}
+
+	/**
+	 * Replays the journal records after the snapshot. The journal is cut
+	 * at the first record torn or failing its checksum, so it can be
+	 * appended to again.
+	 *
+	 * @param snapshotSequence
+	 *            Sequence number of the last score in the snapshot.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 */
+	private void readJournal(final long snapshotSequence) throws IOException {
+		if (!this.journalFile.exists())
+			return;
+		byte[] bytes = Files.readAllBytes(this.journalFile.toPath());
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(
+				bytes));
+		int validLength = 0;
+		try {
+			while (validLength < bytes.length) {
+				int length = input.readInt();
+				if (length <= 0 || length > bytes.length)
+					break;
+				byte[] payload = new byte[length];
+				input.readFully(payload);
+				CRC32 crc = new CRC32();
+				crc.update(payload);
+				if (input.readLong() != crc.getValue())
+					break;
+
+				DataInputStream record = new DataInputStream(
+						new ByteArrayInputStream(payload));
+				long sequence = record.readLong();
+				int difficulty = record.readByte();
+				Score score = new Score(record.readUTF(), record.readInt());
+				if (difficulty >= 0 && difficulty < DIFFICULTIES) {
+					if (sequence > snapshotSequence)
+						insert(difficulty, score);
+					if (sequence > this.archiveSequences[difficulty])
+						this.pending.get(difficulty).add(score);
+				}
+				this.nextSequence = Math.max(this.nextSequence, sequence + 1);
+				this.journalRecords++;
+				validLength += Integer.BYTES + length + Long.BYTES;
+			}
+		} catch (EOFException e) {
+			// Torn record, the game stopped while writing it.
+		}
+
+		if (validLength < bytes.length) {
+			this.logger.warning("High score journal cut after "
+					+ this.journalRecords + " records.");
+			try (FileChannel channel = FileChannel.open(
+					this.journalFile.toPath(), StandardOpenOption.WRITE)) {
+				channel.truncate(validLength);
+				channel.force(true);
+			}
+		}
+	}
+
+	/**
+	 * Appends a score to the journal and syncs it to disk.
+	 *
+	 * @param sequence
+	 *            Sequence number of the score.
+	 * @param difficulty
+	 *            Difficulty of the game.
+	 * @param score
+	 *            Score posted.
+	 * @throws IOException
+	 *             In case of saving problems.
+	 */
+	private void append(final long sequence, final int difficulty,
+			final Score score) throws IOException {
+		ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+		DataOutputStream payload = new DataOutputStream(payloadBytes);
+		payload.writeLong(sequence);
+		payload.writeByte(difficulty);
+		payload.writeUTF(score.getName());
+		payload.writeInt(score.getScore());
+		byte[] bytes = payloadBytes.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+
+		ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + bytes.length
+				+ Long.BYTES);
+		record.putInt(bytes.length).put(bytes).putLong(crc.getValue());
+		record.flip();
+		try (FileChannel channel = FileChannel.open(this.journalFile.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND)) {
+			while (record.hasRemaining())
+				channel.write(record);
+			channel.force(true);
+		}
+		this.journalRecords++;
+	}
+
+	/**
+	 * Merges the scores journaled into the archives, then writes the tables
+	 * to a new snapshot, synced, moves it over the old one and empties the
+	 * journal. If the game stops in between, the journal records already in
+	 * the archives or the snapshot are skipped by their sequence number.
+	 *
+	 * @throws IOException
+	 *             In case of saving problems.
+	 */
+	private void compact() throws IOException {
+		for (int difficulty = 0; difficulty < DIFFICULTIES; difficulty++) {
+			synchronized (this.pending) {
+				List<Score> scores = this.pending.get(difficulty);
+				if (!scores.isEmpty()) {
+					Collections.sort(scores);
+					ScoreArchive.merge(this.archiveFiles[difficulty], scores,
+							this.lastJournaled);
+					this.archiveSequences[difficulty] = this.lastJournaled;
+					scores.clear();
+				}
+			}
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(bytes);
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		synchronized (this) {
+			output.writeLong(this.nextSequence - 1);
+			output.writeInt(DIFFICULTIES);
+			for (List<Score> table : this.tables) {
+				output.writeInt(table.size());
+				for (Score score : table) {
+					output.writeUTF(score.getName());
+					output.writeInt(score.getScore());
+				}
+			}
+		}
+		CRC32 crc = new CRC32();
+		crc.update(bytes.toByteArray());
+		output.writeLong(crc.getValue());
+
+		File temporary = new File(this.snapshotFile.getPath() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+			channel.force(true);
+		}
+		Files.move(temporary.toPath(), this.snapshotFile.toPath(),
+				StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+
+		try (FileChannel channel = FileChannel.open(this.journalFile.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			channel.truncate(0);
+			channel.force(true);
+		}
+		this.journalRecords = 0;
+		this.logger.info("High scores compacted.");
+	}
+}
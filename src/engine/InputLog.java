@@ -0,0 +1,227 @@
+package engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Records the keys pressed on every tick and plays them back. Only the ticks
+ * where some key changes are stored, as the number of ticks since the
+ * previous change followed by the keys toggled, each as the distance from
+ * the previous one. Every number is written as a varint, seven bits per
+ * byte, so a change usually takes three bytes.
+ *
+ */
+public final class InputLog implements InputScript {
+
+	/** Number of keys tracked, as the input manager does. */
+	private static final int NUM_KEYS = 256;
+	/** Initial size of the encoded log. */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/** Encoded changes. */
+	private byte[] bytes;
+	/** Number of bytes of the log used. */
+	private int length;
+	/** Keys pressed after the last change recorded. */
+	private boolean[] recordedKeys;
+	/** Tick of the last change recorded. */
+	private long recordedTick;
+	/** Keys pressed after the last change played. */
+	private boolean[] playedKeys;
+	/** Position of the next change to play in the log. */
+	private int readPosition;
+	/** Tick of the last change played. */
+	private long playedTick;
+	/** Tick of the next change to play, Long.MAX_VALUE after the last. */
+	private long nextChangeTick;
+
+	/**
+	 * Constructor, creates an empty log to record to.
+	 */
+	public InputLog() {
+		this(new byte[INITIAL_CAPACITY], 0);
+	}
+
+	/**
+	 * Constructor, wraps an encoded log.
+	 *
+	 * @param bytes
+	 *            Encoded changes.
+	 * @param length
+	 *            Number of bytes used.
+	 */
+	private InputLog(final byte[] bytes, final int length) {
+		this.bytes = bytes;
+		this.length = length;
+		this.recordedKeys = new boolean[NUM_KEYS];
+		this.playedKeys = new boolean[NUM_KEYS];
+		rewind();
+	}
+
+	/**
+	 * Records the keys pressed on a tick. Ticks must be recorded in order.
+	 *
+	 * @param tick
+	 *            Tick the keys were pressed on.
+	 * @param inputManager
+	 *            Input manager with the keys of the tick.
+	 */
+	public void record(final long tick, final InputManager inputManager) {
+		int changes = 0;
+		for (int key = 0; key < NUM_KEYS; key++)
+			if (inputManager.isKeyDown(key) != this.recordedKeys[key])
+				changes++;
+		if (changes == 0)
+			return;
+
+		writeVarint(tick - this.recordedTick);
+		writeVarint(changes);
+		int previousKey = 0;
+		for (int key = 0; key < NUM_KEYS; key++)
+			if (inputManager.isKeyDown(key) != this.recordedKeys[key]) {
+				writeVarint(key - previousKey);
+				previousKey = key;
+				this.recordedKeys[key] = !this.recordedKeys[key];
+			}
+		this.recordedTick = tick;
+	}
+
+	/**
+	 * Presses the keys recorded for a tick. Ticks must be played in order,
+	 * starting from the one the log was rewound or seeked to.
+	 *
+	 * @param tick
+	 *            Index of the tick about to run.
+	 * @param inputManager
+	 *            Input manager to set the keys on.
+	 */
+	@Override
+	public void apply(final long tick, final InputManager inputManager) {
+		while (this.nextChangeTick <= tick)
+			playChange();
+		for (int key = 0; key < NUM_KEYS; key++)
+			inputManager.setKeyDown(key, this.playedKeys[key]);
+	}
+
+	/**
+	 * Goes back to the start of the log, with every key released.
+	 */
+	public void rewind() {
+		Arrays.fill(this.playedKeys, false);
+		this.readPosition = 0;
+		this.playedTick = 0;
+		readNextChangeTick();
+	}
+
+	/**
+	 * Moves the playback to a tick, so it is the next one applied.
+	 *
+	 * @param tick
+	 *            Tick to play next.
+	 */
+	public void seek(final long tick) {
+		rewind();
+		while (this.nextChangeTick < tick)
+			playChange();
+	}
+
+	/**
+	 * Getter for the size of the encoded log.
+	 *
+	 * @return Number of bytes used.
+	 */
+	public int size() {
+		return this.length;
+	}
+
+	/**
+	 * Writes the encoded log.
+	 *
+	 * @param output
+	 *            Output to write to.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	public void write(final DataOutput output) throws IOException {
+		output.writeInt(this.length);
+		output.write(this.bytes, 0, this.length);
+	}
+
+	/**
+	 * Reads a log written by write(), ready to be played.
+	 *
+	 * @param input
+	 *            Input to read from.
+	 * @return Log read.
+	 * @throws IOException
+	 *             In case of reading problems.
+	 */
+	public static InputLog read(final DataInput input) throws IOException {
+		int length = input.readInt();
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new InputLog(bytes, length);
+	}
+
+	/**
+	 * Toggles the keys of the next change and reads the tick of the one
+	 * after it.
+	 */
+	private void playChange() {
+		int changes = (int) readVarint();
+		int key = 0;
+		for (int i = 0; i < changes; i++) {
+			key += (int) readVarint();
+			this.playedKeys[key] = !this.playedKeys[key];
+		}
+		this.playedTick = this.nextChangeTick;
+		readNextChangeTick();
+	}
+
+	/**
+	 * Reads the tick of the next change.
+	 */
+	private void readNextChangeTick() {
+		if (this.readPosition < this.length)
+			this.nextChangeTick = this.playedTick + readVarint();
+		else
+			this.nextChangeTick = Long.MAX_VALUE;
+	}
+
+	/**
+	 * Appends a number, seven bits per byte, the high bit set on every byte
+	 * but the last.
+	 *
+	 * @param value
+	 *            Non negative number to write.
+	 */
+	private void writeVarint(final long value) {
+		if (this.length + 10 > this.bytes.length)
+			this.bytes = Arrays.copyOf(this.bytes, this.bytes.length * 2);
+		long remaining = value;
+		while ((remaining & ~0x7FL) != 0) {
+			this.bytes[this.length++] = (byte) ((remaining & 0x7F) | 0x80);
+			remaining >>>= 7;
+		}
+		this.bytes[this.length++] = (byte) remaining;
+	}
+
+	/**
+	 * Reads a number written by writeVarint().
+	 *
+	 * @return Number read.
+	 */
+	private long readVarint() {
+		long value = 0;
+		int shift = 0;
+		byte current;
+		do {
+			current = this.bytes[this.readPosition++];
+			value |= (long) (current & 0x7F) << shift;
+			shift += 7;
+		} while (current < 0);
+		return value;
+	}
+}
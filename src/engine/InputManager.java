@@ -2,6 +2,7 @@ package engine;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.Arrays;
 
 /**
  * Manages keyboard input for the provided screen.
@@ -15,14 +16,19 @@ public final class InputManager implements KeyListener {
 	private static final int NUM_KEYS = 256;
 	/** Array with the jeys marked as pressed or not. */
 	private static boolean[] keys;
+	/** Keys as they were at the start of the current tick. */
+	private static boolean[] tickKeys;
 	/** Singleton instance of the class. */
 	private static InputManager instance;
+	/** Script pressing keys instead of the keyboard, if any. */
+	private InputScript script;
 
 	/**
 	 * Private constructor.
 	 */
 	private InputManager() {
 		keys = new boolean[NUM_KEYS];
+		tickKeys = new boolean[NUM_KEYS];
 	}
 
 	/**
@@ -37,14 +43,54 @@ public final class InputManager implements KeyListener {
 	}
 
 	/**
-	 * Returns true if the provided key is currently pressed.
+	 * Returns true if the provided key was pressed at the start of the
+	 * current tick. Keys pressed during a tick are seen from the next one,
+	 * so a tick always sees the same keys, the ones recorded for it.
 	 * 
 	 * @param keyCode
 	 *            Key number to check.
 	 * @return Key state.
 	 */
 	public boolean isKeyDown(final int keyCode) {
-		return keys[keyCode];
+		return tickKeys[keyCode];
+	}
+
+	/**
+	 * Changes the state of a key directly, without a key event.
+	 * 
+	 * @param keyCode
+	 *            Key number to change.
+	 * @param down
+	 *            True if the key is pressed.
+	 */
+	public void setKeyDown(final int keyCode, final boolean down) {
+		if (keyCode >= 0 && keyCode < NUM_KEYS)
+			keys[keyCode] = down;
+	}
+
+	/**
+	 * Sets a script that drives the keys on every tick. Every key is
+	 * released, so the ones held by the previous script do not stay down.
+	 * 
+	 * @param inputScript
+	 *            Script to apply, or null to go back to the keyboard.
+	 */
+	public void setScript(final InputScript inputScript) {
+		this.script = inputScript;
+		Arrays.fill(keys, false);
+		Arrays.fill(tickKeys, false);
+	}
+
+	/**
+	 * Called by the screen before each simulation tick.
+	 * 
+	 * @param tick
+	 *            Index of the tick about to run.
+	 */
+	public void beginTick(final long tick) {
+		if (this.script != null)
+			this.script.apply(tick, this);
+		System.arraycopy(keys, 0, tickKeys, 0, NUM_KEYS);
 	}
 
 	/**
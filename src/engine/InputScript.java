@@ -0,0 +1,18 @@
+package engine;
+
+/**
+ * Drives the keyboard state programmatically, one simulation tick at a time.
+ * 
+ */
+public interface InputScript {
+
+	/**
+	 * Presses or releases keys before a tick runs.
+	 * 
+	 * @param tick
+	 *            Index of the tick about to run on the current screen.
+	 * @param inputManager
+	 *            Input manager to set the keys on.
+	 */
+	void apply(long tick, InputManager inputManager);
+}
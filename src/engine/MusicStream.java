@@ -0,0 +1,391 @@
+package engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+/**
+ * Streams one music track from disk into a small ring buffer, read by the
+ * sound mixer. A streaming thread decodes ahead of the mixer, looping the
+ * track between its loop points, so only a fraction of a second of music
+ * is ever held in memory.
+ */
+final class MusicStream implements Runnable {
+
+	/** Frames held by the ring buffer, a power of two. */
+	private static final int RING_FRAMES = 1 << 15;
+	/** Frames decoded at once by the streaming thread. */
+	private static final int CHUNK_FRAMES = 4096;
+	/** Time the streaming thread waits for the mixer to free space. */
+	private static final long WAIT_NANOS = 5000000L;
+
+	/** Application logger. */
+	private Logger logger;
+	/** Format of the decoded samples, the mixer's. */
+	private AudioFormat format;
+	/** Samples decoded, interleaved, indexed modulo its length. */
+	private short[] ring;
+	/** Samples written to the ring, only written by the streaming thread. */
+	private AtomicLong writtenSamples;
+	/** Samples read from the ring, only written by the mixer. */
+	private AtomicLong readSamples;
+	/** First sample of the current track, older ones are skipped. */
+	private volatile long trackStart;
+	/** Changes every time a track is started or stopped. */
+	private AtomicInteger generation;
+	/** Path of the track streamed. */
+	private volatile String path;
+	/** Checks if a track should be streamed. */
+	private volatile boolean playing;
+	/** Frame the track goes back to when looping. */
+	private volatile long loopStartFrame;
+	/** Frame the track loops at, 0 for the end of the track. */
+	private volatile long loopEndFrame;
+	/** Last fade requested, replaced as a whole by every request. */
+	private volatile Fade fade;
+	/** Last fade request seen by the mixer. */
+	private Fade seenFade;
+	/** Checks if the mixer still has to stop the track after its fade. */
+	private boolean stopPending;
+	/** Gain applied by the mixer, only used by the mixer. */
+	private float gain;
+	/** Gain added each frame by the mixer during a fade. */
+	private float gainStep;
+	/** Frames left in the fade being applied by the mixer. */
+	private int remainingFadeFrames;
+	/** Thread decoding the track. */
+	private Thread thread;
+	/** Checks if the stream has been closed for good. */
+	private volatile boolean closed;
+
+	/**
+	 * Constructor, allocates the ring buffer and starts the idle streaming
+	 * thread.
+	 *
+	 * @param format
+	 *            Format the mixer plays, 16 bit signed little endian.
+	 * @param name
+	 *            Name of the streaming thread.
+	 */
+	MusicStream(final AudioFormat format, final String name) {
+		this.logger = Core.getLogger();
+		this.format = format;
+		this.ring = new short[RING_FRAMES * format.getChannels()];
+		this.writtenSamples = new AtomicLong();
+		this.readSamples = new AtomicLong();
+		this.generation = new AtomicInteger();
+
+		this.thread = new Thread(this, name);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Starts streaming a track from its beginning.
+	 *
+	 * @param trackPath
+	 *            Path of the track file.
+	 * @param fadeInFrames
+	 *            Frames to fade in over, 0 to start at full volume.
+	 */
+	void start(final String trackPath, final int fadeInFrames) {
+		this.path = trackPath;
+		this.loopStartFrame = 0;
+		this.loopEndFrame = 0;
+		this.playing = true;
+		fade(1f, fadeInFrames, fadeInFrames > 0, false);
+		this.generation.incrementAndGet();
+		LockSupport.unpark(this.thread);
+	}
+
+	/**
+	 * Stops streaming at once.
+	 */
+	void stop() {
+		this.playing = false;
+		this.generation.incrementAndGet();
+		LockSupport.unpark(this.thread);
+	}
+
+	/**
+	 * Fades the track out, stopping it when silent.
+	 *
+	 * @param frames
+	 *            Frames to fade out over.
+	 */
+	void fadeOut(final int frames) {
+		fade(0f, frames, false, true);
+	}
+
+	/**
+	 * Requests the mixer to move the gain to a target.
+	 *
+	 * @param target
+	 *            Gain at the end of the fade.
+	 * @param frames
+	 *            Length of the fade, in frames.
+	 * @param fromSilence
+	 *            True to start the fade at gain 0.
+	 * @param stopWhenDone
+	 *            True to stop the track when the fade ends.
+	 */
+	private void fade(final float target, final int frames,
+			final boolean fromSilence, final boolean stopWhenDone) {
+		this.fade = new Fade(target, frames, fromSilence, stopWhenDone);
+	}
+
+	/**
+	 * Sets the section of the track repeated once its end is reached.
+	 *
+	 * @param startFrame
+	 *            Frame to go back to.
+	 * @param endFrame
+	 *            Frame to loop at, 0 for the end of the track.
+	 */
+	void setLoopPoints(final long startFrame, final long endFrame) {
+		this.loopStartFrame = startFrame;
+		this.loopEndFrame = endFrame;
+	}
+
+	/**
+	 * Getter for the track streamed.
+	 *
+	 * @return Path of the track, null if none was started.
+	 */
+	String getPath() {
+		return this.path;
+	}
+
+	/**
+	 * Checks if a track is being streamed.
+	 *
+	 * @return True while streaming.
+	 */
+	boolean isPlaying() {
+		return this.playing;
+	}
+
+	/**
+	 * Stops the streaming thread for good.
+	 */
+	void close() {
+		this.closed = true;
+		this.playing = false;
+		LockSupport.unpark(this.thread);
+	}
+
+	/**
+	 * Adds the next decoded samples to the mix. Called by the mixer thread
+	 * only; plays silence if the streaming thread falls behind.
+	 *
+	 * @param mix
+	 *            Interleaved samples being mixed.
+	 */
+	void mixInto(final int[] mix) {
+		Fade request = this.fade;
+		if (request != this.seenFade) {
+			this.seenFade = request;
+			this.stopPending = request.stopAfter;
+			this.remainingFadeFrames = request.frames;
+			if (request.fromSilence)
+				this.gain = 0f;
+			if (this.remainingFadeFrames <= 0)
+				this.gain = request.targetGain;
+			else
+				this.gainStep = (request.targetGain - this.gain)
+						/ this.remainingFadeFrames;
+		}
+		float targetGain = request == null ? this.gain : request.targetGain;
+
+		int channels = this.format.getChannels();
+		long read = Math.max(this.readSamples.get(), this.trackStart);
+		long available = this.writtenSamples.get() - read;
+		int frames = (int) Math.min(available, mix.length) / channels;
+		int mask = this.ring.length - 1;
+
+		// Fades go on during silence, so a stalled track still fades out.
+		for (int frame = 0; frame < mix.length / channels; frame++) {
+			if (this.remainingFadeFrames > 0) {
+				this.gain += this.gainStep;
+				if (--this.remainingFadeFrames == 0)
+					this.gain = targetGain;
+			}
+			if (frame >= frames)
+				continue;
+			for (int channel = 0; channel < channels; channel++) {
+				int sample = frame * channels + channel;
+				mix[sample] += (int) (this.ring[(int) (read + sample) & mask]
+						* this.gain);
+			}
+		}
+		this.readSamples.lazySet(read + frames * channels);
+
+		if (this.remainingFadeFrames == 0 && this.gain == 0f
+				&& this.stopPending && this.playing
+				&& request == this.fade) {
+			this.stopPending = false;
+			stop();
+		}
+	}
+
+	/**
+	 * Decodes the track ahead of the mixer until the stream is closed.
+	 */
+	@Override
+	public void run() {
+		int frameSize = this.format.getFrameSize();
+		byte[] bytes = new byte[CHUNK_FRAMES * frameSize];
+		AudioInputStream stream = null;
+		int streamGeneration = this.generation.get() - 1;
+		long framePosition = 0;
+		boolean readSinceOpen = false;
+
+		while (!this.closed) {
+			int currentGeneration = this.generation.get();
+			if (currentGeneration != streamGeneration) {
+				closeQuietly(stream);
+				stream = null;
+				streamGeneration = currentGeneration;
+				// Whatever is left of the previous track is skipped.
+				this.trackStart = this.writtenSamples.get();
+				if (this.playing) {
+					stream = open(0);
+					framePosition = 0;
+					readSinceOpen = false;
+				}
+			}
+			if (stream == null) {
+				LockSupport.park(this);
+				continue;
+			}
+
+			long free = this.ring.length - (this.writtenSamples.get()
+					- Math.max(this.readSamples.get(), this.trackStart));
+			if (free < bytes.length / 2) {
+				LockSupport.parkNanos(this, WAIT_NANOS);
+				continue;
+			}
+
+			int frames = CHUNK_FRAMES;
+			long loopEnd = this.loopEndFrame;
+			if (loopEnd > 0)
+				frames = (int) Math.max(0, Math.min(frames,
+						loopEnd - framePosition));
+			int length = 0;
+			try {
+				if (frames > 0)
+					length = stream.readNBytes(bytes, 0, frames * frameSize);
+			} catch (IOException e) {
+				logger.warning("Music stream interrupted: " + e);
+				length = 0;
+				readSinceOpen = false;
+			}
+			length -= length % frameSize;
+
+			if (length == 0) {
+				// End of the track or of the loop, back to the loop start.
+				closeQuietly(stream);
+				if (!readSinceOpen) {
+					logger.warning("Nothing to stream from " + this.path);
+					stream = null;
+					this.playing = false;
+					continue;
+				}
+				framePosition = this.loopStartFrame;
+				stream = open(framePosition);
+				readSinceOpen = false;
+				continue;
+			}
+
+			long written = this.writtenSamples.get();
+			int mask = this.ring.length - 1;
+			for (int i = 0; i < length / 2; i++)
+				this.ring[(int) (written + i) & mask] = (short) (
+						(bytes[2 * i] & 0xFF) | bytes[2 * i + 1] << 8);
+			this.writtenSamples.lazySet(written + length / 2);
+			framePosition += length / frameSize;
+			readSinceOpen = true;
+		}
+		closeQuietly(stream);
+	}
+
+	/**
+	 * Opens the track converted to the mixer format.
+	 *
+	 * @param startFrame
+	 *            Frame to start streaming from.
+	 * @return Stream positioned at the frame, null if it can't be opened.
+	 */
+	private AudioInputStream open(final long startFrame) {
+		try {
+			AudioInputStream stream = AudioSystem.getAudioInputStream(
+					this.format, AudioSystem.getAudioInputStream(
+							new File(this.path)));
+			stream.skipNBytes(startFrame * this.format.getFrameSize());
+			return stream;
+		} catch (Exception e) {
+			logger.warning("Music " + this.path + " could not be opened: "
+					+ e);
+			this.playing = false;
+			return null;
+		}
+	}
+
+	/**
+	 * Closes a stream, ignoring errors.
+	 *
+	 * @param stream
+	 *            Stream to close, may be null.
+	 */
+	private static void closeQuietly(final AudioInputStream stream) {
+		if (stream == null)
+			return;
+		try {
+			stream.close();
+		} catch (IOException e) {
+			// Nothing left to read from it anyway.
+		}
+	}
+
+	/**
+	 * Settings of one fade, never changed once published to the mixer.
+	 */
+	private static final class Fade {
+
+		/** Gain the fade ends at. */
+		private final float targetGain;
+		/** Length of the fade, in frames. */
+		private final int frames;
+		/** Checks if the fade starts from silence. */
+		private final boolean fromSilence;
+		/** Checks if the track stops once the fade ends. */
+		private final boolean stopAfter;
+
+		/**
+		 * Constructor, sets the fade settings.
+		 *
+		 * @param targetGain
+		 *            Gain at the end of the fade.
+		 * @param frames
+		 *            Length of the fade, in frames.
+		 * @param fromSilence
+		 *            True to start the fade at gain 0.
+		 * @param stopAfter
+		 *            True to stop the track when the fade ends.
+		 */
+		private Fade(final float targetGain, final int frames,
+				final boolean fromSilence, final boolean stopAfter) {
+			this.targetGain = targetGain;
+			this.frames = frames;
+			this.fromSilence = fromSilence;
+			this.stopAfter = stopAfter;
+		}
+	}
+}
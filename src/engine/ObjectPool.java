@@ -0,0 +1,223 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Keeps objects released by the game to hand them out again instead of
+ * allocating new ones. A pool is filled up front, keeps at most its capacity
+ * of free objects, and counts how often it could serve a request, shown by
+ * the profiler overlay. Run with assertions enabled, it also remembers where
+ * each object in use was acquired to report the ones never released.
+ *
+ * @param <T>
+ *            Type of the objects pooled.
+ */
+public final class ObjectPool<T> {
+
+	/** Checks if objects in use are tracked, as in debug runs. */
+	private static final boolean TRACKING = ObjectPool.class
+			.desiredAssertionStatus();
+
+	/** Every pool created, for instrumentation. */
+	private static final List<ObjectPool<?>> POOLS = Collections
+			.synchronizedList(new ArrayList<ObjectPool<?>>());
+
+	/** Name of the pool, for the statistics. */
+	private final String name;
+	/** Maximum number of free objects kept. */
+	private final int capacity;
+	/** Creates an object when none is free. */
+	private final Supplier<T> factory;
+	/** Clears an object as it is released, null if not needed. */
+	private final Consumer<T> resetHook;
+	/** Free objects, stored in the first positions. */
+	private final Object[] free;
+	/** Number of free objects. */
+	private int freeCount;
+	/** Requests served with a free object. */
+	private long hits;
+	/** Requests that had to create an object. */
+	private long misses;
+	/** Objects acquired and not released yet. */
+	private int inUse;
+	/** Most objects ever in use at once. */
+	private int highWater;
+	/** Where each object in use was acquired, if tracking. */
+	private final Map<T, Throwable> acquisitions;
+
+	/**
+	 * Constructor, creates an empty pool.
+	 *
+	 * @param name
+	 *            Name of the pool, for the statistics.
+	 * @param capacity
+	 *            Maximum number of free objects kept.
+	 * @param factory
+	 *            Creates an object when none is free.
+	 * @param resetHook
+	 *            Clears an object as it is released, null if not needed.
+	 */
+	public ObjectPool(final String name, final int capacity,
+			final Supplier<T> factory, final Consumer<T> resetHook) {
+		this.name = name;
+		this.capacity = capacity;
+		this.factory = factory;
+		this.resetHook = resetHook;
+		this.free = new Object[capacity];
+		this.acquisitions = TRACKING ? new IdentityHashMap<T, Throwable>()
+				: null;
+		POOLS.add(this);
+	}
+
+	/**
+	 * Creates free objects until there are a given number of them, up to the
+	 * capacity.
+	 *
+	 * @param count
+	 *            Number of free objects wanted.
+	 */
+	public void prewarm(final int count) {
+		while (this.freeCount < Math.min(count, this.capacity))
+			this.free[this.freeCount++] = this.factory.get();
+	}
+
+	/**
+	 * Hands out a free object, or a new one if none is left. The caller
+	 * initializes it.
+	 *
+	 * @return Object to use until released.
+	 */
+	@SuppressWarnings("unchecked")
+	public T acquire() {
+		T object;
+		if (this.freeCount > 0) {
+			object = (T) this.free[--this.freeCount];
+			this.free[this.freeCount] = null;
+			this.hits++;
+		} else {
+			object = this.factory.get();
+			this.misses++;
+		}
+		this.inUse++;
+		this.highWater = Math.max(this.highWater, this.inUse);
+		if (TRACKING)
+			this.acquisitions.put(object, new Throwable("Acquired from "
+					+ this.name));
+		return object;
+	}
+
+	/**
+	 * Gives an object back to the pool. It is dropped if the pool already
+	 * keeps its capacity of free objects.
+	 *
+	 * @param object
+	 *            Object acquired from this pool, not used afterwards.
+	 * @throws IllegalStateException
+	 *             If tracking and the object is not in use.
+	 */
+	public void release(final T object) {
+		if (TRACKING && this.acquisitions.remove(object) == null)
+			throw new IllegalStateException("Released an object not in use "
+					+ "by " + this.name);
+		this.inUse--;
+		if (this.resetHook != null)
+			this.resetHook.accept(object);
+		if (this.freeCount < this.capacity)
+			this.free[this.freeCount++] = object;
+	}
+
+	/**
+	 * Logs where each object still in use was acquired. Only tracked with
+	 * assertions enabled.
+	 *
+	 * @return Number of objects still in use.
+	 */
+	public int checkLeaks() {
+		if (TRACKING)
+			for (Throwable acquisition : this.acquisitions.values())
+				Core.getLogger().log(Level.WARNING,
+						"Object not released", acquisition);
+		return this.inUse;
+	}
+
+	/**
+	 * Getter for the name of the pool.
+	 *
+	 * @return Name of the pool.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Getter for the maximum number of free objects kept.
+	 *
+	 * @return Capacity of the pool.
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Getter for the number of free objects.
+	 *
+	 * @return Free objects.
+	 */
+	public int getFreeCount() {
+		return this.freeCount;
+	}
+
+	/**
+	 * Getter for the number of requests served with a free object.
+	 *
+	 * @return Hits.
+	 */
+	public long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Getter for the number of requests that created an object.
+	 *
+	 * @return Misses.
+	 */
+	public long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * Getter for the number of objects acquired and not released.
+	 *
+	 * @return Objects in use.
+	 */
+	public int getInUse() {
+		return this.inUse;
+	}
+
+	/**
+	 * Getter for the most objects ever in use at once.
+	 *
+	 * @return High-water mark.
+	 */
+	public int getHighWater() {
+		return this.highWater;
+	}
+
+	/**
+	 * Getter for every pool created.
+	 *
+	 * @return Pools, in creation order.
+	 */
+	public static List<ObjectPool<?>> getPools() {
+		synchronized (POOLS) {
+			return new ArrayList<ObjectPool<?>>(POOLS);
+		}
+	}
+}
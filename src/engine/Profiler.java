@@ -0,0 +1,380 @@
+package engine;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures how long each phase of a frame takes, over the last few hundred
+ * samples of each. Every array is allocated up front and a sample is a
+ * single store, so the game screens can report their phases on every tick;
+ * while disabled, no time is even read.
+ *
+ */
+public final class Profiler {
+
+	/** Samples kept per phase, a power of two. */
+	private static final int WINDOW = 256;
+
+	/** Phases of a frame, in the order they run. */
+	public static enum Phase {
+		/** Reading the keys and moving the player's ships. */
+		Input,
+		/** Special ship, ships and formation update. */
+		Update,
+		/** Bullet collisions, movement and removal, in a single pass. */
+		Bullets,
+		/** Drawing the frame on the back buffer. */
+		Draw,
+		/** Showing the back buffer. */
+		CompleteDrawing,
+		/** Waiting for the next tick or frame. */
+		Sleep
+	};
+
+	/** Singleton instance of the class. */
+	private static Profiler instance;
+
+	/** Checks if samples were asked for, as by the flight recorder. */
+	private boolean enabled;
+	/** Checks if the overlay is shown. */
+	private boolean overlayVisible;
+	/** Checks if samples are being taken, for either. */
+	private boolean collecting;
+	/** Checks if the toggle key was down on the last tick. */
+	private boolean toggleKeyDown;
+	/** Last samples of each phase, in nanoseconds, by phase ordinal. */
+	private long[][] samples;
+	/** Number of samples ever taken of each phase. */
+	private long[] counts;
+	/** Time spent in each phase since the frame started. */
+	private long[] frameNanos;
+	/** Copy of a window, sorted to find percentiles. */
+	private long[] sorted;
+	/** Number of enemy ships alive. */
+	private int enemyCount;
+	/** Number of bullets flying. */
+	private int bulletCount;
+	/** Number of bullets the system has room for. */
+	private int bulletCapacity;
+	/** Garbage collectors of the virtual machine. */
+	private List<GarbageCollectorMXBean> collectors;
+	/** Allocation counters of the threads, null if not supported. */
+	private com.sun.management.ThreadMXBean threads;
+	/** Checks if the bytes allocated in each phase are measured too. */
+	private boolean measuringAllocations;
+	/** Bytes the game loop had allocated when the last phase ended. */
+	private long allocatedMark;
+	/** Bytes allocated in each phase since the frame started. */
+	private long[] frameAllocatedBytes;
+
+	/**
+	 * Constructor, allocates every window.
+	 */
+	private Profiler() {
+		int phases = Phase.values().length;
+		this.samples = new long[phases][WINDOW];
+		this.counts = new long[phases];
+		this.frameNanos = new long[phases];
+		this.sorted = new long[WINDOW];
+		this.collectors = ManagementFactory.getGarbageCollectorMXBeans();
+		this.frameAllocatedBytes = new long[phases];
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean)
+			this.threads = (com.sun.management.ThreadMXBean) threads;
+	}
+
+	/**
+	 * Returns shared instance of Profiler.
+	 *
+	 * @return Shared instance of Profiler.
+	 */
+	protected static Profiler getInstance() {
+		if (instance == null)
+			instance = new Profiler();
+		return instance;
+	}
+
+	/**
+	 * Checks if samples are being taken.
+	 *
+	 * @return True if enabled or the overlay is shown.
+	 */
+	public boolean isEnabled() {
+		return this.collecting;
+	}
+
+	/**
+	 * Starts or stops taking samples, whether the overlay is shown or not.
+	 *
+	 * @param enabled
+	 *            True to take samples.
+	 */
+	public void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+		updateCollecting();
+	}
+
+	/**
+	 * Measures the bytes each phase allocates, along with its time, while
+	 * samples are taken. Costs a counter read per phase, so it is off unless
+	 * asked for, as by the allocation tests.
+	 *
+	 * @param measuringAllocations
+	 *            True to measure the allocations.
+	 * @return True if measured, false if turned off or the virtual machine
+	 *         can't measure them.
+	 */
+	public boolean setMeasuringAllocations(final boolean measuringAllocations) {
+		this.measuringAllocations = measuringAllocations
+				&& this.threads != null;
+		return this.measuringAllocations;
+	}
+
+	/**
+	 * Checks if the overlay is shown.
+	 *
+	 * @return True if the overlay is shown.
+	 */
+	public boolean isOverlayVisible() {
+		return this.overlayVisible;
+	}
+
+	/**
+	 * Shows or hides the overlay when its key goes down. Samples are taken
+	 * while it is shown.
+	 *
+	 * @param keyDown
+	 *            True if the toggle key is down on this tick.
+	 */
+	public void handleToggleKey(final boolean keyDown) {
+		if (keyDown && !this.toggleKeyDown) {
+			this.overlayVisible = !this.overlayVisible;
+			updateCollecting();
+		}
+		this.toggleKeyDown = keyDown;
+	}
+
+	/**
+	 * Takes samples if enabled or showing the overlay. The windows start
+	 * over when sampling starts.
+	 */
+	private void updateCollecting() {
+		boolean collecting = this.enabled || this.overlayVisible;
+		if (collecting && !this.collecting) {
+			Arrays.fill(this.counts, 0);
+			Arrays.fill(this.frameNanos, 0);
+		}
+		this.collecting = collecting;
+	}
+
+	/**
+	 * Marks the start of a phase.
+	 *
+	 * @return Current time, 0 if disabled.
+	 */
+	public long start() {
+		if (!this.collecting)
+			return 0;
+		if (this.measuringAllocations)
+			this.allocatedMark = allocatedBytes();
+		return System.nanoTime();
+	}
+
+	/**
+	 * Marks the end of a phase, so the next one can start from it.
+	 *
+	 * @param phase
+	 *            Phase ended.
+	 * @param start
+	 *            Time the phase started, as returned by start() or end().
+	 * @return Current time, 0 if disabled.
+	 */
+	public long end(final Phase phase, final long start) {
+		if (!this.collecting)
+			return 0;
+		long now = System.nanoTime();
+		record(phase, now - start);
+		if (this.measuringAllocations) {
+			long allocated = allocatedBytes();
+			this.frameAllocatedBytes[phase.ordinal()] += allocated
+					- this.allocatedMark;
+			this.allocatedMark = allocated;
+		}
+		return now;
+	}
+
+	/**
+	 * Getter for the bytes allocated by the calling thread so far.
+	 *
+	 * @return Bytes allocated.
+	 */
+	private long allocatedBytes() {
+		return this.threads.getCurrentThreadAllocatedBytes();
+	}
+
+	/**
+	 * Adds a sample to a phase, replacing the oldest one, and adds it to
+	 * the time of the phase in the current frame.
+	 *
+	 * @param phase
+	 *            Phase measured.
+	 * @param nanos
+	 *            Time it took.
+	 */
+	public void record(final Phase phase, final long nanos) {
+		int ordinal = phase.ordinal();
+		this.samples[ordinal][(int) this.counts[ordinal] & (WINDOW - 1)] = nanos;
+		this.counts[ordinal]++;
+		this.frameNanos[ordinal] += nanos;
+	}
+
+	/**
+	 * Getter for the time spent in a phase since the frame started, over
+	 * every tick run in it.
+	 *
+	 * @param phase
+	 *            Phase measured.
+	 * @return Time in nanoseconds.
+	 */
+	public long getFrameNanos(final Phase phase) {
+		return this.frameNanos[phase.ordinal()];
+	}
+
+	/**
+	 * Getter for the bytes allocated in a phase since the frame started,
+	 * over every tick run in it. Only measured if asked for.
+	 *
+	 * @param phase
+	 *            Phase measured.
+	 * @return Bytes allocated.
+	 */
+	public long getFrameAllocatedBytes(final Phase phase) {
+		return this.frameAllocatedBytes[phase.ordinal()];
+	}
+
+	/**
+	 * Starts a new frame, the time and allocations of every phase back to
+	 * 0.
+	 */
+	public void clearFrame() {
+		Arrays.fill(this.frameNanos, 0);
+		Arrays.fill(this.frameAllocatedBytes, 0);
+	}
+
+	/**
+	 * Records how many entities are on screen.
+	 *
+	 * @param enemyCount
+	 *            Enemy ships alive.
+	 * @param bulletCount
+	 *            Bullets flying.
+	 * @param bulletCapacity
+	 *            Bullets the system has room for.
+	 */
+	public void setEntityCounts(final int enemyCount, final int bulletCount,
+			final int bulletCapacity) {
+		this.enemyCount = enemyCount;
+		this.bulletCount = bulletCount;
+		this.bulletCapacity = bulletCapacity;
+	}
+
+	/**
+	 * Getter for a percentile of a phase over its window.
+	 *
+	 * @param phase
+	 *            Phase measured.
+	 * @param percentile
+	 *            Percentile, between 0 and 1.
+	 * @return Time in nanoseconds, 0 without samples.
+	 */
+	public long getPercentile(final Phase phase, final double percentile) {
+		int size = getWindowSize(phase);
+		if (size == 0)
+			return 0;
+		System.arraycopy(this.samples[phase.ordinal()], 0, this.sorted, 0,
+				size);
+		Arrays.sort(this.sorted, 0, size);
+		int rank = (int) Math.ceil(percentile * size) - 1;
+		return this.sorted[Math.max(0, Math.min(rank, size - 1))];
+	}
+
+	/**
+	 * Getter for the longest time of a phase over its window.
+	 *
+	 * @param phase
+	 *            Phase measured.
+	 * @return Time in nanoseconds, 0 without samples.
+	 */
+	public long getMax(final Phase phase) {
+		long[] window = this.samples[phase.ordinal()];
+		long max = 0;
+		for (int i = 0; i < getWindowSize(phase); i++)
+			max = Math.max(max, window[i]);
+		return max;
+	}
+
+	/**
+	 * Getter for the number of samples in the window of a phase.
+	 *
+	 * @param phase
+	 *            Phase measured.
+	 * @return Samples kept.
+	 */
+	private int getWindowSize(final Phase phase) {
+		return (int) Math.min(this.counts[phase.ordinal()], WINDOW);
+	}
+
+	/**
+	 * Getter for the number of enemy ships alive.
+	 *
+	 * @return Enemy ships.
+	 */
+	public int getEnemyCount() {
+		return this.enemyCount;
+	}
+
+	/**
+	 * Getter for the number of bullets flying.
+	 *
+	 * @return Bullets.
+	 */
+	public int getBulletCount() {
+		return this.bulletCount;
+	}
+
+	/**
+	 * Getter for the number of bullets the system has room for.
+	 *
+	 * @return Bullet capacity.
+	 */
+	public int getBulletCapacity() {
+		return this.bulletCapacity;
+	}
+
+	/**
+	 * Getter for the number of garbage collections since the game started.
+	 *
+	 * @return Collections, by every collector.
+	 */
+	public long getGcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean collector : this.collectors)
+			count += Math.max(0, collector.getCollectionCount());
+		return count;
+	}
+
+	/**
+	 * Getter for the time spent collecting garbage since the game started.
+	 *
+	 * @return Milliseconds, by every collector.
+	 */
+	public long getGcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean collector : this.collectors)
+			time += Math.max(0, collector.getCollectionTime());
+		return time;
+	}
+}
@@ -0,0 +1,325 @@
+package engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import screen.GameScreen;
+
+/**
+ * Recording of a level: how it started, the keys pressed on every tick and
+ * the whole game state every few seconds. As the game only depends on its
+ * seed, its clock and the keys, playing the keys again from the same start
+ * takes the exact same course, and the keyframes let a player jump to any
+ * tick without simulating everything before it.
+ *
+ */
+public final class Replay {
+
+	/** Identifies replay files, "RPLY". */
+	private static final int MAGIC = 0x52504C59;
+	/** Version of the format, changes when the game state does. */
+	private static final int VERSION = 5;
+	/** Ticks between keyframes, ten seconds. */
+	private static final int KEYFRAME_TICKS = 600;
+
+	/** Seed of the random streams. */
+	private long seed;
+	/** Virtual clock time when the level started. */
+	private long startNanos;
+	/** State of the game when the level started. */
+	private GameState gameState;
+	/** Difficulty of the game, picks the level settings. */
+	private int difficulty;
+	/** Checks if a bonus life was awarded in the level. */
+	private boolean bonusLife;
+	/** Screen width. */
+	private int width;
+	/** Screen height. */
+	private int height;
+	/** Keys pressed on every tick. */
+	private InputLog inputLog;
+	/** Compressed game state, by number of ticks run. */
+	private TreeMap<Long, byte[]> keyframes;
+	/** Number of ticks the level lasted, 0 while recording. */
+	private long ticks;
+	/** Checksum of the game state when the level ended. */
+	private long finalChecksum;
+
+	/**
+	 * Constructor, starts recording a level about to be played from the
+	 * current seed and virtual clock time. Must be created before the
+	 * screen.
+	 *
+	 * @param gameState
+	 *            State of the game when the level starts.
+	 * @param difficulty
+	 *            Difficulty of the game.
+	 * @param bonusLife
+	 *            Checks if a bonus life is awarded in the level.
+	 * @param width
+	 *            Screen width.
+	 * @param height
+	 *            Screen height.
+	 */
+	public Replay(final GameState gameState, final int difficulty,
+			final boolean bonusLife, final int width, final int height) {
+		this.seed = Core.getSeed();
+		this.startNanos = Core.getVirtualClock().getElapsedNanos();
+		this.gameState = gameState;
+		this.difficulty = difficulty;
+		this.bonusLife = bonusLife;
+		this.width = width;
+		this.height = height;
+		this.inputLog = new InputLog();
+		this.keyframes = new TreeMap<Long, byte[]>();
+	}
+
+	/**
+	 * Constructor, for replays read from a file.
+	 */
+	private Replay() {
+		this.keyframes = new TreeMap<Long, byte[]>();
+	}
+
+	/**
+	 * Records a tick once it has run, with a keyframe every few seconds.
+	 *
+	 * @param screen
+	 *            Screen being recorded.
+	 * @param inputManager
+	 *            Input manager with the keys of the tick.
+	 * @param finished
+	 *            True if this was the last tick of the level.
+	 */
+	public void recordTick(final GameScreen screen,
+			final InputManager inputManager, final boolean finished) {
+		long ticksRun = screen.getTicks();
+		this.inputLog.record(ticksRun - 1, inputManager);
+		try {
+			if (ticksRun % KEYFRAME_TICKS == 0)
+				this.keyframes.put(ticksRun, captureState(screen));
+			if (finished) {
+				this.ticks = ticksRun;
+				this.finalChecksum = checksum(screen);
+			}
+		} catch (IOException e) {
+			// Written to memory, never happens.
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Creates the screen of the level, in the state it started in. Seeds
+	 * the random streams and moves the virtual clock back to the start.
+	 *
+	 * @return Initialized screen, no tick run yet.
+	 */
+	public GameScreen createScreen() {
+		Core.seedRandoms(this.seed);
+		Core.getVirtualClock().setElapsedNanos(this.startNanos);
+		GameScreen screen = new GameScreen(this.gameState,
+				Core.getGameSettings(this.difficulty).get(
+						this.gameState.getLevel() - 1),
+				this.bonusLife, this.width, this.height, 60);
+		screen.initialize();
+		return screen;
+	}
+
+	/**
+	 * Compresses everything a tick depends on: the virtual clock, the
+	 * random streams and the screen.
+	 *
+	 * @param screen
+	 *            Screen to capture.
+	 * @return Compressed state.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	public static byte[] captureState(final GameScreen screen)
+			throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(
+				new DeflaterOutputStream(bytes));
+		writeState(screen, output);
+		output.close();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Restores a state compressed by captureState().
+	 *
+	 * @param screen
+	 *            Initialized screen of the same level.
+	 * @param state
+	 *            Compressed state.
+	 * @throws IOException
+	 *             In case of reading problems.
+	 */
+	public static void restoreState(final GameScreen screen,
+			final byte[] state) throws IOException {
+		DataInputStream input = new DataInputStream(new InflaterInputStream(
+				new ByteArrayInputStream(state)));
+		Core.getVirtualClock().setElapsedNanos(input.readLong());
+		for (GameRandom.Stream stream : GameRandom.Stream.values())
+			Core.getRandom(stream).setState(input.readLong());
+		screen.readState(input);
+	}
+
+	/**
+	 * Computes a checksum of the state, equal only if the games are.
+	 *
+	 * @param screen
+	 *            Screen to check.
+	 * @return CRC32 of the state.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	public static long checksum(final GameScreen screen) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		writeState(screen, new DataOutputStream(bytes));
+		CRC32 crc = new CRC32();
+		crc.update(bytes.toByteArray());
+		return crc.getValue();
+	}
+
+	/**
+	 * Writes everything a tick depends on.
+	 *
+	 * @param screen
+	 *            Screen to write.
+	 * @param output
+	 *            Output to write to.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	private static void writeState(final GameScreen screen,
+			final DataOutput output) throws IOException {
+		output.writeLong(Core.getVirtualClock().getElapsedNanos());
+		for (GameRandom.Stream stream : GameRandom.Stream.values())
+			output.writeLong(Core.getRandom(stream).getState());
+		screen.writeState(output);
+	}
+
+	/**
+	 * Writes the replay.
+	 *
+	 * @param output
+	 *            Output to write to.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	public void write(final DataOutput output) throws IOException {
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		output.writeLong(this.seed);
+		output.writeLong(this.startNanos);
+		output.writeInt(this.gameState.getLevel());
+		output.writeInt(this.gameState.getScore());
+		output.writeInt(this.gameState.getLivesRemaining());
+		output.writeInt(this.gameState.getBulletsShot());
+		output.writeInt(this.gameState.getShipsDestroyed());
+		output.writeBoolean(this.gameState.getHardCore());
+		output.writeInt(this.difficulty);
+		output.writeBoolean(this.bonusLife);
+		output.writeInt(this.width);
+		output.writeInt(this.height);
+		output.writeLong(this.ticks);
+		output.writeLong(this.finalChecksum);
+		this.inputLog.write(output);
+
+		output.writeInt(this.keyframes.size());
+		for (Map.Entry<Long, byte[]> keyframe : this.keyframes.entrySet()) {
+			output.writeLong(keyframe.getKey());
+			output.writeInt(keyframe.getValue().length);
+			output.write(keyframe.getValue());
+		}
+	}
+
+	/**
+	 * Reads a replay written by write().
+	 *
+	 * @param input
+	 *            Input to read from.
+	 * @return Replay read.
+	 * @throws IOException
+	 *             If the input is not a replay of this version.
+	 */
+	public static Replay read(final DataInput input) throws IOException {
+		if (input.readInt() != MAGIC)
+			throw new IOException("Not a replay");
+		int version = input.readInt();
+		if (version != VERSION)
+			throw new IOException("Unsupported replay version " + version);
+
+		Replay replay = new Replay();
+		replay.seed = input.readLong();
+		replay.startNanos = input.readLong();
+		replay.gameState = new GameState(input.readInt(), input.readInt(),
+				input.readInt(), input.readInt(), input.readInt(),
+				input.readBoolean());
+		replay.difficulty = input.readInt();
+		replay.bonusLife = input.readBoolean();
+		replay.width = input.readInt();
+		replay.height = input.readInt();
+		replay.ticks = input.readLong();
+		replay.finalChecksum = input.readLong();
+		replay.inputLog = InputLog.read(input);
+
+		int keyframeCount = input.readInt();
+		for (int i = 0; i < keyframeCount; i++) {
+			long tick = input.readLong();
+			byte[] state = new byte[input.readInt()];
+			input.readFully(state);
+			replay.keyframes.put(tick, state);
+		}
+		return replay;
+	}
+
+	/**
+	 * Getter for the last keyframe at or before a tick.
+	 *
+	 * @param tick
+	 *            Number of ticks run.
+	 * @return Ticks run and compressed state, null if there is none.
+	 */
+	public Map.Entry<Long, byte[]> getKeyframe(final long tick) {
+		return this.keyframes.floorEntry(tick);
+	}
+
+	/**
+	 * Getter for the keys pressed on every tick.
+	 *
+	 * @return Input log.
+	 */
+	public InputLog getInputLog() {
+		return this.inputLog;
+	}
+
+	/**
+	 * Getter for the length of the level.
+	 *
+	 * @return Number of ticks, 0 if the level wasn't finished.
+	 */
+	public long getTicks() {
+		return this.ticks;
+	}
+
+	/**
+	 * Getter for the checksum of the state the level ended in.
+	 *
+	 * @return CRC32 of the final state.
+	 */
+	public long getFinalChecksum() {
+		return this.finalChecksum;
+	}
+}
@@ -0,0 +1,145 @@
+package engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.logging.Level;
+
+import screen.GameScreen;
+
+/**
+ * Plays a replay back headless, one tick at a time, and jumps to any tick
+ * from the closest keyframe before it.
+ *
+ */
+public final class ReplayPlayer {
+
+	/** Nanoseconds in one second. */
+	private static final long NANOS_PER_SECOND = 1000000000L;
+
+	/** Replay played. */
+	private Replay replay;
+	/** Screen the replay is played on. */
+	private GameScreen screen;
+	/** Clock moved forward one tick per step. */
+	private VirtualClock clock;
+	/** Length of a tick of the screen. */
+	private long tickNanos;
+
+	/**
+	 * Constructor, starts the replay from its first tick. Switches the game
+	 * to headless mode.
+	 *
+	 * @param replay
+	 *            Replay to play.
+	 */
+	public ReplayPlayer(final Replay replay) {
+		this.replay = replay;
+		this.clock = Core.isHeadless() ? Core.getVirtualClock()
+				: Core.startHeadless();
+		restart();
+	}
+
+	/**
+	 * Goes back to the start of the level.
+	 */
+	public void restart() {
+		if (this.screen != null)
+			this.screen.releaseShips();
+		this.screen = this.replay.createScreen();
+		this.tickNanos = NANOS_PER_SECOND / this.screen.getTickRate();
+		this.replay.getInputLog().rewind();
+		Core.getInputManager().setScript(this.replay.getInputLog());
+	}
+
+	/**
+	 * Runs the next tick, with the keys recorded for it.
+	 */
+	public void step() {
+		this.clock.advance(this.tickNanos);
+		this.screen.tick();
+	}
+
+	/**
+	 * Moves the game to a number of ticks run, restoring the closest
+	 * keyframe before it and simulating from there.
+	 *
+	 * @param tick
+	 *            Number of ticks run to stop at.
+	 * @throws IOException
+	 *             If a keyframe can't be read.
+	 */
+	public void seek(final long tick) throws IOException {
+		Map.Entry<Long, byte[]> keyframe = this.replay.getKeyframe(tick);
+		long current = this.screen.getTicks();
+		if (keyframe != null && (keyframe.getKey() > current
+				|| tick < current)) {
+			Replay.restoreState(this.screen, keyframe.getValue());
+			this.replay.getInputLog().seek(keyframe.getKey());
+		} else if (tick < current) {
+			restart();
+		}
+		while (this.screen.getTicks() < tick)
+			step();
+	}
+
+	/**
+	 * Plays the rest of the level.
+	 *
+	 * @return True if the level ended as recorded.
+	 * @throws IOException
+	 *             If the state can't be checked.
+	 */
+	public boolean playToEnd() throws IOException {
+		seek(this.replay.getTicks());
+		return Replay.checksum(this.screen) == this.replay.getFinalChecksum();
+	}
+
+	/**
+	 * Gives the ships of the screen back to their pools, once done with the
+	 * replay.
+	 */
+	public void close() {
+		this.screen.releaseShips();
+	}
+
+	/**
+	 * Getter for the screen the replay is played on.
+	 *
+	 * @return Game screen.
+	 */
+	public GameScreen getScreen() {
+		return this.screen;
+	}
+
+	/**
+	 * Checks that a replay file plays back exactly as recorded.
+	 *
+	 * @param args
+	 *            Replay file, and a tick to time seeking to.
+	 * @throws IOException
+	 *             If the replay can't be read.
+	 */
+	public static void main(final String[] args) throws IOException {
+		System.setProperty("java.awt.headless", "true");
+		Core.getLogger().setLevel(Level.WARNING);
+		Replay replay = Core.getFileManager().loadReplay(new File(args[0]));
+
+		long start = System.nanoTime();
+		ReplayPlayer player = new ReplayPlayer(replay);
+		boolean matches = player.playToEnd();
+		System.out.println(String.format("%d ticks played in %.1f ms, %s",
+				replay.getTicks(), (System.nanoTime() - start) / 1e6,
+				matches ? "identical to the recording"
+						: "DIFFERENT from the recording"));
+
+		if (args.length > 1) {
+			long tick = Long.parseLong(args[1]);
+			start = System.nanoTime();
+			player.seek(tick);
+			System.out.println(String.format("Seeked to tick %d in %.1f ms",
+					tick, (System.nanoTime() - start) / 1e6));
+		}
+		player.close();
+	}
+}
@@ -0,0 +1,428 @@
+package engine;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Every score posted on a difficulty, sorted on disk. Records have a fixed
+ * size, so the score at a rank is read straight from its offset, and a sparse
+ * index of every INDEX_INTERVAL-th score finds the rank of a score touching
+ * a few pages. The file is read in place: opening it reads only the header,
+ * whatever its size, and the records are read as they are needed. It is
+ * kept open but not mapped, so a merge can replace it meanwhile on every
+ * platform.
+ *
+ */
+public final class ScoreArchive implements Closeable {
+
+	/** Identifies archive files, "HSAR". */
+	private static final int MAGIC = 0x48534152;
+	/** Version of the archive format. */
+	private static final int VERSION = 1;
+	/** Bytes of the header: magic, version, sequence, count, index offset. */
+	private static final int HEADER_SIZE = 24;
+	/** Bytes of a record: score and name. */
+	private static final int RECORD_SIZE = 16;
+	/** Bytes of the name in a record, padded with zeros. */
+	private static final int NAME_SIZE = RECORD_SIZE - Integer.BYTES;
+	/** Records between the index entries. */
+	private static final int INDEX_INTERVAL = 1024;
+	/** Bytes read or written at once while merging. */
+	private static final int BUFFER_SIZE = 1 << 16;
+	/** Records that fit in the file, a byte each left for the index. */
+	private static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE)
+			/ (RECORD_SIZE + 1);
+
+	/** Archive with no scores, for missing files. */
+	private static final ScoreArchive EMPTY = new ScoreArchive(null, -1, 0);
+
+	/** Open file, null if empty. */
+	private FileChannel channel;
+	/** Sequence number of the last score merged. */
+	private long sequence;
+	/** Number of scores. */
+	private int size;
+	/** Offset of the sparse index. */
+	private int indexOffset;
+
+	/**
+	 * Constructor, wraps an open archive.
+	 *
+	 * @param channel
+	 *            Open file.
+	 * @param sequence
+	 *            Sequence number of the last score merged.
+	 * @param size
+	 *            Number of scores.
+	 */
+	private ScoreArchive(final FileChannel channel, final long sequence,
+			final int size) {
+		this.channel = channel;
+		this.sequence = sequence;
+		this.size = size;
+		this.indexOffset = HEADER_SIZE + size * RECORD_SIZE;
+	}
+
+	/**
+	 * Opens an archive. The file can be replaced while open, the archive
+	 * keeps reading the old one until closed.
+	 *
+	 * @param file
+	 *            Archive file.
+	 * @return Archive, empty if the file doesn't exist.
+	 * @throws IOException
+	 *             In case of loading problems or a corrupt file.
+	 */
+	public static ScoreArchive open(final File file) throws IOException {
+		if (!file.exists())
+			return EMPTY;
+		FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ);
+		try {
+			ByteBuffer header = readHeader(channel, file);
+			return new ScoreArchive(channel, header.getLong(8),
+					header.getInt(16));
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads and checks the header of an archive, from the start of the
+	 * channel.
+	 *
+	 * @param channel
+	 *            Open archive file.
+	 * @param file
+	 *            Archive file, for the error messages.
+	 * @return Header, sequence at 8 and size at 16.
+	 * @throws IOException
+	 *             In case of loading problems or a corrupt file.
+	 */
+	private static ByteBuffer readHeader(final FileChannel channel,
+			final File file) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining() && channel.read(header) >= 0)
+			;
+		if (header.hasRemaining() || header.getInt(0) != MAGIC
+				|| header.getInt(4) != VERSION)
+			throw new IOException("Corrupt score archive " + file);
+		int size = header.getInt(16);
+		if (size < 0 || size > MAX_RECORDS
+				|| header.getInt(20) != HEADER_SIZE + size * RECORD_SIZE
+				|| channel.size() != header.getInt(20)
+				+ (long) indexSize(size) * Integer.BYTES)
+			throw new IOException("Corrupt score archive " + file);
+		return header;
+	}
+
+	/**
+	 * Getter for an archive with no scores.
+	 *
+	 * @return Empty archive.
+	 */
+	public static ScoreArchive empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Reads the sequence number of an archive, without opening it.
+	 *
+	 * @param file
+	 *            Archive file.
+	 * @return Sequence number of the last score merged, -1 if none.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 */
+	public static long readSequence(final File file) throws IOException {
+		if (!file.exists())
+			return -1;
+		try (FileChannel channel = FileChannel.open(file.toPath(),
+				StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining() && channel.read(header) >= 0)
+				;
+			if (header.hasRemaining() || header.getInt(0) != MAGIC)
+				return -1;
+			return header.getLong(8);
+		}
+	}
+
+	/**
+	 * Merges scores into an archive. Both are read in order and the result
+	 * streamed to a temporary file, moved over the archive once synced, so
+	 * memory use doesn't depend on the archive size. The archive is read
+	 * through a buffer and closed before the move, as mapped files can't be
+	 * replaced on every platform.
+	 *
+	 * @param file
+	 *            Archive file.
+	 * @param scores
+	 *            Scores to add, sorted.
+	 * @param sequence
+	 *            Sequence number of the last score added.
+	 * @throws IOException
+	 *             In case of loading or saving problems.
+	 */
+	public static void merge(final File file, final List<Score> scores,
+			final long sequence) throws IOException {
+		File temporary = new File(file.getPath() + ".tmp");
+		try (FileChannel archive = file.exists() ? FileChannel.open(
+				file.toPath(), StandardOpenOption.READ) : null;
+				FileChannel channel = FileChannel.open(temporary.toPath(),
+						StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING)) {
+			int archiveSize = archive == null ? 0
+					: readHeader(archive, file).getInt(16);
+			int size = archiveSize + scores.size();
+			if (size > MAX_RECORDS)
+				throw new IOException("Score archive full");
+			int[] index = new int[indexSize(size)];
+
+			ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			input.flip();
+			ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			output.putInt(MAGIC).putInt(VERSION).putLong(sequence)
+					.putInt(size).putInt(HEADER_SIZE + size * RECORD_SIZE);
+
+			// On equal scores, the older ones stay ahead.
+			byte[] name = new byte[NAME_SIZE];
+			int archived = 0;
+			int added = 0;
+			for (int rank = 0; rank < size; rank++) {
+				if (output.remaining() < RECORD_SIZE)
+					flush(channel, output);
+				if (archived < archiveSize && input.remaining() < RECORD_SIZE)
+					fill(archive, input);
+				if (added == scores.size() || archived < archiveSize
+						&& input.getInt(input.position())
+						>= scores.get(added).getScore()) {
+					output.putLong(input.getLong()).putLong(input.getLong());
+					archived++;
+				} else {
+					Score score = scores.get(added++);
+					output.putInt(score.getScore());
+					encodeName(score.getName(), name);
+					output.put(name);
+				}
+				if (rank % INDEX_INTERVAL == 0)
+					index[rank / INDEX_INTERVAL] = output.getInt(
+							output.position() - RECORD_SIZE);
+			}
+			for (int entry : index) {
+				if (output.remaining() < Integer.BYTES)
+					flush(channel, output);
+				output.putInt(entry);
+			}
+			flush(channel, output);
+			channel.force(true);
+		}
+		Files.move(temporary.toPath(), file.toPath(),
+				StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Getter for the sequence number of the last score merged.
+	 *
+	 * @return Sequence number, -1 if empty.
+	 */
+	public long getSequence() {
+		return this.sequence;
+	}
+
+	/**
+	 * Getter for the number of scores.
+	 *
+	 * @return Number of scores.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Reads the scores of a range of ranks.
+	 *
+	 * @param firstRank
+	 *            First rank, from 0.
+	 * @param count
+	 *            Number of ranks.
+	 * @return Scores, fewer at the end of the archive.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 */
+	public List<Score> getPage(final int firstRank, final int count)
+			throws IOException {
+		int first = Math.max(0, firstRank);
+		int last = Math.min(this.size, firstRank + count);
+		List<Score> page = new ArrayList<Score>(Math.max(0, last - first));
+		if (first >= last)
+			return page;
+		ByteBuffer records = read(HEADER_SIZE + (long) first * RECORD_SIZE,
+				(last - first) * RECORD_SIZE);
+		byte[] name = new byte[NAME_SIZE];
+		while (records.hasRemaining()) {
+			int score = records.getInt();
+			records.get(name);
+			page.add(new Score(decodeName(name), score));
+		}
+		return page;
+	}
+
+	/**
+	 * Finds the rank a score would have: the number of scores above it.
+	 *
+	 * @param score
+	 *            Points scored.
+	 * @return Rank, from 0.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 */
+	public int rankOf(final int score) throws IOException {
+		// Last index entry above the score, then the block after it.
+		int low = 0;
+		int high = indexSize(this.size) - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (read(this.indexOffset + (long) middle * Integer.BYTES,
+					Integer.BYTES).getInt() > score)
+				low = middle + 1;
+			else
+				high = middle - 1;
+		}
+		if (low == 0)
+			return 0;
+
+		int first = (low - 1) * INDEX_INTERVAL;
+		int last = Math.min(this.size, first + INDEX_INTERVAL) - 1;
+		while (first <= last) {
+			int middle = (first + last) >>> 1;
+			if (read(HEADER_SIZE + (long) middle * RECORD_SIZE,
+					Integer.BYTES).getInt() > score)
+				first = middle + 1;
+			else
+				last = middle - 1;
+		}
+		return first;
+	}
+
+	/**
+	 * Closes the file. Ranks can't be read afterwards.
+	 *
+	 * @throws IOException
+	 *             In case of closing problems.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.channel != null)
+			this.channel.close();
+	}
+
+	/**
+	 * Reads bytes of the file at a position.
+	 *
+	 * @param position
+	 *            Offset in the file.
+	 * @param length
+	 *            Number of bytes.
+	 * @return Bytes read, ready to get.
+	 * @throws IOException
+	 *             In case of loading problems or a file cut short.
+	 */
+	private ByteBuffer read(final long position, final int length)
+			throws IOException {
+		ByteBuffer bytes = ByteBuffer.allocate(length);
+		while (bytes.hasRemaining())
+			if (this.channel.read(bytes, position + bytes.position()) < 0)
+				throw new IOException("Score archive cut short");
+		bytes.flip();
+		return bytes;
+	}
+
+	/**
+	 * Compacts a buffer and fills it with the next bytes of a channel.
+	 *
+	 * @param channel
+	 *            Channel to read from.
+	 * @param input
+	 *            Buffer to fill, ready to get.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 */
+	private static void fill(final FileChannel channel,
+			final ByteBuffer input) throws IOException {
+		input.compact();
+		while (input.hasRemaining() && channel.read(input) >= 0)
+			;
+		input.flip();
+	}
+
+	/**
+	 * Writes a buffer to a channel and clears it.
+	 *
+	 * @param channel
+	 *            Channel to write to.
+	 * @param output
+	 *            Buffer to write.
+	 * @throws IOException
+	 *             In case of saving problems.
+	 */
+	private static void flush(final FileChannel channel,
+			final ByteBuffer output) throws IOException {
+		output.flip();
+		while (output.hasRemaining())
+			channel.write(output);
+		output.clear();
+	}
+
+	/**
+	 * Number of entries of the sparse index.
+	 *
+	 * @param size
+	 *            Number of scores.
+	 * @return Index entries.
+	 */
+	private static int indexSize(final int size) {
+		return (size + INDEX_INTERVAL - 1) / INDEX_INTERVAL;
+	}
+
+	/**
+	 * Encodes a name in the fixed size of a record.
+	 *
+	 * @param name
+	 *            Player name.
+	 * @param bytes
+	 *            Bytes of the record name, zero padded.
+	 */
+	private static void encodeName(final String name, final byte[] bytes) {
+		byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+		int length = Math.min(encoded.length, NAME_SIZE);
+		System.arraycopy(encoded, 0, bytes, 0, length);
+		for (int i = length; i < NAME_SIZE; i++)
+			bytes[i] = 0;
+	}
+
+	/**
+	 * Decodes the name of a record.
+	 *
+	 * @param bytes
+	 *            Bytes of the record name, zero padded.
+	 * @return Player name.
+	 */
+	private static String decodeName(final byte[] bytes) {
+		int length = 0;
+		while (length < NAME_SIZE && bytes[length] != 0)
+			length++;
+		return new String(bytes, 0, length, StandardCharsets.UTF_8);
+	}
+}
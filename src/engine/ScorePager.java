@@ -0,0 +1,173 @@
+package engine;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Reads the pages of a score archive in the background for a scrolling
+ * view, along with the scores posted since the archive was last merged, so
+ * every page ranks the same scores. Only the page shown and the pages around
+ * it are kept, so memory use doesn't depend on the archive size.
+ *
+ */
+public final class ScorePager {
+
+	/** Pages read ahead on each side of the page shown. */
+	private static final int PREFETCH_PAGES = 2;
+
+	/** Application logger. */
+	private Logger logger;
+	/** Archive read. */
+	private ScoreArchive archive;
+	/** Scores not archived yet, sorted. */
+	private List<Score> unarchived;
+	/** Scores per page. */
+	private int pageSize;
+	/** Pages read, by page number. */
+	private Map<Integer, List<Score>> pages;
+	/** Pages being read. */
+	private Set<Integer> loading;
+	/** Thread reading the pages. */
+	private ExecutorService reader;
+
+	/**
+	 * Constructor, establishes the archive to read and the scores posted
+	 * after it.
+	 *
+	 * @param archive
+	 *            Archive to read, closed with the pager.
+	 * @param unarchived
+	 *            Scores not archived yet, sorted. Kept, not copied.
+	 * @param pageSize
+	 *            Scores per page.
+	 */
+	public ScorePager(final ScoreArchive archive,
+			final List<Score> unarchived, final int pageSize) {
+		this.logger = Core.getLogger();
+		this.archive = archive;
+		this.unarchived = unarchived;
+		this.pageSize = pageSize;
+		this.pages = new ConcurrentHashMap<Integer, List<Score>>();
+		this.loading = ConcurrentHashMap.newKeySet();
+		this.reader = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Score pager");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Getter for the number of pages.
+	 *
+	 * @return Number of pages.
+	 */
+	public int getPageCount() {
+		return (getScoreCount() + this.pageSize - 1) / this.pageSize;
+	}
+
+	/**
+	 * Getter for the total number of scores.
+	 *
+	 * @return Number of scores.
+	 */
+	public int getScoreCount() {
+		return this.archive.size() + this.unarchived.size();
+	}
+
+	/**
+	 * Getter for a page, without waiting. The page and the ones around it
+	 * are read in the background, the pages further away are dropped.
+	 *
+	 * @param page
+	 *            Page number, from 0.
+	 * @return Scores of the page, null if not read yet.
+	 */
+	public List<Score> getPage(final int page) {
+		this.pages.keySet().removeIf(
+				cached -> Math.abs(cached - page) > PREFETCH_PAGES);
+		request(page);
+		for (int i = 1; i <= PREFETCH_PAGES; i++) {
+			request(page + i);
+			request(page - i);
+		}
+		return this.pages.get(page);
+	}
+
+	/**
+	 * Stops reading pages and closes the archive.
+	 */
+	public void close() {
+		this.reader.shutdownNow();
+		try {
+			this.archive.close();
+		} catch (IOException e) {
+			this.logger.warning("Couldn't close score archive: " + e);
+		}
+	}
+
+	/**
+	 * Reads a page in the background, if not read or being read.
+	 *
+	 * @param page
+	 *            Page number, from 0.
+	 */
+	private void request(final int page) {
+		if (page < 0 || page >= getPageCount()
+				|| this.pages.containsKey(page) || !this.loading.add(page))
+			return;
+		this.reader.execute(() -> {
+			try {
+				this.pages.put(page, readPage(page));
+			} catch (IOException e) {
+				this.logger.warning("Couldn't read score archive: " + e);
+				this.pages.put(page, new ArrayList<Score>());
+			}
+			this.loading.remove(page);
+		});
+	}
+
+	/**
+	 * Reads a page, merging the scores not archived yet into the archived
+	 * ones. On equal scores, the archived ones stay ahead, as they will once
+	 * merged.
+	 *
+	 * @param page
+	 *            Page number, from 0.
+	 * @return Scores of the page.
+	 * @throws IOException
+	 *             In case of loading problems.
+	 */
+	private List<Score> readPage(final int page) throws IOException {
+		int firstRank = page * this.pageSize;
+		// Scores not archived yet ranked before the page, each one after
+		// the archived scores it doesn't beat and the ones not archived
+		// before it.
+		int before = 0;
+		while (before < this.unarchived.size()
+				&& this.archive.rankOf(this.unarchived.get(before).getScore()
+						- 1) + before < firstRank)
+			before++;
+
+		List<Score> archived = this.archive.getPage(firstRank - before,
+				this.pageSize);
+		List<Score> scores = new ArrayList<Score>(this.pageSize);
+		int next = 0;
+		while (scores.size() < this.pageSize && (next < archived.size()
+				|| before < this.unarchived.size())) {
+			if (before == this.unarchived.size() || next < archived.size()
+					&& archived.get(next).getScore()
+					>= this.unarchived.get(before).getScore())
+				scores.add(archived.get(next++));
+			else
+				scores.add(this.unarchived.get(before++));
+		}
+		return scores;
+	}
+}
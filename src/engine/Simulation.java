@@ -0,0 +1,118 @@
+package engine;
+
+import java.awt.event.KeyEvent;
+import java.util.List;
+import java.util.logging.Level;
+
+import screen.GameScreen;
+
+/**
+ * Plays whole games headless and as fast as possible, driven by a simple
+ * bot, for balancing and regression checks.
+ * 
+ */
+public final class Simulation {
+
+	/** Default number of games to play. */
+	private static final int DEFAULT_GAMES = 100;
+	/** Default difficulty, normal. */
+	private static final int DEFAULT_DIFFICULTY = 1;
+	/** Ticks after which the bot gives up on a level, ten minutes. */
+	private static final long MAX_LEVEL_TICKS = 60 * 60 * 10;
+	/** Ticks the bot keeps moving in the same direction. */
+	private static final int SWEEP_TICKS = 90;
+	/** Max lives, as in the real game. */
+	private static final int MAX_LIVES = 3;
+	/** Levels between extra life, as in the real game. */
+	private static final int EXTRA_LIFE_FRECUENCY = 3;
+
+	/**
+	 * Bot that keeps shooting while sweeping from side to side, and quits
+	 * the level through the pause menu when it takes too long.
+	 */
+	private static final class SweepingBot implements InputScript {
+
+		@Override
+		public void apply(final long tick, final InputManager inputManager) {
+			boolean right = (tick / SWEEP_TICKS) % 2 == 0;
+			boolean giveUp = tick >= MAX_LEVEL_TICKS;
+
+			inputManager.setKeyDown(KeyEvent.VK_SPACE, true);
+			inputManager.setKeyDown(KeyEvent.VK_RIGHT, right);
+			inputManager.setKeyDown(KeyEvent.VK_LEFT, !right);
+			inputManager.setKeyDown(KeyEvent.VK_ESCAPE, giveUp);
+			inputManager.setKeyDown(KeyEvent.VK_BACK_SPACE, giveUp);
+		}
+	}
+
+	/**
+	 * Constructor, not called.
+	 */
+	private Simulation() {
+
+	}
+
+	/**
+	 * Runs the simulation.
+	 * 
+	 * @param args
+	 *            Number of games and difficulty, both optional.
+	 */
+	public static void main(final String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		int games = args.length > 0 ? Integer.parseInt(args[0])
+				: DEFAULT_GAMES;
+		int difficulty = args.length > 1 ? Integer.parseInt(args[1])
+				: DEFAULT_DIFFICULTY;
+
+		Core.getLogger().setLevel(Level.WARNING);
+		Core.startHeadless();
+		Core.getInputManager().setScript(new SweepingBot());
+		List<GameSettings> gameSettings = Core.getGameSettings(difficulty);
+
+		long levelsPlayed = 0;
+		long levelsCleared = 0;
+		long totalScore = 0;
+		long startTime = System.nanoTime();
+
+		for (int i = 0; i < games; i++) {
+			GameState gameState = new GameState(1, 0, MAX_LIVES, 0, 0,
+					difficulty == 3);
+			do {
+				boolean bonusLife = gameState.getLevel()
+						% EXTRA_LIFE_FRECUENCY == 0 && !gameState.getHardCore()
+						&& gameState.getLivesRemaining() < MAX_LIVES;
+				GameScreen screen = new GameScreen(gameState,
+						gameSettings.get(gameState.getLevel() - 1), bonusLife,
+						448, 520, 60);
+				screen.initialize();
+				screen.run();
+				gameState = screen.getGameState();
+				levelsPlayed++;
+				if (gameState.getLivesRemaining() > 0)
+					levelsCleared++;
+
+				gameState = new GameState(gameState.getLevel() + 1,
+						gameState.getScore(), gameState.getLivesRemaining(),
+						gameState.getBulletsShot(),
+						gameState.getShipsDestroyed(),
+						gameState.getHardCore());
+			} while (gameState.getLivesRemaining() > 0
+					&& gameState.getLevel() <= gameSettings.size());
+			totalScore += gameState.getScore();
+		}
+
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+		System.out.println(String.format(
+				"%d games, %d levels played, %d cleared, average score %d",
+				games, levelsPlayed, levelsCleared, totalScore / games));
+		System.out.println(String.format(
+				"%.2f s, %.0f levels per minute", seconds,
+				levelsPlayed / seconds * 60));
+		for (ObjectPool<?> pool : ObjectPool.getPools())
+			System.out.println(String.format(
+					"%s: %d in use, %d at most, %d hits, %d misses",
+					pool.getName(), pool.getInUse(), pool.getHighWater(),
+					pool.getHits(), pool.getMisses()));
+	}
+}
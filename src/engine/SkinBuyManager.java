@@ -60,6 +60,7 @@ public class SkinBuyManager {
      */
     public void equipSkin(String skinName) {
         equippedSkins.put(skinName, true);
+        Core.getDrawManager().clearSpriteCache();
     }
 
     /**
@@ -69,6 +70,7 @@ public class SkinBuyManager {
      */
     public void unequipSkin(String skinName) {
         equippedSkins.put(skinName, false);
+        Core.getDrawManager().clearSpriteCache();
     }
 
 }
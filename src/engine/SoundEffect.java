@@ -5,81 +5,65 @@ import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
 import javax.sound.sampled.AudioInputStream;
 
+import engine.SoundMixer.SoundType;
+
 public class SoundEffect {
 
-    File shipshootingsound = new File("sound/soundEffect/Shipshooting.wav");
-    File shipdestructionsound = new File("sound/soundEffect/Shipdestruction.wav");
-    File shipcollisionsound = new File("sound/soundEffect/Shipcollision.wav");
-    File enemydestructionsound = new File("sound/soundEffect/Enemydestruction.wav");
-    File enemyshootingsound = new File("sound/soundEffect/Enemyshooting.wav");
+    /** If sounds are played at all, false when running headless. */
+    private static boolean enabled = true;
+
+    /**
+     * Turns every sound effect on or off.
+     *
+     * @param isEnabled
+     *            False to silence all sound effects.
+     */
+    public static void setEnabled(final boolean isEnabled) {
+        enabled = isEnabled;
+    }
 
     /**
      * Play ship's shooting sound
      */
     public void playShipShootingSound() {
-        try{
-            Clip clip = AudioSystem.getClip();
-            clip.open(AudioSystem.getAudioInputStream(shipshootingsound));
-            clip.start();
-
-            Thread.sleep(1);
-        }
-        catch(Exception e) { System.err.println("SOUND ERROR: Missile shooting sound does not played."); }
+        if (!enabled)
+            return;
+        Core.getSoundMixer().play(SoundType.ShipShooting);
     }
 
     /**
      * Play ship's destruction sound
      */
     public void playShipDestructionSound() {
-        try{
-            Clip clip = AudioSystem.getClip();
-            clip.open(AudioSystem.getAudioInputStream(shipdestructionsound));
-            clip.start();
-
-            Thread.sleep(1);
-        }
-        catch(Exception e) { System.err.println("SOUND ERROR: Ship's destroyed sound does not played."); }
+        if (!enabled)
+            return;
+        Core.getSoundMixer().play(SoundType.ShipDestruction);
     }
 
     /**
      * Play ship's collision sound
      */
     public void playShipCollisionSound() {
-        try{
-            Clip clip = AudioSystem.getClip();
-            clip.open(AudioSystem.getAudioInputStream(shipcollisionsound));
-            clip.start();
-
-            Thread.sleep(1);
-        }
-        catch(Exception e) { System.err.println("SOUND ERROR: Ship's attacked sound does not played."); }
+        if (!enabled)
+            return;
+        Core.getSoundMixer().play(SoundType.ShipCollision);
     }
     /**
      * Play enemy's destruction sound
      */
     public void playEnemyDestructionSound() {
-        try{
-            Clip clip = AudioSystem.getClip();
-            clip.open(AudioSystem.getAudioInputStream(enemydestructionsound));
-            clip.start();
-
-            Thread.sleep(1);
-        }
-        catch(Exception e) { System.err.println("SOUND ERROR: Enemy's destroyed sound does not played."); }
+        if (!enabled)
+            return;
+        Core.getSoundMixer().play(SoundType.EnemyDestruction);
     }
 
     /**
      * Play enemy's shooting sound
      */
     public void playEnemyShootingSound() {
-        try{
-            Clip clip = AudioSystem.getClip();
-            clip.open(AudioSystem.getAudioInputStream(enemyshootingsound));
-            clip.start();
-
-            Thread.sleep(1);
-        }
-        catch(Exception e) { System.err.println("SOUND ERROR: Enemy's bullet sound does not played."); }
+        if (!enabled)
+            return;
+        Core.getSoundMixer().play(SoundType.EnemyShooting);
     }
     public void SoundEffect_play(){
 
@@ -95,6 +79,8 @@ public class SoundEffect {
      *
      */
     public void initialStartSound() {
+        if (!enabled)
+            return;
         try {
             String soundFilePath = "#";
             File soundFile = new File(soundFilePath).getAbsoluteFile();
@@ -113,16 +99,9 @@ public class SoundEffect {
      *
      */
     public void endSound() {
-        try {
-            String soundFilePath = "sound/soundEffect/gameEnding.wav";
-            File soundFile = new File(soundFilePath).getAbsoluteFile();
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(soundFile.getAbsoluteFile());
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioInputStream);
-            clip.start();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        if (!enabled)
+            return;
+        Core.getSoundMixer().play(SoundType.GameEnding);
     }
 
 
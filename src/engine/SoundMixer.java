@@ -0,0 +1,299 @@
+package engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Plays every sound effect and the music through a single output line.
+ * Effects are decoded once when the mixer is created, and a dedicated audio
+ * thread adds the ones playing together. The game thread only posts
+ * commands to a lock-free queue, so triggering a sound never blocks nor
+ * opens a line.
+ */
+public final class SoundMixer implements Runnable {
+
+	/** Format of every sound played, CD quality stereo. */
+	public static final AudioFormat FORMAT = new AudioFormat(44100f, 16, 2,
+			true, false);
+	/** Maximum number of sounds played at once. */
+	private static final int MAX_VOICES = 16;
+	/** Frames mixed in each pass, about 12 milliseconds. */
+	private static final int FRAMES_PER_PASS = 512;
+	/** Passes buffered by the line, the latency of a new sound. */
+	private static final int BUFFERED_PASSES = 4;
+	/** Commands the queue can hold, a power of two. */
+	private static final int COMMAND_CAPACITY = 256;
+	/** Music tracks streamed at once, two to crossfade between them. */
+	private static final int MUSIC_STREAMS = 2;
+
+	/** Sounds the mixer can play. */
+	public static enum SoundType {
+		/** Player ship shooting. */
+		ShipShooting("sound/soundEffect/Shipshooting.wav"),
+		/** Player ship destroyed. */
+		ShipDestruction("sound/soundEffect/Shipdestruction.wav"),
+		/** Player ship hit. */
+		ShipCollision("sound/soundEffect/Shipcollision.wav"),
+		/** Enemy ship destroyed. */
+		EnemyDestruction("sound/soundEffect/Enemydestruction.wav"),
+		/** Enemy ship shooting. */
+		EnemyShooting("sound/soundEffect/Enemyshooting.wav"),
+		/** Game lost. */
+		GameEnding("sound/soundEffect/gameEnding.wav");
+
+		/** Path of the sound file. */
+		private final String path;
+
+		/**
+		 * Constructor, sets the file of the sound.
+		 *
+		 * @param path
+		 *            Path of the sound file.
+		 */
+		SoundType(final String path) {
+			this.path = path;
+		}
+	};
+
+
+	/** Application logger. */
+	private Logger logger;
+	/** Interleaved samples of each sound, by ordinal, null if missing. */
+	private short[][] sounds;
+	/** Sound played by each voice, -1 if the voice is free. */
+	private int[] voiceSounds;
+	/** Next sample played by each voice. */
+	private int[] voicePositions;
+	/** Order in which each voice started, to steal the oldest. */
+	private long[] voiceStarts;
+	/** Number of voices started so far. */
+	private long startedVoices;
+	/** Commands posted by the game thread, sound ordinals. */
+	private int[] commands;
+	/** Number of commands posted, only written by the game thread. */
+	private AtomicLong postedCommands;
+	/** Number of commands taken, only written by the audio thread. */
+	private AtomicLong takenCommands;
+	/** Music tracks mixed with the sounds, null without audio output. */
+	private MusicStream[] musicStreams;
+	/** Output line, null if no audio device could be opened. */
+	private SourceDataLine line;
+	/** Thread mixing the sounds. */
+	private Thread thread;
+	/** Checks if the audio thread should keep running. */
+	private volatile boolean running;
+
+	/**
+	 * Private constructor, opens the output and starts the audio thread. The
+	 * sounds are decoded by the asset loader.
+	 */
+	private SoundMixer() {
+		this.logger = Core.getLogger();
+		this.sounds = new short[SoundType.values().length][];
+		this.voiceSounds = new int[MAX_VOICES];
+		this.voicePositions = new int[MAX_VOICES];
+		this.voiceStarts = new long[MAX_VOICES];
+		Arrays.fill(this.voiceSounds, -1);
+		this.commands = new int[COMMAND_CAPACITY];
+		this.postedCommands = new AtomicLong();
+		this.takenCommands = new AtomicLong();
+
+		try {
+			this.line = AudioSystem.getSourceDataLine(FORMAT);
+			this.line.open(FORMAT, FRAMES_PER_PASS * BUFFERED_PASSES
+					* FORMAT.getFrameSize());
+			this.line.start();
+		} catch (Exception e) {
+			logger.warning("No audio output, sounds disabled: " + e);
+			this.line = null;
+			return;
+		}
+
+		this.musicStreams = new MusicStream[MUSIC_STREAMS];
+		for (int i = 0; i < MUSIC_STREAMS; i++)
+			this.musicStreams[i] = new MusicStream(FORMAT, "Music stream " + i);
+
+		this.running = true;
+		this.thread = new Thread(this, "Sound mixer");
+		this.thread.setDaemon(true);
+		this.thread.setPriority(Thread.MAX_PRIORITY);
+		this.thread.start();
+	}
+
+	/**
+	 * Holds the shared instance, created by the class loader the first time
+	 * it is asked for, so later calls read a final field without locking.
+	 */
+	private static final class Holder {
+		/** Singleton instance of the class. */
+		private static final SoundMixer INSTANCE = new SoundMixer();
+	}
+
+	/**
+	 * Returns shared instance of SoundMixer, opening the output the first
+	 * time. Called from the asset loader threads too, without blocking the
+	 * game thread once created.
+	 *
+	 * @return Shared instance of SoundMixer.
+	 */
+	protected static SoundMixer getInstance() {
+		return Holder.INSTANCE;
+	}
+
+	/**
+	 * Decodes a sound so it can be played. Called by the asset loader, before
+	 * the game thread waits for the sounds and plays any.
+	 *
+	 * @param soundType
+	 *            Sound to decode.
+	 * @throws Exception
+	 *             In case of loading problems or an unsupported format.
+	 */
+	public void loadSound(final SoundType soundType) throws Exception {
+		this.sounds[soundType.ordinal()] = Core.getFileManager().loadSound(
+				soundType.path, FORMAT);
+	}
+
+	/**
+	 * Plays a sound from the start. Only posts a command for the audio
+	 * thread, which is dropped if the queue is full. Must be called from the
+	 * game thread only.
+	 *
+	 * @param soundType
+	 *            Sound to play.
+	 */
+	public void play(final SoundType soundType) {
+		if (this.line == null)
+			return;
+
+		long posted = this.postedCommands.get();
+		if (posted - this.takenCommands.get() == COMMAND_CAPACITY)
+			return;
+		this.commands[(int) (posted & (COMMAND_CAPACITY - 1))] = soundType
+				.ordinal();
+		this.postedCommands.lazySet(posted + 1);
+	}
+
+	/**
+	 * Getter for the music tracks mixed with the sounds.
+	 *
+	 * @return Music streams, null if there is no audio output.
+	 */
+	MusicStream[] getMusicStreams() {
+		return this.musicStreams;
+	}
+
+	/**
+	 * Stops the audio thread and closes the output line.
+	 */
+	public void close() {
+		if (this.thread == null)
+			return;
+
+		for (MusicStream musicStream : this.musicStreams)
+			musicStream.close();
+		this.running = false;
+		try {
+			this.thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.thread = null;
+		this.line.close();
+	}
+
+	/**
+	 * Mixes the playing sounds until the mixer is closed. Writing to the
+	 * line blocks while its buffer is full, which paces the thread.
+	 */
+	@Override
+	public void run() {
+		int[] mix = new int[FRAMES_PER_PASS * FORMAT.getChannels()];
+		byte[] output = new byte[mix.length * 2];
+
+		while (this.running) {
+			takeCommands();
+
+			Arrays.fill(mix, 0);
+			for (int voice = 0; voice < MAX_VOICES; voice++)
+				if (this.voiceSounds[voice] >= 0)
+					mixVoice(voice, mix);
+			for (MusicStream musicStream : this.musicStreams)
+				musicStream.mixInto(mix);
+
+			for (int i = 0; i < mix.length; i++) {
+				int sample = Math.max(Short.MIN_VALUE,
+						Math.min(Short.MAX_VALUE, mix[i]));
+				output[2 * i] = (byte) sample;
+				output[2 * i + 1] = (byte) (sample >> 8);
+			}
+			this.line.write(output, 0, output.length);
+		}
+		this.line.drain();
+	}
+
+	/**
+	 * Starts a voice for every command posted since the last pass.
+	 */
+	private void takeCommands() {
+		long taken = this.takenCommands.get();
+		long posted = this.postedCommands.get();
+		while (taken < posted) {
+			startVoice(this.commands[(int) (taken & (COMMAND_CAPACITY - 1))]);
+			taken++;
+		}
+		this.takenCommands.lazySet(taken);
+	}
+
+	/**
+	 * Starts playing a sound on a free voice, or on the oldest one if all
+	 * are playing.
+	 *
+	 * @param sound
+	 *            Ordinal of the sound.
+	 */
+	private void startVoice(final int sound) {
+		if (this.sounds[sound] == null)
+			return;
+
+		int chosen = 0;
+		for (int voice = 0; voice < MAX_VOICES; voice++) {
+			if (this.voiceSounds[voice] < 0) {
+				chosen = voice;
+				break;
+			}
+			if (this.voiceStarts[voice] < this.voiceStarts[chosen])
+				chosen = voice;
+		}
+		this.voiceSounds[chosen] = sound;
+		this.voicePositions[chosen] = 0;
+		this.voiceStarts[chosen] = this.startedVoices++;
+	}
+
+	/**
+	 * Adds the next samples of a voice to the mix, freeing the voice when
+	 * its sound ends.
+	 *
+	 * @param voice
+	 *            Voice to mix.
+	 * @param mix
+	 *            Samples being mixed.
+	 */
+	private void mixVoice(final int voice, final int[] mix) {
+		short[] samples = this.sounds[this.voiceSounds[voice]];
+		int position = this.voicePositions[voice];
+		int length = Math.min(mix.length, samples.length - position);
+		for (int i = 0; i < length; i++)
+			mix[i] += samples[position + i];
+
+		if (position + length >= samples.length)
+			this.voiceSounds[voice] = -1;
+		else
+			this.voicePositions[voice] = position + length;
+	}
+}
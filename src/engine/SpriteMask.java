@@ -0,0 +1,220 @@
+package engine;
+
+/**
+ * Pixels of a sprite packed as a long per row, bit i set when the pixel in
+ * column i is drawn. A sprite takes a word per row instead of a boolean
+ * array per column, and two of them are hit tested a row at a time with a
+ * shift and an AND. Sprites up to a word tall are kept a column at a time as
+ * well, to find where a sprite moving straight up or down first meets
+ * another.
+ *
+ */
+public final class SpriteMask {
+
+	/** Widest sprite a row can hold. */
+	public static final int MAX_WIDTH = Long.SIZE;
+
+	/** Width of the sprite. */
+	private final int width;
+	/** Height of the sprite. */
+	private final int height;
+	/** Drawn pixels of each row, column i in bit i. */
+	private final long[] rows;
+	/** Drawn pixels of each column, row i in bit i, null if too tall. */
+	private final long[] columns;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param width
+	 *            Width of the sprite, up to MAX_WIDTH.
+	 * @param rows
+	 *            Drawn pixels of each row, column i in bit i. Kept, not
+	 *            copied.
+	 * @throws IllegalArgumentException
+	 *             If the sprite is wider than MAX_WIDTH.
+	 */
+	public SpriteMask(final int width, final long[] rows) {
+		if (width > MAX_WIDTH)
+			throw new IllegalArgumentException("Sprite " + width
+					+ " pixels wide, at most " + MAX_WIDTH + " fit a row.");
+		this.width = width;
+		this.height = rows.length;
+		this.rows = rows;
+		if (this.height > Long.SIZE) {
+			this.columns = null;
+		} else {
+			this.columns = new long[width];
+			for (int y = 0; y < this.height; y++)
+				for (long bits = rows[y]; bits != 0; bits &= bits - 1)
+					this.columns[Long.numberOfTrailingZeros(bits)] |= 1L << y;
+		}
+	}
+
+	/**
+	 * Getter for the width of the sprite.
+	 *
+	 * @return Width in pixels.
+	 */
+	public int getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * Getter for the height of the sprite.
+	 *
+	 * @return Height in pixels.
+	 */
+	public int getHeight() {
+		return this.height;
+	}
+
+	/**
+	 * Getter for the drawn pixels of a row.
+	 *
+	 * @param y
+	 *            Row, from the top.
+	 * @return Pixels of the row, column i in bit i.
+	 */
+	public long getRow(final int y) {
+		return this.rows[y];
+	}
+
+	/**
+	 * Checks if a pixel is drawn.
+	 *
+	 * @param x
+	 *            Column, from the left.
+	 * @param y
+	 *            Row, from the top.
+	 * @return True if the pixel is drawn.
+	 */
+	public boolean isSet(final int x, final int y) {
+		return (this.rows[y] >>> x & 1) != 0;
+	}
+
+	/**
+	 * Creates the same sprite with each pixel grown into a square, as it is
+	 * drawn on screen.
+	 *
+	 * @param factor
+	 *            Side of the square each pixel becomes.
+	 * @return Scaled sprite.
+	 * @throws IllegalArgumentException
+	 *             If the scaled sprite is wider than MAX_WIDTH.
+	 */
+	public SpriteMask scale(final int factor) {
+		long[] scaled = new long[this.height * factor];
+		for (int y = 0; y < this.height; y++) {
+			long row = 0;
+			for (long bits = this.rows[y]; bits != 0; bits &= bits - 1) {
+				int x = Long.numberOfTrailingZeros(bits);
+				row |= (-1L >>> (Long.SIZE - factor)) << (x * factor);
+			}
+			for (int i = 0; i < factor; i++)
+				scaled[y * factor + i] = row;
+		}
+		return new SpriteMask(this.width * factor, scaled);
+	}
+
+	/**
+	 * Checks if another sprite shares a drawn pixel with this one, only
+	 * looking at the rows where both overlap.
+	 *
+	 * @param other
+	 *            Other sprite.
+	 * @param offsetX
+	 *            Position of the other sprite from this one in the X axis.
+	 * @param offsetY
+	 *            Position of the other sprite from this one in the Y axis.
+	 * @return True if a pixel is drawn in both.
+	 */
+	public boolean overlaps(final SpriteMask other, final int offsetX,
+			final int offsetY) {
+		if (offsetX >= this.width || offsetX <= -other.width)
+			return false;
+		int last = Math.min(this.height, offsetY + other.height);
+		for (int y = Math.max(0, offsetY); y < last; y++) {
+			long row = other.rows[y - offsetY];
+			if (offsetX >= 0)
+				row <<= offsetX;
+			else
+				row >>>= -offsetX;
+			if ((this.rows[y] & row) != 0)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Finds how far another sprite, moving straight up or down, goes before
+	 * it shares a drawn pixel with this one. Once they do not overlap, each
+	 * run of drawn pixels in a column of the moving sprite can only first
+	 * touch this one with its leading pixel, so the distance comes from the
+	 * nearest drawn pixel ahead of each run instead of testing every step.
+	 * Sprites taller than a word are still tested a step at a time.
+	 *
+	 * @param other
+	 *            Moving sprite.
+	 * @param offsetX
+	 *            Position of the other sprite from this one in the X axis.
+	 * @param offsetY
+	 *            Position of the other sprite from this one in the Y axis,
+	 *            before moving.
+	 * @param direction
+	 *            1 if the other sprite moves down, -1 if it moves up.
+	 * @param from
+	 *            Distance it starts looking at, in pixels.
+	 * @param to
+	 *            Distance it stops looking at, in pixels.
+	 * @return Distance at which a pixel is first drawn in both, or -1 if
+	 *         none up to the last one.
+	 */
+	public int findOverlap(final SpriteMask other, final int offsetX,
+			final int offsetY, final int direction, final int from,
+			final int to) {
+		int startY = offsetY + from * direction;
+		if (overlaps(other, offsetX, startY))
+			return from;
+		if (this.columns == null || other.columns == null) {
+			int distance = from + 1;
+			while (distance <= to && !overlaps(other, offsetX,
+					offsetY + distance * direction))
+				distance++;
+			return distance <= to ? distance : -1;
+		}
+
+		int nearest = to + 1;
+		int last = Math.min(other.width, this.width - offsetX);
+		for (int x = Math.max(0, -offsetX); x < last; x++) {
+			long column = this.columns[x + offsetX];
+			long moving = other.columns[x];
+			while (moving != 0) {
+				int top = Long.numberOfTrailingZeros(moving);
+				int end = Long.numberOfTrailingZeros(
+						~(moving | (1L << top) - 1));
+				moving = end == Long.SIZE ? 0 : moving & -1L << end;
+				// Rows of this sprite ahead of the run, the nearest first.
+				long ahead;
+				int distance;
+				if (direction < 0) {
+					int row = top + startY;
+					if (row <= 0)
+						continue;
+					ahead = row >= Long.SIZE ? column : column & -1L >>> -row;
+					distance = row - (Long.SIZE - 1
+							- Long.numberOfLeadingZeros(ahead));
+				} else {
+					int row = end + startY;
+					if (row >= Long.SIZE)
+						continue;
+					ahead = row <= 0 ? column : column & -1L << row;
+					distance = Long.numberOfTrailingZeros(ahead) - row + 1;
+				}
+				if (ahead != 0 && from + distance < nearest)
+					nearest = from + distance;
+			}
+		}
+		return nearest <= to ? nearest : -1;
+	}
+}
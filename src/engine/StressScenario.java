@@ -0,0 +1,251 @@
+package engine;
+
+import java.awt.event.KeyEvent;
+import java.util.Random;
+
+import entity.BulletSystem;
+import screen.GameScreen;
+
+/**
+ * Levels far beyond the ones of the game, to measure how the update,
+ * collision and render code scale. Each scenario plays a real game screen,
+ * sized to fit its formation, driven by a bot and kept topped up with enemy
+ * bullets raining over the whole screen and, for a share of them, player
+ * bullets rising through the formation.
+ *
+ */
+public enum StressScenario {
+
+	/** Largest formation of the game, as a reference. */
+	BASELINE(8, 7, 0, 0),
+	/** Wide formation under a steady rain of bullets, and a few rising. */
+	WIDE(30, 10, 1000, 2),
+	/** Four thousand ships. */
+	MEGA_FORMATION(100, 40, 0, 0),
+	/** Five thousand bullets over the largest formation of the game. */
+	BULLET_STORM(8, 7, 5000, 0),
+	/** Four thousand ships and five thousand bullets, some of them rising. */
+	MEGA_STORM(100, 40, 5000, 5);
+
+	/** Distance between the ships of the formation, as in the game. */
+	private static final int SHIP_SPACING = 40;
+	/** Room left around the formation to move side to side. */
+	private static final int MARGIN_X = 200;
+	/** Room above and below the formation, for the HUD and the player. */
+	private static final int MARGIN_Y = 320;
+	/** Minimum screen width, the one of the game. */
+	private static final int MIN_WIDTH = 448;
+	/** Minimum screen height, the one of the game. */
+	private static final int MIN_HEIGHT = 520;
+	/** Level played, the last one before the boss. */
+	private static final int LEVEL = 7;
+	/** Lives, enough to never lose under the bullets. */
+	private static final int LIVES = 1000000;
+	/** Speed of the formation, the one of level 7. */
+	private static final int BASE_SPEED = 2;
+	/** Frequency of enemy shootings, the one of level 7. */
+	private static final int SHOOTING_FRECUENCY = 500;
+	/** Bullets on screen besides the storm, shot by the game itself. */
+	private static final int SPARE_BULLETS = BulletSystem.DEFAULT_CAPACITY;
+	/** Top of the screen below the HUD. */
+	private static final int TOP = 40;
+	/** Slowest bullet of the storm. */
+	private static final int MIN_BULLET_SPEED = 2;
+	/** Fastest bullet of the storm. */
+	private static final int MAX_BULLET_SPEED = 6;
+	/** Rows at the bottom of the screen where player bullets start. */
+	private static final int PLAYER_BULLET_ROOM = MARGIN_Y / 2;
+	/** Length of a tick, at 60 ticks per second. */
+	private static final long TICK_NANOS = 1000000000L / 60;
+	/** Ticks the bot keeps moving in the same direction. */
+	private static final int SWEEP_TICKS = 90;
+	/** Seed of the game and the storm, the same on every run. */
+	private static final long SEED = 42;
+
+	/** Columns of the formation. */
+	private final int columns;
+	/** Rows of the formation. */
+	private final int rows;
+	/** Bullets kept on screen. */
+	private final int bullets;
+	/** Percentage of the bullets spawned shot by the player. */
+	private final int playerShare;
+
+	/**
+	 * Bot that keeps shooting while sweeping from side to side.
+	 */
+	private static final class SweepingBot implements InputScript {
+
+		@Override
+		public void apply(final long tick, final InputManager inputManager) {
+			boolean right = (tick / SWEEP_TICKS) % 2 == 0;
+
+			inputManager.setKeyDown(KeyEvent.VK_SPACE, true);
+			inputManager.setKeyDown(KeyEvent.VK_RIGHT, right);
+			inputManager.setKeyDown(KeyEvent.VK_LEFT, !right);
+		}
+	}
+
+	/**
+	 * A scenario being played.
+	 */
+	public static final class Run {
+
+		/** Scenario played. */
+		private final StressScenario scenario;
+		/** Screen played. */
+		private final GameScreen screen;
+		/** Clock of the game, a tick ahead on each update. */
+		private final VirtualClock clock;
+		/** Positions and speeds of the storm. */
+		private final Random random;
+
+		/**
+		 * Constructor, creates and initializes the screen.
+		 *
+		 * @param scenario
+		 *            Scenario played.
+		 */
+		private Run(final StressScenario scenario) {
+			this.scenario = scenario;
+			this.random = new Random(SEED);
+			Core.seedRandoms(SEED);
+			this.clock = Core.startHeadless();
+			Core.getInputManager().setScript(new SweepingBot());
+
+			GameSettings gameSettings = new GameSettings(scenario.columns,
+					scenario.rows, BASE_SPEED, SHOOTING_FRECUENCY, 1);
+			gameSettings.setBulletCapacity(scenario.bullets + SPARE_BULLETS);
+			this.screen = new GameScreen(new GameState(LEVEL, 0, LIVES, 0, 0,
+					false), gameSettings, false, scenario.getWidth(),
+					scenario.getHeight(), 60);
+			this.screen.initialize();
+		}
+
+		/**
+		 * Tops the storm up and plays a tick of the game. Player bullets
+		 * start below the formation and move up, enemy ones start anywhere
+		 * and move down.
+		 */
+		public void tick() {
+			BulletSystem bullets = this.screen.getBullets();
+			int height = this.screen.getHeight() - TOP;
+			while (bullets.size() < this.scenario.bullets) {
+				int speed = MIN_BULLET_SPEED + this.random.nextInt(
+						MAX_BULLET_SPEED - MIN_BULLET_SPEED + 1);
+				if (this.random.nextInt(100) < this.scenario.playerShare)
+					bullets.spawn(this.random.nextInt(this.screen.getWidth()),
+							this.screen.getHeight() - 1
+									- this.random.nextInt(PLAYER_BULLET_ROOM),
+							-speed, BulletSystem.OWNER_PLAYER);
+				else
+					bullets.spawn(this.random.nextInt(this.screen.getWidth()),
+							TOP + this.random.nextInt(height), speed,
+							BulletSystem.OWNER_ENEMY);
+			}
+			this.clock.advance(TICK_NANOS);
+			this.screen.tick();
+		}
+
+		/**
+		 * Draws a frame of the game into the offscreen buffer.
+		 */
+		public void draw() {
+			this.screen.drawFrame(0f);
+		}
+
+		/**
+		 * Getter for the screen played.
+		 *
+		 * @return Screen played.
+		 */
+		public GameScreen getScreen() {
+			return this.screen;
+		}
+
+		/**
+		 * Stops driving the input with the bot and gives the ships of the
+		 * screen back to their pools.
+		 */
+		public void stop() {
+			Core.getInputManager().setScript(null);
+			this.screen.releaseShips();
+		}
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param columns
+	 *            Columns of the formation.
+	 * @param rows
+	 *            Rows of the formation.
+	 * @param bullets
+	 *            Bullets kept on screen.
+	 * @param playerShare
+	 *            Percentage of the bullets spawned shot by the player.
+	 */
+	StressScenario(final int columns, final int rows, final int bullets,
+			final int playerShare) {
+		this.columns = columns;
+		this.rows = rows;
+		this.bullets = bullets;
+		this.playerShare = playerShare;
+	}
+
+	/**
+	 * Starts playing the scenario. Only one can be played at a time, as they
+	 * share the input and the clock of the game.
+	 *
+	 * @return Scenario being played.
+	 */
+	public Run start() {
+		return new Run(this);
+	}
+
+	/**
+	 * Getter for the number of ships of the formation.
+	 *
+	 * @return Ships of the formation.
+	 */
+	public int getShips() {
+		return this.columns * this.rows;
+	}
+
+	/**
+	 * Getter for the number of bullets kept on screen.
+	 *
+	 * @return Bullets kept on screen.
+	 */
+	public int getBullets() {
+		return this.bullets;
+	}
+
+	/**
+	 * Getter for the percentage of the bullets spawned shot by the player.
+	 *
+	 * @return Percentage of player bullets.
+	 */
+	public int getPlayerShare() {
+		return this.playerShare;
+	}
+
+	/**
+	 * Getter for the width of the screen, enough for the formation to move.
+	 *
+	 * @return Screen width.
+	 */
+	public int getWidth() {
+		return Math.max(MIN_WIDTH, this.columns * SHIP_SPACING + MARGIN_X);
+	}
+
+	/**
+	 * Getter for the height of the screen, enough for the formation, the HUD
+	 * and the player.
+	 *
+	 * @return Screen height.
+	 */
+	public int getHeight() {
+		return Math.max(MIN_HEIGHT, this.rows * SHIP_SPACING + MARGIN_Y);
+	}
+}
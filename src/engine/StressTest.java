@@ -0,0 +1,117 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Plays the stress scenarios headless and reports, for each one, the ticks
+ * per second and the percentiles of the time to update and draw a frame.
+ *
+ */
+public final class StressTest {
+
+	/** Default number of ticks measured per scenario, a minute of play. */
+	private static final int DEFAULT_TICKS = 3600;
+	/** Ticks played before measuring, past the countdown of the level. */
+	private static final int WARMUP_TICKS = 420;
+
+	/**
+	 * Constructor, not called.
+	 */
+	private StressTest() {
+
+	}
+
+	/**
+	 * Runs the scenarios.
+	 *
+	 * @param args
+	 *            Number of ticks and names of the scenarios, all of them if
+	 *            none, both optional.
+	 */
+	public static void main(final String[] args) {
+		System.setProperty("java.awt.headless", "true");
+		int ticks = DEFAULT_TICKS;
+		List<StressScenario> scenarios = new ArrayList<StressScenario>();
+		for (String arg : args) {
+			if (arg.matches("\\d+"))
+				ticks = Integer.parseInt(arg);
+			else
+				scenarios.add(StressScenario.valueOf(arg.toUpperCase()));
+		}
+		if (scenarios.isEmpty())
+			scenarios.addAll(Arrays.asList(StressScenario.values()));
+
+		Core.getLogger().setLevel(Level.WARNING);
+		for (StressScenario scenario : scenarios)
+			play(scenario, ticks);
+	}
+
+	/**
+	 * Plays a scenario and prints its measures.
+	 *
+	 * @param scenario
+	 *            Scenario played.
+	 * @param ticks
+	 *            Number of ticks measured.
+	 */
+	private static void play(final StressScenario scenario, final int ticks) {
+		long[] updateNanos = new long[ticks];
+		long[] frameNanos = new long[ticks];
+		StressScenario.Run run = scenario.start();
+		long startTime = 0;
+		try {
+			for (int tick = -WARMUP_TICKS; tick < ticks; tick++) {
+				if (tick == 0)
+					startTime = System.nanoTime();
+				long start = System.nanoTime();
+				run.tick();
+				long updated = System.nanoTime();
+				run.draw();
+				if (tick >= 0) {
+					updateNanos[tick] = updated - start;
+					frameNanos[tick] = System.nanoTime() - start;
+				}
+			}
+		} finally {
+			run.stop();
+		}
+
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+		System.out.println(String.format(
+				"%s: %d ships, %d bullets (%d%% player), %dx%d, %d ticks, "
+						+ "%.0f ticks per second", scenario, scenario.getShips(),
+				scenario.getBullets(), scenario.getPlayerShare(),
+				scenario.getWidth(),
+				scenario.getHeight(), ticks, ticks / seconds));
+		System.out.println(String.format(
+				"  update p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+				percentile(updateNanos, 0.5) / 1e6,
+				percentile(updateNanos, 0.99) / 1e6,
+				percentile(updateNanos, 1) / 1e6));
+		System.out.println(String.format(
+				"  frame  p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+				percentile(frameNanos, 0.5) / 1e6,
+				percentile(frameNanos, 0.99) / 1e6,
+				percentile(frameNanos, 1) / 1e6));
+	}
+
+	/**
+	 * Nearest-rank percentile of a set of samples.
+	 *
+	 * @param samples
+	 *            Samples, not modified.
+	 * @param percentile
+	 *            Percentile, between 0 and 1.
+	 * @return Sample at the percentile.
+	 */
+	private static long percentile(final long[] samples,
+			final double percentile) {
+		long[] sorted = samples.clone();
+		Arrays.sort(sorted);
+		int rank = (int) Math.ceil(percentile * sorted.length) - 1;
+		return sorted[Math.max(0, rank)];
+	}
+}
@@ -0,0 +1,483 @@
+package engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs timers on the simulation ticks of a screen. Timers are kept in a
+ * hierarchical wheel: the next WHEEL_SLOTS ticks have a slot each, the ticks
+ * after them a slot every WHEEL_SLOTS ticks, moved down as their turn comes,
+ * and anything further in a list checked once per turn of the outer wheel.
+ * Scheduling, cancelling and firing a timer take constant time, however many
+ * are pending, and the clock is read once per tick by the screen. Countdowns
+ * and timelines keep their durations in milliseconds and convert them at the
+ * tick rate of the moment they are scheduled, so changing the rate keeps
+ * their real durations.
+ *
+ */
+public final class TimerWheel {
+
+	/** Bits of the slots of the inner wheel. */
+	private static final int INNER_BITS = 8;
+	/** Slots of the inner wheel, one per tick. */
+	private static final int WHEEL_SLOTS = 1 << INNER_BITS;
+	/** Bits of the slots of the outer wheel. */
+	private static final int OUTER_BITS = 6;
+	/** Slots of the outer wheel, one per turn of the inner one. */
+	private static final int OUTER_SLOTS = 1 << OUTER_BITS;
+	/** Ticks covered by both wheels, further timers wait in a list. */
+	private static final long SPAN = (long) WHEEL_SLOTS * OUTER_SLOTS;
+
+	/**
+	 * Timer fired once, at a given tick.
+	 */
+	public static final class Timer {
+
+		/** Tick the timer fires at. */
+		private long expiry;
+		/** Action run when the timer fires. */
+		private Runnable callback;
+		/** Previous timer of the slot. */
+		private Timer previous;
+		/** Next timer of the slot. */
+		private Timer next;
+		/** Slot holding the timer, null if not pending. */
+		private Timer[] slots;
+		/** Index of the slot, in slots. */
+		private int slot;
+
+		/**
+		 * Constructor, sets the action of the timer.
+		 *
+		 * @param callback
+		 *            Action run when the timer fires.
+		 */
+		private Timer(final Runnable callback) {
+			this.callback = callback;
+		}
+
+		/**
+		 * Checks if the timer is waiting to fire.
+		 *
+		 * @return True if scheduled and neither fired nor cancelled.
+		 */
+		public boolean isPending() {
+			return this.slots != null;
+		}
+	}
+
+	/**
+	 * Animation phase shared by everything animated with the same period.
+	 * The phase counts the periods elapsed, flipped by one timer for all of
+	 * them.
+	 */
+	public final class Timeline implements Runnable {
+
+		/** Time between phase changes, in milliseconds. */
+		private final int period;
+		/** Periods elapsed. */
+		private int phase;
+		/** Timer of the next phase change. */
+		private Timer timer;
+
+		/**
+		 * Constructor, starts the timeline at the current tick.
+		 *
+		 * @param period
+		 *            Time between phase changes, in milliseconds.
+		 */
+		private Timeline(final int period) {
+			this.period = period;
+			this.timer = new Timer(this);
+			restart();
+		}
+
+		/**
+		 * Getter for the phase.
+		 *
+		 * @return Periods elapsed since the wheel's first tick.
+		 */
+		public int getPhase() {
+			return this.phase;
+		}
+
+		/**
+		 * Moves to the next phase and waits for the one after.
+		 */
+		@Override
+		public void run() {
+			this.phase++;
+			schedule(this.timer, toTicks(this.period));
+		}
+
+		/**
+		 * Sets the phase from the current tick and schedules the next
+		 * change.
+		 */
+		private void restart() {
+			cancel(this.timer);
+			int ticks = toTicks(this.period);
+			this.phase = (int) (tick / ticks);
+			schedule(this.timer, ticks - tick % ticks);
+		}
+	}
+
+	/**
+	 * Cooldown run on the ticks: finished once its timer fires, restarted by
+	 * scheduling it again. With a variance, each run lasts a random time,
+	 * drawn as Cooldown draws it.
+	 */
+	public final class Countdown implements Runnable {
+
+		/** Duration, in milliseconds. */
+		private final int milliseconds;
+		/** Maximum difference between durations, in milliseconds. */
+		private final int variance;
+		/** Random generator the durations are drawn from, null without variance. */
+		private final GameRandom random;
+		/** Duration of this run in milliseconds, varies if variance > 0. */
+		private int duration;
+		/** Timer firing when the countdown finishes. */
+		private final Timer timer;
+
+		/**
+		 * Constructor, the countdown starts finished.
+		 *
+		 * @param milliseconds
+		 *            Duration, in milliseconds.
+		 * @param variance
+		 *            Maximum difference between durations, in milliseconds.
+		 * @param random
+		 *            Random generator the durations are drawn from.
+		 */
+		private Countdown(final int milliseconds, final int variance,
+				final GameRandom random) {
+			this.milliseconds = milliseconds;
+			this.variance = variance;
+			this.random = random;
+			this.duration = milliseconds;
+			this.timer = new Timer(this);
+		}
+
+		/**
+		 * Checks if the countdown is finished.
+		 *
+		 * @return True if never started or its timer already fired.
+		 */
+		public boolean checkFinished() {
+			return !this.timer.isPending();
+		}
+
+		/**
+		 * Restarts the countdown.
+		 */
+		public void reset() {
+			if (this.variance != 0)
+				this.duration = (this.milliseconds - this.variance)
+						+ (int) (this.random.nextDouble()
+								* (this.milliseconds + this.variance));
+			schedule(this.timer, toTicks(this.duration));
+		}
+
+		/**
+		 * Nothing to run, the countdown is finished once its timer fired.
+		 */
+		@Override
+		public void run() {
+		}
+
+		/**
+		 * Writes the state of the countdown: the ticks it has left and the
+		 * duration of this run.
+		 *
+		 * @param output
+		 *            Output to write to.
+		 * @throws IOException
+		 *             In case of writing problems.
+		 */
+		public void writeState(final DataOutput output) throws IOException {
+			output.writeLong(this.timer.isPending()
+					? this.timer.expiry - tick : 0);
+			output.writeInt(this.duration);
+		}
+
+		/**
+		 * Restores a state written by writeState(), once the wheel is at
+		 * the tick it was written at.
+		 *
+		 * @param input
+		 *            Input to read from.
+		 * @throws IOException
+		 *             In case of reading problems.
+		 */
+		public void readState(final DataInput input) throws IOException {
+			long remaining = input.readLong();
+			this.duration = input.readInt();
+			cancel(this.timer);
+			if (remaining > 0)
+				schedule(this.timer, remaining);
+		}
+	}
+
+	/** Timers of the next ticks, one slot each. */
+	private Timer[] inner;
+	/** Timers of the following turns of the inner wheel. */
+	private Timer[] outer;
+	/** Timers further than both wheels, in a single slot. */
+	private Timer[] overflow;
+	/** Timelines, by period in milliseconds. */
+	private Map<Integer, Timeline> timelines;
+	/** Ticks run. */
+	private long tick;
+	/** Ticks per second, to convert durations. */
+	private int tickRate;
+
+	/**
+	 * Constructor, the wheel starts at tick 0 with no timers.
+	 *
+	 * @param tickRate
+	 *            Ticks per second.
+	 */
+	public TimerWheel(final int tickRate) {
+		this.inner = new Timer[WHEEL_SLOTS];
+		this.outer = new Timer[OUTER_SLOTS];
+		this.overflow = new Timer[1];
+		this.timelines = new HashMap<Integer, Timeline>();
+		this.tick = 0;
+		this.tickRate = tickRate;
+	}
+
+	/**
+	 * Changes the ticks per second. Countdowns running keep the ticks they
+	 * were given, the following runs take the new rate; timelines take it
+	 * right away, with the phase of the current tick.
+	 *
+	 * @param newTickRate
+	 *            Ticks per second.
+	 */
+	public void setTickRate(final int newTickRate) {
+		this.tickRate = newTickRate;
+		for (Timeline timeline : this.timelines.values())
+			timeline.restart();
+	}
+
+	/**
+	 * Getter for the ticks run.
+	 *
+	 * @return Current tick.
+	 */
+	public long getTick() {
+		return this.tick;
+	}
+
+	/**
+	 * Schedules an action.
+	 *
+	 * @param delay
+	 *            Ticks until the action runs, at least 1.
+	 * @param callback
+	 *            Action to run.
+	 * @return Timer of the action, to cancel it.
+	 */
+	public Timer schedule(final long delay, final Runnable callback) {
+		Timer timer = new Timer(callback);
+		schedule(timer, delay);
+		return timer;
+	}
+
+	/**
+	 * Cancels a timer, if still pending.
+	 *
+	 * @param timer
+	 *            Timer to cancel.
+	 */
+	public void cancel(final Timer timer) {
+		if (timer.slots == null)
+			return;
+		if (timer.previous != null)
+			timer.previous.next = timer.next;
+		else
+			timer.slots[timer.slot] = timer.next;
+		if (timer.next != null)
+			timer.next.previous = timer.previous;
+		timer.previous = null;
+		timer.next = null;
+		timer.slots = null;
+	}
+
+	/**
+	 * Creates a countdown, finished until first reset.
+	 *
+	 * @param milliseconds
+	 *            Duration, in milliseconds.
+	 * @param variance
+	 *            Maximum difference between durations, in milliseconds, 0
+	 *            for a fixed duration.
+	 * @param random
+	 *            Random generator the durations are drawn from, unused
+	 *            without variance.
+	 * @return New countdown.
+	 */
+	public Countdown createCountdown(final int milliseconds,
+			final int variance, final GameRandom random) {
+		return new Countdown(milliseconds, variance, random);
+	}
+
+	/**
+	 * Getter for the timeline of a period, shared by every caller asking
+	 * for the same one.
+	 *
+	 * @param period
+	 *            Time between phase changes, in milliseconds.
+	 * @return Timeline of the period.
+	 */
+	public Timeline getTimeline(final int period) {
+		Timeline timeline = this.timelines.get(period);
+		if (timeline == null) {
+			timeline = new Timeline(period);
+			this.timelines.put(period, timeline);
+		}
+		return timeline;
+	}
+
+	/**
+	 * Converts a time to ticks at the current rate, at least one.
+	 *
+	 * @param milliseconds
+	 *            Time to convert.
+	 * @return Ticks in that time.
+	 */
+	private int toTicks(final int milliseconds) {
+		return Math.max(1, milliseconds * this.tickRate / 1000);
+	}
+
+	/**
+	 * Runs a tick: moves the timers due soon to the inner wheel and fires
+	 * the ones of this tick.
+	 */
+	public void advance() {
+		this.tick++;
+		int innerSlot = (int) (this.tick & (WHEEL_SLOTS - 1));
+		if (innerSlot == 0) {
+			long turn = this.tick >>> INNER_BITS;
+			if ((turn & (OUTER_SLOTS - 1)) == 0)
+				cascade(this.overflow, 0);
+			cascade(this.outer, (int) (turn & (OUTER_SLOTS - 1)));
+		}
+
+		// Taken from the head each time, callbacks may cancel the others.
+		Timer timer;
+		while ((timer = this.inner[innerSlot]) != null) {
+			cancel(timer);
+			timer.callback.run();
+		}
+	}
+
+	/**
+	 * Moves the wheel to a tick, to restore a saved state. Timelines take
+	 * the phase of that tick; other timers are dropped, their owners
+	 * schedule them again.
+	 *
+	 * @param newTick
+	 *            Tick to move to.
+	 */
+	public void setTick(final long newTick) {
+		clear(this.inner);
+		clear(this.outer);
+		clear(this.overflow);
+		this.tick = newTick;
+		for (Timeline timeline : this.timelines.values())
+			timeline.restart();
+	}
+
+	/**
+	 * Puts a timer in the slot of its expiry.
+	 *
+	 * @param timer
+	 *            Timer to schedule, not pending.
+	 * @param delay
+	 *            Ticks until it fires, at least 1.
+	 */
+	private void schedule(final Timer timer, final long delay) {
+		cancel(timer);
+		timer.expiry = this.tick + Math.max(1, delay);
+		place(timer);
+	}
+
+	/**
+	 * Links a timer in the slot of its expiry, from the current tick.
+	 *
+	 * @param timer
+	 *            Timer to place, not pending.
+	 */
+	private void place(final Timer timer) {
+		long delay = timer.expiry - this.tick;
+		// Same turn of the inner wheel, or due before the next cascade.
+		if ((timer.expiry >>> INNER_BITS) == (this.tick >>> INNER_BITS))
+			link(timer, this.inner,
+					(int) (timer.expiry & (WHEEL_SLOTS - 1)));
+		else if (delay < SPAN && (timer.expiry >>> (INNER_BITS + OUTER_BITS))
+				== (this.tick >>> (INNER_BITS + OUTER_BITS)))
+			link(timer, this.outer, (int) ((timer.expiry >>> INNER_BITS)
+					& (OUTER_SLOTS - 1)));
+		else
+			link(timer, this.overflow, 0);
+	}
+
+	/**
+	 * Places again the timers of a slot, once their time gets closer.
+	 *
+	 * @param slots
+	 *            Wheel of the slot.
+	 * @param slot
+	 *            Index of the slot.
+	 */
+	private void cascade(final Timer[] slots, final int slot) {
+		Timer timer = slots[slot];
+		slots[slot] = null;
+		while (timer != null) {
+			Timer next = timer.next;
+			timer.previous = null;
+			timer.next = null;
+			timer.slots = null;
+			place(timer);
+			timer = next;
+		}
+	}
+
+	/**
+	 * Adds a timer at the head of a slot.
+	 *
+	 * @param timer
+	 *            Timer to add.
+	 * @param slots
+	 *            Wheel of the slot.
+	 * @param slot
+	 *            Index of the slot.
+	 */
+	private static void link(final Timer timer, final Timer[] slots,
+			final int slot) {
+		timer.slots = slots;
+		timer.slot = slot;
+		timer.previous = null;
+		timer.next = slots[slot];
+		if (timer.next != null)
+			timer.next.previous = timer;
+		slots[slot] = timer;
+	}
+
+	/**
+	 * Drops every timer of a wheel.
+	 *
+	 * @param slots
+	 *            Wheel to clear.
+	 */
+	private void clear(final Timer[] slots) {
+		for (int i = 0; i < slots.length; i++)
+			while (slots[i] != null)
+				cancel(slots[i]);
+	}
+}
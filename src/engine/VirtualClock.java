@@ -0,0 +1,66 @@
+package engine;
+
+/**
+ * Implements a clock that only moves when told to, so the game can be
+ * simulated faster than real time.
+ * 
+ */
+public final class VirtualClock implements Clock {
+
+	/**
+	 * Starting time, in milliseconds. Not zero, so a cooldown reset right
+	 * away is not mistaken for one that was never reset.
+	 */
+	private static final long START_TIME = 1000;
+	/** Nanoseconds in a millisecond. */
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	/** Nanoseconds elapsed since the clock was created. */
+	private long elapsedNanos;
+
+	/**
+	 * Constructor, the clock starts stopped at its starting time.
+	 */
+	public VirtualClock() {
+		this.elapsedNanos = 0;
+	}
+
+	/**
+	 * Returns the current virtual time.
+	 * 
+	 * @return Current time, in milliseconds.
+	 */
+	@Override
+	public long currentTimeMillis() {
+		return START_TIME + this.elapsedNanos / NANOS_PER_MILLI;
+	}
+
+	/**
+	 * Moves the clock forward.
+	 * 
+	 * @param nanos
+	 *            Nanoseconds to advance.
+	 */
+	public void advance(final long nanos) {
+		this.elapsedNanos += nanos;
+	}
+
+	/**
+	 * Getter for the time elapsed.
+	 * 
+	 * @return Nanoseconds elapsed since the clock was created.
+	 */
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+
+	/**
+	 * Moves the clock to a time returned by getElapsedNanos().
+	 * 
+	 * @param nanos
+	 *            Nanoseconds elapsed since the clock was created.
+	 */
+	public void setElapsedNanos(final long nanos) {
+		this.elapsedNanos = nanos;
+	}
+}
@@ -0,0 +1,421 @@
+package entity;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import engine.Core;
+import engine.DrawManager;
+import engine.DrawManager.SpriteType;
+import engine.SpriteMask;
+
+/**
+ * Stores every bullet on screen in parallel arrays instead of one object per
+ * bullet. Bullets are kept packed at the start of the arrays, removing one
+ * moves the last bullet into its place, so iterating, moving and drawing
+ * them walks contiguous memory and allocates nothing.
+ */
+public final class BulletSystem {
+
+	/** Default maximum number of bullets alive at once. */
+	public static final int DEFAULT_CAPACITY = 1024;
+	/** Width of every bullet. */
+	public static final int WIDTH = 3 * 2;
+	/** Height of every bullet. */
+	public static final int HEIGHT = 5 * 2;
+	/** Owner of the bullets shot by the enemy ships. */
+	public static final byte OWNER_ENEMY = 0;
+	/** Owner of the bullets shot by the player ships. */
+	public static final byte OWNER_PLAYER = 1;
+	/** Time of impact of a bullet not reaching an entity during a tick. */
+	public static final float NO_IMPACT = Float.POSITIVE_INFINITY;
+
+	/**
+	 * Checks bullets against the ships of a screen during update().
+	 */
+	public interface CollisionHandler {
+		/**
+		 * Applies the hits of a bullet along the move it is about to make.
+		 *
+		 * @param bullets
+		 *            Bullets being updated.
+		 * @param index
+		 *            Index of the bullet checked.
+		 * @return True if the bullet hit something and has to be removed.
+		 */
+		boolean collide(BulletSystem bullets, int index);
+	}
+
+	/** Sprites by ordinal, to avoid copying the array on every lookup. */
+	private static final SpriteType[] SPRITE_TYPES = SpriteType.values();
+
+	/** Position in the x-axis of the upper left corner of each bullet. */
+	private final int[] positionsX;
+	/** Position in the y-axis of the upper left corner of each bullet. */
+	private final int[] positionsY;
+	/** Position in the y-axis of each bullet at the start of the tick. */
+	private final int[] previousPositionsY;
+	/** Speed of each bullet, positive is down. */
+	private final int[] speeds;
+	/** Ship that shot each bullet. */
+	private final byte[] owners;
+	/** Ordinal of the sprite each bullet is drawn as. */
+	private final byte[] sprites;
+	/** Number of bullets alive, stored in the first positions. */
+	private int size;
+	/** Hit masks by sprite ordinal, null until the sprites are loaded. */
+	private SpriteMask[] hitMasks;
+
+	/**
+	 * Constructor, preallocates room for the default number of bullets.
+	 */
+	public BulletSystem() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor, preallocates room for a given number of bullets.
+	 *
+	 * @param capacity
+	 *            Maximum number of bullets alive at once.
+	 */
+	public BulletSystem(final int capacity) {
+		this.positionsX = new int[capacity];
+		this.positionsY = new int[capacity];
+		this.previousPositionsY = new int[capacity];
+		this.speeds = new int[capacity];
+		this.owners = new byte[capacity];
+		this.sprites = new byte[capacity];
+		this.size = 0;
+		// Game screens wait for the sprites before creating their bullets.
+		getHitMasks();
+	}
+
+	/**
+	 * Adds a bullet centered on a position. The bullet is dropped if the
+	 * system is full.
+	 *
+	 * @param positionX
+	 *            Center of the bullet in the X axis.
+	 * @param positionY
+	 *            Initial position of the bullet in the Y axis.
+	 * @param speed
+	 *            Speed of the bullet, positive or negative depending on
+	 *            direction - positive is down.
+	 * @param owner
+	 *            Ship that shot the bullet, OWNER_ENEMY or OWNER_PLAYER.
+	 * @return True if the bullet was added.
+	 */
+	public boolean spawn(final int positionX, final int positionY,
+			final int speed, final byte owner) {
+		if (this.size == this.positionsX.length)
+			return false;
+
+		int index = this.size++;
+		this.positionsX[index] = positionX - WIDTH / 2;
+		this.positionsY[index] = positionY;
+		this.previousPositionsY[index] = positionY;
+		this.speeds[index] = speed;
+		this.owners[index] = owner;
+		if (speed < 0)
+			this.sprites[index] = (byte) SpriteType.Bullet.ordinal();
+		else
+			this.sprites[index] = (byte) SpriteType.EnemyBullet.ordinal();
+		return true;
+	}
+
+	/**
+	 * Removes a bullet, moving the last one into its index. When iterating,
+	 * the same index has to be checked again afterwards.
+	 *
+	 * @param index
+	 *            Index of the bullet to remove.
+	 */
+	public void remove(final int index) {
+		int last = --this.size;
+		this.positionsX[index] = this.positionsX[last];
+		this.positionsY[index] = this.positionsY[last];
+		this.previousPositionsY[index] = this.previousPositionsY[last];
+		this.speeds[index] = this.speeds[last];
+		this.owners[index] = this.owners[last];
+		this.sprites[index] = this.sprites[last];
+	}
+
+	/**
+	 * Removes every bullet.
+	 */
+	public void clear() {
+		this.size = 0;
+	}
+
+	/**
+	 * Runs every bullet through a tick in a single pass: checks it for hits
+	 * along the move it is about to make, moves it, and removes it in place
+	 * if it hit something or left a vertical range. Nothing is allocated.
+	 *
+	 * @param top
+	 *            Smallest position in the Y axis kept.
+	 * @param bottom
+	 *            Largest position in the Y axis kept.
+	 * @param handler
+	 *            Checks each bullet against the ships.
+	 */
+	public void update(final int top, final int bottom,
+			final CollisionHandler handler) {
+		int i = 0;
+		while (i < this.size) {
+			if (handler.collide(this, i)) {
+				remove(i);
+				continue;
+			}
+			int positionY = this.positionsY[i] + this.speeds[i];
+			if (positionY < top || positionY > bottom) {
+				remove(i);
+			} else {
+				this.positionsY[i] = positionY;
+				i++;
+			}
+		}
+	}
+
+	/**
+	 * Remembers the current positions as the start of a new tick, used to
+	 * interpolate the bullets when drawing between ticks.
+	 */
+	public void storePreviousPositions() {
+		System.arraycopy(this.positionsY, 0, this.previousPositionsY, 0,
+				this.size);
+	}
+
+	/**
+	 * Checks if a bullet reaches an entity during the move it makes this
+	 * tick, sweeping its box from where it stands to where its speed takes
+	 * it, so bullets faster than the entity is tall cannot tunnel through.
+	 * Once the boxes meet, the drawn pixels of both sprites are compared
+	 * along the rest of the move, so bullets passing through the gaps of a
+	 * sprite miss it. The entity is taken as still, as ships move a few
+	 * pixels at most.
+	 *
+	 * @param index
+	 *            Index of the bullet.
+	 * @param entity
+	 *            Entity to check, usually a ship.
+	 * @return Fraction of the move, from 0 to 1, done when the bullet first
+	 *         touches the entity, or NO_IMPACT.
+	 */
+	public float sweepCollision(final int index, final Entity entity) {
+		// Calculate center point of both in both axis, and the maximum
+		// distance without collision. The bullet only moves in the Y axis.
+		int centerAX = this.positionsX[index] + WIDTH / 2;
+		int centerAY = this.positionsY[index] + HEIGHT / 2;
+		int centerBX = entity.getPositionX() + entity.getWidth() / 2;
+		int centerBY = entity.getPositionY() + entity.getHeight() / 2;
+		int maxDistanceX = WIDTH / 2 + entity.getWidth() / 2;
+		int maxDistanceY = HEIGHT / 2 + entity.getHeight() / 2;
+		if (Math.abs(centerAX - centerBX) >= maxDistanceX)
+			return NO_IMPACT;
+
+		int distanceY = centerAY - centerBY;
+		int speed = this.speeds[index];
+		int travel = Math.abs(speed);
+		// Pixels moved when the boxes first overlap. Only a bullet heading
+		// to the entity can reach it, once it covered the gap between them.
+		int moved;
+		if (Math.abs(distanceY) < maxDistanceY)
+			moved = 0;
+		else if (speed == 0 || (speed > 0) == (distanceY > 0))
+			return NO_IMPACT;
+		else
+			moved = Math.abs(distanceY) - maxDistanceY + 1;
+		if (moved > travel)
+			return NO_IMPACT;
+
+		SpriteMask[] masks = getHitMasks();
+		// Boxes only, until the sprites are loaded.
+		if (masks != null) {
+			SpriteMask target = masks[entity.getSpriteType().ordinal()];
+			SpriteMask bullet = masks[this.sprites[index]];
+			if (target != null && bullet != null) {
+				moved = target.findOverlap(bullet,
+						this.positionsX[index] - entity.getPositionX(),
+						this.positionsY[index] - entity.getPositionY(),
+						speed > 0 ? 1 : -1, moved, travel);
+				if (moved < 0)
+					return NO_IMPACT;
+			}
+		}
+		return moved == 0 ? 0f : (float) moved / travel;
+	}
+
+	/**
+	 * Getter for the hit masks of the sprites, looked up once they are
+	 * loaded and kept for the following checks, so the bullet pass does not
+	 * go through the draw manager for every candidate.
+	 *
+	 * @return Hit masks by sprite ordinal, null if not loaded yet.
+	 */
+	private SpriteMask[] getHitMasks() {
+		if (this.hitMasks == null) {
+			DrawManager drawManager = Core.getDrawManager();
+			if (drawManager.getHitMask(SpriteType.Bullet) == null)
+				return null;
+			SpriteMask[] masks = new SpriteMask[SPRITE_TYPES.length];
+			for (int i = 0; i < masks.length; i++)
+				masks[i] = drawManager.getHitMask(SPRITE_TYPES[i]);
+			this.hitMasks = masks;
+		}
+		return this.hitMasks;
+	}
+
+	/**
+	 * Getter for the upper side of the area a bullet covers during the move
+	 * it makes this tick, to look up the entities it could reach.
+	 *
+	 * @param index
+	 *            Index of the bullet.
+	 * @return Upper side of the swept area.
+	 */
+	public int getSweptPositionY(final int index) {
+		return this.positionsY[index] + Math.min(0, this.speeds[index]);
+	}
+
+	/**
+	 * Getter for the height of the area a bullet covers during the move it
+	 * makes this tick.
+	 *
+	 * @param index
+	 *            Index of the bullet.
+	 * @return Height of the swept area.
+	 */
+	public int getSweptHeight(final int index) {
+		return HEIGHT + Math.abs(this.speeds[index]);
+	}
+
+	/**
+	 * Writes every bullet alive, to restore them later.
+	 * 
+	 * @param output
+	 *            Output to write to.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	public void writeState(final DataOutput output) throws IOException {
+		output.writeInt(this.size);
+		for (int i = 0; i < this.size; i++) {
+			output.writeInt(this.positionsX[i]);
+			output.writeInt(this.positionsY[i]);
+			output.writeInt(this.previousPositionsY[i]);
+			output.writeInt(this.speeds[i]);
+			output.writeByte(this.owners[i]);
+			output.writeByte(this.sprites[i]);
+		}
+	}
+
+	/**
+	 * Replaces the bullets with the ones written by writeState().
+	 * 
+	 * @param input
+	 *            Input to read from.
+	 * @throws IOException
+	 *             In case of reading problems.
+	 */
+	public void readState(final DataInput input) throws IOException {
+		this.size = input.readInt();
+		for (int i = 0; i < this.size; i++) {
+			this.positionsX[i] = input.readInt();
+			this.positionsY[i] = input.readInt();
+			this.previousPositionsY[i] = input.readInt();
+			this.speeds[i] = input.readInt();
+			this.owners[i] = input.readByte();
+			this.sprites[i] = input.readByte();
+		}
+	}
+
+	/**
+	 * Getter for the number of bullets alive.
+	 *
+	 * @return Number of bullets, the valid indexes are below it.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Getter for the maximum number of bullets alive at once.
+	 *
+	 * @return Capacity of the system.
+	 */
+	public int getCapacity() {
+		return this.positionsX.length;
+	}
+
+	/**
+	 * Getter for the X axis position of a bullet.
+	 *
+	 * @param index
+	 *            Index of the bullet.
+	 * @return Position of the bullet in the X axis.
+	 */
+	public int getPositionX(final int index) {
+		return this.positionsX[index];
+	}
+
+	/**
+	 * Getter for the Y axis position of a bullet.
+	 *
+	 * @param index
+	 *            Index of the bullet.
+	 * @return Position of the bullet in the Y axis.
+	 */
+	public int getPositionY(final int index) {
+		return this.positionsY[index];
+	}
+
+	/**
+	 * Getter for the Y axis position of a bullet between the last two ticks.
+	 *
+	 * @param index
+	 *            Index of the bullet.
+	 * @param alpha
+	 *            Fraction of a tick elapsed since the last one.
+	 * @return Interpolated position of the bullet in the Y axis.
+	 */
+	public int getInterpolatedPositionY(final int index, final float alpha) {
+		return this.previousPositionsY[index] + Math.round(
+				(this.positionsY[index] - this.previousPositionsY[index])
+						* alpha);
+	}
+
+	/**
+	 * Getter for the speed of a bullet.
+	 *
+	 * @param index
+	 *            Index of the bullet.
+	 * @return Speed of the bullet, positive is down.
+	 */
+	public int getSpeed(final int index) {
+		return this.speeds[index];
+	}
+
+	/**
+	 * Getter for the ship that shot a bullet.
+	 *
+	 * @param index
+	 *            Index of the bullet.
+	 * @return OWNER_ENEMY or OWNER_PLAYER.
+	 */
+	public byte getOwner(final int index) {
+		return this.owners[index];
+	}
+
+	/**
+	 * Getter for the sprite a bullet is drawn as.
+	 *
+	 * @param index
+	 *            Index of the bullet.
+	 * @return Sprite corresponding to the bullet.
+	 */
+	public SpriteType getSpriteType(final int index) {
+		return SPRITE_TYPES[this.sprites[index]];
+	}
+}
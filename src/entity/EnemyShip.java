@@ -1,10 +1,12 @@
 package entity;
 
 import java.awt.Color;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
-import engine.Cooldown;
-import engine.Core;
 import engine.DrawManager.SpriteType;
+import engine.ObjectPool;
 
 
 /**
@@ -25,15 +27,31 @@ public class EnemyShip extends Entity {
 	private static final int BONUS_TYPE_POINTS = 100;
 	/** Point value of a boss enemy. */
 	private static final int BOSS_TYPE_POINTS = 1000;
+	/** Ships kept for reuse, more than the largest formation. */
+	private static final int POOL_CAPACITY = 64;
 
-	/** Cooldown between sprite changes. */
-	private Cooldown animationCooldown;
+	/** Ships released, handed out again instead of new ones. */
+	private static final ObjectPool<EnemyShip> POOL =
+			new ObjectPool<EnemyShip>("Enemy ships", POOL_CAPACITY,
+					() -> new EnemyShip(Color.RED),
+					enemyShip -> enemyShip.formationIndex = -1);
+
+	static {
+		POOL.prewarm(POOL_CAPACITY);
+	}
+
+	/** Animation phase shown, -1 until the first update. */
+	private int animationPhase;
+	/** Checks if the ship changes sprites. */
+	private boolean isAnimated;
 	/** Checks if the ship has been hit by a bullet. */
 	private boolean isDestroyed;
 	/** Values of the ship, in points, when destroyed. */
 	private int pointValue;
 	/** Lives of ship, ship will be destroyed when life becomes 0. */
 	private int EnemyLife;
+	/** Cell of the formation holding the ship, -1 if it has none. */
+	private int formationIndex = -1;
 
 	/**
 	 * Constructor, establishes the ship's properties.
@@ -50,9 +68,130 @@ public class EnemyShip extends Entity {
 	public EnemyShip(final int positionX, final int positionY,
 			final SpriteType spriteType, Color enemyColor) {
 		super(positionX, positionY, 12 * 2, 8 * 2, enemyColor);
+		initialize(positionX, positionY, spriteType, enemyColor);
+	}
+
+	/**
+	 * Constructor, establishes the ship's properties for a special ship, with
+	 * known starting properties.
+	 *
+	 * @param specialEnemyColor
+	 * 			   Color of the special ship.
+	 */
+	public EnemyShip(Color specialEnemyColor) {
+		super(-32, 60, 16 * 2, 7 * 2, specialEnemyColor);
+		initializeSpecial(specialEnemyColor);
+	}
+
+	/**
+	 * Constructor, establishes the ship's properties for a boss ship.
+	 *
+	 * @param enemylife
+	 *            Lives of the boss ship.
+	 * @param bossColor
+	 * 			  Color of the boss ship.
+	 */
+	public EnemyShip(final int positionX, final int positionY, final int enemylife, Color bossColor) {
+		super(positionX, positionY, 12 * 2, 8 * 2, Color.BLUE);
+		initializeBoss(positionX, positionY, enemylife, bossColor);
+	}
+
+	/**
+	 * Takes a ship from the pool, with the properties of a new one.
+	 * 
+	 * @param positionX
+	 *            Initial position of the ship in the X axis.
+	 * @param positionY
+	 *            Initial position of the ship in the Y axis.
+	 * @param spriteType
+	 *            Sprite type, image corresponding to the ship.
+	 * @param enemyColor
+	 *            Color of the ship.
+	 * @return Ship to release once out of the game.
+	 */
+	public static EnemyShip acquire(final int positionX, final int positionY,
+			final SpriteType spriteType, final Color enemyColor) {
+		EnemyShip enemyShip = POOL.acquire();
+		enemyShip.initialize(positionX, positionY, spriteType, enemyColor);
+		return enemyShip;
+	}
+
+	/**
+	 * Takes a special ship from the pool.
+	 * 
+	 * @param specialEnemyColor
+	 *            Color of the special ship.
+	 * @return Ship to release once out of the game.
+	 */
+	public static EnemyShip acquireSpecial(final Color specialEnemyColor) {
+		EnemyShip enemyShip = POOL.acquire();
+		enemyShip.initializeSpecial(specialEnemyColor);
+		return enemyShip;
+	}
+
+	/**
+	 * Takes a boss ship from the pool.
+	 * 
+	 * @param positionX
+	 *            Initial position of the ship in the X axis.
+	 * @param positionY
+	 *            Initial position of the ship in the Y axis.
+	 * @param enemylife
+	 *            Lives of the boss ship.
+	 * @param bossColor
+	 *            Color of the boss ship.
+	 * @return Ship to release once out of the game.
+	 */
+	public static EnemyShip acquireBoss(final int positionX,
+			final int positionY, final int enemylife, final Color bossColor) {
+		EnemyShip enemyShip = POOL.acquire();
+		enemyShip.initializeBoss(positionX, positionY, enemylife, bossColor);
+		return enemyShip;
+	}
+
+	/**
+	 * Gives the ship back to the pool, it must not be used afterwards.
+	 */
+	public final void release() {
+		POOL.release(this);
+	}
+
+	/**
+	 * Getter for the number of ships taken from the pool and not released.
+	 * 
+	 * @return Ships in use.
+	 */
+	public static int getShipsInUse() {
+		return POOL.getInUse();
+	}
 
+	/**
+	 * Reports the ships taken from the pool and never released.
+	 * 
+	 * @return Number of ships still in use.
+	 */
+	public static int checkLeaks() {
+		return POOL.checkLeaks();
+	}
+
+	/**
+	 * Sets the properties of a formation ship.
+	 * 
+	 * @param positionX
+	 *            Initial position of the ship in the X axis.
+	 * @param positionY
+	 *            Initial position of the ship in the Y axis.
+	 * @param spriteType
+	 *            Sprite type, image corresponding to the ship.
+	 * @param enemyColor
+	 *            Color of the ship.
+	 */
+	private void initialize(final int positionX, final int positionY,
+			final SpriteType spriteType, final Color enemyColor) {
+		reset(positionX, positionY, 12 * 2, 8 * 2, enemyColor);
 		this.spriteType = spriteType;
-		this.animationCooldown = Core.getCooldown(500);
+		this.animationPhase = -1;
+		this.isAnimated = true;
 		this.isDestroyed = false;
 
 		switch (this.spriteType) {
@@ -78,36 +217,42 @@ public class EnemyShip extends Entity {
 	}
 
 	/**
-	 * Constructor, establishes the ship's properties for a special ship, with
-	 * known starting properties.
-	 *
+	 * Sets the properties of a special ship.
+	 * 
 	 * @param specialEnemyColor
-	 * 			   Color of the special ship.
+	 *            Color of the special ship.
 	 */
-	public EnemyShip(Color specialEnemyColor) {
-		super(-32, 60, 16 * 2, 7 * 2, specialEnemyColor);
+	private void initializeSpecial(final Color specialEnemyColor) {
+		reset(-32, 60, 16 * 2, 7 * 2, specialEnemyColor);
 		this.spriteType = SpriteType.EnemyShipSpecial;
+		this.animationPhase = -1;
+		this.isAnimated = false;
 		this.isDestroyed = false;
 		this.pointValue = BONUS_TYPE_POINTS;
 		this.EnemyLife = 1;
 	}
 
 	/**
-	 * Constructor, establishes the ship's properties for a boss ship.
-	 *
+	 * Sets the properties of a boss ship.
+	 * 
+	 * @param positionX
+	 *            Initial position of the ship in the X axis.
+	 * @param positionY
+	 *            Initial position of the ship in the Y axis.
 	 * @param enemylife
 	 *            Lives of the boss ship.
 	 * @param bossColor
-	 * 			  Color of the boss ship.
+	 *            Color of the boss ship, drawn blue.
 	 */
-	public EnemyShip(final int positionX, final int positionY, final int enemylife, Color bossColor) {
-		super(positionX, positionY, 12 * 2, 8 * 2, Color.BLUE);
+	private void initializeBoss(final int positionX, final int positionY,
+			final int enemylife, final Color bossColor) {
+		reset(positionX, positionY, 12 * 2, 8 * 2, Color.BLUE);
 		this.spriteType = SpriteType.Boss;
-		this.animationCooldown = Core.getCooldown(500);
+		this.animationPhase = -1;
+		this.isAnimated = true;
 		this.isDestroyed = false;
 		this.pointValue = BOSS_TYPE_POINTS;
 		this.EnemyLife = enemylife;
-
 	}
 
 	/**
@@ -133,11 +278,17 @@ public class EnemyShip extends Entity {
 	}
 
 	/**
-	 * Updates attributes, mainly used for animation purposes.
+	 * Updates attributes, mainly used for animation purposes. The sprite
+	 * changes when the phase of the animation timeline does.
+	 * 
+	 * @param phase
+	 *            Current phase of the formation's animation timeline.
 	 */
-	public final void update() {
-		if (this.animationCooldown.checkFinished()) {
-			this.animationCooldown.reset();
+	public final void update(final int phase) {
+		if (this.animationPhase == -1)
+			this.animationPhase = phase;
+		if (this.animationPhase != phase) {
+			this.animationPhase = phase;
 
 			switch (this.spriteType) {
 			case EnemyShipA1:
@@ -179,6 +330,25 @@ public class EnemyShip extends Entity {
 		return this.EnemyLife;
 	}
 
+	/**
+	 * Setter for the cell of the formation holding the ship.
+	 *
+	 * @param formationIndex
+	 *            Index of the cell, column * height + row.
+	 */
+	final void setFormationIndex(final int formationIndex) {
+		this.formationIndex = formationIndex;
+	}
+
+	/**
+	 * Getter for the cell of the formation holding the ship.
+	 *
+	 * @return Index of the cell, -1 if the ship is not in a formation.
+	 */
+	final int getFormationIndex() {
+		return this.formationIndex;
+	}
+
 	/**
 	 * Destroys the ship, causing an explosion.
 	 */
@@ -195,4 +365,39 @@ public class EnemyShip extends Entity {
 	public final boolean isDestroyed() {
 		return this.isDestroyed;
 	}
+
+	/**
+	 * Writes the state of the ship, to restore it later.
+	 * 
+	 * @param output
+	 *            Output to write to.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	@Override
+	public final void writeState(final DataOutput output) throws IOException {
+		super.writeState(output);
+		output.writeBoolean(this.isDestroyed);
+		output.writeInt(this.EnemyLife);
+		// The special ship has no animation.
+		if (this.isAnimated)
+			output.writeInt(this.animationPhase);
+	}
+
+	/**
+	 * Restores a state written by writeState().
+	 * 
+	 * @param input
+	 *            Input to read from.
+	 * @throws IOException
+	 *             In case of reading problems.
+	 */
+	@Override
+	public final void readState(final DataInput input) throws IOException {
+		super.readState(input);
+		this.isDestroyed = input.readBoolean();
+		this.EnemyLife = input.readInt();
+		if (this.isAnimated)
+			this.animationPhase = input.readInt();
+	}
 }
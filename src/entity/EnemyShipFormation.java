@@ -1,18 +1,17 @@
 package entity;
 
 import java.awt.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
 import java.util.List;
-import java.util.logging.Logger;
 
 import engine.*;
 import screen.Screen;
 import engine.DrawManager.SpriteType;
 import screen.Screen;
 
-import java.util.*;
-import java.util.logging.Logger;
-
 import static java.awt.Color.BLUE;
 
 /**
@@ -49,6 +48,10 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	private static final int DESCENT_DISTANCE = 20;
 	/** Minimum speed allowed. */
 	private static final int MINIMUM_SPEED = 10;
+	/** Maximum number of rows, one bit of a column mask each. */
+	private static final int MAX_ROWS = Long.SIZE;
+	/** Milliseconds between sprite changes of the ships. */
+	private static final int ANIMATION_INTERVAL = 500;
 
 	/** Not extend enemy moving*/
 	private static final int NotExtend_location = -2;
@@ -60,16 +63,28 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	/** DrawManager instance. */
 	private DrawManager drawManager;
 	/** Application logger. */
-	private Logger logger;
+	private GameLogger logger;
 	/** Screen to draw ships on. */
 	private Screen screen;
+	/** Animation timeline of the ships, shared with the screen. */
+	private TimerWheel.Timeline animation;
 	/** Sound Effects for enemy's shooting. */
 	private SoundEffect soundEffect;
 
-	/** List of enemy ships forming the formation. */
-	private List<List<EnemyShip>> enemyShips;
-	/** Minimum time between shots. */
-	private Cooldown shootingCooldown;
+	/** Ships forming the formation, by cell column * nShipsHigh + row. */
+	private EnemyShip[] enemyShips;
+	/** Ships still in each column, destroyed or not, one bit per row. */
+	private long[] presentMasks;
+	/** Ships not destroyed in each column, one bit per row. */
+	private long[] aliveMasks;
+	/** Columns still in the formation, from left to right. */
+	private int[] columns;
+	/** Number of columns still in the formation. */
+	private int columnCount;
+	/** Position in the x-axis shared by the ships of each column. */
+	private int[] columnPositionsX;
+	/** Minimum time between shots, started by the first update. */
+	private TimerWheel.Countdown shootingCooldown;
 	/** Number of ships in the formation - horizontally. */
 	private int nShipsWide;
 	/** Color for enemy ships */
@@ -102,8 +117,14 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	private int shipWidth;
 	/** Height of one ship. */
 	private int shipHeight;
-	/** List of ships that are able to shoot. */
-	private List<EnemyShip> shooters;
+	/** Columns with a ship able to shoot, the bottom-most alive one. */
+	private int[] shooterColumns;
+	/** Number of columns with a ship able to shoot. */
+	private int shooterCount;
+	/** Shooter columns picked for the current shot. */
+	private int[] pickedShooters;
+	/** Random generator used to pick the shooters. */
+	private GameRandom random;
 	/** Number of not destroyed ships. */
 	private int shipCount;
 	/** Check if it is a boss */
@@ -140,12 +161,13 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 		//enemy is not a boss
 		if(!this.isboss) {
 			this.drawManager = Core.getDrawManager();
-			this.logger = Core.getLogger();
-			this.enemyShips = new ArrayList<List<EnemyShip>>();
+			this.logger = Core.getGameLogger();
+			this.soundEffect = new SoundEffect();
 			this.currentDirection = Direction.RIGHT;
 			this.movementInterval = 0;
 			this.nShipsWide = gameSettings.getFormationWidth();
 			this.nShipsHigh = gameSettings.getFormationHeight();
+			createGrid();
 			this.shootingInterval = gameSettings.getShootingFrecuency();
 			this.shootingVariance = (int) (gameSettings.getShootingFrecuency()
 					* SHOOTING_VARIANCE);
@@ -156,17 +178,12 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 			this.difficulty = gameSettings.getDifficulty();
 			this.level = level;
 			this.extend_check =1;
-			this.shooters = new ArrayList<EnemyShip>();
 			SpriteType spriteType;
 
-			this.logger.info("Initializing " + nShipsWide + "x" + nShipsHigh
-					+ " ship formation in (" + positionX + "," + positionY + ")");
-
-			// Each sub-list is a column on the formation.
-			for (int i = 0; i < this.nShipsWide; i++)
-				this.enemyShips.add(new ArrayList<EnemyShip>());
+			this.logger.info("Initializing {}x{} ship formation in (" + INIT_POS_X
+					+ "," + INIT_POS_Y + ")", nShipsWide, nShipsHigh);
 
-			for (List<EnemyShip> column : this.enemyShips) {
+			for (int column = 0; column < this.nShipsWide; column++) {
 				for (int i = 0; i < this.nShipsHigh; i++) {
 					if (i / (float) this.nShipsHigh < PROPORTION_C) {
 						spriteType = SpriteType.EnemyShipC1;
@@ -183,34 +200,30 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 					}
 
 
-					column.add(new EnemyShip((SEPARATION_DISTANCE
-							* this.enemyShips.indexOf(column))
-							+ positionX, (SEPARATION_DISTANCE * i)
+					addShip(column, i, EnemyShip.acquire((SEPARATION_DISTANCE
+							* column) + positionX, (SEPARATION_DISTANCE * i)
 							+ positionY, spriteType, enemyColor));
-					this.shipCount++;
 				}
 			}
 
-			this.shipWidth = this.enemyShips.get(0).get(0).getWidth();
-			this.shipHeight = this.enemyShips.get(0).get(0).getHeight();
+			this.shipWidth = this.enemyShips[0].getWidth();
+			this.shipHeight = this.enemyShips[0].getHeight();
 
 			this.width = (this.nShipsWide - 1) * SEPARATION_DISTANCE
 					+ this.shipWidth;
 			this.height = (this.nShipsHigh - 1) * SEPARATION_DISTANCE
 					+ this.shipHeight;
-
-			for (List<EnemyShip> column : this.enemyShips)
-				this.shooters.add(column.get(column.size() - 1));
 		}
 		//enemy is a boss
 		else {
 			this.drawManager = Core.getDrawManager();
-			this.logger = Core.getLogger();
-			this.enemyShips = new ArrayList<List<EnemyShip>>();
+			this.logger = Core.getGameLogger();
+			this.soundEffect = new SoundEffect();
 			this.currentDirection = Direction.RIGHT;
 			this.movementInterval = 0;
 			this.nShipsWide = gameSettings.getFormationWidth();
 			this.nShipsHigh = gameSettings.getFormationHeight();
+			createGrid();
 			this.shootingInterval = gameSettings.getShootingFrecuency();
 			this.shootingVariance = (int) (gameSettings.getShootingFrecuency()
 					* SHOOTING_VARIANCE);
@@ -220,37 +233,93 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 			this.positionY = INIT_POS_Y;
 			this.difficulty = gameSettings.getDifficulty();
 			this.level = level;
-			this.shooters = new ArrayList<EnemyShip>();
 
-			this.logger.info("Initializing " + nShipsWide + "x" + nShipsHigh
-					+ " boss in (" + positionX + "," + positionY + ")");
+			this.logger.info("Initializing {}x{} boss in (" + INIT_POS_X
+					+ "," + INIT_POS_Y + ")", nShipsWide, nShipsHigh);
 
-			for (int i = 0; i < this.nShipsWide; i++)
-				this.enemyShips.add(new ArrayList<EnemyShip>());
-			for (List<EnemyShip> column : this.enemyShips) {
+			for (int column = 0; column < this.nShipsWide; column++) {
 				for (int i = 0; i < this.nShipsHigh; i++) {
 
-					column.add(new EnemyShip((SEPARATION_DISTANCE
-							* this.enemyShips.indexOf(column))
-							+ positionX, (SEPARATION_DISTANCE * i)
+					addShip(column, i, EnemyShip.acquireBoss((SEPARATION_DISTANCE
+							* column) + positionX, (SEPARATION_DISTANCE * i)
 							+ positionY, 50, BLUE));
-					this.shipCount++;
 				}
 			}
 
-			this.shipWidth = this.enemyShips.get(0).get(0).getWidth();
-			this.shipHeight = this.enemyShips.get(0).get(0).getHeight();
+			this.shipWidth = this.enemyShips[0].getWidth();
+			this.shipHeight = this.enemyShips[0].getHeight();
 			this.width = (this.nShipsWide - 1) * SEPARATION_DISTANCE
 					+ this.shipWidth;
 			this.height = (this.nShipsHigh - 1) * SEPARATION_DISTANCE
 					+ this.shipHeight;
+		}
+	}
 
-			for (List<EnemyShip> column : this.enemyShips)
-				this.shooters.add(column.get(column.size() - 1));
+	/**
+	 * Allocates an empty grid for the formation, every column still in it
+	 * and able to shoot.
+	 */
+	private void createGrid() {
+		if (this.nShipsHigh > MAX_ROWS)
+			throw new IllegalArgumentException("Formations are limited to "
+					+ MAX_ROWS + " rows, " + this.nShipsHigh + " requested");
+
+		this.enemyShips = new EnemyShip[this.nShipsWide * this.nShipsHigh];
+		this.presentMasks = new long[this.nShipsWide];
+		this.aliveMasks = new long[this.nShipsWide];
+		this.columns = new int[this.nShipsWide];
+		this.columnPositionsX = new int[this.nShipsWide];
+		this.shooterColumns = new int[this.nShipsWide];
+		this.pickedShooters = new int[this.nShipsWide];
+		for (int column = 0; column < this.nShipsWide; column++) {
+			this.columns[column] = column;
+			this.shooterColumns[column] = column;
 		}
+		this.columnCount = this.nShipsWide;
+		this.shooterCount = this.nShipsWide;
+		this.random = Core.getRandom(GameRandom.Stream.Shooters);
+	}
+
+	/**
+	 * Places a new ship in a cell of the grid.
+	 * 
+	 * @param column
+	 *            Column of the cell.
+	 * @param row
+	 *            Row of the cell.
+	 * @param enemyShip
+	 *            Ship to place.
+	 */
+	private void addShip(final int column, final int row,
+			final EnemyShip enemyShip) {
+		int index = column * this.nShipsHigh + row;
+		enemyShip.setFormationIndex(index);
+		this.enemyShips[index] = enemyShip;
+		this.columnPositionsX[column] = enemyShip.getPositionX();
+		this.presentMasks[column] |= 1L << row;
+		this.aliveMasks[column] |= 1L << row;
+		this.shipCount++;
 	}
 
 
+	/**
+	 * Gives every ship of the formation back to the pool, once the level is
+	 * over. The formation must not be used afterwards.
+	 */
+	public final void release() {
+		for (int i = 0; i < this.enemyShips.length; i++) {
+			if (this.enemyShips[i] != null) {
+				this.enemyShips[i].release();
+				this.enemyShips[i] = null;
+			}
+		}
+		Arrays.fill(this.presentMasks, 0);
+		Arrays.fill(this.aliveMasks, 0);
+		this.columnCount = 0;
+		this.shooterCount = 0;
+		this.shipCount = 0;
+	}
+
 	/**
 	 * Associates the formation to a given screen.
 	 * 
@@ -259,26 +328,54 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	 */
 	public final void attach(final Screen newScreen) {
 		screen = newScreen;
+		this.animation = newScreen.getTimeline(ANIMATION_INTERVAL);
 	}
 
 	/**
 	 * Draws every individual component of the formation.
+	 * 
+	 * @param alpha
+	 *            Fraction of a tick elapsed since the last one.
+	 */
+	public final void draw(final float alpha) {
+		for (int i = 0; i < this.columnCount; i++) {
+			int column = this.columns[i];
+			for (long present = this.presentMasks[column]; present != 0;
+					present &= present - 1) {
+				EnemyShip enemyShip = getShip(column,
+						Long.numberOfTrailingZeros(present));
+				drawManager.drawEntity(enemyShip,
+						enemyShip.getInterpolatedPositionX(alpha),
+						enemyShip.getInterpolatedPositionY(alpha));
+			}
+		}
+	}
+
+	/**
+	 * Stores the position of every ship at the start of a tick.
 	 */
-	public final void draw() {
-		for (List<EnemyShip> column : this.enemyShips)
-			for (EnemyShip enemyShip : column)
-				drawManager.drawEntity(enemyShip, enemyShip.getPositionX(),
-						enemyShip.getPositionY());
+	public final void storePreviousPositions() {
+		for (int i = 0; i < this.columnCount; i++) {
+			int column = this.columns[i];
+			for (long present = this.presentMasks[column]; present != 0;
+					present &= present - 1)
+				getShip(column, Long.numberOfTrailingZeros(present))
+						.storePreviousPosition();
+		}
 	}
 
 	/**
 	 * Updates the position of the ships.
 	 */
 	public final void update() {
+		// One phase for every ship, read once per update.
+		int animationPhase = this.animation == null ? 0
+				: this.animation.getPhase();
 		if(!this.isboss) {
 			if (this.shootingCooldown == null) {
-				this.shootingCooldown = Core.getVariableCooldown(shootingInterval,
-						shootingVariance);
+				this.shootingCooldown = this.screen.getCountdown(
+						shootingInterval, shootingVariance,
+						GameRandom.Stream.Cooldowns);
 				this.shootingCooldown.reset();
 			}
 
@@ -363,32 +460,41 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 				positionY += movementY;
 				positionY += movementExtend;
 				// Cleans explosions.
-				List<EnemyShip> destroyed;
-				for (List<EnemyShip> column : this.enemyShips) {
-					destroyed = new ArrayList<EnemyShip>();
-					for (EnemyShip ship : column) {
-						if (ship != null && ship.isDestroyed()) {
-							destroyed.add(ship);
-							this.logger.info("Removed enemy "
-									+ column.indexOf(ship) + " from column "
-									+ this.enemyShips.indexOf(column));
-						}
-					}
-					column.removeAll(destroyed);
+				for (int i = 0; i < this.columnCount; i++) {
+					int column = this.columns[i];
+					for (long destroyed = this.presentMasks[column]
+							& ~this.aliveMasks[column]; destroyed != 0;
+							destroyed &= destroyed - 1)
+						this.logger.info("Removed enemy {} from column {}",
+								Long.numberOfTrailingZeros(destroyed), column);
+					this.presentMasks[column] &= this.aliveMasks[column];
 				}
 
-				for (List<EnemyShip> column : this.enemyShips)
-					for (EnemyShip enemyShip : column) {
-						enemyShip.move(movementX+movementExtend*(-enemyShips.indexOf(column)+enemyShips.indexOf(nShipsWide/2)),
-								movementY+movementExtend*(-column.indexOf(enemyShip)+enemyShips.indexOf(nShipsHigh/2)));
-						enemyShip.update();
+				// Each ship spreads out by its place among the remaining
+				// columns and rows. Empty columns not cleaned up yet move
+				// along, so the columns stay sorted by position.
+				for (int i = 0; i < this.columnCount; i++) {
+					int column = this.columns[i];
+					this.columnPositionsX[column] += movementX
+							+ movementExtend * (-i - 1);
+					int place = 0;
+					for (long present = this.presentMasks[column]; present != 0;
+							present &= present - 1) {
+						EnemyShip enemyShip = getShip(column,
+								Long.numberOfTrailingZeros(present));
+						enemyShip.move(movementX + movementExtend * (-i - 1),
+								movementY + movementExtend * (-place - 1));
+						enemyShip.update(animationPhase);
+						place++;
 					}
+				}
 			}
 		}
 		else {
 			if (this.shootingCooldown == null) {
-				this.shootingCooldown = Core.getVariableCooldown(shootingInterval,
-						shootingVariance);
+				this.shootingCooldown = this.screen.getCountdown(
+						shootingInterval, shootingVariance,
+						GameRandom.Stream.Cooldowns);
 				this.shootingCooldown.reset();
 			}
 
@@ -431,60 +537,70 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 				positionX += movementX;
 
 				// Cleans explosions.
-				List<EnemyShip> destroyed;
-				for (List<EnemyShip> column : this.enemyShips) {
-					destroyed = new ArrayList<EnemyShip>();
-					for (EnemyShip ship : column) {
-						if (ship != null && ship.isDestroyed()) {
-							destroyed.add(ship);
-							this.logger.info("Removed Boss");
-						}
-					}
-					column.removeAll(destroyed);
+				for (int i = 0; i < this.columnCount; i++) {
+					int column = this.columns[i];
+					for (long destroyed = this.presentMasks[column]
+							& ~this.aliveMasks[column]; destroyed != 0;
+							destroyed &= destroyed - 1)
+						this.logger.info("Removed Boss");
+					this.presentMasks[column] &= this.aliveMasks[column];
 				}
 
-				for (List<EnemyShip> column : this.enemyShips)
-					for (EnemyShip enemyShip : column) {
+				for (int i = 0; i < this.columnCount; i++) {
+					int column = this.columns[i];
+					this.columnPositionsX[column] += movementX;
+					for (long present = this.presentMasks[column]; present != 0;
+							present &= present - 1) {
+						EnemyShip enemyShip = getShip(column,
+								Long.numberOfTrailingZeros(present));
 						enemyShip.move(movementX, 0);
-						enemyShip.update();
+						enemyShip.update(animationPhase);
 					}
+				}
 			}
 		}
 	}
 
 	/**
-	 * Cleans empty columns, adjusts the width and height of the formation.
+	 * Cleans the first empty column, adjusts the width and height of the
+	 * formation.
 	 */
 	private void cleanUp() {
-		Set<Integer> emptyColumns = new HashSet<Integer>();
 		int maxColumn = 0;
 		int minPositionY = Integer.MAX_VALUE;
-		for (List<EnemyShip> column : this.enemyShips) {
-			if (!column.isEmpty()) {
+		int emptyColumn = -1;
+		for (int i = 0; i < this.columnCount; i++) {
+			int column = this.columns[i];
+			long present = this.presentMasks[column];
+			if (present != 0) {
 				// Height of this column
-				int columnSize = column.get(column.size() - 1).positionY
-						- this.positionY + this.shipHeight;
+				int columnSize = getShip(column,
+						Long.SIZE - 1 - Long.numberOfLeadingZeros(present))
+						.positionY - this.positionY + this.shipHeight;
 				maxColumn = Math.max(maxColumn, columnSize);
-				minPositionY = Math.min(minPositionY, column.get(0)
-						.getPositionY());
-			} else {
-				// Empty column, we remove it.
-				emptyColumns.add(this.enemyShips.indexOf(column));
+				minPositionY = Math.min(minPositionY, getShip(column,
+						Long.numberOfTrailingZeros(present)).getPositionY());
+			} else if (emptyColumn < 0) {
+				emptyColumn = i;
 			}
 		}
-		for (int index : emptyColumns) {
-			this.enemyShips.remove(index);
-			logger.info("Removed column " + index);
+		if (emptyColumn >= 0) {
+			// Empty column, we remove it.
+			logger.info("Removed column {}", this.columns[emptyColumn]);
+			System.arraycopy(this.columns, emptyColumn + 1, this.columns,
+					emptyColumn, this.columnCount - emptyColumn - 1);
+			this.columnCount--;
 		}
 
 		int leftMostPoint = 0;
 		int rightMostPoint = 0;
-		
-		for (List<EnemyShip> column : this.enemyShips) {
-			if (!column.isEmpty()) {
+
+		for (int i = 0; i < this.columnCount; i++) {
+			int column = this.columns[i];
+			if (this.presentMasks[column] != 0) {
 				if (leftMostPoint == 0)
-					leftMostPoint = column.get(0).getPositionX();
-				rightMostPoint = column.get(0).getPositionX();
+					leftMostPoint = this.columnPositionsX[column];
+				rightMostPoint = this.columnPositionsX[column];
 			}
 		}
 
@@ -499,19 +615,20 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	 * Shoots a bullet downwards.
 	 * 
 	 * @param bullets
-	 *            Bullets set to add the bullet being shot.
+	 *            Bullets on screen, to add the bullets being shot.
 	 */
-	public final void shoot(final Set<Bullet> bullets) {
+	public final void shoot(final BulletSystem bullets) {
 		// For now, only ships in the bottom row are able to shoot.
-		soundEffect = new SoundEffect();
-		Set<EnemyShip> shooters = numberOfShooters();
 		if (this.shootingCooldown.checkFinished()) {
 			this.shootingCooldown.reset();
-			for(EnemyShip shooter : shooters){
-				bullets.add(BulletPool.getBullet(shooter.getPositionX()
-						+ shooter.width / 2, shooter.getPositionY(), BULLET_SPEED));
+			int shooters = numberOfShooters();
+			for (int i = 0; i < shooters; i++) {
+				EnemyShip shooter = getShooter(this.pickedShooters[i]);
+				bullets.spawn(shooter.getPositionX() + shooter.width / 2,
+						shooter.getPositionY(), BULLET_SPEED,
+						BulletSystem.OWNER_ENEMY);
 				soundEffect.playEnemyShootingSound();
-			};
+			}
 		}
 	}
 
@@ -522,34 +639,25 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	 *            Ship to be destroyed.
 	 */
 	public final void destroy(final EnemyShip destroyedShip) {
-		for (List<EnemyShip> column : this.enemyShips)
-			for (int i = 0; i < column.size(); i++)
-				if (column.get(i).equals(destroyedShip)) {
-					column.get(i).destroy();
-					this.logger.info("Destroyed ship in ("
-							+ this.enemyShips.indexOf(column) + "," + i + ")");
+		int index = destroyedShip.getFormationIndex();
+		if (index >= 0 && index < this.enemyShips.length
+				&& this.enemyShips[index] == destroyedShip) {
+			int column = index / this.nShipsHigh;
+			long cell = 1L << index % this.nShipsHigh;
+			if ((this.presentMasks[column] & cell) != 0) {
+				destroyedShip.destroy();
+				this.logger.info("Destroyed ship in ({},{})", column,
+						index % this.nShipsHigh);
+
+				// Updates the columns that can shoot the player, the
+				// bottom-most alive ship of each is found from its mask.
+				boolean wasAlive = (this.aliveMasks[column] & cell) != 0;
+				this.aliveMasks[column] &= ~cell;
+				if (wasAlive && this.aliveMasks[column] == 0) {
+					removeShooterColumn(column);
+					this.logger.info("Shooters list reduced to {} members.",
+							this.shooterCount);
 				}
-
-		// Updates the list of ships that can shoot the player.
-		if (this.shooters.contains(destroyedShip)) {
-			int destroyedShipIndex = this.shooters.indexOf(destroyedShip);
-			int destroyedShipColumnIndex = -1;
-
-			for (List<EnemyShip> column : this.enemyShips)
-				if (column.contains(destroyedShip)) {
-					destroyedShipColumnIndex = this.enemyShips.indexOf(column);
-					break;
-				}
-
-			EnemyShip nextShooter = getNextShooter(this.enemyShips
-					.get(destroyedShipColumnIndex));
-
-			if (nextShooter != null)
-				this.shooters.set(destroyedShipIndex, nextShooter);
-			else {
-				this.shooters.remove(destroyedShipIndex);
-				this.logger.info("Shooters list reduced to "
-						+ this.shooters.size() + " members.");
 			}
 		}
 
@@ -557,22 +665,60 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	}
 
 	/**
-	 * Gets the ship on a given column that will be in charge of shooting.
+	 * Removes a column from the ones able to shoot, keeping their order.
+	 * 
+	 * @param column
+	 *            Column left without alive ships.
+	 */
+	private void removeShooterColumn(final int column) {
+		int i = 0;
+		while (this.shooterColumns[i] != column)
+			i++;
+		System.arraycopy(this.shooterColumns, i + 1, this.shooterColumns, i,
+				this.shooterCount - i - 1);
+		this.shooterCount--;
+	}
+
+	/**
+	 * Gets the ship on a given column that is in charge of shooting.
 	 * 
 	 * @param column
 	 *            Column to search.
-	 * @return New shooter ship.
+	 * @return Bottom-most ship of the column not destroyed, null if none.
 	 */
-	public final EnemyShip getNextShooter(final List<EnemyShip> column) {
-		Iterator<EnemyShip> iterator = column.iterator();
-		EnemyShip nextShooter = null;
-		while (iterator.hasNext()) {
-			EnemyShip checkShip = iterator.next();
-			if (checkShip != null && !checkShip.isDestroyed())
-				nextShooter = checkShip;
-		}
+	public final EnemyShip getShooter(final int column) {
+		long alive = this.aliveMasks[column];
+		if (alive == 0)
+			return null;
+		return getShip(column, Long.SIZE - 1 - Long.numberOfLeadingZeros(alive));
+	}
 
-		return nextShooter;
+	/**
+	 * Gets the ship in a cell of the formation.
+	 * 
+	 * @param column
+	 *            Column of the cell.
+	 * @param row
+	 *            Row of the cell.
+	 * @return Ship placed in the cell.
+	 */
+	private EnemyShip getShip(final int column, final int row) {
+		return this.enemyShips[column * this.nShipsHigh + row];
+	}
+
+	/**
+	 * Adds the ships not destroyed to a collision grid.
+	 * 
+	 * @param grid
+	 *            Grid the ships are inserted into.
+	 */
+	public final void insertShips(final SpatialHash<EnemyShip> grid) {
+		for (int i = 0; i < this.columnCount; i++) {
+			int column = this.columns[i];
+			for (long alive = this.aliveMasks[column]; alive != 0;
+					alive &= alive - 1)
+				grid.insert(getShip(column, Long.numberOfTrailingZeros(alive)));
+		}
 	}
 
 	/**
@@ -582,13 +728,117 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	 */
 	@Override
 	public final Iterator<EnemyShip> iterator() {
-		Set<EnemyShip> enemyShipsList = new HashSet<EnemyShip>();
+		return new Iterator<EnemyShip>() {
+			/** Place of the current column among the remaining ones. */
+			private int columnIndex = 0;
+			/** Ships of the current column not returned yet. */
+			private long remaining = columnCount > 0
+					? presentMasks[columns[0]] : 0;
+
+			@Override
+			public boolean hasNext() {
+				while (this.remaining == 0 && this.columnIndex + 1 < columnCount)
+					this.remaining = presentMasks[columns[++this.columnIndex]];
+				return this.remaining != 0;
+			}
+
+			@Override
+			public EnemyShip next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				int row = Long.numberOfTrailingZeros(this.remaining);
+				this.remaining &= this.remaining - 1;
+				return getShip(columns[this.columnIndex], row);
+			}
+		};
+	}
+
+	/**
+	 * Writes the state of the formation and its ships, to restore it later.
+	 * 
+	 * @param output
+	 *            Output to write to.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	public final void writeState(final DataOutput output) throws IOException {
+		output.writeInt(this.positionX);
+		output.writeInt(this.positionY);
+		output.writeInt(this.width);
+		output.writeInt(this.height);
+		output.writeByte(this.currentDirection.ordinal());
+		output.writeByte(this.previousDirection == null ? -1
+				: this.previousDirection.ordinal());
+		output.writeInt(this.movementInterval);
+		output.writeInt(this.movementSpeed);
+		output.writeInt(this.extend_check);
+		output.writeInt(this.movementExtend);
+		output.writeInt(this.shipCount);
+		output.writeBoolean(this.shootingCooldown != null);
+		if (this.shootingCooldown != null)
+			this.shootingCooldown.writeState(output);
+
+		output.writeInt(this.columnCount);
+		for (int i = 0; i < this.columnCount; i++)
+			output.writeInt(this.columns[i]);
+		output.writeInt(this.shooterCount);
+		for (int i = 0; i < this.shooterCount; i++)
+			output.writeInt(this.shooterColumns[i]);
+		for (int column = 0; column < this.nShipsWide; column++) {
+			output.writeLong(this.presentMasks[column]);
+			output.writeLong(this.aliveMasks[column]);
+			output.writeInt(this.columnPositionsX[column]);
+		}
+		for (EnemyShip enemyShip : this.enemyShips)
+			enemyShip.writeState(output);
+	}
 
-		for (List<EnemyShip> column : this.enemyShips)
-			for (EnemyShip enemyShip : column)
-				enemyShipsList.add(enemyShip);
+	/**
+	 * Restores a state written by writeState(), on a formation created
+	 * with the same settings.
+	 * 
+	 * @param input
+	 *            Input to read from.
+	 * @throws IOException
+	 *             In case of reading problems.
+	 */
+	public final void readState(final DataInput input) throws IOException {
+		this.positionX = input.readInt();
+		this.positionY = input.readInt();
+		this.width = input.readInt();
+		this.height = input.readInt();
+		this.currentDirection = Direction.values()[input.readByte()];
+		int previous = input.readByte();
+		this.previousDirection = previous < 0 ? null
+				: Direction.values()[previous];
+		this.movementInterval = input.readInt();
+		this.movementSpeed = input.readInt();
+		this.extend_check = input.readInt();
+		this.movementExtend = input.readInt();
+		this.shipCount = input.readInt();
+		if (input.readBoolean()) {
+			if (this.shootingCooldown == null)
+				this.shootingCooldown = this.screen.getCountdown(
+						shootingInterval, shootingVariance,
+						GameRandom.Stream.Cooldowns);
+			this.shootingCooldown.readState(input);
+		} else {
+			this.shootingCooldown = null;
+		}
 
-		return enemyShipsList.iterator();
+		this.columnCount = input.readInt();
+		for (int i = 0; i < this.columnCount; i++)
+			this.columns[i] = input.readInt();
+		this.shooterCount = input.readInt();
+		for (int i = 0; i < this.shooterCount; i++)
+			this.shooterColumns[i] = input.readInt();
+		for (int column = 0; column < this.nShipsWide; column++) {
+			this.presentMasks[column] = input.readLong();
+			this.aliveMasks[column] = input.readLong();
+			this.columnPositionsX[column] = input.readInt();
+		}
+		for (EnemyShip enemyShip : this.enemyShips)
+			enemyShip.readState(input);
 	}
 
 	/**
@@ -601,12 +851,22 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 	}
 
 	/**
-	 * Set the number of Shooters based on the Difficulty && LEVEL
+	 * Getter for the number of ships remaining.
+	 *
+	 * @return Ships not destroyed yet.
 	 */
-	public final Set<EnemyShip> numberOfShooters(){
+	public final int getShipCount() {
+		return this.shipCount;
+	}
+
+	/**
+	 * Set the number of Shooters based on the Difficulty && LEVEL, and picks
+	 * at random which columns shoot.
+	 *
+	 * @return Number of columns picked, stored first in pickedShooters.
+	 */
+	private int numberOfShooters(){
 
-		List<Integer> indexList = new ArrayList<Integer>();
-		Set<EnemyShip> shooterSet = new HashSet<EnemyShip>();
 		/** 난이도별 EnemyShipFormation의 default shooter 수 */
 		int defaultShooters = 0;
 		switch ((int) this.difficulty) {
@@ -623,16 +883,17 @@ public class EnemyShipFormation implements Iterable<EnemyShip> {
 		}
 		/** shooter의 수는 shooter의 크기와 defaultShooters 둘다 의존. 최솟 값 이용  */
 		int shootersAvailable = 0;
-		shootersAvailable = Math.min(defaultShooters + addShooters(), this.shooters.size());
-		for(int i = 0; i < this.shooters.size(); i++){
-			indexList.add(i);
-		}
-		/** indexList를 섞어 랜덤하게 배열 */
-		Collections.shuffle(indexList);
+		shootersAvailable = Math.min(defaultShooters + addShooters(), this.shooterCount);
+		System.arraycopy(this.shooterColumns, 0, this.pickedShooters, 0,
+				this.shooterCount);
+		/** 앞에서부터 남은 shooter 중 하나를 골라 자리를 바꿔 랜덤하게 선택 */
 		for(int i = 0; i < shootersAvailable; i++){
-			shooterSet.add(this.shooters.get(indexList.get(i)));
+			int picked = i + this.random.nextInt(this.shooterCount - i);
+			int column = this.pickedShooters[picked];
+			this.pickedShooters[picked] = this.pickedShooters[i];
+			this.pickedShooters[i] = column;
 		}
-		return shooterSet;
+		return shootersAvailable;
 	}
 	/**
 	 * add additional shooters as player Level Up
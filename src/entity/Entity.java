@@ -1,6 +1,9 @@
 package entity;
 
 import java.awt.Color;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 import engine.DrawManager.SpriteType;
 
@@ -16,6 +19,10 @@ public class Entity {
 	protected int positionX;
 	/** Position in the y-axis of the upper left corner of the entity. */
 	protected int positionY;
+	/** Position in the x-axis at the start of the current tick. */
+	private int previousPositionX;
+	/** Position in the y-axis at the start of the current tick. */
+	private int previousPositionY;
 	/** Width of the entity. */
 	protected int width;
 	/** Height of the entity. */
@@ -43,6 +50,8 @@ public class Entity {
 			final int height, final Color color) {
 		this.positionX = positionX;
 		this.positionY = positionY;
+		this.previousPositionX = positionX;
+		this.previousPositionY = positionY;
 		this.width = width;
 		this.height = height;
 		this.color = color;
@@ -95,6 +104,66 @@ public class Entity {
 		this.positionY = positionY;
 	}
 
+	/**
+	 * Sets every generic property again, to reuse the entity as a new one.
+	 * 
+	 * @param positionX
+	 *                  Initial position of the entity in the X axis.
+	 * @param positionY
+	 *                  Initial position of the entity in the Y axis.
+	 * @param width
+	 *                  Width of the entity.
+	 * @param height
+	 *                  Height of the entity.
+	 * @param color
+	 *                  Color of the entity.
+	 */
+	protected final void reset(final int positionX, final int positionY,
+			final int width, final int height, final Color color) {
+		this.positionX = positionX;
+		this.positionY = positionY;
+		this.previousPositionX = positionX;
+		this.previousPositionY = positionY;
+		this.width = width;
+		this.height = height;
+		this.color = color;
+	}
+
+	/**
+	 * Remembers the current position as the start of a new tick, used to
+	 * interpolate the entity when drawing between ticks.
+	 */
+	public final void storePreviousPosition() {
+		this.previousPositionX = this.positionX;
+		this.previousPositionY = this.positionY;
+	}
+
+	/**
+	 * Getter for the X axis position of the entity between the last two
+	 * ticks.
+	 * 
+	 * @param alpha
+	 *                  Fraction of a tick elapsed since the last one.
+	 * @return Interpolated position of the entity in the X axis.
+	 */
+	public final int getInterpolatedPositionX(final float alpha) {
+		return this.previousPositionX
+				+ Math.round((this.positionX - this.previousPositionX) * alpha);
+	}
+
+	/**
+	 * Getter for the Y axis position of the entity between the last two
+	 * ticks.
+	 * 
+	 * @param alpha
+	 *                  Fraction of a tick elapsed since the last one.
+	 * @return Interpolated position of the entity in the Y axis.
+	 */
+	public final int getInterpolatedPositionY(final float alpha) {
+		return this.previousPositionY
+				+ Math.round((this.positionY - this.previousPositionY) * alpha);
+	}
+
 	/**
 	 * Getter for the sprite that the entity will be drawn as.
 	 * 
@@ -121,4 +190,36 @@ public class Entity {
 	public final int getHeight() {
 		return this.height;
 	}
+
+	/**
+	 * Writes the state of the entity, to restore it later.
+	 * 
+	 * @param output
+	 *            Output to write to.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	public void writeState(final DataOutput output) throws IOException {
+		output.writeInt(this.positionX);
+		output.writeInt(this.positionY);
+		output.writeInt(this.previousPositionX);
+		output.writeInt(this.previousPositionY);
+		output.writeByte(this.spriteType.ordinal());
+	}
+
+	/**
+	 * Restores a state written by writeState().
+	 * 
+	 * @param input
+	 *            Input to read from.
+	 * @throws IOException
+	 *             In case of reading problems.
+	 */
+	public void readState(final DataInput input) throws IOException {
+		this.positionX = input.readInt();
+		this.positionY = input.readInt();
+		this.previousPositionX = input.readInt();
+		this.previousPositionY = input.readInt();
+		this.spriteType = SpriteType.values()[input.readByte()];
+	}
 }
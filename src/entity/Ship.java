@@ -1,11 +1,13 @@
 package entity;
 
 import java.awt.Color;
-import java.util.Set;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
-import engine.Cooldown;
-import engine.Core;
 import engine.DrawManager.SpriteType;
+import engine.TimerWheel;
+import screen.Screen;
 
 /**
  * Implements a ship, to be controlled by the player.
@@ -17,15 +19,17 @@ public class Ship extends Entity {
 
 	/** Time between shots. */
 	private static final int SHOOTING_INTERVAL = 750;
+	/** Time spent inactive after a hit. */
+	private static final int DESTRUCTION_TIME = 1000;
 	/** Speed of the bullets shot by the ship. */
 	private static final int BULLET_SPEED = -6;
 	/** Movement of the ship for each unit of time. */
 	private static final int SPEED = 2;
 	
-	/** Minimum time between shots. */
-	private Cooldown shootingCooldown;
-	/** Time spent inactive between hits. */
-	private Cooldown destructionCooldown;
+	/** Minimum time between shots, null until attached to a screen. */
+	private TimerWheel.Countdown shootingCooldown;
+	/** Time spent inactive between hits, null until attached to a screen. */
+	private TimerWheel.Countdown destructionCooldown;
 
 	/**
 	 * Constructor, establishes the ship's properties.
@@ -39,8 +43,18 @@ public class Ship extends Entity {
 		super(positionX, positionY, 13 * 2, 8 * 2, Color.GREEN);
 
 		this.spriteType = SpriteType.Ship;
-		this.shootingCooldown = Core.getCooldown(SHOOTING_INTERVAL);
-		this.destructionCooldown = Core.getCooldown(1000);
+	}
+
+	/**
+	 * Associates the ship to the screen it plays on, its cooldowns run on
+	 * the ticks of the screen. Ships only drawn don't need one.
+	 * 
+	 * @param screen
+	 *            Screen to attach.
+	 */
+	public final void attach(final Screen screen) {
+		this.shootingCooldown = screen.getCountdown(SHOOTING_INTERVAL);
+		this.destructionCooldown = screen.getCountdown(DESTRUCTION_TIME);
 	}
 
 	/**
@@ -63,14 +77,15 @@ public class Ship extends Entity {
 	 * Shoots a bullet upwards.
 	 * 
 	 * @param bullets
-	 *            List of bullets on screen, to add the new bullet.
+	 *            Bullets on screen, to add the new bullet.
 	 * @return Checks if the bullet was shot correctly.
 	 */
-	public final boolean shoot(final Set<Bullet> bullets) {
-		if (this.shootingCooldown.checkFinished()) {
+	public final boolean shoot(final BulletSystem bullets) {
+		// A full bullet system leaves the ship ready to shoot again.
+		if (this.shootingCooldown.checkFinished()
+				&& bullets.spawn(positionX + this.width / 2, positionY,
+						BULLET_SPEED, BulletSystem.OWNER_PLAYER)) {
 			this.shootingCooldown.reset();
-			bullets.add(BulletPool.getBullet(positionX + this.width / 2,
-					positionY, BULLET_SPEED));
 			return true;
 		}
 		return false;
@@ -110,4 +125,34 @@ public class Ship extends Entity {
 	public final int getSpeed() {
 		return SPEED;
 	}
+
+	/**
+	 * Writes the state of the ship, to restore it later.
+	 * 
+	 * @param output
+	 *            Output to write to.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	@Override
+	public final void writeState(final DataOutput output) throws IOException {
+		super.writeState(output);
+		this.shootingCooldown.writeState(output);
+		this.destructionCooldown.writeState(output);
+	}
+
+	/**
+	 * Restores a state written by writeState().
+	 * 
+	 * @param input
+	 *            Input to read from.
+	 * @throws IOException
+	 *             In case of reading problems.
+	 */
+	@Override
+	public final void readState(final DataInput input) throws IOException {
+		super.readState(input);
+		this.shootingCooldown.readState(input);
+		this.destructionCooldown.readState(input);
+	}
 }
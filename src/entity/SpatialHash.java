@@ -0,0 +1,173 @@
+package entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid over the screen used to find which entities may collide
+ * with a given area, without testing every pair. The grid is filled once
+ * per tick and reused, so it allocates nothing once it has grown.
+ * 
+ * @param <T>
+ *            Type of the entities stored.
+ */
+public class SpatialHash<T extends Entity> {
+
+	/** Initial capacity of each cell. */
+	private static final int INITIAL_CELL_CAPACITY = 4;
+
+	/** Side of each square cell, in pixels. */
+	private final int cellSize;
+	/** Number of cells in the x-axis. */
+	private final int columns;
+	/** Number of cells in the y-axis. */
+	private final int rows;
+	/** Entities inserted since the last clear. */
+	private final List<T> entities;
+	/** Indexes of the entities overlapping each cell. */
+	private int[][] cells;
+	/** Number of entities in each cell. */
+	private int[] cellSizes;
+	/** Last query each entity was returned by, to avoid duplicates. */
+	private int[] queryStamps;
+	/** Number of the current query. */
+	private int currentQuery;
+
+	/**
+	 * Constructor, covers the screen with cells. Entities partly or fully
+	 * out of the screen are kept in the border cells.
+	 * 
+	 * @param width
+	 *            Width of the covered area.
+	 * @param height
+	 *            Height of the covered area.
+	 * @param cellSize
+	 *            Side of each cell, ideally about the distance between
+	 *            entities.
+	 */
+	public SpatialHash(final int width, final int height,
+			final int cellSize) {
+		this.cellSize = cellSize;
+		this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+		this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+		this.entities = new ArrayList<T>();
+		this.cells = new int[this.columns * this.rows][INITIAL_CELL_CAPACITY];
+		this.cellSizes = new int[this.columns * this.rows];
+		this.queryStamps = new int[INITIAL_CELL_CAPACITY];
+		this.currentQuery = 0;
+	}
+
+	/**
+	 * Removes every entity from the grid.
+	 */
+	public final void clear() {
+		this.entities.clear();
+		Arrays.fill(this.cellSizes, 0);
+	}
+
+	/**
+	 * Adds an entity to every cell it overlaps.
+	 * 
+	 * @param entity
+	 *            Entity to add.
+	 */
+	public final void insert(final T entity) {
+		int index = this.entities.size();
+		this.entities.add(entity);
+		if (index >= this.queryStamps.length)
+			this.queryStamps = Arrays.copyOf(this.queryStamps,
+					this.queryStamps.length * 2);
+		this.queryStamps[index] = this.currentQuery;
+
+		int firstColumn = toColumn(entity.getPositionX());
+		int lastColumn = toColumn(entity.getPositionX() + entity.getWidth()
+				- 1);
+		int firstRow = toRow(entity.getPositionY());
+		int lastRow = toRow(entity.getPositionY() + entity.getHeight() - 1);
+		for (int row = firstRow; row <= lastRow; row++)
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				int cell = row * this.columns + column;
+				if (this.cellSizes[cell] == this.cells[cell].length)
+					this.cells[cell] = Arrays.copyOf(this.cells[cell],
+							this.cells[cell].length * 2);
+				this.cells[cell][this.cellSizes[cell]++] = index;
+			}
+	}
+
+	/**
+	 * Finds the entities sharing a cell with an area. Every entity
+	 * overlapping the area is returned, together with some close ones that
+	 * don't, so a precise test is still needed.
+	 * 
+	 * @param positionX
+	 *            Left side of the area.
+	 * @param positionY
+	 *            Upper side of the area.
+	 * @param width
+	 *            Width of the area.
+	 * @param height
+	 *            Height of the area.
+	 * @param candidates
+	 *            List the candidates are added to, each one once.
+	 */
+	public final void query(final int positionX, final int positionY,
+			final int width, final int height, final List<T> candidates) {
+		this.currentQuery++;
+
+		int firstColumn = toColumn(positionX);
+		int lastColumn = toColumn(positionX + width - 1);
+		int firstRow = toRow(positionY);
+		int lastRow = toRow(positionY + height - 1);
+		for (int row = firstRow; row <= lastRow; row++)
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				int cell = row * this.columns + column;
+				for (int i = 0; i < this.cellSizes[cell]; i++) {
+					int index = this.cells[cell][i];
+					if (this.queryStamps[index] != this.currentQuery) {
+						this.queryStamps[index] = this.currentQuery;
+						candidates.add(this.entities.get(index));
+					}
+				}
+			}
+	}
+
+	/**
+	 * Finds the entities sharing a cell with another entity.
+	 * 
+	 * @param entity
+	 *            Entity to search around, usually a bullet.
+	 * @param candidates
+	 *            List the candidates are added to, each one once.
+	 */
+	public final void query(final Entity entity, final List<T> candidates) {
+		query(entity.getPositionX(), entity.getPositionY(),
+				entity.getWidth(), entity.getHeight(), candidates);
+	}
+
+	/**
+	 * Returns the column of the cell containing a position, clamped to the
+	 * grid.
+	 * 
+	 * @param positionX
+	 *            Position in the x-axis.
+	 * @return Column of the cell.
+	 */
+	private int toColumn(final int positionX) {
+		return Math.max(0, Math.min(this.columns - 1,
+				Math.floorDiv(positionX, this.cellSize)));
+	}
+
+	/**
+	 * Returns the row of the cell containing a position, clamped to the
+	 * grid.
+	 * 
+	 * @param positionY
+	 *            Position in the y-axis.
+	 * @return Row of the cell.
+	 */
+	private int toRow(final int positionY) {
+		return Math.max(0, Math.min(this.rows - 1,
+				Math.floorDiv(positionY, this.cellSize)));
+	}
+}
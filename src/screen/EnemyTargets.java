@@ -0,0 +1,117 @@
+package screen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import engine.Core;
+import engine.GameLogger;
+import entity.BulletSystem;
+import entity.EnemyShip;
+import entity.EnemyShipFormation;
+import entity.SpatialHash;
+
+/**
+ * Enemy side of the bullet pass of the game screens. Indexes the formation
+ * and the special ship once per tick, finds the ship a player's bullet
+ * reaches first, and gives the ships back to their pool once the level is
+ * over. What a hit does is left to each screen.
+ *
+ */
+final class EnemyTargets {
+
+	/** Side of the grid cells, the distance between enemies. */
+	private static final int CELL_SIZE = 40;
+	/** Room for the candidates of a bullet, grown if ever exceeded. */
+	private static final int CANDIDATE_CAPACITY = 16;
+
+	/** Application logger. */
+	private final GameLogger logger;
+	/** Enemy ships indexed by position, filled once per tick. */
+	private final SpatialHash<EnemyShip> grid;
+	/** Enemy ships close to the bullet being checked. */
+	private final List<EnemyShip> candidates;
+	/** Enemy ships in use before the screen took any. */
+	private final int shipsInUse;
+
+	/**
+	 * Constructor, allocates the grid over the screen. Created before the
+	 * screen takes any ship from the pool.
+	 *
+	 * @param width
+	 *            Screen width.
+	 * @param height
+	 *            Screen height.
+	 */
+	EnemyTargets(final int width, final int height) {
+		this.logger = Core.getGameLogger();
+		this.grid = new SpatialHash<EnemyShip>(width, height, CELL_SIZE);
+		this.candidates = new ArrayList<EnemyShip>(CANDIDATE_CAPACITY);
+		this.shipsInUse = EnemyShip.getShipsInUse();
+	}
+
+	/**
+	 * Indexes the ships that can be hit this tick, before the bullets move.
+	 *
+	 * @param formation
+	 *            Formation of enemy ships.
+	 * @param special
+	 *            Special ship, null if not on screen.
+	 */
+	void index(final EnemyShipFormation formation, final EnemyShip special) {
+		this.grid.clear();
+		formation.insertShips(this.grid);
+		if (special != null && !special.isDestroyed())
+			this.grid.insert(special);
+	}
+
+	/**
+	 * Finds the ship a bullet reaches first along the move it makes this
+	 * tick, among the ones indexed.
+	 *
+	 * @param bullets
+	 *            Bullets being updated.
+	 * @param i
+	 *            Index of the bullet checked.
+	 * @return Ship hit first, null if none.
+	 */
+	EnemyShip findTarget(final BulletSystem bullets, final int i) {
+		this.candidates.clear();
+		this.grid.query(bullets.getPositionX(i),
+				bullets.getSweptPositionY(i), BulletSystem.WIDTH,
+				bullets.getSweptHeight(i), this.candidates);
+		EnemyShip target = null;
+		float impact = BulletSystem.NO_IMPACT;
+		for (int c = 0; c < this.candidates.size(); c++) {
+			EnemyShip enemyShip = this.candidates.get(c);
+			if (!enemyShip.isDestroyed()) {
+				float time = bullets.sweepCollision(i, enemyShip);
+				if (time < impact) {
+					impact = time;
+					target = enemyShip;
+				}
+			}
+		}
+		return target;
+	}
+
+	/**
+	 * Gives the ships back to their pool and logs the ones the screen took
+	 * and did not give back, ships used elsewhere aside.
+	 *
+	 * @param formation
+	 *            Formation of enemy ships.
+	 * @param special
+	 *            Special ship, null if not on screen. Not used afterwards.
+	 */
+	void release(final EnemyShipFormation formation, final EnemyShip special) {
+		formation.release();
+		if (special != null)
+			special.release();
+		int leaked = EnemyShip.getShipsInUse() - this.shipsInUse;
+		if (leaked > 0) {
+			this.logger.warning("Enemy ships not released: {}", leaked);
+			// Where each ship in use was taken, with assertions enabled.
+			EnemyShip.checkLeaks();
+		}
+	}
+}
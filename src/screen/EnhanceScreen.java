@@ -1,7 +1,8 @@
 package screen;
 
 import java.awt.event.KeyEvent;
-import engine.Cooldown;
+import engine.AssetLoader;
+import engine.TimerWheel;
 import engine.Core;
 import engine.GameState;
 
@@ -13,7 +14,7 @@ public class EnhanceScreen extends Screen {
     /** Current score. */
     private int score;
     /** Time between changes in user selection. */
-    private Cooldown selectionCooldown;
+    private TimerWheel.Countdown selectionCooldown;
     private int enhanceStone = 0;
     private int numEnhanceArea = 0;
     private int numEnhanceDamage = 0;
@@ -30,10 +31,11 @@ public class EnhanceScreen extends Screen {
      */
     public EnhanceScreen(final GameState gameState, final int width, final int height, final int fps) {
         super(width, height, fps);
+        Core.getAssetLoader().await(AssetLoader.Asset.Sprites);
 
         // Defaults to play.
         this.returnCode = 8;
-        this.selectionCooldown = Core.getCooldown(SELECTION_TIME);
+        this.selectionCooldown = getCountdown(SELECTION_TIME);
         this.selectionCooldown.reset();
         this.score = gameState.getScore();
     }
@@ -109,15 +111,15 @@ public class EnhanceScreen extends Screen {
      * Draws the elements associated with the screen.
      */
     private void draw() {
-        drawManager.initDrawing(this);
-        drawManager.drawScore(this, this.score);
-        drawManager.drawHorizontalLine(this, SEPARATION_LINE_HEIGHT - 1);
-        drawManager.drawEnhanceElem(this, this.enhanceStone, this.numEnhanceArea, this.numEnhanceDamage);
+        do {
+            drawManager.initDrawing(this);
+            drawManager.drawScore(this, this.score);
+            drawManager.drawHorizontalLine(this, SEPARATION_LINE_HEIGHT - 1);
+            drawManager.drawEnhanceElem(this, this.enhanceStone, this.numEnhanceArea, this.numEnhanceDamage);
 
-        // drawManager.drawTitle(this);
-        drawManager.drawEnhancePage(this, this.returnCode, this.enhanceStone, this.numEnhanceArea,
-                this.numEnhanceDamage);
-
-        drawManager.completeDrawing(this);
+            // drawManager.drawTitle(this);
+            drawManager.drawEnhancePage(this, this.returnCode, this.enhanceStone, this.numEnhanceArea,
+                    this.numEnhanceDamage);
+        } while (!drawManager.completeDrawing(this));
     }
 }
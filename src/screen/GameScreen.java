@@ -3,8 +3,9 @@ package screen;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.logging.*;
 
 import engine.*;
@@ -46,15 +47,19 @@ public class GameScreen extends Screen {
 	/** Bonus enemy ship that appears sometimes. */
 	private EnemyShip enemyShipSpecial;
 	/** Minimum time between bonus ship appearances. */
-	private Cooldown enemyShipSpecialCooldown;
+	private TimerWheel.Countdown enemyShipSpecialCooldown;
 	/** Time until bonus ship explosion disappears. */
-	private Cooldown enemyShipSpecialExplosionCooldown;
+	private TimerWheel.Countdown enemyShipSpecialExplosionCooldown;
 	/** Time from finishing the level to screen change. */
-	private Cooldown screenFinishedCooldown;
-	/** Set of all bullets fired by on screen ships. */
-	private Set<Bullet> bullets;
+	private TimerWheel.Countdown screenFinishedCooldown;
+	/** All bullets fired by on screen ships. */
+	private BulletSystem bullets;
 	/** Sound Effects for player's ship and enemy. */
 	private SoundEffect soundEffect;
+	/** Enemy ships the player's bullets are checked against. */
+	private EnemyTargets enemyTargets;
+	/** Checks each bullet against the ships, during the bullet pass. */
+	private BulletSystem.CollisionHandler collisionHandler;
 
 	private BulletLine bulletLine;
 	/** Current score. */
@@ -65,8 +70,6 @@ public class GameScreen extends Screen {
 	private int bulletsShot;
 	/** Total ships destroyed by the player. */
 	private int shipsDestroyed;
-	/** Moment the game starts. */
-	private long gameStartTime;
 	/** Checks if the level is finished. */
 	private boolean levelFinished;
 	/** Checks if a bonus life is received. */
@@ -76,6 +79,8 @@ public class GameScreen extends Screen {
 
 	/** Checks if the game is paused. */
 	private boolean pause;
+	/** Replay the level is recorded to, null if not recording. */
+	private Replay replay;
 
 	/**
 	 * Constructor, establishes the properties of the screen.
@@ -97,6 +102,8 @@ public class GameScreen extends Screen {
 			final GameSettings gameSettings, final boolean bonusLife,
 			final int width, final int height, final int fps) {
 		super(width, height, fps);
+		Core.getAssetLoader().await(AssetLoader.Asset.Sprites,
+				AssetLoader.Asset.Sounds);
 
 		this.gameSettings = gameSettings;
 		this.bonusLife = bonusLife;
@@ -116,23 +123,30 @@ public class GameScreen extends Screen {
 	 */
 	public final void initialize() {
 		super.initialize();
+		this.flightRecorder.recordEvent(
+				FlightRecorder.Event.LevelStarted, this.level);
 
+		// Before the formation, to count the ships it takes.
+		this.enemyTargets = new EnemyTargets(this.width, this.height);
 		enemyShipFormation = new EnemyShipFormation(this.gameSettings, this.level);
 		enemyShipFormation.attach(this);
 		this.ship = new Ship(this.width / 2, this.height - 30);
+		this.ship.attach(this);
 		this.bulletLine = new BulletLine(this.width / 2 , this.height + 120);
 		// Appears each 10-30 seconds.
-		this.enemyShipSpecialCooldown = Core.getVariableCooldown(
-				BONUS_SHIP_INTERVAL, BONUS_SHIP_VARIANCE);
+		this.enemyShipSpecialCooldown = this.getCountdown(
+				BONUS_SHIP_INTERVAL, BONUS_SHIP_VARIANCE,
+				GameRandom.Stream.BonusShip);
 		this.enemyShipSpecialCooldown.reset();
-		this.enemyShipSpecialExplosionCooldown = Core
-				.getCooldown(BONUS_SHIP_EXPLOSION);
-		this.screenFinishedCooldown = Core.getCooldown(SCREEN_CHANGE_INTERVAL);
-		this.bullets = new HashSet<Bullet>();
+		this.enemyShipSpecialExplosionCooldown = this
+				.getCountdown(BONUS_SHIP_EXPLOSION);
+		this.screenFinishedCooldown = this.getCountdown(SCREEN_CHANGE_INTERVAL);
+		this.bullets = new BulletSystem(
+				this.gameSettings.getBulletCapacity());
+		this.collisionHandler = this::collide;
 
 		// Special input delay / countdown.
-		this.gameStartTime = System.currentTimeMillis();
-		this.inputDelay = Core.getCooldown(INPUT_DELAY);
+		this.inputDelay = getCountdown(INPUT_DELAY);
 		this.inputDelay.reset();
 
 		soundEffect = new SoundEffect();
@@ -145,17 +159,36 @@ public class GameScreen extends Screen {
 	 */
 	public final int run() {
 		super.run();
+		releaseShips();
 
 		this.score += LIFE_SCORE * (this.lives - 1);
-		this.logger.info("Screen cleared with a score of " + this.score);
+		this.logger.info("Screen cleared with a score of {}", this.score);
 
 		return this.returnCode;
 	}
 
+	/**
+	 * Gives the enemy ships back to their pool once the level is over.
+	 * Called by run(), and by whoever ticks the screen without running it,
+	 * as the replays, the stress scenarios and the tests do. Calling it
+	 * again does nothing.
+	 */
+	public final void releaseShips() {
+		this.enemyTargets.release(this.enemyShipFormation,
+				this.enemyShipSpecial);
+		this.enemyShipSpecial = null;
+	}
+
 	/**
 	 * Updates the elements on screen and checks for events.
 	 */
 	protected final void update() {
+		storePreviousPositions();
+
+		this.profiler.handleToggleKey(
+				inputManager.isKeyDown(KeyEvent.VK_F3));
+		long phaseStart = this.profiler.start();
+
 		if (pause) { // Game Pause, press ENTER to continue or BackSpace to quit
 			pause = !inputManager.isKeyDown(KeyEvent.VK_ENTER);
 			boolean exit = inputManager.isKeyDown(KeyEvent.VK_BACK_SPACE);
@@ -193,40 +226,59 @@ public class GameScreen extends Screen {
 						}
 				}
 
+				phaseStart = this.profiler.end(Profiler.Phase.Input,
+						phaseStart);
+
 				if (this.enemyShipSpecial != null) {
 					if (!this.enemyShipSpecial.isDestroyed())
 						this.enemyShipSpecial.move(2, 0);
-					else if (this.enemyShipSpecialExplosionCooldown.checkFinished())
+					else if (this.enemyShipSpecialExplosionCooldown.checkFinished()) {
+						this.enemyShipSpecial.release();
 						this.enemyShipSpecial = null;
+					}
 
 				}
 				if (this.enemyShipSpecial == null
 						&& this.enemyShipSpecialCooldown.checkFinished()) {
-					this.enemyShipSpecial = new EnemyShip(Color.RED);
+					this.enemyShipSpecial = EnemyShip.acquireSpecial(Color.RED);
 					this.enemyShipSpecialCooldown.reset();
 					this.logger.info("A special ship appears");
+					this.flightRecorder.recordEvent(
+							FlightRecorder.Event.SpecialShipAppeared, 0);
 				}
 				if (this.enemyShipSpecial != null
 						&& this.enemyShipSpecial.getPositionX() > this.width) {
+					this.enemyShipSpecial.release();
 					this.enemyShipSpecial = null;
 					this.logger.info("The special ship has escaped");
+					this.flightRecorder.recordEvent(
+							FlightRecorder.Event.SpecialShipEscaped, 0);
 				}
 
 				this.ship.update();
 				this.enemyShipFormation.update();
 				this.enemyShipFormation.shoot(this.bullets);
+				phaseStart = this.profiler.end(Profiler.Phase.Update,
+						phaseStart);
 			}
 
-			manageCollisions();
-			cleanBullets();
-			draw();
+			updateBullets();
+			this.profiler.end(Profiler.Phase.Bullets, phaseStart);
+			if (this.profiler.isEnabled())
+				this.profiler.setEntityCounts(
+						this.enemyShipFormation.getShipCount(),
+						this.bullets.size(), this.bullets.getCapacity());
 		}
 		if (this.enemyShipFormation.isEmpty() && !this.levelFinished) {
 			this.levelFinished = true;
+			this.flightRecorder.recordEvent(
+					FlightRecorder.Event.LevelFinished, this.score);
 			this.screenFinishedCooldown.reset();
 		}
 		if (this.lives == 0 && !this.levelFinished) {
 			this.levelFinished = true;
+			this.flightRecorder.recordEvent(
+					FlightRecorder.Event.LevelFinished, this.score);
 			soundEffect.playShipDestructionSound();
 			this.screenFinishedCooldown.reset();
 		}
@@ -237,144 +289,253 @@ public class GameScreen extends Screen {
 	}
 
 	/**
-	 * Draws the elements associated with the screen.
+	 * Records the tick just run, if the level is being recorded.
 	 */
-	private void draw() {
-		drawManager.initDrawing(this);
+	@Override
+	protected final void afterTick() {
+		if (this.replay != null)
+			this.replay.recordTick(this, this.inputManager, !this.isRunning);
+	}
 
-		drawManager.drawEntity(this.ship, this.ship.getPositionX(),
-				this.ship.getPositionY());
-		drawManager.drawEntity(this.bulletLine, this.ship.getPositionX() + 12,
-				this.ship.getPositionY() - 320);
+	/**
+	 * Stores the position of every moving entity at the start of a tick.
+	 */
+	private void storePreviousPositions() {
+		this.ship.storePreviousPosition();
 		if (this.enemyShipSpecial != null)
-			drawManager.drawEntity(this.enemyShipSpecial,
-					this.enemyShipSpecial.getPositionX(),
-					this.enemyShipSpecial.getPositionY());
+			this.enemyShipSpecial.storePreviousPosition();
+		this.enemyShipFormation.storePreviousPositions();
+		this.bullets.storePreviousPositions();
+	}
 
-		enemyShipFormation.draw();
+	/**
+	 * Draws the screen, interpolating entities between the last two ticks.
+	 * 
+	 * @param alpha
+	 *            Fraction of a tick elapsed since the last one.
+	 */
+	protected final void render(final float alpha) {
+		draw(alpha);
+	}
 
-		for (Bullet bullet : this.bullets)
-			drawManager.drawEntity(bullet, bullet.getPositionX(),
-					bullet.getPositionY());
+	/**
+	 * Draws the elements associated with the screen.
+	 * 
+	 * @param alpha
+	 *            Fraction of a tick elapsed since the last one.
+	 */
+	private void draw(final float alpha) {
+		long phaseStart = this.profiler.start();
+		boolean shown;
+		do {
+			drawManager.initDrawing(this);
 
-		// Interface.
-		drawManager.drawScore(this, this.score);
-		//drawManager.drawLives(this, this.lives);
-		drawManager.drawLivesbar(this, this.lives);
-		drawManager.drawHorizontalLine(this, SEPARATION_LINE_HEIGHT - 1);
-		drawManager.scoreEmoji(this, this.score);
-		drawManager.drawLevel(this, this.level);
+			int shipX = this.ship.getInterpolatedPositionX(alpha);
+			int shipY = this.ship.getInterpolatedPositionY(alpha);
+			drawManager.drawEntity(this.ship, shipX, shipY);
+			drawManager.drawEntity(this.bulletLine, shipX + 12, shipY - 320);
+			if (this.enemyShipSpecial != null)
+				drawManager.drawEntity(this.enemyShipSpecial,
+						this.enemyShipSpecial.getInterpolatedPositionX(alpha),
+						this.enemyShipSpecial.getInterpolatedPositionY(alpha));
 
-		// Countdown to game start.
-		if (!this.inputDelay.checkFinished()) {
-			int countdown = (int) ((INPUT_DELAY
-					- (System.currentTimeMillis()
-							- this.gameStartTime)) / 1000);
+			enemyShipFormation.draw(alpha);
 
-			drawManager.drawCountDown(this, this.level, countdown,
-					this.bonusLife);
+			drawManager.drawBullets(this.bullets, alpha);
 
+			// Interface.
+			drawManager.drawScore(this, this.score);
+			//drawManager.drawLives(this, this.lives);
+			drawManager.drawLivesbar(this, this.lives);
+			drawManager.drawHorizontalLine(this, SEPARATION_LINE_HEIGHT - 1);
+			drawManager.scoreEmoji(this, this.score);
+			drawManager.drawLevel(this, this.level);
 
+			// Countdown to game start.
+			if (!this.inputDelay.checkFinished()) {
+				int countdown = (int) ((INPUT_DELAY
+						- this.ticks * 1000 / this.tickRate) / 1000);
 
-			/* this code is modified with Clean Code (dodo_kdy)  */
-			  //drawManager.drawHorizontalLine(this, this.height / 2 - this.height / 12);
-			  //drawManager.drawHorizontalLine(this, this.height / 2 + this.height / 12);
+				drawManager.drawCountDown(this, this.level, countdown,
+						this.bonusLife);
 
-		}
 
-		// If Game has been paused
-		if (this.pause) {
-			drawManager.drawPaused(this);
-		}
 
-		drawManager.completeDrawing(this);
+				/* this code is modified with Clean Code (dodo_kdy)  */
+				  //drawManager.drawHorizontalLine(this, this.height / 2 - this.height / 12);
+				  //drawManager.drawHorizontalLine(this, this.height / 2 + this.height / 12);
+
+			}
+
+			// If Game has been paused
+			if (this.pause) {
+				drawManager.drawPaused(this);
+			}
+
+			if (this.profiler.isOverlayVisible())
+				drawManager.drawProfiler(this, this.profiler);
+			phaseStart = this.profiler.end(Profiler.Phase.Draw, phaseStart);
+
+			shown = drawManager.completeDrawing(this);
+			phaseStart = this.profiler.end(Profiler.Phase.CompleteDrawing,
+					phaseStart);
+		} while (!shown);
 	}
 
 	/**
-	 * Cleans bullets that go off screen.
+	 * Moves the bullets, applies their hits and removes the ones that hit
+	 * something or went off screen, in a single pass. Package-private
+	 * for the benchmarks.
 	 */
-	private void cleanBullets() {
-		Set<Bullet> recyclable = new HashSet<Bullet>();
-		for (Bullet bullet : this.bullets) {
-			bullet.update();
-			if (bullet.getPositionY() < SEPARATION_LINE_HEIGHT
-					|| bullet.getPositionY() > this.height)
-				recyclable.add(bullet);
-		}
-		this.bullets.removeAll(recyclable);
-		BulletPool.recycle(recyclable);
+	void updateBullets() {
+		// Broad phase, enemies are indexed once and each bullet only checks
+		// the ones sharing its cells.
+		this.enemyTargets.index(this.enemyShipFormation,
+				this.enemyShipSpecial);
+
+		this.bullets.update(SEPARATION_LINE_HEIGHT, this.height,
+				this.collisionHandler);
 	}
 
 	/**
-	 * Manages collisions between bullets and ships.
+	 * Manages collisions between a bullet and the ships along the move it
+	 * makes this tick. Only the ship it reaches first is hit.
+	 * 
+	 * @param bullets
+	 *            Bullets being updated.
+	 * @param i
+	 *            Index of the bullet checked.
+	 * @return True if the bullet hit a ship.
 	 */
-	private void manageCollisions() {
-		Set<Bullet> recyclable = new HashSet<Bullet>();
-		for (Bullet bullet : this.bullets)
-			if (bullet.getSpeed() > 0) {
-				if (checkCollision(bullet, this.ship) && !this.levelFinished) {
-					recyclable.add(bullet);
-					if (!this.ship.isDestroyed()) {
-						this.ship.destroy();
-						if (this.lives != 1) soundEffect.playShipCollisionSound();
-						this.lives--;
-						this.logger.info("Hit on player ship, " + this.lives
-								+ " lives remaining.");
-					}
+	private boolean collide(final BulletSystem bullets, final int i) {
+		boolean hit = false;
+		if (bullets.getOwner(i) == BulletSystem.OWNER_ENEMY) {
+			if (bullets.sweepCollision(i, this.ship) != BulletSystem.NO_IMPACT
+					&& !this.levelFinished) {
+				hit = true;
+				if (!this.ship.isDestroyed()) {
+					this.ship.destroy();
+					if (this.lives != 1) soundEffect.playShipCollisionSound();
+					this.lives--;
+					this.logger.info("Hit on player ship, {} lives remaining.",
+							this.lives);
+					this.flightRecorder.recordEvent(
+							FlightRecorder.Event.PlayerHit, this.lives);
 				}
-			} else {
-				for (EnemyShip enemyShip : this.enemyShipFormation)
-					if (!enemyShip.isDestroyed()
-							&& checkCollision(bullet, enemyShip)) {
-						enemyShip.reduceEnemyLife();
-						soundEffect.playEnemyDestructionSound();
-						if(enemyShip.getEnemyLife() < 1) {
-							this.score += enemyShip.getPointValue();
-							this.shipsDestroyed++;
-							this.enemyShipFormation.destroy(enemyShip);
-						}
-						recyclable.add(bullet);
-					}
-				if (this.enemyShipSpecial != null
-						&& !this.enemyShipSpecial.isDestroyed()
-						&& checkCollision(bullet, this.enemyShipSpecial)) {
-					enemyShipSpecial.reduceEnemyLife();
-					if(enemyShipSpecial.getEnemyLife() < 1) {
-						this.score += this.enemyShipSpecial.getPointValue();
-						this.shipsDestroyed++;
-						this.enemyShipSpecial.destroy();
-						this.enemyShipSpecialExplosionCooldown.reset();
-					}
-					recyclable.add(bullet);
+			}
+		} else {
+			EnemyShip target = this.enemyTargets.findTarget(bullets, i);
+			if (target != null && target == this.enemyShipSpecial) {
+				enemyShipSpecial.reduceEnemyLife();
+				if(enemyShipSpecial.getEnemyLife() < 1) {
+					this.score += this.enemyShipSpecial.getPointValue();
+					this.shipsDestroyed++;
+					this.enemyShipSpecial.destroy();
+					this.enemyShipSpecialExplosionCooldown.reset();
+				}
+				hit = true;
+			} else if (target != null) {
+				target.reduceEnemyLife();
+				soundEffect.playEnemyDestructionSound();
+				if(target.getEnemyLife() < 1) {
+					this.score += target.getPointValue();
+					this.shipsDestroyed++;
+					this.enemyShipFormation.destroy(target);
+					this.flightRecorder.recordEvent(
+							FlightRecorder.Event.EnemyDestroyed,
+							target.getPointValue());
 				}
+				hit = true;
 			}
-		this.bullets.removeAll(recyclable);
-		BulletPool.recycle(recyclable);
+		}
+
+		return hit;
+	}
+
+	/**
+	 * Records the level to a replay, from its first tick.
+	 * 
+	 * @param newReplay
+	 *            Replay to record to, created before the screen.
+	 */
+	public final void setReplay(final Replay newReplay) {
+		this.replay = newReplay;
+	}
+
+	/**
+	 * Writes the state of the level, everything a tick depends on, to
+	 * restore it later.
+	 * 
+	 * @param output
+	 *            Output to write to.
+	 * @throws IOException
+	 *             In case of writing problems.
+	 */
+	public final void writeState(final DataOutput output) throws IOException {
+		output.writeLong(this.ticks);
+		output.writeInt(this.returnCode);
+		this.inputDelay.writeState(output);
+		output.writeInt(this.score);
+		output.writeInt(this.lives);
+		output.writeInt(this.bulletsShot);
+		output.writeInt(this.shipsDestroyed);
+		output.writeBoolean(this.levelFinished);
+		output.writeBoolean(this.pause);
+		this.ship.writeState(output);
+		output.writeBoolean(this.enemyShipSpecial != null);
+		if (this.enemyShipSpecial != null)
+			this.enemyShipSpecial.writeState(output);
+		this.enemyShipSpecialCooldown.writeState(output);
+		this.enemyShipSpecialExplosionCooldown.writeState(output);
+		this.screenFinishedCooldown.writeState(output);
+		this.bullets.writeState(output);
+		this.enemyShipFormation.writeState(output);
+	}
+
+	/**
+	 * Restores a state written by writeState(), on an initialized screen of
+	 * the same level.
+	 * 
+	 * @param input
+	 *            Input to read from.
+	 * @throws IOException
+	 *             In case of reading problems.
+	 */
+	public final void readState(final DataInput input) throws IOException {
+		this.ticks = input.readLong();
+		this.timers.setTick(this.ticks);
+		this.returnCode = input.readInt();
+		this.inputDelay.readState(input);
+		this.score = input.readInt();
+		this.lives = input.readInt();
+		this.bulletsShot = input.readInt();
+		this.shipsDestroyed = input.readInt();
+		this.levelFinished = input.readBoolean();
+		this.pause = input.readBoolean();
+		this.ship.readState(input);
+		if (input.readBoolean()) {
+			if (this.enemyShipSpecial == null)
+				this.enemyShipSpecial = EnemyShip.acquireSpecial(Color.RED);
+			this.enemyShipSpecial.readState(input);
+		} else if (this.enemyShipSpecial != null) {
+			this.enemyShipSpecial.release();
+			this.enemyShipSpecial = null;
+		}
+		this.enemyShipSpecialCooldown.readState(input);
+		this.enemyShipSpecialExplosionCooldown.readState(input);
+		this.screenFinishedCooldown.readState(input);
+		this.bullets.readState(input);
+		this.enemyShipFormation.readState(input);
 	}
 
 	/**
-	 * Checks if two entities are colliding.
+	 * Getter for the bullets on screen, used by the benchmarks and the stress
+	 * scenarios.
 	 * 
-	 * @param a
-	 *            First entity, the bullet.
-	 * @param b
-	 *            Second entity, the ship.
-	 * @return Result of the collision test.
+	 * @return Bullets on screen.
 	 */
-	private boolean checkCollision(final Entity a, final Entity b) {
-		// Calculate center point of the entities in both axis.
-		int centerAX = a.getPositionX() + a.getWidth() / 2;
-		int centerAY = a.getPositionY() + a.getHeight() / 2;
-		int centerBX = b.getPositionX() + b.getWidth() / 2;
-		int centerBY = b.getPositionY() + b.getHeight() / 2;
-		// Calculate maximum distance without collision.
-		int maxDistanceX = a.getWidth() / 2 + b.getWidth() / 2;
-		int maxDistanceY = a.getHeight() / 2 + b.getHeight() / 2;
-		// Calculates distance.
-		int distanceX = Math.abs(centerAX - centerBX);
-		int distanceY = Math.abs(centerAY - centerBY);
-
-		return distanceX < maxDistanceX && distanceY < maxDistanceY;
+	public final BulletSystem getBullets() {
+		return this.bullets;
 	}
 
 	/**
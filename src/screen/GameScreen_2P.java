@@ -2,8 +2,6 @@ package screen;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
-import java.util.HashSet;
-import java.util.Set;
 
 import engine.*;
 import entity.*;
@@ -45,15 +43,19 @@ public class GameScreen_2P extends Screen {
     private BulletLine bulletLine_2P;
     private EnemyShip enemyShipSpecial;
     /** Minimum time between bonus ship appearances. */
-    private Cooldown enemyShipSpecialCooldown;
+    private TimerWheel.Countdown enemyShipSpecialCooldown;
     /** Time until bonus ship explosion disappears. */
-    private Cooldown enemyShipSpecialExplosionCooldown;
+    private TimerWheel.Countdown enemyShipSpecialExplosionCooldown;
     /** Time from finishing the level to screen change. */
-    private Cooldown screenFinishedCooldown;
-    /** Set of all bullets fired by on screen ships. */
-    private Set<Bullet> bullets;
+    private TimerWheel.Countdown screenFinishedCooldown;
+    /** All bullets fired by on screen ships. */
+    private BulletSystem bullets;
     /** Sound Effects for player's ship and enemy. */
     private SoundEffect soundEffect;
+    /** Enemy ships the player's bullets are checked against. */
+    private EnemyTargets enemyTargets;
+    /** Checks each bullet against the ships, during the bullet pass. */
+    private BulletSystem.CollisionHandler collisionHandler;
     /** Current score. */
     private int score;
     /** Player lives left. */
@@ -62,8 +64,6 @@ public class GameScreen_2P extends Screen {
     private int bulletsShot;
     /** Total ships destroyed by the player. */
     private int shipsDestroyed;
-    /** Moment the game starts. */
-    private long gameStartTime;
     /** Checks if the level is finished. */
     private boolean levelFinished;
     /** Checks if a bonus life is received. */
@@ -94,6 +94,8 @@ public class GameScreen_2P extends Screen {
                          final GameSettings gameSettings, final boolean bonusLife,
                          final int width, final int height, final int fps) {
         super(width, height, fps);
+        Core.getAssetLoader().await(AssetLoader.Asset.Sprites,
+                AssetLoader.Asset.Sounds);
 
         this.gameSettings = gameSettings;
         this.bonusLife = bonusLife;
@@ -113,25 +115,33 @@ public class GameScreen_2P extends Screen {
      */
     public final void initialize() {
         super.initialize();
+        this.flightRecorder.recordEvent(
+                FlightRecorder.Event.LevelStarted, this.level);
 
+        // Before the formation, to count the ships it takes.
+        this.enemyTargets = new EnemyTargets(this.width, this.height);
         enemyShipFormation = new EnemyShipFormation(this.gameSettings, 1);
         enemyShipFormation.attach(this);
         this.ship_1P = new Ship(this.width / 4, this.height - 30);
+        this.ship_1P.attach(this);
         this.bulletLine_1P = new BulletLine(this.width / 4 , this.height + 120);
         this.ship_2P = new Ship((3 * this.width / 4), this.height - 30);
+        this.ship_2P.attach(this);
         this.bulletLine_2P = new BulletLine(3 * this.width / 4 , this.height + 120);
         // Appears each 10-30 seconds.
-        this.enemyShipSpecialCooldown = Core.getVariableCooldown(
-                BONUS_SHIP_INTERVAL, BONUS_SHIP_VARIANCE);
+        this.enemyShipSpecialCooldown = this.getCountdown(
+                BONUS_SHIP_INTERVAL, BONUS_SHIP_VARIANCE,
+                GameRandom.Stream.BonusShip);
         this.enemyShipSpecialCooldown.reset();
-        this.enemyShipSpecialExplosionCooldown = Core
-                .getCooldown(BONUS_SHIP_EXPLOSION);
-        this.screenFinishedCooldown = Core.getCooldown(SCREEN_CHANGE_INTERVAL);
-        this.bullets = new HashSet<Bullet>();
+        this.enemyShipSpecialExplosionCooldown = this
+                .getCountdown(BONUS_SHIP_EXPLOSION);
+        this.screenFinishedCooldown = this.getCountdown(SCREEN_CHANGE_INTERVAL);
+        this.bullets = new BulletSystem(
+                this.gameSettings.getBulletCapacity());
+        this.collisionHandler = this::collide;
 
         // Special input delay / countdown.
-        this.gameStartTime = System.currentTimeMillis();
-        this.inputDelay = Core.getCooldown(INPUT_DELAY);
+        this.inputDelay = getCountdown(INPUT_DELAY);
         this.inputDelay.reset();
 
         soundEffect = new SoundEffect();
@@ -144,17 +154,35 @@ public class GameScreen_2P extends Screen {
      */
     public final int run() {
         super.run();
+        releaseShips();
 
         this.score += LIFE_SCORE * (this.lives - 1);
-        this.logger.info("Screen cleared with a score of " + this.score);
+        this.logger.info("Screen cleared with a score of {}", this.score);
 
         return this.returnCode;
     }
 
+    /**
+     * Gives the enemy ships back to their pool once the level is over.
+     * Called by run(), and by whoever ticks the screen without running it,
+     * as the replays, the stress scenarios and the tests do. Calling it
+     * again does nothing.
+     */
+    public final void releaseShips() {
+        this.enemyTargets.release(this.enemyShipFormation,
+                this.enemyShipSpecial);
+        this.enemyShipSpecial = null;
+    }
+
     /**
      * Updates the elements on screen and checks for events.
      */
     protected final void update() {
+        storePreviousPositions();
+
+        this.profiler.handleToggleKey(
+                inputManager.isKeyDown(KeyEvent.VK_F3));
+        long phaseStart = this.profiler.start();
 
         if (pause) { // Game Pause, press ENTER to continue or BackSpace to quit
             pause = !inputManager.isKeyDown(KeyEvent.VK_ENTER);
@@ -212,42 +240,60 @@ public class GameScreen_2P extends Screen {
                         }
                 }
 
+                phaseStart = this.profiler.end(Profiler.Phase.Input,
+                        phaseStart);
+
                 if (this.enemyShipSpecial != null) {
                     if (!this.enemyShipSpecial.isDestroyed())
                         this.enemyShipSpecial.move(2, 0);
-                    else if (this.enemyShipSpecialExplosionCooldown.checkFinished())
+                    else if (this.enemyShipSpecialExplosionCooldown.checkFinished()) {
+                        this.enemyShipSpecial.release();
                         this.enemyShipSpecial = null;
+                    }
 
                 }
                 if (this.enemyShipSpecial == null
                         && this.enemyShipSpecialCooldown.checkFinished()) {
-                    this.enemyShipSpecial = new EnemyShip(Color.RED);
+                    this.enemyShipSpecial = EnemyShip.acquireSpecial(Color.RED);
                     this.enemyShipSpecialCooldown.reset();
                     this.logger.info("A special ship appears");
+                    this.flightRecorder.recordEvent(
+                            FlightRecorder.Event.SpecialShipAppeared, 0);
                 }
                 if (this.enemyShipSpecial != null
                         && this.enemyShipSpecial.getPositionX() > this.width) {
+                    this.enemyShipSpecial.release();
                     this.enemyShipSpecial = null;
                     this.logger.info("The special ship has escaped");
+                    this.flightRecorder.recordEvent(
+                            FlightRecorder.Event.SpecialShipEscaped, 0);
                 }
 
                 this.ship_1P.update();
                 this.ship_2P.update();
                 this.enemyShipFormation.update();
                 this.enemyShipFormation.shoot(this.bullets);
+                phaseStart = this.profiler.end(Profiler.Phase.Update,
+                        phaseStart);
             }
 
-            manageCollisions();
-
-            cleanBullets();
-            draw();
+            updateBullets();
+            this.profiler.end(Profiler.Phase.Bullets, phaseStart);
+            if (this.profiler.isEnabled())
+                this.profiler.setEntityCounts(
+                        this.enemyShipFormation.getShipCount(),
+                        this.bullets.size(), this.bullets.getCapacity());
         }
         if (this.enemyShipFormation.isEmpty() && !this.levelFinished) {
             this.levelFinished = true;
+            this.flightRecorder.recordEvent(
+                    FlightRecorder.Event.LevelFinished, this.score);
             this.screenFinishedCooldown.reset();
         }
         if (this.lives == 0 && !this.levelFinished) {
             this.levelFinished = true;
+            this.flightRecorder.recordEvent(
+                    FlightRecorder.Event.LevelFinished, this.score);
             soundEffect.playShipDestructionSound();
             this.screenFinishedCooldown.reset();
         }
@@ -257,157 +303,173 @@ public class GameScreen_2P extends Screen {
     }
 
     /**
-     * Draws the elements associated with the screen.
+     * Stores the position of every moving entity at the start of a tick.
      */
-    private void draw() {
-        drawManager.initDrawing(this);
+    private void storePreviousPositions() {
+        this.ship_1P.storePreviousPosition();
+        this.ship_2P.storePreviousPosition();
+        if (this.enemyShipSpecial != null)
+            this.enemyShipSpecial.storePreviousPosition();
+        this.enemyShipFormation.storePreviousPositions();
+        this.bullets.storePreviousPositions();
+    }
 
-        drawManager.drawEntity(this.ship_1P, this.ship_1P.getPositionX(),
-                this.ship_1P.getPositionY());
-        drawManager.drawEntity(this.bulletLine_1P, this.ship_1P.getPositionX() + 12,
-                this.ship_1P.getPositionY() - 320);
+    /**
+     * Draws the screen, interpolating entities between the last two ticks.
+     *
+     * @param alpha
+     *            Fraction of a tick elapsed since the last one.
+     */
+    protected final void render(final float alpha) {
+        draw(alpha);
+    }
 
-        drawManager.drawEntity(this.ship_2P, this.ship_2P.getPositionX(),
-                this.ship_2P.getPositionY());
-        drawManager.drawEntity(this.bulletLine_2P, this.ship_2P.getPositionX() + 12,
-                this.ship_2P.getPositionY() - 320);
+    /**
+     * Draws the elements associated with the screen.
+     *
+     * @param alpha
+     *            Fraction of a tick elapsed since the last one.
+     */
+    private void draw(final float alpha) {
+        long phaseStart = this.profiler.start();
+        boolean shown;
+        do {
+            drawManager.initDrawing(this);
+
+            int ship1PX = this.ship_1P.getInterpolatedPositionX(alpha);
+            int ship1PY = this.ship_1P.getInterpolatedPositionY(alpha);
+            drawManager.drawEntity(this.ship_1P, ship1PX, ship1PY);
+            drawManager.drawEntity(this.bulletLine_1P, ship1PX + 12, ship1PY - 320);
+
+            int ship2PX = this.ship_2P.getInterpolatedPositionX(alpha);
+            int ship2PY = this.ship_2P.getInterpolatedPositionY(alpha);
+            drawManager.drawEntity(this.ship_2P, ship2PX, ship2PY);
+            drawManager.drawEntity(this.bulletLine_2P, ship2PX + 12, ship2PY - 320);
+
+            if (this.enemyShipSpecial != null)
+                drawManager.drawEntity(this.enemyShipSpecial,
+                        this.enemyShipSpecial.getInterpolatedPositionX(alpha),
+                        this.enemyShipSpecial.getInterpolatedPositionY(alpha));
+
+            enemyShipFormation.draw(alpha);
+
+            drawManager.drawBullets(this.bullets, alpha);
+
+
+            // Interface.
+            drawManager.drawScore(this, this.score);
+            //drawManager.drawLives(this, this.lives);
+            drawManager.drawLivesbar(this, this.lives);
+            drawManager.drawHorizontalLine(this, SEPARATION_LINE_HEIGHT - 1);
+            drawManager.scoreEmoji(this, this.score);
+            drawManager.drawLevel(this, this.level);
+
+            // Countdown to game start.
+            if (!this.inputDelay.checkFinished()) {
+                int countdown = (int) ((INPUT_DELAY
+                        - this.ticks * 1000 / this.tickRate) / 1000);
+                drawManager.drawCountDown(this, this.level, countdown,
+                        this.bonusLife);
+
+                /* this code is modified with Clean Code (dodo_kdy)  */
+                //drawManager.drawHorizontalLine(this, this.height / 2 - this.height / 12);
+                //drawManager.drawHorizontalLine(this, this.height / 2 + this.height / 12);
+            }
 
-        if (this.enemyShipSpecial != null)
-            drawManager.drawEntity(this.enemyShipSpecial,
-                    this.enemyShipSpecial.getPositionX(),
-                    this.enemyShipSpecial.getPositionY());
-
-        enemyShipFormation.draw();
-
-        for (Bullet bullet : this.bullets)
-            drawManager.drawEntity(bullet, bullet.getPositionX(),
-                    bullet.getPositionY());
-
-
-        // Interface.
-        drawManager.drawScore(this, this.score);
-        //drawManager.drawLives(this, this.lives);
-        drawManager.drawLivesbar(this, this.lives);
-        drawManager.drawHorizontalLine(this, SEPARATION_LINE_HEIGHT - 1);
-        drawManager.scoreEmoji(this, this.score);
-        drawManager.drawLevel(this, this.level);
-
-        // Countdown to game start.
-        if (!this.inputDelay.checkFinished()) {
-            int countdown = (int) ((INPUT_DELAY
-                    - (System.currentTimeMillis()
-                    - this.gameStartTime)) / 1000);
-            drawManager.drawCountDown(this, this.level, countdown,
-                    this.bonusLife);
-
-            /* this code is modified with Clean Code (dodo_kdy)  */
-            //drawManager.drawHorizontalLine(this, this.height / 2 - this.height / 12);
-            //drawManager.drawHorizontalLine(this, this.height / 2 + this.height / 12);
-        }
+            // If Game has been paused
+            if (this.pause) {
+                drawManager.drawPaused(this);
+            }
 
-        // If Game has been paused
-        if (this.pause) {
-            drawManager.drawPaused(this);
-        }
+            if (this.profiler.isOverlayVisible())
+                drawManager.drawProfiler(this, this.profiler);
+            phaseStart = this.profiler.end(Profiler.Phase.Draw, phaseStart);
 
-        drawManager.completeDrawing(this);
+            shown = drawManager.completeDrawing(this);
+            phaseStart = this.profiler.end(Profiler.Phase.CompleteDrawing,
+                    phaseStart);
+        } while (!shown);
     }
 
     /**
-     * Cleans bullets that go off screen.
+     * Moves the bullets, applies their hits and removes the ones that hit
+     * something or went off screen, in a single pass.
      */
-    private void cleanBullets() {
-        Set<Bullet> recyclable = new HashSet<Bullet>();
-        for (Bullet bullet : this.bullets) {
-            bullet.update();
-            if (bullet.getPositionY() < SEPARATION_LINE_HEIGHT
-                    || bullet.getPositionY() > this.height)
-                recyclable.add(bullet);
-        }
-
-        this.bullets.removeAll(recyclable);
-        BulletPool.recycle(recyclable);
+    private void updateBullets() {
+        // Broad phase, enemies are indexed once and each bullet only checks
+        // the ones sharing its cells.
+        this.enemyTargets.index(this.enemyShipFormation,
+                this.enemyShipSpecial);
+
+        this.bullets.update(SEPARATION_LINE_HEIGHT, this.height,
+                this.collisionHandler);
     }
 
     /**
-     * Manages collisions between bullets and ships.
+     * Manages collisions between a bullet and the ships along the move it
+     * makes this tick. Only the ship it reaches first is hit.
+     * 
+     * @param bullets
+     *            Bullets being updated.
+     * @param i
+     *            Index of the bullet checked.
+     * @return True if the bullet hit a ship.
      */
-    private void manageCollisions() {
-        Set<Bullet> recyclable = new HashSet<Bullet>();
-        for (Bullet bullet : this.bullets)
-            if (bullet.getSpeed() > 0) {
-                if (checkCollision(bullet, this.ship_1P) && !this.levelFinished) {
-                    recyclable.add(bullet);
-                    if (!this.ship_1P.isDestroyed()) {
-                        this.ship_1P.destroy();
-                        if (this.lives != 1) soundEffect.playShipCollisionSound();
-                        this.lives--;
-                        this.logger.info("Hit on player ship, " + this.lives
-                                + " lives remaining.");
-                    }
-                }
-                else if (checkCollision(bullet, this.ship_2P) && !this.levelFinished) {
-                    recyclable.add(bullet);
-                    if (!this.ship_2P.isDestroyed()) {
-                        this.ship_2P.destroy();
-                        if (this.lives != 1) soundEffect.playShipCollisionSound();
-                        this.lives--;
-                        this.logger.info("Hit on player ship, " + this.lives
-                                + " lives remaining.");
-                    }
+    private boolean collide(final BulletSystem bullets, final int i) {
+        boolean hit = false;
+        if (bullets.getOwner(i) == BulletSystem.OWNER_ENEMY) {
+            float impact1P = bullets.sweepCollision(i, this.ship_1P);
+            float impact2P = bullets.sweepCollision(i, this.ship_2P);
+            if (impact1P != BulletSystem.NO_IMPACT && impact1P <= impact2P
+                    && !this.levelFinished) {
+                hit = true;
+                if (!this.ship_1P.isDestroyed()) {
+                    this.ship_1P.destroy();
+                    if (this.lives != 1) soundEffect.playShipCollisionSound();
+                    this.lives--;
+                    this.logger.info("Hit on player ship, {} lives remaining.",
+                            this.lives);
+                    this.flightRecorder.recordEvent(
+                            FlightRecorder.Event.PlayerHit, this.lives);
                 }
-            } else {
-                for (EnemyShip enemyShip : this.enemyShipFormation)
-                    if (!enemyShip.isDestroyed()
-                            && checkCollision(bullet, enemyShip)) {
-                        soundEffect.playEnemyDestructionSound();
-                        this.score += enemyShip.getPointValue();
-                        this.shipsDestroyed++;
-                        this.enemyShipFormation.destroy(enemyShip);
-                        recyclable.add(bullet);
-                    }
-                if (this.enemyShipSpecial != null
-                        && !this.enemyShipSpecial.isDestroyed()
-                        && checkCollision(bullet, this.enemyShipSpecial)) {
-                    this.score += this.enemyShipSpecial.getPointValue();
-                    this.shipsDestroyed++;
-                    this.enemyShipSpecial.destroy();
-                    this.enemyShipSpecialExplosionCooldown.reset();
-                    recyclable.add(bullet);
+            }
+            else if (impact2P != BulletSystem.NO_IMPACT && !this.levelFinished) {
+                hit = true;
+                if (!this.ship_2P.isDestroyed()) {
+                    this.ship_2P.destroy();
+                    if (this.lives != 1) soundEffect.playShipCollisionSound();
+                    this.lives--;
+                    this.logger.info("Hit on player ship, {} lives remaining.",
+                            this.lives);
+                    this.flightRecorder.recordEvent(
+                            FlightRecorder.Event.PlayerHit, this.lives);
                 }
             }
+        } else {
+            EnemyShip target = this.enemyTargets.findTarget(bullets, i);
+            if (target != null && target == this.enemyShipSpecial) {
+                this.score += this.enemyShipSpecial.getPointValue();
+                this.shipsDestroyed++;
+                this.enemyShipSpecial.destroy();
+                this.enemyShipSpecialExplosionCooldown.reset();
+                hit = true;
+            } else if (target != null) {
+                soundEffect.playEnemyDestructionSound();
+                this.score += target.getPointValue();
+                this.shipsDestroyed++;
+                this.enemyShipFormation.destroy(target);
+                this.flightRecorder.recordEvent(
+                        FlightRecorder.Event.EnemyDestroyed,
+                        target.getPointValue());
+                hit = true;
+            }
+        }
 
-        this.bullets.removeAll(recyclable);
-        BulletPool.recycle(recyclable);
+        return hit;
     }
 
 
 
-    /**
-     * Checks if two entities are colliding.
-     *
-     * @param a
-     *            First entity, the bullet.
-     * @param b
-     *            Second entity, the ship.
-     * @return Result of the collision test.
-     */
-    private boolean checkCollision(final Entity a, final Entity b) {
-        // Calculate center point of the entities in both axis.
-        int centerAX = a.getPositionX() + a.getWidth() / 2;
-        int centerAY = a.getPositionY() + a.getHeight() / 2;
-        int centerBX = b.getPositionX() + b.getWidth() / 2;
-        int centerBY = b.getPositionY() + b.getHeight() / 2;
-        // Calculate maximum distance without collision.
-        int maxDistanceX = a.getWidth() / 2 + b.getWidth() / 2;
-        int maxDistanceY = a.getHeight() / 2 + b.getHeight() / 2;
-        // Calculates distance.
-        int distanceX = Math.abs(centerAX - centerBX);
-        int distanceY = Math.abs(centerAY - centerBY);
-
-        return distanceX < maxDistanceX && distanceY < maxDistanceY;
-    }
-
     /**
      * Returns a GameState object representing the status of the game.
      *
@@ -1,11 +1,13 @@
 package screen;
 
 import java.awt.event.KeyEvent;
-import java.io.IOException;
 import java.util.List;
 
+import engine.TimerWheel;
 import engine.Core;
+import engine.HighScoreStore;
 import engine.Score;
+import engine.ScorePager;
 
 /**
  * Implements the high scores screen, it shows player records.
@@ -15,8 +17,17 @@ import engine.Score;
  */
 public class HighScoreScreen extends Screen {
 
-	/** List of past high scores. */
-	private List<Score> highScores;
+	/** Milliseconds between changes in user selection. */
+	private static final int SELECTION_TIME = 200;
+
+	/** Every score of the difficulty shown, read in the background. */
+	private ScorePager pager;
+	/** Page of the scores shown. */
+	private int page;
+	/** Difficulty of the high scores shown. */
+	private int difficulty;
+	/** Time between changes in user selection. */
+	private TimerWheel.Countdown selectionCooldown;
 
 	/**
 	 * Constructor, establishes the properties of the screen.
@@ -32,12 +43,9 @@ public class HighScoreScreen extends Screen {
 		super(width, height, fps);
 
 		this.returnCode = 1;
-
-		try {
-			this.highScores = Core.getFileManager().loadHighScores();
-		} catch (NumberFormatException | IOException e) {
-			logger.warning("Couldn't load high scores!");
-		}
+		this.selectionCooldown = getCountdown(SELECTION_TIME);
+		this.selectionCooldown.reset();
+		showDifficulty(1);
 	}
 
 	/**
@@ -47,6 +55,7 @@ public class HighScoreScreen extends Screen {
 	 */
 	public final int run() {
 		super.run();
+		this.pager.close();
 
 		return this.returnCode;
 	}
@@ -61,17 +70,64 @@ public class HighScoreScreen extends Screen {
 		if (inputManager.isKeyDown(KeyEvent.VK_SPACE)
 				&& this.inputDelay.checkFinished())
 			this.isRunning = false;
+		if (this.selectionCooldown.checkFinished()
+				&& this.inputDelay.checkFinished()) {
+			if (inputManager.isKeyDown(KeyEvent.VK_RIGHT)
+					|| inputManager.isKeyDown(KeyEvent.VK_D)) {
+				showDifficulty((this.difficulty + 1)
+						% HighScoreStore.DIFFICULTIES);
+				this.selectionCooldown.reset();
+			}
+			if (inputManager.isKeyDown(KeyEvent.VK_LEFT)
+					|| inputManager.isKeyDown(KeyEvent.VK_A)) {
+				showDifficulty((this.difficulty
+						+ HighScoreStore.DIFFICULTIES - 1)
+						% HighScoreStore.DIFFICULTIES);
+				this.selectionCooldown.reset();
+			}
+			if ((inputManager.isKeyDown(KeyEvent.VK_DOWN)
+					|| inputManager.isKeyDown(KeyEvent.VK_S))
+					&& this.page + 1 < this.pager.getPageCount()) {
+				this.page++;
+				this.selectionCooldown.reset();
+			}
+			if ((inputManager.isKeyDown(KeyEvent.VK_UP)
+					|| inputManager.isKeyDown(KeyEvent.VK_W))
+					&& this.page > 0) {
+				this.page--;
+				this.selectionCooldown.reset();
+			}
+		}
+	}
+
+	/**
+	 * Shows the scores of a difficulty from the top.
+	 *
+	 * @param difficulty
+	 *            Difficulty of the scores.
+	 */
+	private void showDifficulty(final int difficulty) {
+		if (this.pager != null)
+			this.pager.close();
+		this.difficulty = difficulty;
+		this.page = 0;
+		this.pager = Core.getHighScoreStore().openPager(this.difficulty,
+				HighScoreStore.MAX_SCORES);
 	}
 
 	/**
 	 * Draws the elements associated with the screen.
 	 */
 	private void draw() {
-		drawManager.initDrawing(this);
-
-		drawManager.drawHighScoreMenu(this);
-		drawManager.drawHighScores(this, this.highScores);
+		do {
+			drawManager.initDrawing(this);
 
-		drawManager.completeDrawing(this);
+			drawManager.drawHighScoreMenu(this, this.difficulty);
+			// Every page comes from the archive and the scores posted
+			// since, so they all rank the same scores.
+			List<Score> scores = this.pager.getPage(this.page);
+			drawManager.drawHighScores(this, scores, this.page
+					* HighScoreStore.MAX_SCORES, this.pager.getScoreCount());
+		} while (!drawManager.completeDrawing(this));
 	}
 }
@@ -2,7 +2,7 @@ package screen;
 
 import java.awt.event.KeyEvent;
 
-import engine.Cooldown;
+import engine.TimerWheel;
 import engine.Core;
 import engine.GameState;
 
@@ -10,7 +10,7 @@ public class RandomBoxScreen extends Screen {
     /** Milliseconds between changes in user selection. */
     private static final int SELECTION_TIME = 200;
     /** Time between changes in user selection. */
-    private Cooldown selectionCooldown;
+    private TimerWheel.Countdown selectionCooldown;
 
     /**
      * Constructor, establishes the properties of the screen.
@@ -29,7 +29,7 @@ public class RandomBoxScreen extends Screen {
 
         // Defaults to play.
         this.returnCode = 10;
-        this.selectionCooldown = Core.getCooldown(SELECTION_TIME);
+        this.selectionCooldown = getCountdown(SELECTION_TIME);
         this.selectionCooldown.reset();
     }
  
@@ -96,10 +96,11 @@ public class RandomBoxScreen extends Screen {
      * Draws the elements associated with the screen.
      */
     private void draw() {
-        drawManager.initDrawing(this);
+        do {
+            drawManager.initDrawing(this);
 
-        // drawManager.drawTitle(this);
-        drawManager.drawRandomBox(this, this.returnCode);
-        drawManager.completeDrawing(this);
+            // drawManager.drawTitle(this);
+            drawManager.drawRandomBox(this, this.returnCode);
+        } while (!drawManager.completeDrawing(this));
     }
 }
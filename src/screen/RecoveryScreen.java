@@ -1,7 +1,7 @@
 package screen;
 
 import java.awt.event.KeyEvent;
-import engine.Cooldown;
+import engine.TimerWheel;
 import engine.Core;
 
 public class RecoveryScreen extends Screen {
@@ -10,7 +10,7 @@ public class RecoveryScreen extends Screen {
     private static final int SELECTION_TIME = 200;
 
     /** Time between changes in user selection. */
-    private Cooldown selectionCooldown;
+    private TimerWheel.Countdown selectionCooldown;
 
     /**
      * Constructor, establishes the properties of the screen.
@@ -27,7 +27,7 @@ public class RecoveryScreen extends Screen {
 
         // Defaults to play.
         this.returnCode = 5;
-        this.selectionCooldown = Core.getCooldown(SELECTION_TIME);
+        this.selectionCooldown = getCountdown(SELECTION_TIME);
         this.selectionCooldown.reset();
 
     }
@@ -98,12 +98,12 @@ public class RecoveryScreen extends Screen {
      * Draws the elements associated with the screen.
      */
     private void draw() {
-        drawManager.initDrawing(this);
+        do {
+            drawManager.initDrawing(this);
 
-        drawManager.drawTitle(this);
+            drawManager.drawTitle(this);
 
-        drawManager.drawRecoveryMenu(this, fps);
-
-        drawManager.completeDrawing(this);
+            drawManager.drawRecoveryMenu(this, fps);
+        } while (!drawManager.completeDrawing(this));
     }
 }
@@ -1,11 +1,8 @@
 package screen;
 
 import java.awt.event.KeyEvent;
-import java.io.IOException;
-import java.util.Collections;
-import java.util.List;
 
-import engine.Cooldown;
+import engine.TimerWheel;
 import engine.Core;
 import engine.GameState;
 import engine.Score;
@@ -20,8 +17,6 @@ public class ScoreScreen extends Screen {
 
 	/** Milliseconds between changes in user selection. */
 	private static final int SELECTION_TIME = 200;
-	/** Maximum number of high scores. */
-	private static final int MAX_HIGH_SCORE_NUM = 7;
 	/** Code of first mayus character. */
 	private static final int FIRST_CHAR = 65;
 	/** Code of last mayus character. */
@@ -35,8 +30,6 @@ public class ScoreScreen extends Screen {
 	private int bulletsShot;
 	/** Total ships destroyed by the player. */
 	private int shipsDestroyed;
-	/** List of past high scores. */
-	private List<Score> highScores;
 	/** Checks if current score is a new high score. */
 	private boolean isNewRecord;
 	/** Player name for record input. */
@@ -44,7 +37,7 @@ public class ScoreScreen extends Screen {
 	/** Character of players name selected for change. */
 	private int nameCharSelected;
 	/** Time between changes in user selection. */
-	private Cooldown selectionCooldown;
+	private TimerWheel.Countdown selectionCooldown;
 	/** Game Difficulty. */
 	private int difficulty;
 
@@ -71,19 +64,11 @@ public class ScoreScreen extends Screen {
 		this.isNewRecord = false;
 		this.name = "AAA".toCharArray();
 		this.nameCharSelected = 0;
-		this.selectionCooldown = Core.getCooldown(SELECTION_TIME);
+		this.selectionCooldown = getCountdown(SELECTION_TIME);
 		this.selectionCooldown.reset();
 
-		try {
-			this.highScores = Core.getFileManager().loadHighScores();
-			if (highScores.size() < MAX_HIGH_SCORE_NUM
-					|| highScores.get(highScores.size() - 1).getScore()
-					< this.score)
-				this.isNewRecord = true;
-
-		} catch (IOException e) {
-			logger.warning("Couldn't load high scores!");
-		}
+		this.isNewRecord = Core.getHighScoreStore().isHighScore(
+				this.difficulty, this.score);
 	}
 
 	/**
@@ -150,36 +135,29 @@ public class ScoreScreen extends Screen {
 	}
 
 	/**
-	 * Saves the score as a high score.
+	 * Saves the score as a high score of its difficulty, written to disk in
+	 * the background.
 	 */
 	private void saveScore() {
-		highScores.add(new Score(new String(this.name), score));
-		Collections.sort(highScores);
-		if (highScores.size() > MAX_HIGH_SCORE_NUM)
-			highScores.remove(highScores.size() - 1);
-
-		try {
-			Core.getFileManager().saveHighScores(highScores);
-		} catch (IOException e) {
-			logger.warning("Couldn't load high scores!");
-		}
+		Core.getHighScoreStore().submit(this.difficulty,
+				new Score(new String(this.name), score));
 	}
 
 	/**
 	 * Draws the elements associated with the screen.
 	 */
 	private void draw() {
-		drawManager.initDrawing(this);
-
-		drawManager.drawGameOver(this, this.inputDelay.checkFinished(),
-				this.isNewRecord);
-		drawManager.drawResults(this, this.score, this.livesRemaining,
-				this.shipsDestroyed, this.difficulty, (float) this.shipsDestroyed
-						/ this.bulletsShot, this.isNewRecord);
-
-		if (this.isNewRecord)
-			drawManager.drawNameInput(this, this.name, this.nameCharSelected);
-
-		drawManager.completeDrawing(this);
+		do {
+			drawManager.initDrawing(this);
+
+			drawManager.drawGameOver(this, this.inputDelay.checkFinished(),
+					this.isNewRecord);
+			drawManager.drawResults(this, this.score, this.livesRemaining,
+					this.shipsDestroyed, this.difficulty, (float) this.shipsDestroyed
+							/ this.bulletsShot, this.isNewRecord);
+
+			if (this.isNewRecord)
+				drawManager.drawNameInput(this, this.name, this.nameCharSelected);
+		} while (!drawManager.completeDrawing(this));
 	}
 }
@@ -2,12 +2,17 @@ package screen;
 
 import java.awt.Insets;
 import java.util.concurrent.TimeUnit;
-import java.util.logging.Logger;
 
-import engine.Cooldown;
+import engine.AssetLoader;
 import engine.Core;
 import engine.DrawManager;
+import engine.FlightRecorder;
+import engine.GameRandom;
+import engine.GameLogger;
 import engine.InputManager;
+import engine.Profiler;
+import engine.TimerWheel;
+import engine.VirtualClock;
 
 /**
  * Implements a generic screen.
@@ -19,13 +24,23 @@ public class Screen {
 
 	/** Milliseconds until the screen accepts user input. */
 	private static final int INPUT_DELAY = 1000;
+	/** Default simulation ticks per second. */
+	private static final int DEFAULT_TICK_RATE = 60;
+	/** Default maximum number of ticks run to catch up before drawing. */
+	private static final int DEFAULT_MAX_CATCH_UP_STEPS = 5;
+	/** Nanoseconds in one second. */
+	private static final long NANOS_PER_SECOND = 1000000000L;
 
 	/** Draw Manager instance. */
 	protected DrawManager drawManager;
 	/** Input Manager instance. */
 	protected InputManager inputManager;
-	/** Application logger. */
-	protected Logger logger;
+	/** Application logger, not waiting for the log to be written. */
+	protected GameLogger logger;
+	/** Frame phase profiler. */
+	protected Profiler profiler;
+	/** Recorder of the last frames and gameplay events. */
+	protected FlightRecorder flightRecorder;
 
 	/** Screen width. */
 	protected int width;
@@ -33,10 +48,18 @@ public class Screen {
 	protected int height;
 	/** Frames per second shown on the screen. */
 	protected int fps;
+	/** Simulation ticks per second, independent from the frame rate. */
+	protected int tickRate;
+	/** Maximum number of ticks run in a row to catch up after a hitch. */
+	protected int maxCatchUpSteps;
+	/** Number of simulation ticks run since the screen started. */
+	protected long ticks;
+	/** Timers and animation timelines, run on the simulation ticks. */
+	protected TimerWheel timers;
 	/** Screen insets. */
 	protected Insets insets;
 	/** Time until the screen accepts user input. */
-	protected Cooldown inputDelay;
+	protected TimerWheel.Countdown inputDelay;
 
 	/** If the screen is running. */
 	protected boolean isRunning;
@@ -57,11 +80,19 @@ public class Screen {
 		this.width = width;
 		this.height = height;
 		this.fps = fps;
+		this.tickRate = DEFAULT_TICK_RATE;
+		this.maxCatchUpSteps = DEFAULT_MAX_CATCH_UP_STEPS;
+		this.ticks = 0;
+		this.timers = new TimerWheel(this.tickRate);
 
+		// Every screen draws text.
+		Core.getAssetLoader().await(AssetLoader.Asset.Fonts);
 		this.drawManager = Core.getDrawManager();
 		this.inputManager = Core.getInputManager();
-		this.logger = Core.getLogger();
-		this.inputDelay = Core.getCooldown(INPUT_DELAY);
+		this.logger = Core.getGameLogger();
+		this.profiler = Core.getProfiler();
+		this.flightRecorder = Core.getFlightRecorder();
+		this.inputDelay = getCountdown(INPUT_DELAY);
 		this.inputDelay.reset();
 		this.returnCode = 0;
 	}
@@ -74,37 +105,186 @@ public class Screen {
 	}
 
 	/**
-	 * Activates the screen.
+	 * Activates the screen. The simulation advances in fixed ticks of
+	 * 1/tickRate seconds, accumulated from System.nanoTime(), while frames
+	 * are drawn at most fps times per second and interpolated between the
+	 * last two ticks.
 	 * 
 	 * @return Next screen code.
 	 */
 	public int run() {
 		this.isRunning = true;
 
+		if (Core.isHeadless())
+			return runHeadless();
+
+		final long tickNanos = NANOS_PER_SECOND / this.tickRate;
+		final long frameNanos = NANOS_PER_SECOND / this.fps;
+		// Cooldowns follow the ticks when measured on the virtual clock.
+		VirtualClock clock = Core.getVirtualClock();
+		long previousTime = System.nanoTime();
+		long nextFrameTime = previousTime;
+		long frameStartTime = previousTime;
+		// First tick runs right away.
+		long lag = tickNanos;
+
 		while (this.isRunning) {
-			long time = System.currentTimeMillis();
+			long currentTime = System.nanoTime();
+			lag += currentTime - previousTime;
+			previousTime = currentTime;
 
-			update();
+			int steps = 0;
+			while (lag >= tickNanos && this.isRunning) {
+				if (steps >= this.maxCatchUpSteps) {
+					// Too far behind, drop the remaining time.
+					lag %= tickNanos;
+					break;
+				}
+				if (clock != null)
+					clock.advance(tickNanos);
+				tick();
+				lag -= tickNanos;
+				steps++;
+			}
+			if (!this.isRunning)
+				break;
 
-			time = (1000 / this.fps) - (System.currentTimeMillis() - time);
-			if (time > 0) {
+			if (currentTime - nextFrameTime >= 0) {
+				render((float) lag / tickNanos);
+				nextFrameTime += frameNanos;
+				if (currentTime - nextFrameTime >= 0)
+					nextFrameTime = currentTime + frameNanos;
+			}
+
+			long nextTickTime = previousTime + tickNanos - lag;
+			long wakeUpTime = nextTickTime - nextFrameTime < 0
+					? nextTickTime : nextFrameTime;
+			long sleepTime = wakeUpTime - System.nanoTime();
+			if (sleepTime > 0) {
+				long sleepStart = this.profiler.start();
 				try {
-					TimeUnit.MILLISECONDS.sleep(time);
+					TimeUnit.NANOSECONDS.sleep(sleepTime);
 				} catch (InterruptedException e) {
 					return 0;
 				}
+				this.profiler.end(Profiler.Phase.Sleep, sleepStart);
+			}
+
+			if (this.flightRecorder.isStarted()) {
+				long frameEndTime = System.nanoTime();
+				this.flightRecorder.endFrame(this.ticks,
+						frameEndTime - frameStartTime);
+				frameStartTime = frameEndTime;
 			}
 		}
 
 		return 0;
 	}
 
+	/**
+	 * Runs the screen without drawing or waiting, advancing the virtual clock
+	 * by exactly one tick before each update.
+	 * 
+	 * @return Next screen code.
+	 */
+	private int runHeadless() {
+		final long tickNanos = NANOS_PER_SECOND / this.tickRate;
+		VirtualClock clock = Core.getVirtualClock();
+
+		while (this.isRunning) {
+			clock.advance(tickNanos);
+			tick();
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Runs a single simulation tick.
+	 */
+	public final void tick() {
+		this.inputManager.beginTick(this.ticks);
+		this.timers.advance();
+		update();
+		this.ticks++;
+		afterTick();
+	}
+
+	/**
+	 * Draws a single frame, as run() does between ticks. Used to measure
+	 * drawing without a display.
+	 * 
+	 * @param alpha
+	 *            Time elapsed since the last tick, as a fraction of a tick.
+	 */
+	public final void drawFrame(final float alpha) {
+		render(alpha);
+	}
+
+	/**
+	 * Called at the end of every tick, once it is counted.
+	 */
+	protected void afterTick() {
+	}
+
+	/**
+	 * Draws the screen between simulation ticks. Screens that draw from
+	 * update() can leave it empty.
+	 * 
+	 * @param alpha
+	 *            Time elapsed since the last tick, as a fraction of a tick,
+	 *            used to interpolate positions.
+	 */
+	protected void render(final float alpha) {
+	}
+
 	/**
 	 * Updates the elements on screen and checks for events.
 	 */
 	protected void update() {
 	}
 
+	/**
+	 * Getter for the timeline of an animation period, shared by everything
+	 * on screen animated with that period.
+	 * 
+	 * @param milliseconds
+	 *            Time between animation frames.
+	 * @return Timeline of the period.
+	 */
+	public final TimerWheel.Timeline getTimeline(final int milliseconds) {
+		return this.timers.getTimeline(milliseconds);
+	}
+
+	/**
+	 * Creates a cooldown run on the ticks of the screen.
+	 * 
+	 * @param milliseconds
+	 *            Duration of the cooldown.
+	 * @return Countdown, finished until first reset.
+	 */
+	public final TimerWheel.Countdown getCountdown(final int milliseconds) {
+		return this.timers.createCountdown(milliseconds, 0, null);
+	}
+
+	/**
+	 * Creates a cooldown run on the ticks of the screen, its duration
+	 * varying by up to variance each run.
+	 * 
+	 * @param milliseconds
+	 *            Duration of the cooldown.
+	 * @param variance
+	 *            Variation in the cooldown duration.
+	 * @param stream
+	 *            Random stream the durations are drawn from.
+	 * @return Countdown, finished until first reset.
+	 */
+	public final TimerWheel.Countdown getCountdown(final int milliseconds,
+			final int variance, final GameRandom.Stream stream) {
+		return this.timers.createCountdown(milliseconds, variance,
+				Core.getRandom(stream));
+	}
+
 	/**
 	 * Getter for screen width.
 	 * 
@@ -122,4 +302,45 @@ public class Screen {
 	public final int getHeight() {
 		return this.height;
 	}
+
+	/**
+	 * Setter for the simulation tick rate. Timers already created keep
+	 * their durations in milliseconds, converted at the new rate.
+	 * 
+	 * @param tickRate
+	 *            Simulation ticks per second.
+	 */
+	public final void setTickRate(final int tickRate) {
+		this.tickRate = tickRate;
+		this.timers.setTickRate(tickRate);
+	}
+
+	/**
+	 * Setter for the maximum number of ticks run to catch up before a frame
+	 * is drawn.
+	 * 
+	 * @param maxCatchUpSteps
+	 *            Maximum consecutive ticks.
+	 */
+	public final void setMaxCatchUpSteps(final int maxCatchUpSteps) {
+		this.maxCatchUpSteps = maxCatchUpSteps;
+	}
+
+	/**
+	 * Getter for the simulation tick rate.
+	 * 
+	 * @return Simulation ticks per second.
+	 */
+	public final int getTickRate() {
+		return this.tickRate;
+	}
+
+	/**
+	 * Getter for the number of ticks run since the screen started.
+	 * 
+	 * @return Ticks run.
+	 */
+	public final long getTicks() {
+		return this.ticks;
+	}
 }
\ No newline at end of file
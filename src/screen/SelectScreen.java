@@ -2,7 +2,7 @@ package screen;
 
 import java.awt.event.KeyEvent;
 
-import engine.Cooldown;
+import engine.TimerWheel;
 import engine.Core;
 
 public class SelectScreen extends Screen {
@@ -11,7 +11,7 @@ public class SelectScreen extends Screen {
     private static final int SELECTION_TIME = 200;
 
     /** Time between changes in user selection. */
-    private Cooldown selectionCooldown;
+    private TimerWheel.Countdown selectionCooldown;
     private int difficulty;
 
     /**
@@ -29,7 +29,7 @@ public class SelectScreen extends Screen {
 
         // Defaults to EASY play.
         difficulty = diff;
-        this.selectionCooldown = Core.getCooldown(SELECTION_TIME);
+        this.selectionCooldown = getCountdown(SELECTION_TIME);
         this.selectionCooldown.reset();
     }
 
@@ -105,10 +105,10 @@ public class SelectScreen extends Screen {
      * Draws the elements associated with the screen.
      */
     private void draw() {
-        drawManager.initDrawing(this);
+        do {
+            drawManager.initDrawing(this);
 
-        drawManager.drawSelect(this, this.difficulty);
-
-        drawManager.completeDrawing(this);
+            drawManager.drawSelect(this, this.difficulty);
+        } while (!drawManager.completeDrawing(this));
     }
 }
\ No newline at end of file
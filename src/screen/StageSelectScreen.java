@@ -1,6 +1,6 @@
 package screen;
 
-import engine.Cooldown;
+import engine.TimerWheel;
 import engine.Core;
 
 import java.awt.event.KeyEvent;
@@ -11,7 +11,7 @@ public class StageSelectScreen extends Screen {
     private static final int SELECTION_TIME = 200;
 
     /** Time between changes in user selection. */
-    private Cooldown selectionCooldown;
+    private TimerWheel.Countdown selectionCooldown;
 
     /** Stage Selected */
     private int Stage;
@@ -34,7 +34,7 @@ public class StageSelectScreen extends Screen {
         // Defaults to Stage 1 (index = 0).
         Stage = stage-1;
         TotalStage = Totalstage;
-        this.selectionCooldown = Core.getCooldown(SELECTION_TIME);
+        this.selectionCooldown = getCountdown(SELECTION_TIME);
         this.selectionCooldown.reset();
     }
 
@@ -123,10 +123,10 @@ public class StageSelectScreen extends Screen {
      * Draws the elements associated with the screen.
      */
     private void draw() {
-        drawManager.initDrawing(this);
+        do {
+            drawManager.initDrawing(this);
 
-        drawManager.drawStageSelect(this, this.Stage, this.TotalStage);
-
-        drawManager.completeDrawing(this);
+            drawManager.drawStageSelect(this, this.Stage, this.TotalStage);
+        } while (!drawManager.completeDrawing(this));
     }
 }
@@ -1,7 +1,7 @@
 package screen;
 
 import java.awt.event.KeyEvent;
-import engine.Cooldown;
+import engine.TimerWheel;
 import engine.Core;
 
 public class StoreScreen extends Screen {
@@ -9,7 +9,7 @@ public class StoreScreen extends Screen {
     private static final int SELECTION_TIME = 200;
 
     /** Time between changes in user selection. */
-    private Cooldown selectionCooldown;
+    private TimerWheel.Countdown selectionCooldown;
 
     /**
      * Constructor, establishes the properties of the screen.
@@ -26,7 +26,7 @@ public class StoreScreen extends Screen {
 
         // Defaults to play.
         this.returnCode = 6;
-        this.selectionCooldown = Core.getCooldown(SELECTION_TIME);
+        this.selectionCooldown = getCountdown(SELECTION_TIME);
         this.selectionCooldown.reset();
     }
 
@@ -54,11 +54,11 @@ public class StoreScreen extends Screen {
      * Draws the elements associated with the screen.123
      */
     private void draw() {
-        drawManager.initDrawing(this);
+        do {
+            drawManager.initDrawing(this);
 
-        drawManager.drawTitle(this);
-        drawManager.drawItemStore(this, this.returnCode);
-
-        drawManager.completeDrawing(this);
+            drawManager.drawTitle(this);
+            drawManager.drawItemStore(this, this.returnCode);
+        } while (!drawManager.completeDrawing(this));
     }
 }
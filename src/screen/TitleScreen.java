@@ -2,7 +2,7 @@ package screen;
 
 import java.awt.event.KeyEvent;
 
-import engine.Cooldown;
+import engine.TimerWheel;
 import engine.Core;
 
 /**
@@ -17,7 +17,9 @@ public class TitleScreen extends Screen {
 	private static final int SELECTION_TIME = 200;
 
 	/** Time between changes in user selection. */
-	private Cooldown selectionCooldown;
+	private TimerWheel.Countdown selectionCooldown;
+	/** Checks if the loading box was drawn last frame. */
+	private boolean loading;
 
 	/**
 	 * Constructor, establishes the properties of the screen.
@@ -34,7 +36,7 @@ public class TitleScreen extends Screen {
 
 		// Defaults to play.
 		this.returnCode = 2;
-		this.selectionCooldown = Core.getCooldown(SELECTION_TIME);
+		this.selectionCooldown = getCountdown(SELECTION_TIME);
 		this.selectionCooldown.reset();
 	}
 
@@ -105,11 +107,21 @@ public class TitleScreen extends Screen {
 	 * Draws the elements associated with the screen.
 	 */
 	private void draw() {
-		drawManager.initDrawing(this);
-
-		drawManager.drawTitle(this);
-		drawManager.drawMenu(this, this.returnCode);
-
-		drawManager.completeDrawing(this);
+		do {
+			drawManager.initDrawing(this);
+
+			drawManager.drawTitle(this);
+			if (Core.getAssetLoader().isLoaded()) {
+				// The countdown of the first level starts its box empty.
+				if (this.loading)
+					drawManager.timercount = 0;
+				this.loading = false;
+				drawManager.drawMenu(this, this.returnCode);
+			} else {
+				this.loading = true;
+				drawManager.drawLoading(this.width / 6, this.height / 2,
+						this, Core.getAssetLoader().getProgress());
+			}
+		} while (!drawManager.completeDrawing(this));
 	}
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import engine.AssetArchive;
+import engine.AssetPacker;
+import engine.SpriteMask;
+
+public class assetArchiveTest {
+
+    // ------------------------------ SPRITE TEST  ------------------------------ //
+
+    @Test
+    public void sprite_test() throws IOException {
+        AssetArchive archive = new AssetArchive(ByteBuffer.wrap(
+                AssetPacker.pack()));
+
+        // Top row of the player ship, "0000011100000".
+        SpriteMask ship = archive.getSprite("Ship");
+        assertEquals(13, ship.getWidth());
+        assertEquals(8, ship.getHeight());
+        for (int i = 0; i < ship.getWidth(); i++)
+            assertEquals(i >= 5 && i <= 7, ship.isSet(i, 0));
+        assertEquals(0b11100000L, ship.getRow(0));
+        SpriteMask scaled = ship.scale(2);
+        assertEquals(26, scaled.getWidth());
+        assertEquals(0b111111L << 10, scaled.getRow(1));
+
+        SpriteMask line = archive.getSprite("BulletLine");
+        assertEquals(1, line.getWidth());
+        assertEquals(160, line.getHeight());
+        assertNull(archive.getSprite("Boss"));
+    }
+
+    // ------------------------------ FONT TEST  ------------------------------ //
+
+    @Test
+    public void font_test() throws IOException {
+        AssetArchive archive = new AssetArchive(ByteBuffer.wrap(
+                AssetPacker.pack()));
+        assertTrue(archive.contains(AssetArchive.EntryType.Font,
+                AssetPacker.FONT_RESOURCE));
+        byte[] font = archive.getBytes(AssetPacker.FONT_RESOURCE);
+        assertNotNull(font);
+        assertTrue(font.length > 1000);
+    }
+}
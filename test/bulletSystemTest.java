@@ -0,0 +1,270 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.event.KeyEvent;
+import java.util.logging.Level;
+
+import engine.AssetLoader;
+import engine.Core;
+import engine.DrawManager.SpriteType;
+import engine.GameSettings;
+import engine.GameState;
+import engine.InputManager;
+import engine.InputScript;
+import engine.Profiler;
+import engine.SpriteMask;
+import engine.VirtualClock;
+import entity.BulletSystem;
+import entity.EnemyShip;
+import entity.Ship;
+import screen.GameScreen;
+import screen.GameScreen_2P;
+import screen.Screen;
+
+public class bulletSystemTest {
+
+    // ------------------------------ BULLET SYSTEM TEST  ------------------------------ //
+
+    @Test
+    public void spawn_test() {
+        BulletSystem bullets = new BulletSystem(4);
+        bullets.spawn(100, 200, -6, BulletSystem.OWNER_PLAYER);
+        bullets.spawn(50, 60, 4, BulletSystem.OWNER_ENEMY);
+
+        assertEquals(2, bullets.size());
+        assertEquals(100 - BulletSystem.WIDTH / 2, bullets.getPositionX(0));
+        assertEquals(200, bullets.getPositionY(0));
+        assertEquals(SpriteType.Bullet, bullets.getSpriteType(0));
+        assertEquals(SpriteType.EnemyBullet, bullets.getSpriteType(1));
+        assertEquals(BulletSystem.OWNER_ENEMY, bullets.getOwner(1));
+    }
+
+    @Test
+    public void capacity_test() {
+        BulletSystem bullets = new BulletSystem(2);
+        bullets.spawn(0, 100, 4, BulletSystem.OWNER_ENEMY);
+        bullets.spawn(0, 100, 4, BulletSystem.OWNER_ENEMY);
+
+        assertFalse(bullets.spawn(0, 100, 4, BulletSystem.OWNER_ENEMY));
+        assertEquals(2, bullets.size());
+    }
+
+    @Test
+    public void full_capacity_shoot_test() {
+        Core.startHeadless();
+        Ship ship = new Ship(224, 400);
+        ship.attach(new Screen(448, 520, 60));
+        BulletSystem bullets = new BulletSystem(1);
+        bullets.spawn(0, 100, 4, BulletSystem.OWNER_ENEMY);
+
+        // No bullet shot, so the ship can shoot as soon as there is room.
+        assertFalse(ship.shoot(bullets));
+        bullets.clear();
+        assertTrue(ship.shoot(bullets));
+        assertFalse(ship.shoot(bullets));
+    }
+
+    @Test
+    public void swap_remove_test() {
+        BulletSystem bullets = new BulletSystem();
+        for (int i = 0; i < 5; i++)
+            bullets.spawn(10 * i, 100 + i, 4, BulletSystem.OWNER_ENEMY);
+        bullets.remove(1);
+
+        assertEquals(4, bullets.size());
+        assertEquals(104, bullets.getPositionY(1));
+        assertEquals(103, bullets.getPositionY(3));
+    }
+
+    @Test
+    public void update_and_cull_test() {
+        BulletSystem bullets = new BulletSystem();
+        bullets.spawn(0, 45, -6, BulletSystem.OWNER_PLAYER);
+        bullets.spawn(0, 100, -6, BulletSystem.OWNER_PLAYER);
+        bullets.spawn(0, 515, 6, BulletSystem.OWNER_ENEMY);
+        bullets.storePreviousPositions();
+        bullets.update(40, 520, (system, index) -> false);
+
+        assertEquals(1, bullets.size());
+        assertEquals(97, bullets.getInterpolatedPositionY(0, 0.5f));
+        assertEquals(94, bullets.getPositionY(0));
+    }
+
+    // ------------------------------ SWEPT COLLISION TEST  ------------------------------ //
+
+    @Test
+    public void swept_collision_test() {
+        Core.startHeadless();
+        Core.getAssetLoader().await(AssetLoader.Asset.Sprites);
+        // 26x16 ship, its center at (237, 108).
+        Ship ship = new Ship(224, 100);
+        BulletSystem bullets = new BulletSystem();
+        // Far below, moving 40 px up: it overlaps the ship on neither side
+        // of the move. The boxes meet after 11 px, the tip of the bullet
+        // reaches a wing after 15.
+        bullets.spawn(224, 126, -40, BulletSystem.OWNER_PLAYER);
+        assertEquals(15f / 40, bullets.sweepCollision(0, ship));
+        assertEquals(86, bullets.getSweptPositionY(0));
+        assertEquals(BulletSystem.HEIGHT + 40, bullets.getSweptHeight(0));
+        bullets.update(0, 520, (system, index) -> false);
+        assertEquals(86, bullets.getPositionY(0));
+        assertEquals(BulletSystem.NO_IMPACT, bullets.sweepCollision(0, ship));
+
+        // Overlapping already, moving away or stopping short of it.
+        bullets.clear();
+        bullets.spawn(224, 104, 4, BulletSystem.OWNER_ENEMY);
+        bullets.spawn(224, 126, 40, BulletSystem.OWNER_ENEMY);
+        bullets.spawn(224, 126, -5, BulletSystem.OWNER_PLAYER);
+        bullets.spawn(260, 126, -40, BulletSystem.OWNER_PLAYER);
+        assertEquals(0f, bullets.sweepCollision(0, ship));
+        for (int i = 1; i < 4; i++)
+            assertEquals(BulletSystem.NO_IMPACT, bullets.sweepCollision(i, ship));
+    }
+
+    @Test
+    public void pixel_collision_test() {
+        Core.startHeadless();
+        Core.getAssetLoader().await(AssetLoader.Asset.Sprites);
+        // Only the top three rows of the left edge are drawn, the legs are
+        // further in: the boxes overlap all along the move, the pixels never.
+        EnemyShip enemyShip = new EnemyShip(100, 100, SpriteType.EnemyShipA1,
+                Color.WHITE);
+        BulletSystem bullets = new BulletSystem();
+        bullets.spawn(102, 110, -6, BulletSystem.OWNER_PLAYER);
+        assertEquals(BulletSystem.NO_IMPACT,
+                bullets.sweepCollision(0, enemyShip));
+
+        // Further in, it reaches a leg after a pixel.
+        bullets.clear();
+        bullets.spawn(108, 116, -6, BulletSystem.OWNER_PLAYER);
+        assertEquals(1f / 6, bullets.sweepCollision(0, enemyShip));
+    }
+
+    @Test
+    public void find_overlap_test() {
+        Core.startHeadless();
+        Core.getAssetLoader().await(AssetLoader.Asset.Sprites);
+        // Same distance as moving a pixel at a time, for every bullet
+        // crossing every ship from any column and height.
+        SpriteType[] bulletTypes = { SpriteType.Bullet, SpriteType.EnemyBullet };
+        for (SpriteType targetType : SpriteType.values()) {
+            SpriteMask target = Core.getDrawManager().getHitMask(targetType);
+            if (target == null || targetType == SpriteType.BulletLine)
+                continue;
+            for (SpriteType bulletType : bulletTypes) {
+                SpriteMask bullet = Core.getDrawManager().getHitMask(bulletType);
+                for (int offsetX = -bullet.getWidth(); offsetX <= target.getWidth(); offsetX++)
+                    for (int offsetY = -50; offsetY <= 50; offsetY++)
+                        for (int direction = -1; direction <= 1; direction += 2) {
+                            int moved = 0;
+                            while (moved <= 40 && !target.overlaps(bullet, offsetX,
+                                    offsetY + moved * direction))
+                                moved++;
+                            assertEquals(moved > 40 ? -1 : moved, target.findOverlap(
+                                    bullet, offsetX, offsetY, direction, 0, 40),
+                                    targetType + " " + offsetX + "," + offsetY);
+                        }
+            }
+        }
+    }
+
+    // ------------------------------ ALLOCATION TEST  ------------------------------ //
+
+    @Test
+    public void steady_state_allocation_test() {
+        // Kills and hits are logged, through the application logger until
+        // the game logger is started.
+        Level level = Core.getLogger().getLevel();
+        Core.getLogger().setLevel(Level.WARNING);
+        Profiler profiler = Core.getProfiler();
+        assertTrue(profiler.setMeasuringAllocations(true));
+        profiler.setEnabled(true);
+        try {
+            // While the compiler optimizes the game code, and optimizes it
+            // again after dropping a version, the thread running the code
+            // allocates a few bytes now and then. That settles within a
+            // few levels: both screens are played more than that, then
+            // each is measured once.
+            for (int warmUp = 0; warmUp < WARM_UP_LEVELS; warmUp++)
+                for (int players = 1; players <= 2; players++)
+                    playLevel(players);
+            for (int players = 1; players <= 2; players++)
+                assertEquals(0L, playLevel(players), players + "P update");
+        } finally {
+            profiler.setMeasuringAllocations(false);
+            profiler.setEnabled(false);
+            Core.getInputManager().setScript(null);
+            Core.getLogger().setLevel(level);
+        }
+    }
+
+    // ------------------------------ HELPER METHODS ------------------------------ //
+
+    /** Levels played by each screen before the one measured. */
+    private static final int WARM_UP_LEVELS = 8;
+
+    /** Bot moving every ship side to side and shooting with all of them. */
+    private static final class Bot implements InputScript {
+        @Override
+        public void apply(final long tick, final InputManager inputManager) {
+            boolean right = (tick / 60) % 2 == 0;
+            inputManager.setKeyDown(KeyEvent.VK_RIGHT, right);
+            inputManager.setKeyDown(KeyEvent.VK_LEFT, !right);
+            inputManager.setKeyDown(KeyEvent.VK_D, right);
+            inputManager.setKeyDown(KeyEvent.VK_A, !right);
+            inputManager.setKeyDown(KeyEvent.VK_SPACE, true);
+            inputManager.setKeyDown(KeyEvent.VK_SHIFT, true);
+        }
+    }
+
+    /**
+     * Plays the first level through tick(), with ships and bullets hitting
+     * each other.
+     *
+     * @return Bytes allocated by the game's update once past the countdown.
+     */
+    private static long playLevel(final int players) {
+        Core.seedRandoms(7);
+        VirtualClock clock = Core.startHeadless();
+        Core.getAssetLoader().await(AssetLoader.Asset.Sprites);
+        Core.getInputManager().setScript(new Bot());
+        GameState gameState = new GameState(1, 0, 100, 0, 0, false);
+        GameSettings gameSettings = Core.getGameSettings(1).get(0);
+        GameScreen screen1P = null;
+        GameScreen_2P screen2P = null;
+        Screen screen;
+        if (players == 1)
+            screen = screen1P = new GameScreen(gameState, gameSettings, false, 448, 520, 60);
+        else
+            screen = screen2P = new GameScreen_2P(gameState, gameSettings, false, 448, 520, 60);
+        screen.initialize();
+
+        Profiler profiler = Core.getProfiler();
+        long allocated = 0;
+        for (int tick = 0; tick < 3000; tick++) {
+            clock.advance(1000000000L / 60);
+            profiler.clearFrame();
+            screen.tick();
+            // Ships shooting, enemies moving and bullets hitting.
+            if (tick >= 600)
+                allocated += profiler.getFrameAllocatedBytes(Profiler.Phase.Input)
+                        + profiler.getFrameAllocatedBytes(Profiler.Phase.Update)
+                        + profiler.getFrameAllocatedBytes(Profiler.Phase.Bullets);
+        }
+
+        GameState played;
+        if (screen1P != null) {
+            screen1P.releaseShips();
+            played = screen1P.getGameState();
+        } else {
+            screen2P.releaseShips();
+            played = screen2P.getGameState();
+        }
+        assertTrue(played.getShipsDestroyed() > 0);
+        assertTrue(played.getLivesRemaining() < 100);
+        return allocated;
+    }
+}
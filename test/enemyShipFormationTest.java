@@ -0,0 +1,110 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import engine.Core;
+import engine.GameSettings;
+import engine.VirtualClock;
+import entity.EnemyShip;
+import entity.EnemyShipFormation;
+import entity.SpatialHash;
+import screen.Screen;
+
+public class enemyShipFormationTest {
+
+    // ------------------------------ HELPER METHODS ------------------------------ //
+
+    private static boolean overlaps(final EnemyShip enemyShip, final int x, final int y,
+                                    final int width, final int height) {
+        return x < enemyShip.getPositionX() + enemyShip.getWidth()
+                && enemyShip.getPositionX() < x + width
+                && y < enemyShip.getPositionY() + enemyShip.getHeight()
+                && enemyShip.getPositionY() < y + height;
+    }
+
+    private static List<EnemyShip> aliveShips(final EnemyShipFormation formation) {
+        List<EnemyShip> alive = new ArrayList<EnemyShip>();
+        for (EnemyShip enemyShip : formation)
+            if (!enemyShip.isDestroyed())
+                alive.add(enemyShip);
+        return alive;
+    }
+
+
+
+    // ------------------------------ FORMATION GRID TEST  ------------------------------ //
+
+    @Test
+    public void grid_insert_test() {
+        VirtualClock clock = Core.startHeadless();
+        EnemyShipFormation formation = new EnemyShipFormation(
+                new GameSettings(8, 7, 2, 3300, 1), 1);
+        formation.attach(new Screen(448, 520, 60));
+        SpatialHash<EnemyShip> grid = new SpatialHash<EnemyShip>(448, 520, 40);
+        Random random = new Random(7);
+
+        for (int tick = 0; tick < 3000 && !formation.isEmpty(); tick++) {
+            clock.advance(16666667L);
+            formation.update();
+            if (random.nextInt(20) == 0) {
+                List<EnemyShip> alive = aliveShips(formation);
+                formation.destroy(alive.get(random.nextInt(alive.size())));
+            }
+            grid.clear();
+            formation.insertShips(grid);
+
+            for (int i = 0; i < 50; i++) {
+                int x = random.nextInt(500) - 30;
+                int y = random.nextInt(560) - 30;
+                Set<EnemyShip> bruteForce = new HashSet<EnemyShip>();
+                for (EnemyShip enemyShip : aliveShips(formation))
+                    if (overlaps(enemyShip, x, y, 6, 10))
+                        bruteForce.add(enemyShip);
+
+                List<EnemyShip> candidates = new ArrayList<EnemyShip>();
+                grid.query(x, y, 6, 10, candidates);
+                candidates.removeIf(enemyShip -> !overlaps(enemyShip, x, y, 6, 10));
+                assertEquals(bruteForce, new HashSet<EnemyShip>(candidates));
+                assertEquals(bruteForce.size(), candidates.size());
+            }
+        }
+        formation.release();
+        assertEquals(0, EnemyShip.getShipsInUse());
+    }
+
+    @Test
+    public void shooter_test() {
+        Core.startHeadless();
+        EnemyShipFormation formation = new EnemyShipFormation(
+                new GameSettings(5, 4, 60, 2000, 1), 1);
+        formation.attach(new Screen(448, 520, 60));
+
+        List<EnemyShip> column = new ArrayList<EnemyShip>();
+        for (EnemyShip enemyShip : formation)
+            if (enemyShip.getPositionX() == formation.getShooter(0).getPositionX())
+                column.add(enemyShip);
+        column.sort((a, b) -> a.getPositionY() - b.getPositionY());
+        assertEquals(4, column.size());
+        assertEquals(column.get(3), formation.getShooter(0));
+
+        formation.destroy(column.get(1));
+        assertEquals(column.get(3), formation.getShooter(0));
+        formation.destroy(column.get(3));
+        assertEquals(column.get(2), formation.getShooter(0));
+        formation.destroy(column.get(2));
+        formation.destroy(column.get(0));
+        assertEquals(null, formation.getShooter(0));
+
+        for (EnemyShip enemyShip : aliveShips(formation))
+            formation.destroy(enemyShip);
+        assertTrue(formation.isEmpty());
+        formation.release();
+        assertEquals(0, EnemyShip.getShipsInUse());
+    }
+}
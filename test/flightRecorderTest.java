@@ -0,0 +1,71 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import engine.Core;
+import engine.FlightRecorder;
+
+public class flightRecorderTest {
+
+    // ------------------------------ HELPER METHODS ------------------------------ //
+
+    private static String waitForReport(final File directory, final String prefix)
+            throws IOException, InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            File[] reports = directory.listFiles((dir, name) -> name.startsWith(prefix)
+                    && name.endsWith(".txt"));
+            if (reports != null && reports.length > 0)
+                return new String(Files.readAllBytes(reports[0].toPath()),
+                        StandardCharsets.UTF_8);
+            Thread.sleep(20);
+        }
+        return "";
+    }
+
+
+
+    // ------------------------------ HITCH TEST  ------------------------------ //
+
+    @Test
+    public void hitch_test() throws IOException, InterruptedException {
+        File directory = Files.createTempDirectory("hitches").toFile();
+        FlightRecorder recorder = Core.getFlightRecorder();
+        recorder.start(1, 60000, directory);
+        try {
+            recorder.endFrame(1, 500000L);
+            recorder.recordEvent(FlightRecorder.Event.PlayerHit, 2);
+            recorder.endFrame(2, 5000000L);
+
+            String report = waitForReport(directory, "hitch_");
+            assertTrue(report.startsWith("HITCH, budget 1 ms"));
+            assertTrue(report.contains("PlayerHit"));
+            assertTrue(!report.contains("Threads"));
+        } finally {
+            recorder.stop();
+        }
+    }
+
+    // ------------------------------ STALL TEST  ------------------------------ //
+
+    @Test
+    public void stall_test() throws IOException, InterruptedException {
+        File directory = Files.createTempDirectory("hitches").toFile();
+        FlightRecorder recorder = Core.getFlightRecorder();
+        recorder.start(1000, 100, directory);
+        try {
+            recorder.endFrame(1, 500000L);
+
+            String report = waitForReport(directory, "stall_");
+            assertTrue(report.startsWith("STALL of "));
+            assertTrue(report.contains("\nThreads\n"));
+            assertTrue(report.contains("\"" + Thread.currentThread().getName() + "\""));
+            assertTrue(report.contains("\tat "));
+        } finally {
+            recorder.stop();
+        }
+    }
+}
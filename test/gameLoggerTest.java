@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+
+import engine.Core;
+import engine.GameLogger;
+
+public class gameLoggerTest {
+
+    // ------------------------------ FORMAT TEST  ------------------------------ //
+
+    @Test
+    public void format_test() throws IOException {
+        File directory = Files.createTempDirectory("log").toFile();
+        File file = new File(directory, "log");
+        Core.getLogger().setLevel(Level.INFO);
+        GameLogger logger = Core.getGameLogger();
+        logger.start(file);
+        Handler handler = logger.createHandler();
+        Core.getLogger().addHandler(handler);
+        logger.info("Destroyed ship in ({},{})", 3, 7);
+        logger.fine("Not logged at this level");
+        logger.warning("Sound {} could not be loaded", "Shoot");
+        Core.getLogger().info("Through the application logger");
+        logger.close();
+        Core.getLogger().removeHandler(handler);
+
+        List<String> lines = Files.readAllLines(file.toPath(),
+                StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("[INFO|"));
+        assertTrue(lines.get(0).endsWith("]: Destroyed ship in (3,7) "));
+        assertTrue(lines.get(1).endsWith("]: Sound Shoot could not be loaded "));
+        assertTrue(lines.get(2).endsWith("]: Through the application logger "));
+    }
+
+    // ------------------------------ ROTATION TEST  ------------------------------ //
+
+    @Test
+    public void rotation_test() throws IOException {
+        File directory = Files.createTempDirectory("log").toFile();
+        File file = new File(directory, "log");
+        Core.getLogger().setLevel(Level.INFO);
+        GameLogger logger = Core.getGameLogger();
+        logger.setFlushPolicy(64, 1000, Level.WARNING);
+        logger.setRotation(256, 2);
+        logger.start(file);
+        for (int i = 0; i < 200; i++)
+            logger.info("Formation now moving left {}", i);
+        logger.close();
+        logger.setFlushPolicy(8192, 1000, Level.WARNING);
+        logger.setRotation(1 << 20, 5);
+
+        String[] archives = directory.list((dir, name) -> name.endsWith(".gz"));
+        assertTrue(archives.length >= 1 && archives.length <= 2);
+    }
+}
@@ -0,0 +1,81 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.List;
+
+import engine.HighScoreStore;
+import engine.Score;
+
+public class highScoreStoreTest {
+
+    // ------------------------------ PERSISTENCE TEST  ------------------------------ //
+
+    @Test
+    public void persistence_test() throws IOException {
+        File directory = Files.createTempDirectory("scores").toFile();
+        HighScoreStore store = new HighScoreStore(directory);
+        store.submit(2, new Score("ZZZ", 99999));
+        store.close();
+
+        HighScoreStore reopened = new HighScoreStore(directory);
+        List<Score> hard = reopened.getHighScores(2);
+        assertEquals("ZZZ", hard.get(0).getName());
+        assertEquals(99999, hard.get(0).getScore());
+        assertFalse(reopened.getHighScores(1).get(0).getName().equals("ZZZ"));
+        assertTrue(reopened.isHighScore(2, 100000));
+        assertEquals(reopened.getHighScores(1).size() + 1, hard.size());
+        reopened.close();
+    }
+
+    // ------------------------------ TORN JOURNAL TEST  ------------------------------ //
+
+    @Test
+    public void torn_journal_test() throws IOException {
+        File directory = Files.createTempDirectory("scores").toFile();
+        HighScoreStore store = new HighScoreStore(directory);
+        store.submit(0, new Score("AAA", 88888));
+        store.submit(0, new Score("BBB", 99999));
+        store.close();
+
+        // Cuts the last record in half, as a crash while writing it would.
+        File journal = new File(directory, "scores.journal");
+        try (RandomAccessFile file = new RandomAccessFile(journal, "rw")) {
+            file.setLength(file.length() - 5);
+        }
+
+        HighScoreStore reopened = new HighScoreStore(directory);
+        List<Score> easy = reopened.getHighScores(0);
+        assertEquals("AAA", easy.get(0).getName());
+        assertFalse(easy.get(1).getName().equals("BBB"));
+        reopened.submit(0, new Score("CCC", 77777));
+        reopened.close();
+
+        HighScoreStore again = new HighScoreStore(directory);
+        assertEquals("CCC", again.getHighScores(0).get(1).getName());
+        again.close();
+    }
+
+    // ------------------------------ COMPACTION TEST  ------------------------------ //
+
+    @Test
+    public void compaction_test() throws IOException {
+        File directory = Files.createTempDirectory("scores").toFile();
+        HighScoreStore store = new HighScoreStore(directory);
+        for (int i = 0; i < 40; i++)
+            store.submit(3, new Score("P" + i, 100000 + i));
+        store.close();
+
+        File journal = new File(directory, "scores.journal");
+        assertTrue(journal.length() < 40 * 20);
+        List<Score> hardcore = new HighScoreStore(directory).getHighScores(3);
+        assertEquals(HighScoreStore.MAX_SCORES, hardcore.size());
+        for (int i = 0; i < HighScoreStore.MAX_SCORES; i++)
+            assertEquals(100039 - i, hardcore.get(i).getScore());
+    }
+}
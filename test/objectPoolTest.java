@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import engine.AssetLoader;
+import engine.Core;
+import engine.GameState;
+import engine.ObjectPool;
+import engine.VirtualClock;
+import entity.EnemyShip;
+import screen.GameScreen;
+
+public class objectPoolTest {
+
+    // ------------------------------ POOL TEST  ------------------------------ //
+
+    @Test
+    public void pool_test() {
+        int[] resets = new int[1];
+        ObjectPool<int[]> pool = new ObjectPool<int[]>("Test", 2,
+                () -> new int[1], array -> resets[0]++);
+        pool.prewarm(5);
+        assertEquals(2, pool.getFreeCount());
+
+        int[] first = pool.acquire();
+        int[] second = pool.acquire();
+        int[] third = pool.acquire();
+        assertEquals(2, pool.getHits());
+        assertEquals(1, pool.getMisses());
+        assertEquals(3, pool.getHighWater());
+
+        pool.release(first);
+        pool.release(second);
+        // Beyond the capacity, dropped.
+        pool.release(third);
+        assertEquals(3, resets[0]);
+        assertEquals(0, pool.getInUse());
+        assertEquals(2, pool.getFreeCount());
+        assertSame(second, pool.acquire());
+        assertEquals(3, pool.getHighWater());
+    }
+
+    // ------------------------------ ENEMY SHIP POOL TEST  ------------------------------ //
+
+    @Test
+    public void game_screen_release_test() {
+        Core.seedRandoms(3);
+        VirtualClock clock = Core.startHeadless();
+        Core.getAssetLoader().await(AssetLoader.Asset.Sprites);
+        GameScreen screen = new GameScreen(new GameState(1, 0, 3, 0, 0, false),
+                Core.getGameSettings(1).get(0), false, 448, 520, 60);
+        screen.initialize();
+        assertTrue(EnemyShip.getShipsInUse() > 0);
+
+        for (int tick = 0; tick < 1200; tick++) {
+            clock.advance(1000000000L / 60);
+            screen.tick();
+        }
+        screen.releaseShips();
+        assertEquals(0, EnemyShip.getShipsInUse());
+    }
+}
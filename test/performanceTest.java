@@ -0,0 +1,227 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.event.KeyEvent;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Level;
+
+import com.sun.management.ThreadMXBean;
+
+import engine.Core;
+import engine.GameSettings;
+import engine.GameState;
+import engine.InputManager;
+import engine.InputScript;
+import engine.VirtualClock;
+import screen.GameScreen;
+import screen.GameScreen_2P;
+import screen.Screen;
+
+public class performanceTest {
+
+    /** Budgets checked in, per tick after the warm-up, on the test classpath. */
+    private static final String BUDGETS = "performanceBudgets.properties";
+    /** Machine-readable report of the last run. */
+    private static final File REPORT = new File("build/reports/performance/performance.json");
+
+    /** Ticks measured per session, ten seconds of play. */
+    private static final int TICKS = 600;
+    /** Ticks played before measuring, while the level counts down. */
+    private static final int WARMUP_TICKS = 120;
+    /** Length of a tick, at 60 ticks per second. */
+    private static final long TICK_NANOS = 1000000000L / 60;
+    /** Difficulties, easy to hardcore. */
+    private static final int DIFFICULTIES = 4;
+    /** Levels, the last one being the boss. */
+    private static final int LEVELS = 8;
+
+    /** Both players moving back and forth and shooting in bursts. */
+    private static final class Bot implements InputScript {
+        @Override
+        public void apply(final long tick, final InputManager inputManager) {
+            boolean right = (tick / 60) % 2 == 0;
+            boolean shoot = (tick / 20) % 3 != 0;
+            inputManager.setKeyDown(KeyEvent.VK_RIGHT, right);
+            inputManager.setKeyDown(KeyEvent.VK_LEFT, !right);
+            inputManager.setKeyDown(KeyEvent.VK_SPACE, shoot);
+            inputManager.setKeyDown(KeyEvent.VK_D, !right);
+            inputManager.setKeyDown(KeyEvent.VK_A, right);
+            inputManager.setKeyDown(KeyEvent.VK_SHIFT, shoot);
+        }
+    }
+
+    /** Measures of a session. */
+    private static final class Session {
+        String name;
+        int players;
+        int difficulty;
+        int level;
+        long[] updateNanos = new long[TICKS];
+        long[] renderNanos = new long[TICKS];
+        long allocatedBytes;
+    }
+
+    // ------------------------------ HELPER METHODS ------------------------------ //
+
+    private static Session play(final int players, final int difficulty, final int level) {
+        Core.seedRandoms(level * 31 + difficulty);
+        VirtualClock clock = Core.startHeadless();
+        GameSettings gameSettings = level == LEVELS ? Core.getBossSettings(difficulty)
+                : Core.getGameSettings(difficulty).get(level - 1);
+        GameState gameState = new GameState(level, 0, 3, 0, 0, difficulty == 3);
+        Screen screen = players == 1
+                ? new GameScreen(gameState, gameSettings, false, 448, 520, 60)
+                : new GameScreen_2P(gameState, gameSettings, false, 448, 520, 60);
+        screen.initialize();
+
+        Session session = new Session();
+        session.name = players + "p-d" + difficulty + "-l" + level;
+        session.players = players;
+        session.difficulty = difficulty;
+        session.level = level;
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int tick = -WARMUP_TICKS; tick < TICKS; tick++) {
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            clock.advance(TICK_NANOS);
+            screen.tick();
+            long updated = System.nanoTime();
+            screen.drawFrame(0f);
+            long rendered = System.nanoTime();
+            allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+            if (tick >= 0) {
+                session.updateNanos[tick] = updated - start;
+                session.renderNanos[tick] = rendered - updated;
+                session.allocatedBytes += allocated;
+            }
+        }
+        if (screen instanceof GameScreen)
+            ((GameScreen) screen).releaseShips();
+        else
+            ((GameScreen_2P) screen).releaseShips();
+        return session;
+    }
+
+    private static long percentile(final long[] samples, final double percentile) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, rank)];
+    }
+
+    /** Budget of a session, its own if set, else the default one. */
+    private static long budget(final Properties budgets, final Session session,
+                               final String key) {
+        String value = budgets.getProperty(session.name + "." + key,
+                budgets.getProperty(key));
+        return Long.parseLong(value.trim());
+    }
+
+    /** Commit measured, read from the repository without running git. */
+    private static String commit() {
+        try (BufferedReader head = new BufferedReader(new FileReader(".git/HEAD"))) {
+            String line = head.readLine();
+            if (line == null || !line.startsWith("ref: "))
+                return line;
+            File ref = new File(".git", line.substring(5));
+            if (!ref.exists())
+                return "unknown";
+            try (BufferedReader reader = new BufferedReader(new FileReader(ref))) {
+                return reader.readLine();
+            }
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+
+    private static void writeReport(final List<Session> sessions, final Properties budgets,
+                                    final List<String> failures) throws IOException {
+        REPORT.getParentFile().mkdirs();
+        try (PrintWriter report = new PrintWriter(REPORT, StandardCharsets.UTF_8.name())) {
+            report.printf("{%n  \"commit\": \"%s\",%n  \"timestamp\": \"%s\",%n"
+                    + "  \"java\": \"%s\",%n  \"ticks\": %d,%n  \"warmupTicks\": %d,%n"
+                    + "  \"failures\": %d,%n  \"sessions\": [%n", commit(),
+                    Instant.now(), System.getProperty("java.version"), TICKS,
+                    WARMUP_TICKS, failures.size());
+            for (int i = 0; i < sessions.size(); i++) {
+                Session session = sessions.get(i);
+                report.printf("    {\"name\": \"%s\", \"players\": %d, \"difficulty\": %d,"
+                        + " \"level\": %d, \"updateP50Micros\": %d, \"updateP99Micros\": %d,"
+                        + " \"updateMaxMicros\": %d, \"renderP50Micros\": %d,"
+                        + " \"renderP99Micros\": %d, \"renderMaxMicros\": %d,"
+                        + " \"allocatedBytesPerTick\": %d,"
+                        + " \"updateP99BudgetMicros\": %d, \"renderP99BudgetMicros\": %d,"
+                        + " \"allocatedBytesPerTickBudget\": %d}%s%n",
+                        session.name, session.players, session.difficulty, session.level,
+                        percentile(session.updateNanos, 0.5) / 1000,
+                        percentile(session.updateNanos, 0.99) / 1000,
+                        percentile(session.updateNanos, 1) / 1000,
+                        percentile(session.renderNanos, 0.5) / 1000,
+                        percentile(session.renderNanos, 0.99) / 1000,
+                        percentile(session.renderNanos, 1) / 1000,
+                        session.allocatedBytes / TICKS,
+                        budget(budgets, session, "update.p99.micros"),
+                        budget(budgets, session, "render.p99.micros"),
+                        budget(budgets, session, "allocated.bytes.per.tick"),
+                        i + 1 < sessions.size() ? "," : "");
+            }
+            report.printf("  ]%n}%n");
+        }
+    }
+
+    // ------------------------------ BUDGET TEST  ------------------------------ //
+
+    @Test
+    public void budget_test() throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream input = performanceTest.class.getClassLoader()
+                .getResourceAsStream(BUDGETS)) {
+            if (input == null)
+                throw new IOException(BUDGETS + " not found on the classpath.");
+            budgets.load(input);
+        }
+        Core.getLogger().setLevel(Level.WARNING);
+        Core.getInputManager().setScript(new Bot());
+
+        List<Session> sessions = new ArrayList<Session>();
+        try {
+            // Compiles both screens before anything is measured.
+            play(1, 1, 1);
+            play(2, 1, 1);
+            for (int players = 1; players <= 2; players++)
+                for (int difficulty = 0; difficulty < DIFFICULTIES; difficulty++)
+                    for (int level = 1; level <= LEVELS; level++)
+                        sessions.add(play(players, difficulty, level));
+        } finally {
+            Core.getInputManager().setScript(null);
+        }
+
+        List<String> failures = new ArrayList<String>();
+        for (Session session : sessions) {
+            long updateP99 = percentile(session.updateNanos, 0.99) / 1000;
+            long renderP99 = percentile(session.renderNanos, 0.99) / 1000;
+            long allocated = session.allocatedBytes / TICKS;
+            if (updateP99 > budget(budgets, session, "update.p99.micros"))
+                failures.add(session.name + " update p99 " + updateP99 + " us");
+            if (renderP99 > budget(budgets, session, "render.p99.micros"))
+                failures.add(session.name + " render p99 " + renderP99 + " us");
+            if (allocated > budget(budgets, session, "allocated.bytes.per.tick"))
+                failures.add(session.name + " allocated " + allocated + " bytes per tick");
+        }
+        writeReport(sessions, budgets, failures);
+        assertTrue(failures.isEmpty(), "Over budget: " + failures);
+    }
+}
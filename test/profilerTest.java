@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import engine.Core;
+import engine.Profiler;
+
+public class profilerTest {
+
+    /** Allocated bytes of the current thread, as HotSpot counts them. */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    // ------------------------------ PERCENTILE TEST  ------------------------------ //
+
+    @Test
+    public void percentile_test() {
+        Profiler profiler = Core.getProfiler();
+        profiler.setEnabled(false);
+        profiler.setEnabled(true);
+        // Only the last 256 samples are kept.
+        for (int i = 0; i < 100; i++)
+            profiler.record(Profiler.Phase.Draw, 1000000);
+        for (int i = 1; i <= 256; i++)
+            profiler.record(Profiler.Phase.Draw, i);
+
+        assertEquals(128, profiler.getPercentile(Profiler.Phase.Draw, 0.5));
+        assertEquals(254, profiler.getPercentile(Profiler.Phase.Draw, 0.99));
+        assertEquals(256, profiler.getMax(Profiler.Phase.Draw));
+        profiler.setEnabled(false);
+    }
+
+    // ------------------------------ ALLOCATION TEST  ------------------------------ //
+
+    @Test
+    public void allocation_test() {
+        Profiler profiler = Core.getProfiler();
+        for (boolean enabled : new boolean[] { false, true }) {
+            profiler.setEnabled(enabled);
+            for (int warmup = 0; warmup < 2; warmup++) {
+                long before = allocatedBytes();
+                for (int i = 0; i < 10000; i++) {
+                    long start = profiler.start();
+                    start = profiler.end(Profiler.Phase.Input, start);
+                    profiler.end(Profiler.Phase.Update, start);
+                    profiler.setEntityCounts(i, i, i);
+                }
+                // Reading the counter allocates a little, never per sample.
+                if (warmup == 1)
+                    assertTrue(allocatedBytes() - before < 10000);
+            }
+        }
+        profiler.setEnabled(false);
+    }
+}
@@ -0,0 +1,107 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.event.KeyEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.logging.Level;
+
+import engine.Core;
+import engine.GameRandom;
+import engine.GameState;
+import engine.InputManager;
+import engine.InputScript;
+import engine.Replay;
+import engine.ReplayPlayer;
+import screen.GameScreen;
+
+public class replayTest {
+
+    /** Ticks played before the bot quits, a bit over a minute. */
+    private static final long QUIT_TICK = 4000;
+    /** Lives of the bot, more than it can lose by QUIT_TICK, hits a second apart. */
+    private static final int LIVES = 100;
+
+    /** Bot changing direction every second, shooting in bursts. */
+    private static final class Bot implements InputScript {
+        @Override
+        public void apply(final long tick, final InputManager inputManager) {
+            boolean right = (tick / 60) % 2 == 0;
+            inputManager.setKeyDown(KeyEvent.VK_RIGHT, right);
+            inputManager.setKeyDown(KeyEvent.VK_LEFT, !right);
+            inputManager.setKeyDown(KeyEvent.VK_SPACE, (tick / 20) % 3 != 0);
+            inputManager.setKeyDown(KeyEvent.VK_ESCAPE, tick >= QUIT_TICK);
+            inputManager.setKeyDown(KeyEvent.VK_BACK_SPACE, tick >= QUIT_TICK);
+        }
+    }
+
+    /** Records a level played by the bot and reads it back. */
+    private static Replay record() throws IOException {
+        Core.getLogger().setLevel(Level.WARNING);
+        Core.startHeadless();
+        Core.seedRandoms(1234);
+        GameState gameState = new GameState(1, 0, LIVES, 0, 0, false);
+        Replay replay = new Replay(gameState, 1, false, 448, 520);
+        GameScreen screen = new GameScreen(gameState,
+                Core.getGameSettings(1).get(0), false, 448, 520, 60);
+        screen.setReplay(replay);
+        Core.getInputManager().setScript(new Bot());
+        screen.initialize();
+        screen.run();
+        Core.getInputManager().setScript(null);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        replay.write(new DataOutputStream(bytes));
+        return Replay.read(new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    // ------------------------------ RANDOM TEST  ------------------------------ //
+
+    @Test
+    public void random_state_test() {
+        GameRandom random = new GameRandom(99);
+        random.nextInt(10);
+        long state = random.getState();
+        int first = random.nextInt(1000);
+        double second = random.nextDouble();
+
+        random.setState(state);
+        assertEquals(first, random.nextInt(1000));
+        assertEquals(second, random.nextDouble());
+    }
+
+    // ------------------------------ REPLAY TEST  ------------------------------ //
+
+    @Test
+    public void replay_test() throws IOException {
+        Replay replay = record();
+        assertTrue(replay.getTicks() > QUIT_TICK);
+        // Changes every 20 ticks, 3 bytes each.
+        assertTrue(replay.getInputLog().size() < 1024);
+
+        ReplayPlayer player = new ReplayPlayer(replay);
+        assertTrue(player.playToEnd());
+        player.close();
+    }
+
+    @Test
+    public void seek_test() throws IOException {
+        Replay replay = record();
+        ReplayPlayer player = new ReplayPlayer(replay);
+        long tick = 3 * 600 + 123;
+        for (int i = 0; i < tick; i++)
+            player.step();
+        long simulated = Replay.checksum(player.getScreen());
+
+        player.seek(100);
+        player.seek(tick);
+        assertEquals(simulated, Replay.checksum(player.getScreen()));
+        assertTrue(player.playToEnd());
+        player.close();
+    }
+}
@@ -0,0 +1,122 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import engine.HighScoreStore;
+import engine.Score;
+import engine.ScoreArchive;
+import engine.ScorePager;
+
+public class scoreArchiveTest {
+
+    // ------------------------------ MERGE TEST  ------------------------------ //
+
+    @Test
+    public void merge_test() throws IOException {
+        File file = new File(Files.createTempDirectory("scores").toFile(),
+                "scores.archive");
+        Random random = new Random(42);
+        List<Score> all = new ArrayList<Score>();
+        for (int batch = 0; batch < 3; batch++) {
+            List<Score> scores = new ArrayList<Score>();
+            for (int i = 0; i < 20000; i++)
+                scores.add(new Score("P" + batch, random.nextInt(100000)));
+            Collections.sort(scores);
+            ScoreArchive.merge(file, scores, batch);
+            all.addAll(scores);
+        }
+        Collections.sort(all);
+
+        ScoreArchive archive = ScoreArchive.open(file);
+        assertEquals(all.size(), archive.size());
+        assertEquals(2, archive.getSequence());
+        List<Score> page = archive.getPage(1000, 20);
+        assertEquals(20, page.size());
+        for (int i = 0; i < page.size(); i++)
+            assertEquals(all.get(1000 + i).getScore(), page.get(i).getScore());
+        assertEquals(5, archive.getPage(all.size() - 5, 20).size());
+
+        for (int score : new int[] { -1, 0, 500, 50000, 99999, 100000 }) {
+            int rank = 0;
+            while (rank < all.size() && all.get(rank).getScore() > score)
+                rank++;
+            assertEquals(rank, archive.rankOf(score));
+        }
+        archive.close();
+
+        // The archive can be replaced while open, it keeps the old scores.
+        ScoreArchive old = ScoreArchive.open(file);
+        ScoreArchive.merge(file, Collections.singletonList(new Score("P3", 5)), 3);
+        assertEquals(all.size(), old.size());
+        assertEquals(all.get(0).getScore(), old.getPage(0, 1).get(0).getScore());
+        old.close();
+        assertEquals(all.size() + 1, ScoreArchive.open(file).size());
+    }
+
+    // ------------------------------ STORE ARCHIVE TEST  ------------------------------ //
+
+    @Test
+    public void store_archive_test() throws IOException {
+        File directory = Files.createTempDirectory("scores").toFile();
+        HighScoreStore store = new HighScoreStore(directory);
+        ScoreArchive initial = store.openArchive(2);
+        int defaults = initial.size();
+        initial.close();
+        for (int i = 0; i < 40; i++)
+            store.submit(2, new Score("P" + i, i));
+        store.close();
+
+        // Scores after the last compaction are archived by the next one.
+        HighScoreStore reopened = new HighScoreStore(directory);
+        ScoreArchive archive = reopened.openArchive(2);
+        assertEquals(defaults + 32, archive.size());
+        assertEquals(defaults + 31, archive.rankOf(0));
+        archive.close();
+        reopened.close();
+    }
+
+    // ------------------------------ PAGER TEST  ------------------------------ //
+
+    @Test
+    public void pager_test() throws IOException, InterruptedException {
+        File directory = Files.createTempDirectory("scores").toFile();
+        HighScoreStore store = new HighScoreStore(directory);
+        ScoreArchive initial = store.openArchive(2);
+        int defaults = initial.size();
+        initial.close();
+        for (int i = 0; i < 40; i++)
+            store.submit(2, new Score("P" + i, (i * 37) % 50));
+        store.close();
+
+        // 32 scores are archived, the last 8 are only in the journal.
+        ScorePager pager = store.openPager(2, HighScoreStore.MAX_SCORES);
+        assertEquals(defaults + 40, pager.getScoreCount());
+        List<Score> scores = new ArrayList<Score>();
+        for (int page = 0; page < pager.getPageCount(); page++) {
+            List<Score> scoresPage = pager.getPage(page);
+            for (int i = 0; scoresPage == null && i < 100; i++) {
+                Thread.sleep(10);
+                scoresPage = pager.getPage(page);
+            }
+            scores.addAll(scoresPage);
+        }
+        pager.close();
+
+        assertEquals(defaults + 40, scores.size());
+        for (int i = 1; i < scores.size(); i++)
+            assertTrue(scores.get(i - 1).getScore() >= scores.get(i).getScore());
+        List<Score> table = store.getHighScores(2);
+        for (int i = 0; i < table.size(); i++) {
+            assertEquals(table.get(i).getName(), scores.get(i).getName());
+            assertEquals(table.get(i).getScore(), scores.get(i).getScore());
+        }
+    }
+}
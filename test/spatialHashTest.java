@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import engine.DrawManager.SpriteType;
+import entity.BulletSystem;
+import entity.EnemyShip;
+import entity.Entity;
+import entity.SpatialHash;
+
+public class spatialHashTest {
+
+    // ------------------------------ HELPER METHODS ------------------------------ //
+
+    private Set<EnemyShip> bruteForce(final BulletSystem bullets, final List<EnemyShip> enemyShips) {
+        Set<EnemyShip> hits = new HashSet<EnemyShip>();
+        for (EnemyShip enemyShip : enemyShips)
+            if (bullets.sweepCollision(0, enemyShip) != BulletSystem.NO_IMPACT)
+                hits.add(enemyShip);
+        return hits;
+    }
+
+    private Set<EnemyShip> broadPhase(final BulletSystem bullets, final SpatialHash<EnemyShip> grid) {
+        List<EnemyShip> candidates = new ArrayList<EnemyShip>();
+        grid.query(bullets.getPositionX(0), bullets.getSweptPositionY(0),
+                BulletSystem.WIDTH, bullets.getSweptHeight(0), candidates);
+        assertEquals(new HashSet<EnemyShip>(candidates).size(), candidates.size());
+
+        Set<EnemyShip> hits = new HashSet<EnemyShip>();
+        for (EnemyShip enemyShip : candidates)
+            if (bullets.sweepCollision(0, enemyShip) != BulletSystem.NO_IMPACT)
+                hits.add(enemyShip);
+        return hits;
+    }
+
+    private BulletSystem bullet(final int positionX, final int positionY) {
+        BulletSystem bullets = new BulletSystem(1);
+        bullets.spawn(positionX, positionY, -6, BulletSystem.OWNER_PLAYER);
+        return bullets;
+    }
+
+
+
+    // ------------------------------ SPATIAL HASH TEST  ------------------------------ //
+
+    @Test
+    public void formation_grid_test() {
+        List<EnemyShip> enemyShips = new ArrayList<EnemyShip>();
+        SpatialHash<EnemyShip> grid = new SpatialHash<EnemyShip>(448, 520, 40);
+        for (int i = 0; i < 8; i++)
+            for (int j = 0; j < 7; j++) {
+                EnemyShip enemyShip = new EnemyShip(20 + 40 * i, 100 + 40 * j,
+                        SpriteType.EnemyShipA1, Color.WHITE);
+                enemyShips.add(enemyShip);
+                grid.insert(enemyShip);
+            }
+
+        for (int x = -10; x < 460; x += 3)
+            for (int y = 90; y < 400; y += 5) {
+                BulletSystem bullet = bullet(x, y);
+                assertEquals(bruteForce(bullet, enemyShips), broadPhase(bullet, grid));
+            }
+    }
+
+    @Test
+    public void random_grid_test() {
+        Random random = new Random(42);
+        SpatialHash<EnemyShip> grid = new SpatialHash<EnemyShip>(448, 520, 40);
+
+        for (int round = 0; round < 20; round++) {
+            List<EnemyShip> enemyShips = new ArrayList<EnemyShip>();
+            grid.clear();
+            for (int i = 0; i < 300; i++) {
+                EnemyShip enemyShip = i % 10 == 0 ? new EnemyShip(Color.RED)
+                        : new EnemyShip(random.nextInt(520) - 40, random.nextInt(600) - 40,
+                        SpriteType.EnemyShipB1, Color.CYAN);
+                if (i % 10 == 0)
+                    enemyShip.setPositionX(random.nextInt(520) - 40);
+                enemyShips.add(enemyShip);
+                grid.insert(enemyShip);
+            }
+
+            for (int i = 0; i < 2000; i++) {
+                BulletSystem bullet = bullet(random.nextInt(520) - 40, random.nextInt(600) - 40);
+                assertEquals(bruteForce(bullet, enemyShips), broadPhase(bullet, grid));
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import engine.TimerWheel;
+
+public class timerWheelTest {
+
+    // ------------------------------ SCHEDULE TEST  ------------------------------ //
+
+    @Test
+    public void schedule_test() {
+        TimerWheel wheel = new TimerWheel(60);
+        List<Long> fired = new ArrayList<Long>();
+        long[] delays = { 1, 255, 256, 257, 1000, 16384, 70000 };
+        for (long delay : delays)
+            wheel.schedule(delay, () -> fired.add(wheel.getTick()));
+        TimerWheel.Timer cancelled = wheel.schedule(500,
+                () -> fired.add(-1L));
+        wheel.cancel(cancelled);
+        assertFalse(cancelled.isPending());
+
+        for (int i = 0; i < 80000; i++)
+            wheel.advance();
+        assertEquals(delays.length, fired.size());
+        for (int i = 0; i < delays.length; i++)
+            assertEquals(delays[i], (long) fired.get(i));
+    }
+
+    // ------------------------------ CANCEL TEST  ------------------------------ //
+
+    @Test
+    public void cancel_in_callback_test() {
+        // Two timers of the same tick, whichever fires first cancels the other.
+        TimerWheel wheel = new TimerWheel(60);
+        List<Integer> fired = new ArrayList<Integer>();
+        TimerWheel.Timer[] timers = new TimerWheel.Timer[2];
+        for (int i = 0; i < timers.length; i++) {
+            int index = i;
+            timers[i] = wheel.schedule(10, () -> {
+                fired.add(index);
+                wheel.cancel(timers[1 - index]);
+            });
+        }
+
+        for (int i = 0; i < 20; i++)
+            wheel.advance();
+        assertEquals(1, fired.size());
+        assertFalse(timers[0].isPending());
+        assertFalse(timers[1].isPending());
+    }
+
+    // ------------------------------ TIMELINE TEST  ------------------------------ //
+
+    @Test
+    public void timeline_test() {
+        // Half a second, 30 ticks.
+        TimerWheel wheel = new TimerWheel(60);
+        TimerWheel.Timeline timeline = wheel.getTimeline(500);
+        assertSame(timeline, wheel.getTimeline(500));
+
+        for (int i = 0; i < 95; i++)
+            wheel.advance();
+        assertEquals(3, timeline.getPhase());
+
+        // Restoring a keyframe gives the phase of its tick.
+        wheel.setTick(1000);
+        assertEquals(33, timeline.getPhase());
+        for (int i = 0; i < 20; i++)
+            wheel.advance();
+        assertEquals(34, timeline.getPhase());
+    }
+
+    // ------------------------------ TICK RATE TEST  ------------------------------ //
+
+    @Test
+    public void tick_rate_test() {
+        TimerWheel wheel = new TimerWheel(60);
+        TimerWheel.Countdown countdown = wheel.createCountdown(1000, 0, null);
+        TimerWheel.Timeline timeline = wheel.getTimeline(500);
+        wheel.setTickRate(120);
+
+        // Still a second, now 120 ticks.
+        countdown.reset();
+        for (int i = 0; i < 119; i++)
+            wheel.advance();
+        assertFalse(countdown.checkFinished());
+        wheel.advance();
+        assertTrue(countdown.checkFinished());
+        assertEquals(2, timeline.getPhase());
+    }
+}